@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mvp4g.benchmark.client.DispatchEventBus;
+import com.mvp4g.benchmark.client.DispatchModule;
+import com.mvp4g.benchmark.client.FilteredEventBus;
+import com.mvp4g.benchmark.client.FilteredModule;
+import com.mvp4g.benchmark.client.MultipleHandler;
+import com.mvp4g.benchmark.harness.GeneratedModules;
+
+/**
+ * Measures the number of events per second fired through the event bus generated by
+ * Mvp4gGenerator.<br>
+ * <br>
+ * Run with <code>-prof gc</code> to get the allocations per event
+ * (<code>gc.alloc.rate.norm</code>). The escape analysis of the JVM removes some allocations that
+ * the JavaScript produced by GWT still does, add <code>-jvmArgs -XX:-DoEscapeAnalysis</code> to
+ * see them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5,
+        time = 1)
+@Measurement(iterations = 5,
+             time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventBusDispatchBenchmark {
+
+  private DispatchEventBus dispatchEventBus;
+
+  private FilteredEventBus filteredEventBus;
+
+  private Integer boxedValue = 1;
+
+  private int value = 1;
+
+  @Setup
+  public void setUp() {
+    dispatchEventBus = (DispatchEventBus) GeneratedModules.createAndStart(DispatchModule.class)
+                                                          .getEventBus();
+    filteredEventBus = (FilteredEventBus) GeneratedModules.createAndStart(FilteredModule.class)
+                                                          .getEventBus();
+  }
+
+  @Benchmark
+  public void singleHandler() {
+    dispatchEventBus.single(value);
+  }
+
+  @Benchmark
+  public void multipleHandlers(MultipleHandlers state) {
+    state.eventBus.multiple(value);
+  }
+
+  @Benchmark
+  public void filteredEvent() {
+    filteredEventBus.filtered(value);
+  }
+
+  @Benchmark
+  public void navigationEvent() {
+    dispatchEventBus.navigation(value);
+  }
+
+  @Benchmark
+  public void lookupDispatch() {
+    dispatchEventBus.dispatch("single",
+                              boxedValue);
+  }
+
+  @State(Scope.Thread)
+  public static class MultipleHandlers {
+
+    @Param({ "1", "10" })
+    private int handlerCount;
+
+    private DispatchEventBus eventBus;
+
+    @Setup
+    public void setUp() {
+      eventBus = (DispatchEventBus) GeneratedModules.createAndStart(DispatchModule.class)
+                                                    .getEventBus();
+      for (int i = 0; i < handlerCount; i++) {
+        eventBus.addHandler(MultipleHandler.class);
+      }
+    }
+
+  }
+
+}
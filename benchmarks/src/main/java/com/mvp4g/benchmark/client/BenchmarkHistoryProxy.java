@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.benchmark.client;
+
+import com.google.gwt.event.logical.shared.ValueChangeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.mvp4g.client.history.HistoryProxy;
+
+/**
+ * History proxy that does not touch the browser history, so that the generated modules can be
+ * started on the JVM.
+ */
+public class BenchmarkHistoryProxy
+  implements HistoryProxy {
+
+  private String token = "";
+
+  public HandlerRegistration addValueChangeHandler(ValueChangeHandler<String> handler) {
+    return new HandlerRegistration() {
+
+      public void removeHandler() {
+        // nothing to do
+      }
+
+    };
+  }
+
+  public void back() {
+    // nothing to do
+  }
+
+  public void fireCurrentHistoryState() {
+    // nothing to do
+  }
+
+  public void forward() {
+    // nothing to do
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public void newItem(String historyToken) {
+    token = historyToken;
+  }
+
+  public void newItem(String historyToken,
+                      boolean issueEvent) {
+    token = historyToken;
+  }
+
+}
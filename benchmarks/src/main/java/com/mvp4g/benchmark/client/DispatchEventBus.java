@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.benchmark.client;
+
+import com.mvp4g.client.annotation.Event;
+import com.mvp4g.client.annotation.Events;
+import com.mvp4g.client.annotation.InitHistory;
+import com.mvp4g.client.annotation.PlaceService;
+import com.mvp4g.client.event.EventBusWithLookup;
+
+/**
+ * Event bus without filters, used to measure the dispatch of single handlers, multiple handlers,
+ * navigation events and look up.
+ */
+@PlaceService(com.mvp4g.client.history.PlaceService.class)
+@Events(startPresenter = BenchmarkPresenter.class,
+        module = DispatchModule.class,
+        historyProxy = BenchmarkHistoryProxy.class)
+public interface DispatchEventBus
+  extends EventBusWithLookup {
+
+  @InitHistory
+  @Event
+  void init();
+
+  @Event(handlers = SingleHandler.class)
+  void single(int value);
+
+  @Event(handlers = MultipleHandler.class)
+  void multiple(int value);
+
+  @Event(handlers = SingleHandler.class,
+         navigationEvent = true)
+  void navigation(int value);
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.benchmark.client;
+
+import com.mvp4g.client.annotation.Event;
+import com.mvp4g.client.annotation.Events;
+import com.mvp4g.client.annotation.InitHistory;
+import com.mvp4g.client.annotation.Filters;
+import com.mvp4g.client.annotation.PlaceService;
+import com.mvp4g.client.event.EventBusWithLookup;
+
+/**
+ * Event bus with one filter, used to measure the cost of filtering an event.
+ */
+@PlaceService(com.mvp4g.client.history.PlaceService.class)
+@Events(startPresenter = BenchmarkPresenter.class,
+        module = FilteredModule.class,
+        historyProxy = BenchmarkHistoryProxy.class)
+@Filters(filterClasses = PassThroughFilter.class)
+public interface FilteredEventBus
+  extends EventBusWithLookup {
+
+  @InitHistory
+  @Event
+  void init();
+
+  @Event(handlers = SingleHandler.class)
+  void filtered(int value);
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.benchmark.client;
+
+import com.mvp4g.client.annotation.EventHandler;
+import com.mvp4g.client.event.BaseEventHandler;
+import com.mvp4g.client.event.EventBusWithLookup;
+
+/**
+ * Handler with a single instance. Every event adds its value to a counter so that the JIT can't
+ * remove the dispatch.
+ */
+@EventHandler
+public class SingleHandler
+  extends BaseEventHandler<EventBusWithLookup> {
+
+  private long sum;
+
+  public void onSingle(int value) {
+    sum += value;
+  }
+
+  public void onNavigation(int value) {
+    sum += value;
+  }
+
+  public void onFiltered(int value) {
+    sum += value;
+  }
+
+  public long getSum() {
+    return sum;
+  }
+
+}
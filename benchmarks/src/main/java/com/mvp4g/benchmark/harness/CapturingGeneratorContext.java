@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.benchmark.harness;
+
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gwt.core.ext.CachedGeneratorResult;
+import com.google.gwt.core.ext.GeneratorContext;
+import com.google.gwt.core.ext.PropertyOracle;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.linker.Artifact;
+import com.google.gwt.core.ext.linker.GeneratedResource;
+import com.google.gwt.core.ext.typeinfo.TypeOracle;
+import com.google.gwt.dev.resource.ResourceOracle;
+
+/**
+ * Generator context that keeps the sources written by a generator in memory instead of handing
+ * them to the GWT compiler.
+ */
+public class CapturingGeneratorContext
+  implements GeneratorContext {
+
+  private final TypeOracle typeOracle;
+
+  private final PropertyOracle propertyOracle;
+
+  private final Map<String, StringWriter> sources = new LinkedHashMap<String, StringWriter>();
+
+  public CapturingGeneratorContext(TypeOracle typeOracle,
+                                   PropertyOracle propertyOracle) {
+    this.typeOracle = typeOracle;
+    this.propertyOracle = propertyOracle;
+  }
+
+  /**
+   * @return the generated sources, indexed by qualified class name
+   */
+  public Map<String, String> getSources() {
+    Map<String, String> result = new LinkedHashMap<String, String>();
+    for (Map.Entry<String, StringWriter> source : sources.entrySet()) {
+      result.put(source.getKey(),
+                 source.getValue()
+                       .toString());
+    }
+    return result;
+  }
+
+  public boolean checkRebindRuleAvailable(String sourceTypeName) {
+    return false;
+  }
+
+  public void commit(TreeLogger logger,
+                     PrintWriter pw) {
+    pw.flush();
+  }
+
+  public void commitArtifact(TreeLogger logger,
+                             Artifact<?> artifact) {
+    // nothing to do
+  }
+
+  public GeneratedResource commitResource(TreeLogger logger,
+                                          OutputStream os) {
+    return null;
+  }
+
+  public CachedGeneratorResult getCachedGeneratorResult() {
+    return null;
+  }
+
+  public PropertyOracle getPropertyOracle() {
+    return propertyOracle;
+  }
+
+  public ResourceOracle getResourcesOracle() {
+    return null;
+  }
+
+  public TypeOracle getTypeOracle() {
+    return typeOracle;
+  }
+
+  public boolean isGeneratorResultCachingEnabled() {
+    return false;
+  }
+
+  public boolean isProdMode() {
+    return true;
+  }
+
+  public PrintWriter tryCreate(TreeLogger logger,
+                               String packageName,
+                               String simpleName) {
+    String className = packageName.length() == 0 ?
+                       simpleName :
+                       packageName + "." + simpleName;
+    if (sources.containsKey(className)) {
+      return null;
+    }
+    StringWriter source = new StringWriter();
+    sources.put(className,
+                source);
+    return new PrintWriter(source);
+  }
+
+  public OutputStream tryCreateResource(TreeLogger logger,
+                                        String partialPath) {
+    return null;
+  }
+
+  public boolean tryReuseTypeFromCache(String typeName) {
+    return false;
+  }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.benchmark.harness;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.core.ext.typeinfo.TypeOracle;
+import com.google.gwt.core.ext.RebindResult;
+import com.google.gwt.core.shared.GWT;
+import com.google.gwt.dev.CompilerContext;
+import com.google.gwt.dev.cfg.ModuleDef;
+import com.google.gwt.dev.cfg.ModuleDefLoader;
+import com.google.gwt.dev.javac.CompilationState;
+import com.google.gwt.dev.util.log.PrintWriterTreeLogger;
+import com.mvp4g.client.Mvp4gModule;
+import com.mvp4g.rebind.Mvp4gGenerator;
+
+/**
+ * Runs <code>Mvp4gGenerator</code> on the JVM and instantiates the generated modules.<br>
+ * <br>
+ * The type oracle is built by GWT from the sources of the benchmark GWT module (the same way the
+ * GWT compiler does it), the generated sources are then compiled with <code>javax.tools</code>.
+ * Building the type oracle takes a few seconds so it is only done once per JVM.
+ */
+public final class GeneratedModules {
+
+  private static final String GWT_MODULE = "com.mvp4g.benchmark.Mvp4gBenchmark";
+
+  private static TypeOracle typeOracle;
+
+  private static final Map<Class<?>, Class<?>> generatedClasses = new HashMap<Class<?>, Class<?>>();
+
+  private GeneratedModules() {
+  }
+
+  /**
+   * Generate, compile and start the given module.
+   *
+   * @param moduleClass module interface annotated by the event bus
+   * @param <M>         type of the module
+   * @return started instance of the generated module
+   */
+  public static synchronized <M extends Mvp4gModule> M createAndStart(Class<M> moduleClass) {
+    try {
+      Class<?> generatedClass = generatedClasses.get(moduleClass);
+      if (generatedClass == null) {
+        generatedClass = generate(moduleClass);
+        generatedClasses.put(moduleClass,
+                             generatedClass);
+      }
+      GWT.setBridge(new JvmGwtBridge(generatedClass.getClassLoader()));
+      M module = moduleClass.cast(generatedClass.newInstance());
+      module.createAndStartModule();
+      return module;
+    } catch (Exception e) {
+      throw new IllegalStateException("Unable to create module " + moduleClass.getName(),
+                                      e);
+    }
+  }
+
+  private static Class<?> generate(Class<?> moduleClass)
+    throws UnableToCompleteException, ClassNotFoundException {
+    CapturingGeneratorContext context = new CapturingGeneratorContext(getTypeOracle(),
+                                                                      null);
+    RebindResult result = new Mvp4gGenerator().generateIncrementally(createLogger(),
+                                                                      context,
+                                                                      moduleClass.getName());
+    ClassLoader classLoader = new InMemoryCompiler().compile(context.getSources(),
+                                                             moduleClass.getClassLoader());
+    return classLoader.loadClass(result.getResultTypeName());
+  }
+
+  private static TypeOracle getTypeOracle()
+    throws UnableToCompleteException {
+    if (typeOracle == null) {
+      TreeLogger logger = createLogger();
+      CompilerContext.Builder builder = new CompilerContext.Builder();
+      ModuleDef module = ModuleDefLoader.loadFromClassPath(logger,
+                                                           GWT_MODULE);
+      CompilerContext compilerContext = builder.module(module)
+                                               .build();
+      CompilationState state = module.getCompilationState(logger,
+                                                          compilerContext);
+      typeOracle = state.getTypeOracle();
+    }
+    return typeOracle;
+  }
+
+  private static TreeLogger createLogger() {
+    PrintWriterTreeLogger logger = new PrintWriterTreeLogger();
+    logger.setMaxDetail(TreeLogger.WARN);
+    return logger;
+  }
+
+}
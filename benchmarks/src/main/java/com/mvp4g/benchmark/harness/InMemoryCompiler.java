@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.benchmark.harness;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles generated sources with <code>javax.tools</code> against the current class path and
+ * loads them in a child class loader.
+ */
+public class InMemoryCompiler {
+
+  /**
+   * Compile the given sources.
+   *
+   * @param sources sources to compile, indexed by qualified class name
+   * @param parent  class loader used to resolve the other classes
+   * @return class loader containing the compiled classes
+   */
+  public ClassLoader compile(Map<String, String> sources,
+                             ClassLoader parent) {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IllegalStateException("No java compiler available, the benchmarks must run on a JDK.");
+    }
+
+    List<JavaFileObject> units = new ArrayList<JavaFileObject>();
+    for (Map.Entry<String, String> source : sources.entrySet()) {
+      units.add(new SourceFile(source.getKey(),
+                               source.getValue()));
+    }
+
+    final Map<String, ByteArrayOutputStream> classes = new HashMap<String, ByteArrayOutputStream>();
+    StandardJavaFileManager standardManager = compiler.getStandardFileManager(null,
+                                                                              null,
+                                                                              null);
+    JavaFileManager fileManager = new ForwardingJavaFileManager<JavaFileManager>(standardManager) {
+
+      @Override
+      public JavaFileObject getJavaFileForOutput(Location location,
+                                                 final String className,
+                                                 JavaFileObject.Kind kind,
+                                                 FileObject sibling) {
+        return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.',
+                                                                                   '/') + kind.extension),
+                                        kind) {
+
+          @Override
+          public OutputStream openOutputStream() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            classes.put(className,
+                        bytes);
+            return bytes;
+          }
+
+        };
+      }
+
+    };
+
+    StringWriter errors = new StringWriter();
+    List<String> options = Arrays.asList("-classpath",
+                                         System.getProperty("java.class.path"),
+                                         "-nowarn");
+    boolean success = compiler.getTask(errors,
+                                       fileManager,
+                                       null,
+                                       options,
+                                       null,
+                                       units)
+                              .call();
+    if (!success) {
+      throw new IllegalStateException("Unable to compile generated sources:\n" + errors + "\n" + sources);
+    }
+
+    final Map<String, byte[]> bytecode = new HashMap<String, byte[]>();
+    for (Map.Entry<String, ByteArrayOutputStream> c : classes.entrySet()) {
+      bytecode.put(c.getKey(),
+                   c.getValue()
+                    .toByteArray());
+    }
+    return new ClassLoader(parent) {
+
+      @Override
+      protected Class<?> findClass(String name)
+        throws ClassNotFoundException {
+        byte[] b = bytecode.get(name);
+        if (b == null) {
+          throw new ClassNotFoundException(name);
+        }
+        return defineClass(name,
+                           b,
+                           0,
+                           b.length);
+      }
+
+    };
+  }
+
+  private static class SourceFile
+    extends SimpleJavaFileObject {
+
+    private final String source;
+
+    SourceFile(String className,
+               String source) {
+      super(URI.create("string:///" + className.replace('.',
+                                                        '/') + Kind.SOURCE.extension),
+            Kind.SOURCE);
+      this.source = source;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return source;
+    }
+
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.benchmark.harness;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import com.google.gwt.core.shared.GWTBridge;
+import com.google.gwt.inject.client.Ginjector;
+
+/**
+ * <code>GWT.create</code> implementation for the JVM.<br>
+ * <br>
+ * Ginjectors are implemented with a dynamic proxy that instantiates the return type of each
+ * getter with its no-arg constructor, every other class is directly instantiated. This is enough
+ * for the benchmark modules that don't rely on GIN bindings.
+ */
+public class JvmGwtBridge
+  extends GWTBridge {
+
+  private final ClassLoader classLoader;
+
+  public JvmGwtBridge(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T create(Class<?> classLiteral) {
+    if (classLiteral.isInterface() && Ginjector.class.isAssignableFrom(classLiteral)) {
+      return (T) Proxy.newProxyInstance(classLoader,
+                                        new Class<?>[] { classLiteral },
+                                        new InvocationHandler() {
+
+                                          public Object invoke(Object proxy,
+                                                               Method method,
+                                                               Object[] args) {
+                                            return instantiate(method.getReturnType());
+                                          }
+
+                                        });
+    }
+    return (T) instantiate(classLiteral);
+  }
+
+  @Override
+  public String getVersion() {
+    return "jvm";
+  }
+
+  @Override
+  public boolean isClient() {
+    return false;
+  }
+
+  @Override
+  public void log(String message,
+                  Throwable e) {
+    System.out.println(message);
+    if (e != null) {
+      e.printStackTrace(System.out);
+    }
+  }
+
+  private Object instantiate(Class<?> c) {
+    try {
+      return c.newInstance();
+    } catch (Exception e) {
+      throw new IllegalStateException("Unable to instantiate " + c.getName(),
+                                      e);
+    }
+  }
+
+}
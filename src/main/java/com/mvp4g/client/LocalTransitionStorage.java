@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gwt.storage.client.Storage;
+
+/**
+ * Storage of the module transitions based on the local storage of the browser. If the browser
+ * doesn't support local storage, the transitions are only kept for the session.
+ */
+public class LocalTransitionStorage
+  implements ModuleTransitions.Storage {
+
+  private Storage             localStorage = Storage.getLocalStorageIfSupported();
+  private Map<String, String> values       = new HashMap<String, String>();
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see com.mvp4g.client.ModuleTransitions.Storage#load(java.lang.String)
+   */
+  public String load(String key) {
+    return (localStorage == null) ?
+           values.get(key) :
+           localStorage.getItem(key);
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see com.mvp4g.client.ModuleTransitions.Storage#save(java.lang.String, java.lang.String)
+   */
+  public void save(String key,
+                   String value) {
+    if (localStorage == null) {
+      values.put(key,
+                 value);
+    } else {
+      localStorage.setItem(key,
+                           value);
+    }
+  }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gwt.user.client.Command;
+import com.mvp4g.client.event.DefaultEventScheduler;
+import com.mvp4g.client.event.EventScheduler;
+
+/**
+ * Eviction of the child modules loaded by a parent module, configured thanks to the
+ * <code>maxLoaded</code> and <code>idleTimeout</code> attributes of <code>ChildModules</code>.<br>
+ * <br>
+ * Each time an event is forwarded to a child module, the module becomes the most recently used
+ * one. When more than <code>maxLoaded</code> child modules are loaded, the least recently used ones
+ * are evicted. A child module that hasn't received any event for <code>idleTimeout</code>
+ * milliseconds is evicted as well, except the most recently used one since its view is likely to
+ * be displayed.<br>
+ * <br>
+ * Modules are only evicted by a tick of the event scheduler, once the browser gets the control
+ * back, so that a module is never unloaded while one of its events is being handled (for example
+ * when the event that makes another module the most recently used one is fired by the module to
+ * evict).<br>
+ * <br>
+ * An evicted module is removed from the modules of its parent and unloaded if it implements
+ * <code>Mvp4gUnloadableModule</code>. The next event forwarded to it creates and starts a new
+ * instance of the module.
+ */
+public class ModuleEvictor {
+
+  private Map<String, Mvp4gModule> modules;
+  private int                      maxLoaded;
+  private int                      idleTimeout;
+  private Map<String, Double>      lastUses  = new LinkedHashMap<String, Double>();
+  private boolean                  scheduled = false;
+  private boolean                  overflow  = false;
+  private EventScheduler           scheduler;
+
+  private Command tick = new Command() {
+
+    public void execute() {
+      scheduled = false;
+      evictIdle();
+    }
+
+  };
+
+  private Command evictOverflow = new Command() {
+
+    public void execute() {
+      overflow = false;
+      evictLeastRecentlyUsed();
+    }
+
+  };
+
+  /**
+   * @param modules
+   *   child modules loaded by the parent module, indexed by class name
+   * @param maxLoaded
+   *   maximum number of child modules kept loaded, 0 for no limit
+   * @param idleTimeout
+   *   time in milliseconds after which a child module that hasn't received any event is evicted,
+   *   0 to never evict idle modules
+   */
+  public ModuleEvictor(Map<String, Mvp4gModule> modules,
+                       int maxLoaded,
+                       int idleTimeout) {
+    this.modules = modules;
+    this.maxLoaded = maxLoaded;
+    this.idleTimeout = idleTimeout;
+  }
+
+  /**
+   * Indicate that an event has been forwarded to a loaded child module. If too many modules are
+   * loaded, the least recently used ones are evicted during the next tick.
+   *
+   * @param moduleClassName
+   *   class name of the child module
+   */
+  public void onUse(String moduleClassName) {
+    // removed first so that the module moves to the end of the access order
+    lastUses.remove(moduleClassName);
+    lastUses.put(moduleClassName,
+                 getEventScheduler().now());
+    if ((maxLoaded > 0) && (lastUses.size() > maxLoaded) && !overflow) {
+      overflow = true;
+      getEventScheduler().schedule(0,
+                                   evictOverflow);
+    }
+    if ((idleTimeout > 0) && (lastUses.size() > 1)) {
+      // the least recently used module is the first one to become idle
+      double oldest = lastUses.values()
+                              .iterator()
+                              .next();
+      schedule((int) Math.max(0,
+                              Math.ceil(oldest + idleTimeout - getEventScheduler().now())));
+    }
+  }
+
+  /**
+   * Evict a child module.
+   *
+   * @param moduleClassName
+   *   class name of the child module
+   */
+  public void evict(String moduleClassName) {
+    lastUses.remove(moduleClassName);
+    unload(moduleClassName);
+  }
+
+  /**
+   * Forget the child modules used, without unloading them. Called when the parent module is
+   * unloaded.
+   */
+  public void clear() {
+    lastUses.clear();
+  }
+
+  /**
+   * @return number of child modules tracked
+   */
+  public int size() {
+    return lastUses.size();
+  }
+
+  /**
+   * @return scheduler used to wait for modules to be idle
+   */
+  public EventScheduler getEventScheduler() {
+    if (scheduler == null) {
+      scheduler = new DefaultEventScheduler();
+    }
+    return scheduler;
+  }
+
+  /**
+   * @param scheduler
+   *   scheduler used to wait for modules to be idle, for example to control the time in a test
+   */
+  public void setEventScheduler(EventScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  private void evictLeastRecentlyUsed() {
+    Iterator<String> it = lastUses.keySet()
+                                  .iterator();
+    while (lastUses.size() > maxLoaded) {
+      String evicted = it.next();
+      it.remove();
+      unload(evicted);
+    }
+  }
+
+  private void evictIdle() {
+    double                              now          = getEventScheduler().now();
+    double                              nextDeadline = Double.POSITIVE_INFINITY;
+    int                                 remaining    = lastUses.size();
+    Iterator<Map.Entry<String, Double>> it           = lastUses.entrySet()
+                                                               .iterator();
+    Map.Entry<String, Double>           entry;
+    double                              deadline;
+    // the most recently used module is the last one and is never evicted because of idleness
+    while (remaining > 1) {
+      entry = it.next();
+      remaining--;
+      deadline = entry.getValue() + idleTimeout;
+      if (deadline <= now) {
+        it.remove();
+        unload(entry.getKey());
+      } else {
+        nextDeadline = Math.min(nextDeadline,
+                                deadline);
+      }
+    }
+    if (nextDeadline != Double.POSITIVE_INFINITY) {
+      schedule((int) Math.ceil(nextDeadline - now));
+    }
+  }
+
+  private void unload(String moduleClassName) {
+    Mvp4gModule module = modules.remove(moduleClassName);
+    if (module instanceof Mvp4gUnloadableModule) {
+      ((Mvp4gUnloadableModule) module).unloadModule();
+    }
+  }
+
+  private void schedule(int delayMillis) {
+    if (!scheduled) {
+      scheduled = true;
+      getEventScheduler().schedule(delayMillis,
+                                   tick);
+    }
+  }
+
+}
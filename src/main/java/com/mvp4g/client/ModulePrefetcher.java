@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import com.google.gwt.user.client.Command;
+import com.mvp4g.client.annotation.module.ChildModule.Prefetch;
+import com.mvp4g.client.event.DefaultEventScheduler;
+import com.mvp4g.client.event.EventScheduler;
+
+/**
+ * Queue of the code fragments of child modules to download before the modules are needed, filled
+ * thanks to the prefetch attribute of <code>ChildModule</code>. Fragments are downloaded one at a
+ * time: the next one is only asked once the previous one is loaded.<br>
+ * <br>
+ * Fragments prefetched after start are downloaded as soon as the parent module has started.
+ * Fragments prefetched on idle wait until the other ones are loaded and the application hasn't
+ * navigated for {@link #IDLE_DELAY} milliseconds. Each navigation (a child module being loaded for
+ * the first time) postpones the fragments not asked yet so that they don't compete with the fragment the user is
+ * waiting for.<br>
+ * <br>
+ * If module transitions are set, each module loaded is recorded as a transition from the module
+ * loaded before it and the policy predicts the module likely to be loaded next. The fragment of
+ * this module is downloaded before the others once the navigation is over:<br>
+ * <br>
+ * <code>ModulePrefetcher.INSTANCE.setTransitions(new ModuleTransitions(new
+ * LocalTransitionStorage()));</code><br>
+ * <br>
+ * All modules share the same prefetcher.
+ */
+public class ModulePrefetcher {
+
+  /**
+   * Code fragment of a child module.
+   */
+  public interface Fragment {
+
+    /**
+     * @return true if the fragment has already been downloaded
+     */
+    boolean isLoaded();
+
+    /**
+     * Ask for the fragment to be downloaded, without executing its code.
+     */
+    void fetch();
+
+  }
+
+  /**
+   * Policy choosing the module to prefetch thanks to the transitions recorded.
+   */
+  public interface Policy {
+
+    /**
+     * @param transitions
+     *   transitions recorded
+     * @param from
+     *   class name of the module loaded last, {@link ModuleTransitions#START} if none
+     *
+     * @return class name of the module to prefetch, null if none
+     */
+    String predict(ModuleTransitions transitions,
+                   String from);
+
+  }
+
+  public static final int POLL_DELAY = 100;
+
+  public static final int IDLE_DELAY = 2000;
+
+  public static final ModulePrefetcher INSTANCE = new ModulePrefetcher();
+
+  private Map<String, Fragment> fragments      = new HashMap<String, Fragment>();
+  private LinkedList<Fragment>  afterStart     = new LinkedList<Fragment>();
+  private LinkedList<Fragment>  onIdle         = new LinkedList<Fragment>();
+  private Fragment              current        = null;
+  private boolean               scheduled      = false;
+  private double                lastNavigation = Double.NEGATIVE_INFINITY;
+  private String                lastModule     = ModuleTransitions.START;
+  private String                predicted      = null;
+  private ModuleTransitions     transitions    = null;
+  private Policy                policy         = new MostLikelyPrefetchPolicy();
+  private EventScheduler        scheduler;
+
+  private Command tick = new Command() {
+
+    public void execute() {
+      scheduled = false;
+      next();
+    }
+
+  };
+
+  /**
+   * Add the fragment of a child module. Nothing is downloaded before {@link #start()} is called.
+   *
+   * @param moduleClassName
+   *   class name of the child module
+   * @param fragment
+   *   fragment of the child module
+   * @param prefetch
+   *   when the fragment is downloaded, fragments with <code>NONE</code> are only downloaded if
+   *   they're predicted
+   */
+  public void add(String moduleClassName,
+                  Fragment fragment,
+                  Prefetch prefetch) {
+    fragments.put(moduleClassName,
+                  fragment);
+    if (moduleClassName.equals(predicted)) {
+      schedule(POLL_DELAY);
+    }
+    switch (prefetch) {
+      case AFTER_START:
+        afterStart.add(fragment);
+        break;
+      case ON_IDLE:
+        onIdle.add(fragment);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Start downloading the fragments added, once the browser event currently handled is over.
+   */
+  public void start() {
+    predict();
+    schedule(0);
+  }
+
+  /**
+   * Indicate that the application is navigating to a module that hasn't been loaded yet: the
+   * fragments not asked yet are postponed and the transition is recorded.
+   *
+   * @param moduleClassName
+   *   class name of the module loaded
+   */
+  public void onNavigation(String moduleClassName) {
+    lastNavigation = getEventScheduler().now();
+    if (transitions != null) {
+      transitions.record(lastModule,
+                         moduleClassName);
+    }
+    lastModule = moduleClassName;
+    predict();
+  }
+
+  /**
+   * Forget all the fragments not asked yet.
+   */
+  public void cancel() {
+    afterStart.clear();
+    onIdle.clear();
+    predicted = null;
+  }
+
+  /**
+   * @return class name of the module predicted to be loaded next, null if none
+   */
+  public String getPredicted() {
+    return predicted;
+  }
+
+  /**
+   * @return transitions recorded, null if the module likely to be loaded next isn't predicted
+   */
+  public ModuleTransitions getTransitions() {
+    return transitions;
+  }
+
+  /**
+   * @param transitions
+   *   transitions to record and to predict the next module from, null to stop predicting
+   */
+  public void setTransitions(ModuleTransitions transitions) {
+    this.transitions = transitions;
+  }
+
+  /**
+   * @param policy
+   *   policy choosing the module to prefetch, {@link MostLikelyPrefetchPolicy} by default
+   */
+  public void setPolicy(Policy policy) {
+    this.policy = policy;
+  }
+
+  /**
+   * @return number of fragments waiting to be downloaded, including the one being downloaded
+   */
+  public int size() {
+    return afterStart.size() + onIdle.size() + ((current == null) ?
+                                                0 :
+                                                1);
+  }
+
+  /**
+   * @return scheduler used to wait between two fragments
+   */
+  public EventScheduler getEventScheduler() {
+    if (scheduler == null) {
+      scheduler = new DefaultEventScheduler();
+    }
+    return scheduler;
+  }
+
+  /**
+   * @param scheduler
+   *   scheduler used to wait between two fragments, for example to control the time in a test
+   */
+  public void setEventScheduler(EventScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  private void next() {
+    if (current != null) {
+      if (!current.isLoaded()) {
+        schedule(POLL_DELAY);
+        return;
+      }
+      current = null;
+    }
+    removeLoaded(afterStart);
+    removeLoaded(onIdle);
+
+    // the fragment of a predicted module is known once its parent module has started
+    Fragment predictedFragment = (predicted == null) ?
+                                 null :
+                                 fragments.get(predicted);
+    if ((predictedFragment != null) && predictedFragment.isLoaded()) {
+      predicted = null;
+      predictedFragment = null;
+    }
+
+    double quiet = getEventScheduler().now() - lastNavigation;
+    if (predictedFragment != null) {
+      if (quiet < POLL_DELAY) {
+        schedule((int) (POLL_DELAY - quiet));
+      } else {
+        predicted = null;
+        fetch(predictedFragment);
+      }
+    } else if (!afterStart.isEmpty()) {
+      if (quiet < POLL_DELAY) {
+        schedule((int) (POLL_DELAY - quiet));
+      } else {
+        fetch(afterStart.removeFirst());
+      }
+    } else if (!onIdle.isEmpty()) {
+      if (quiet < IDLE_DELAY) {
+        schedule((int) (IDLE_DELAY - quiet));
+      } else {
+        fetch(onIdle.removeFirst());
+      }
+    }
+  }
+
+  private void predict() {
+    if (transitions != null) {
+      predicted = policy.predict(transitions,
+                                 lastModule);
+      if (predicted != null) {
+        schedule(POLL_DELAY);
+      }
+    }
+  }
+
+  private void fetch(Fragment fragment) {
+    current = fragment;
+    fragment.fetch();
+    schedule(POLL_DELAY);
+  }
+
+  private void removeLoaded(LinkedList<Fragment> fragments) {
+    while (!fragments.isEmpty() && fragments.getFirst()
+                                            .isLoaded()) {
+      fragments.removeFirst();
+    }
+  }
+
+  private void schedule(int delayMillis) {
+    if (!scheduled) {
+      scheduled = true;
+      getEventScheduler().schedule(delayMillis,
+                                   tick);
+    }
+  }
+
+}
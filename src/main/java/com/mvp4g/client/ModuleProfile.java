@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Startup profile of a module recorded by <code>ModuleProfiler</code>. Each part of the profile
+ * maps a name to the time spent, in milliseconds, in the order the names were first recorded. When
+ * a name is recorded several times (handlers of the same class bound one after the other for
+ * example), the times are summed.
+ */
+public class ModuleProfile {
+
+  private String              moduleName;
+  private Map<String, Double> phases        = new LinkedHashMap<String, Double>();
+  private Map<String, Double> constructions = new LinkedHashMap<String, Double>();
+  private Map<String, Double> binds         = new LinkedHashMap<String, Double>();
+  private Map<String, Double> viewCreations = new LinkedHashMap<String, Double>();
+
+  public ModuleProfile(String moduleName) {
+    this.moduleName = moduleName;
+  }
+
+  public String getModuleName() {
+    return moduleName;
+  }
+
+  /**
+   * @return time spent by <code>createAndStartModule</code>, <code>createModule</code> and
+   * <code>startModule</code>
+   */
+  public Map<String, Double> getPhases() {
+    return Collections.unmodifiableMap(phases);
+  }
+
+  /**
+   * @return time spent to create each element of the module, when the module starts or when the
+   * element is first needed
+   */
+  public Map<String, Double> getConstructions() {
+    return Collections.unmodifiableMap(constructions);
+  }
+
+  /**
+   * @return time spent by the <code>bind</code> method of each handler class
+   */
+  public Map<String, Double> getBinds() {
+    return Collections.unmodifiableMap(binds);
+  }
+
+  /**
+   * @return time spent by the <code>createView</code> method of each lazy view class
+   */
+  public Map<String, Double> getViewCreations() {
+    return Collections.unmodifiableMap(viewCreations);
+  }
+
+  public double getConstructionTime() {
+    return sum(constructions);
+  }
+
+  public double getBindTime() {
+    return sum(binds);
+  }
+
+  public double getViewCreationTime() {
+    return sum(viewCreations);
+  }
+
+  /**
+   * @return the profile as a JSON object
+   */
+  public String toJson() {
+    StringBuilder builder = new StringBuilder(256);
+    builder.append("{\"module\":\"")
+           .append(moduleName)
+           .append("\"");
+    appendJson(builder,
+               "phases",
+               phases);
+    appendJson(builder,
+               "constructions",
+               constructions);
+    appendJson(builder,
+               "binds",
+               binds);
+    appendJson(builder,
+               "viewCreations",
+               viewCreations);
+    return builder.append("}")
+                  .toString();
+  }
+
+  void addPhase(String phase,
+                double duration) {
+    add(phases,
+        phase,
+        duration);
+  }
+
+  void addConstruction(String element,
+                       double duration) {
+    add(constructions,
+        element,
+        duration);
+  }
+
+  void addBind(String handler,
+               double duration) {
+    add(binds,
+        handler,
+        duration);
+  }
+
+  void addViewCreation(String view,
+                       double duration) {
+    add(viewCreations,
+        view,
+        duration);
+  }
+
+  private void add(Map<String, Double> times,
+                   String name,
+                   double duration) {
+    Double time = times.get(name);
+    times.put(name,
+              (time == null) ?
+              duration :
+              time + duration);
+  }
+
+  private double sum(Map<String, Double> times) {
+    double total = 0;
+    for (Double time : times.values()) {
+      total += time;
+    }
+    return total;
+  }
+
+  private void appendJson(StringBuilder builder,
+                          String name,
+                          Map<String, Double> times) {
+    builder.append(",\"")
+           .append(name)
+           .append("\":{");
+    boolean first = true;
+    for (Map.Entry<String, Double> entry : times.entrySet()) {
+      if (!first) {
+        builder.append(",");
+      }
+      first = false;
+      builder.append("\"")
+             .append(entry.getKey())
+             .append("\":")
+             .append(entry.getValue());
+    }
+    builder.append("}");
+  }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.mvp4g.client.event.DefaultEventScheduler;
+import com.mvp4g.client.event.EventScheduler;
+
+/**
+ * Profiler of the startup of the modules whose event bus is annotated with <code>Profiling</code>.
+ * It records the time spent by the lifecycle methods of the generated module, the time spent to
+ * create each element of the module and the time spent the first time an event reaches a handler:
+ * its <code>bind</code> method and, for a <code>LazyPresenter</code>, the <code>createView</code>
+ * method of its view.<br>
+ * <br>
+ * All modules share the same profiler. The profile of each module can be retrieved with
+ * {@link #getProfile(String)}, the name of a module being the simple name of its interface.
+ */
+public class ModuleProfiler {
+
+  public static final ModuleProfiler INSTANCE = new ModuleProfiler();
+
+  private Map<String, ModuleProfile> profiles   = new LinkedHashMap<String, ModuleProfile>();
+  private Map<Object, ModuleProfile> eventBuses = new HashMap<Object, ModuleProfile>();
+  private EventScheduler             scheduler;
+
+  /**
+   * Profile the binds and the view creations of the handlers of an event bus.
+   *
+   * @param eventBus
+   *   event bus of the module
+   * @param moduleName
+   *   name of the module
+   */
+  public void register(Object eventBus,
+                       String moduleName) {
+    eventBuses.put(eventBus,
+                   getOrCreateProfile(moduleName));
+  }
+
+  /**
+   * Stop profiling the handlers of an event bus, the profile of its module is kept.
+   *
+   * @param eventBus
+   *   event bus of the module
+   */
+  public void unregister(Object eventBus) {
+    eventBuses.remove(eventBus);
+  }
+
+  /**
+   * @param eventBus
+   *   event bus of a handler
+   *
+   * @return true if the handlers of this event bus are profiled
+   */
+  public boolean isProfiled(Object eventBus) {
+    return !eventBuses.isEmpty() && (eventBus != null) && eventBuses.containsKey(eventBus);
+  }
+
+  /**
+   * Record the time spent by a lifecycle method of a module.
+   *
+   * @param moduleName
+   *   name of the module
+   * @param phase
+   *   name of the method
+   * @param start
+   *   time returned by {@link #now()} when the method started
+   */
+  public void phase(String moduleName,
+                    String phase,
+                    double start) {
+    getOrCreateProfile(moduleName).addPhase(phase,
+                                            now() - start);
+  }
+
+  /**
+   * Record the time spent to create an element of a module.
+   *
+   * @param moduleName
+   *   name of the module
+   * @param element
+   *   name of the element
+   * @param start
+   *   time returned by {@link #now()} before the element was created
+   */
+  public void constructed(String moduleName,
+                          String element,
+                          double start) {
+    getOrCreateProfile(moduleName).addConstruction(element,
+                                                   now() - start);
+  }
+
+  /**
+   * Record the time spent to bind a handler.
+   *
+   * @param eventBus
+   *   event bus of the handler
+   * @param handler
+   *   class name of the handler
+   * @param start
+   *   time returned by {@link #now()} before the handler was bound
+   */
+  public void bound(Object eventBus,
+                    String handler,
+                    double start) {
+    ModuleProfile profile = eventBuses.get(eventBus);
+    if (profile != null) {
+      profile.addBind(handler,
+                      now() - start);
+    }
+  }
+
+  /**
+   * Record the time spent to create a lazy view.
+   *
+   * @param eventBus
+   *   event bus of the presenter of the view
+   * @param view
+   *   class name of the view
+   * @param start
+   *   time returned by {@link #now()} before the view was created
+   */
+  public void viewCreated(Object eventBus,
+                          String view,
+                          double start) {
+    ModuleProfile profile = eventBuses.get(eventBus);
+    if (profile != null) {
+      profile.addViewCreation(view,
+                              now() - start);
+    }
+  }
+
+  /**
+   * @param moduleName
+   *   name of the module
+   *
+   * @return the profile of the module, null if nothing was recorded for it
+   */
+  public ModuleProfile getProfile(String moduleName) {
+    return profiles.get(moduleName);
+  }
+
+  /**
+   * @return the profiles of all the modules, in the order they were first recorded
+   */
+  public List<ModuleProfile> getProfiles() {
+    return new ArrayList<ModuleProfile>(profiles.values());
+  }
+
+  /**
+   * Forget the profiles recorded, event buses registered are still profiled.
+   */
+  public void clear() {
+    profiles.clear();
+    for (Map.Entry<Object, ModuleProfile> entry : eventBuses.entrySet()) {
+      entry.setValue(getOrCreateProfile(entry.getValue()
+                                             .getModuleName()));
+    }
+  }
+
+  /**
+   * @return current time, to give to the methods recording the time spent
+   */
+  public double now() {
+    return getEventScheduler().now();
+  }
+
+  /**
+   * @return scheduler giving the time
+   */
+  public EventScheduler getEventScheduler() {
+    if (scheduler == null) {
+      scheduler = new DefaultEventScheduler();
+    }
+    return scheduler;
+  }
+
+  /**
+   * @param scheduler
+   *   scheduler giving the time, for example to control the time in a test
+   */
+  public void setEventScheduler(EventScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  private ModuleProfile getOrCreateProfile(String moduleName) {
+    ModuleProfile profile = profiles.get(moduleName);
+    if (profile == null) {
+      profile = new ModuleProfile(moduleName);
+      profiles.put(moduleName,
+                   profile);
+    }
+    return profile;
+  }
+
+}
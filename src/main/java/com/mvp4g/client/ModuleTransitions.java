@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Table of the transitions between modules: for each module, the number of times each other
+ * module was loaded right after it. The table is used by {@link ModulePrefetcher} to guess which
+ * module the user is going to open next and is kept in a storage so that it survives the session.
+ * <br>
+ * <br>
+ * Only the {@link #MAX_TARGETS} most frequent modules are kept for each module and all the counts
+ * of a module are halved once one of them reaches {@link #MAX_COUNT}, so that the table stays small
+ * and recent habits weigh more than old ones.
+ */
+public class ModuleTransitions {
+
+  /**
+   * Storage of the table, for example the local storage of the browser.
+   */
+  public interface Storage {
+
+    /**
+     * @param key
+     *   key of the value
+     *
+     * @return value stored for the key, null if there is none
+     */
+    String load(String key);
+
+    /**
+     * @param key
+     *   key of the value
+     * @param value
+     *   value to store
+     */
+    void save(String key,
+              String value);
+
+  }
+
+  /**
+   * Module used as origin of the transitions of the modules loaded first.
+   */
+  public static final String START = "";
+
+  public static final String STORAGE_KEY = "mvp4g.moduleTransitions";
+
+  public static final int MAX_TARGETS = 8;
+
+  public static final int MAX_COUNT = 1000;
+
+  private static final String ENTRY_SEPARATOR = "\n";
+
+  private static final String FIELD_SEPARATOR = "|";
+
+  private Storage                           storage;
+  private Map<String, Map<String, Integer>> table = new HashMap<String, Map<String, Integer>>();
+
+  /**
+   * @param storage
+   *   storage from which the table is loaded and in which it is saved after each transition
+   */
+  public ModuleTransitions(Storage storage) {
+    this.storage = storage;
+    parse(storage.load(STORAGE_KEY));
+  }
+
+  /**
+   * Record a transition and save the table.
+   *
+   * @param from
+   *   class name of the module left, null or {@link #START} if no module was loaded before
+   * @param to
+   *   class name of the module loaded
+   */
+  public void record(String from,
+                     String to) {
+    from = (from == null) ?
+           START :
+           from;
+    if ((to == null) || to.equals(from)) {
+      return;
+    }
+    Map<String, Integer> targets = table.get(from);
+    if (targets == null) {
+      targets = new LinkedHashMap<String, Integer>();
+      table.put(from,
+                targets);
+    }
+    Integer count    = targets.get(to);
+    int     newCount = (count == null) ?
+                       1 :
+                       count + 1;
+    targets.put(to,
+                newCount);
+    if (newCount >= MAX_COUNT) {
+      age(targets);
+    }
+    if (targets.size() > MAX_TARGETS) {
+      removeLeastFrequent(targets,
+                          to);
+    }
+    storage.save(STORAGE_KEY,
+                 serialize());
+  }
+
+  /**
+   * @param from
+   *   class name of the module left, null or {@link #START} for the modules loaded first
+   *
+   * @return number of times each module was loaded after the given one
+   */
+  public Map<String, Integer> getTransitions(String from) {
+    Map<String, Integer> targets = table.get((from == null) ?
+                                             START :
+                                             from);
+    return (targets == null) ?
+           Collections.<String, Integer>emptyMap() :
+           Collections.unmodifiableMap(targets);
+  }
+
+  /**
+   * Forget all the transitions.
+   */
+  public void clear() {
+    table.clear();
+    storage.save(STORAGE_KEY,
+                 "");
+  }
+
+  String serialize() {
+    StringBuilder builder = new StringBuilder();
+    for (Map.Entry<String, Map<String, Integer>> from : table.entrySet()) {
+      for (Map.Entry<String, Integer> to : from.getValue()
+                                              .entrySet()) {
+        builder.append(from.getKey())
+               .append(FIELD_SEPARATOR)
+               .append(to.getKey())
+               .append(FIELD_SEPARATOR)
+               .append(to.getValue())
+               .append(ENTRY_SEPARATOR);
+      }
+    }
+    return builder.toString();
+  }
+
+  private void parse(String value) {
+    if (value == null) {
+      return;
+    }
+    String[]             fields;
+    Map<String, Integer> targets;
+    for (String entry : value.split(ENTRY_SEPARATOR)) {
+      fields = entry.split("\\" + FIELD_SEPARATOR,
+                           -1);
+      // an entry that can't be read is ignored, the table is only a hint
+      if (fields.length == 3) {
+        try {
+          int count = Integer.parseInt(fields[2]);
+          targets = table.get(fields[0]);
+          if (targets == null) {
+            targets = new LinkedHashMap<String, Integer>();
+            table.put(fields[0],
+                      targets);
+          }
+          targets.put(fields[1],
+                      count);
+        } catch (NumberFormatException e) {
+          // ignored
+        }
+      }
+    }
+  }
+
+  private void age(Map<String, Integer> targets) {
+    Iterator<Map.Entry<String, Integer>> it = targets.entrySet()
+                                                     .iterator();
+    Map.Entry<String, Integer>           entry;
+    while (it.hasNext()) {
+      entry = it.next();
+      if (entry.getValue() < 2) {
+        it.remove();
+      } else {
+        entry.setValue(entry.getValue() / 2);
+      }
+    }
+  }
+
+  private void removeLeastFrequent(Map<String, Integer> targets,
+                                   String kept) {
+    String least = null;
+    int    min   = Integer.MAX_VALUE;
+    for (Map.Entry<String, Integer> entry : targets.entrySet()) {
+      if (!entry.getKey()
+                .equals(kept) && (entry.getValue() < min)) {
+        least = entry.getKey();
+        min = entry.getValue();
+      }
+    }
+    targets.remove(least);
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client;
+
+import java.util.Map;
+
+/**
+ * Prefetch policy that predicts the module the most often loaded after the current one, as long as
+ * it has been seen enough times and often enough compared to the other modules.
+ */
+public class MostLikelyPrefetchPolicy
+  implements ModulePrefetcher.Policy {
+
+  public static final int DEFAULT_MIN_COUNT = 3;
+
+  public static final double DEFAULT_MIN_PROBABILITY = 0.3;
+
+  private int    minCount;
+  private double minProbability;
+
+  public MostLikelyPrefetchPolicy() {
+    this(DEFAULT_MIN_COUNT,
+         DEFAULT_MIN_PROBABILITY);
+  }
+
+  /**
+   * @param minCount
+   *   number of times a transition must have been seen to be predicted
+   * @param minProbability
+   *   share of the transitions from the current module a transition must represent to be
+   *   predicted
+   */
+  public MostLikelyPrefetchPolicy(int minCount,
+                                  double minProbability) {
+    this.minCount = minCount;
+    this.minProbability = minProbability;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see com.mvp4g.client.ModulePrefetcher.Policy#predict(com.mvp4g.client.ModuleTransitions,
+   * java.lang.String)
+   */
+  public String predict(ModuleTransitions transitions,
+                        String from) {
+    String best  = null;
+    int    max   = 0;
+    int    total = 0;
+    for (Map.Entry<String, Integer> entry : transitions.getTransitions(from)
+                                                       .entrySet()) {
+      total += entry.getValue();
+      if (entry.getValue() > max) {
+        best = entry.getKey();
+        max = entry.getValue();
+      }
+    }
+    return ((max >= minCount) && (max >= minProbability * total)) ?
+           best :
+           null;
+  }
+
+}
@@ -73,6 +73,20 @@ public interface Mvp4gModule {
                String form,
                boolean onlyToken);
 
+  /**
+   * Generate the tokens of an event for several forms at once, without changing the browser
+   * history.
+   *
+   * @param event
+   *   event to generate the tokens for
+   * @param forms
+   *   objects associated with the event, one for each token
+   *
+   * @return the generated tokens
+   */
+  String[] generateTokens(String event,
+                          String[] forms);
+
   /**
    * Take care of the event received from browser history change or pass it to a child module if
    * needed.
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client;
+
+/**
+ * Module that can be unloaded by its parent module. The modules generated by the framework
+ * implement this interface, a module written by hand can implement it to be unloaded when it is
+ * evicted (see <code>ModuleEvictor</code>).
+ */
+public interface Mvp4gUnloadableModule
+  extends Mvp4gModule {
+
+  /**
+   * Method called when the module is evicted by its parent module: the child modules are unloaded
+   * and the instances created by the module (event bus, presenters, views, event handlers...) are
+   * released.<br>
+   * <br>
+   * Work still pending for the module is dropped: deferred and shaped events not fired yet and
+   * child modules being loaded. Callbacks received afterwards (end of a child module load, history
+   * token to convert, event to filter) are ignored. An unloaded module isn't used anymore, the
+   * parent module creates a new instance if the module is needed again.
+   */
+  void unloadModule();
+
+}
@@ -24,12 +24,17 @@ import java.lang.annotation.RetentionPolicy;
 /**
  * This annotation should be used to activate the logs. It has the following attributes:
  * <ul>
- * <li>logLevel: level of the logs. If the level is set to simple, only the fired events will be
- * displayed in the log, otherwise fired events and handlers of these events will be logged.</li>
+ * <li>logLevel: initial level of the logs. If the level is set to simple, only the fired events
+ * will be displayed in the log, if it's set to detailed, fired events and handlers of these events
+ * will be logged. If it's set to off, nothing is logged until the level is changed.</li>
  * <li>logger: class of the logger to use.</li>
  * </ul>
  * <br>
  * <br>
+ * Logs of all levels are generated and the level is only checked at runtime, so it can be changed
+ * with <code>EventBus.setLogLevel</code> and logs can be restricted to some events with
+ * <code>EventBus.setLogFilter</code>. Log messages are built only when they pass these checks.<br>
+ * <br>
  * This annotation should be used only on interfaces that extend <code>EventBus</code>.
  *
  * @author plcoirier
@@ -42,6 +47,7 @@ public @interface Debug {
   Class<? extends Mvp4gLogger> logger() default DefaultMvp4gLogger.class;
 
   public enum LogLevel {
+    OFF,
     SIMPLE,
     DETAILED
   }
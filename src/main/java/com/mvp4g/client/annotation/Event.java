@@ -71,6 +71,24 @@ import com.mvp4g.client.history.HistoryConverter;
  * displayed screen.</li>
  * <li>passive: when an event is fired, it will build any handlers not built yet and/or load any
  * child modules not loaded yet expect if the event is passive.</li>
+ * <li>shaping: limits the rate at which handlers receive the event (by default, NONE):
+ * <ul>
+ * <li>COALESCE: all the fires of the event that happen before the browser gets the control back
+ * are merged into the last one.</li>
+ * <li>DEBOUNCE: the event is handled once no other fire has happened during shapingWindow
+ * milliseconds, with the parameters of the last fire.</li>
+ * <li>THROTTLE: the event is handled at most once every shapingWindow milliseconds. Fires that
+ * happen in between are merged into the last one, handled at the end of the window.</li>
+ * <li>DISTINCT: a fire is ignored if its parameters are equal to the ones of the previous fire.</li>
+ * </ul>
+ * An event that generates a token can't be shaped.</li>
+ * <li>shapingWindow: window in milliseconds used by the DEBOUNCE and THROTTLE shapings.</li>
+ * <li>deferred: if set to true, firing the event only adds it to the event queue of the event bus.
+ * The event is handled once the browser gets the control back, without blocking the code that
+ * fired it. A deferred event can't generate a token and can't be shaped.</li>
+ * <li>lane (by default, NORMAL): priority of a deferred event. Events of the INPUT lane are handled
+ * before the ones of the NORMAL lane, which are handled before the ones of the BACKGROUND
+ * lane.</li>
  * </ul>
  *
  * @author plcoirier
@@ -120,6 +138,28 @@ public @interface Event {
 
   String[] generateNames() default {};
 
+  Shaping shaping() default Shaping.NONE;
+
+  int shapingWindow() default 0;
+
+  boolean deferred() default false;
+
+  Lane lane() default Lane.NORMAL;
+
+  public enum Shaping {
+    NONE,
+    COALESCE,
+    DEBOUNCE,
+    THROTTLE,
+    DISTINCT
+  }
+
+  public enum Lane {
+    INPUT,
+    NORMAL,
+    BACKGROUND
+  }
+
   class NoHistoryConverter
     implements HistoryConverter<EventBus> {
 
@@ -29,6 +29,14 @@ import com.mvp4g.client.Mvp4gSplitter;
  * <br>
  * You can activate the multiple feature to create several instance of the same handler. <br>
  * <br>
+ * A multiple handler can also be pooled thanks to the <i>poolSize</i> attribute: up to
+ * <i>poolSize</i> removed instances are kept and reused by the next <code>addHandler</code> instead
+ * of creating new ones. The handler must implement <code>Recyclable</code> to be reset when it's
+ * removed.<br>
+ * <br>
+ * A handler that isn't multiple is created by the first event it handles (or binds or is activated
+ * by). Set the <i>eager</i> attribute to true to create it when the module starts instead.<br>
+ * <br>
  * You can also use the async attribute to create a fragment for this handler (or for a group of handlers).
  *
  * @author Dan Persa
@@ -41,6 +49,10 @@ public @interface EventHandler {
 
   boolean multiple() default false;
 
+  int poolSize() default 0;
+
+  boolean eager() default false;
+
   Class<? extends Mvp4gSplitter> async() default NotAsync.class;
 
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation can be used on an event filter set with <code>@Filters</code> to define the
+ * events it applies to.<br>
+ * <br>
+ * The value is the list of the names of the events that the filter needs to see. The filter won't
+ * be called for any other event and, when no static filter applies to an event, the generated
+ * event method doesn't call the filtering method at all (unless filters have been added when the
+ * application runs).<br>
+ * <br>
+ * A filter without this annotation is called for every event.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface FilterEvents {
+
+  String[] value();
+
+}
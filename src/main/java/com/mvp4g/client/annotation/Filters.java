@@ -29,7 +29,8 @@ import com.mvp4g.client.event.EventFilter;
  * <br>
  * The annotation has the following attributes:
  * <ul>
- * <li>filterClasses: classes of the filter to use.</li>
+ * <li>filterClasses: classes of the filter to use. A filter class can be annotated with
+ * <code>@FilterEvents</code> to only be called for some events.</li>
  * <li>afterHistory (by default, false): if set to true, events will be filtered after the history
  * conversion. In this case, even if an event is stopped, it will still appear in the browser
  * history.</li>
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import com.mvp4g.client.event.DefaultEventBusMetrics;
+import com.mvp4g.client.event.EventBusMetrics;
+
+/**
+ * This annotation should be used to measure the event bus. It has the following attribute:
+ * <ul>
+ * <li>value: class of the metrics that receives the measures (event counts, time spent by each
+ * handler, filter rejections and child module load times).</li>
+ * </ul>
+ * <br>
+ * When this annotation isn't set, no measure code is generated.<br>
+ * <br>
+ * This annotation should be used only on interfaces that extend <code>EventBus</code>.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Metrics {
+
+  Class<? extends EventBusMetrics> value() default DefaultEventBusMetrics.class;
+
+}
@@ -34,6 +34,15 @@ import com.mvp4g.client.Mvp4gSplitter;
  * <br>
  * You can activate the multiple feature to create several instance of the same presenter. <br>
  * <br>
+ * A multiple presenter can also be pooled thanks to the <i>poolSize</i> attribute: up to
+ * <i>poolSize</i> removed instances are kept and reused by the next <code>addHandler</code> instead
+ * of creating new ones (and new views). The presenter must implement <code>Recyclable</code> to be reset when it's
+ * removed.<br>
+ * <br>
+ * A presenter that isn't multiple is created with its view by the first event it handles (or binds
+ * or is activated by). Set the <i>eager</i> attribute to true to create it when the module starts
+ * instead. The start presenter is always created when the module starts.<br>
+ * <br>
  * You can also use the async attribute to create a fragment for this presenter (or for a group of presenters).
  *
  * @author plcoirier
@@ -49,6 +58,10 @@ public @interface Presenter {
 
   boolean multiple() default false;
 
+  int poolSize() default 0;
+
+  boolean eager() default false;
+
   Class<? extends Mvp4gSplitter> async() default NotAsync.class;
 
 }
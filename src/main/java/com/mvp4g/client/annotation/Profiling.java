@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * This annotation should be used to profile the startup of the module with
+ * <code>ModuleProfiler.INSTANCE</code>: the time spent by <code>createAndStartModule</code>,
+ * <code>createModule</code> and <code>startModule</code>, the time spent to create each element of
+ * the module and, the first time an event reaches a handler, the time spent by its
+ * <code>bind</code> method and by the <code>createView</code> method of its lazy view.<br>
+ * <br>
+ * When this annotation isn't set, no profiling code is generated.<br>
+ * <br>
+ * This annotation should be used only on interfaces that extend <code>EventBus</code>.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Profiling {
+
+}
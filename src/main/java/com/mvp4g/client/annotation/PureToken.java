@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation indicates that the token returned by a history converter method only depends on
+ * the parameters of the event. The tokens generated thanks to <code>getTokenGenerator()</code> for
+ * the events converted by this method are then stored in a bounded cache, so that generating
+ * again the token of an event with equal parameters doesn't call the history converter.<br>
+ * <br>
+ * This annotation can be set on the method that converts the event to a token (the
+ * <code>onXXX</code> method or, for a simple history converter, the <code>convertToToken</code>
+ * method) or on the history converter class to mark all its methods as pure.<br>
+ * <br>
+ * Parameters of the event are compared with their <code>equals</code> method and the cache keeps a
+ * reference to them, so this annotation must only be used for events whose parameters are
+ * immutable: a parameter modified after its token has been cached would return the token of its
+ * previous state. Up to <code>TokenCache.DEFAULT_CAPACITY</code> sets of parameters are kept
+ * reachable by the cache of each event bus.<br>
+ * <br>
+ * The cached tokens are dropped each time a history converter is added to the place service, the
+ * history is cleared or the module of the place service changes.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD,
+          ElementType.TYPE })
+public @interface PureToken {
+
+}
@@ -33,6 +33,11 @@ import com.mvp4g.client.Mvp4gModule;
  * <li>autoDisplay: if true, the start view of the child module will be automatically displayed
  * inside the parent module. In this case, you need to set an event to use to display this view
  * thanks to the <code>DisplayChildModuleView</code> annotation.
+ * <li>prefetch: when the code of an async child module is downloaded before the module is needed.
+ * With <code>AFTER_START</code>, it's downloaded once the parent module has started, with
+ * <code>ON_IDLE</code>, once the application hasn't navigated for a while. The child module isn't
+ * created until it's actually needed. By default, the code is only downloaded when the module is
+ * loaded.</li>
  * </ul>
  *
  * @author plcoirier
@@ -46,4 +51,12 @@ public @interface ChildModule {
 
   boolean autoDisplay() default true;
 
+  Prefetch prefetch() default Prefetch.NONE;
+
+  enum Prefetch {
+    NONE,
+    AFTER_START,
+    ON_IDLE
+  }
+
 }
@@ -23,7 +23,19 @@ import java.lang.annotation.RetentionPolicy;
  * extends <code>EventBus</code>.<br>
  * <br>
  * To add child modules, you need to specify the attribute with one or several <code>ChildModule</code>
- * annotations.
+ * annotations.<br>
+ * <br>
+ * Loaded child modules are kept until the application is closed unless one of the following
+ * attributes is defined:<br>
+ * <ul>
+ * <li>maxLoaded: maximum number of child modules kept loaded. Once this number is reached, the
+ * child module that has received an event the least recently is unloaded.</li>
+ * <li>idleTimeout: time in milliseconds after which a child module that hasn't received any event
+ * is unloaded. The child module that has received an event the most recently is never unloaded
+ * because of this timeout.</li>
+ * </ul>
+ * An unloaded child module releases its presenters, views and event handlers, and is created again
+ * the next time an event is forwarded to it.
  *
  * @author plcoirier
  */
@@ -32,4 +44,8 @@ public @interface ChildModules {
 
   ChildModule[] value();
 
+  int maxLoaded() default 0;
+
+  int idleTimeout() default 0;
+
 }
@@ -17,11 +17,14 @@ package com.mvp4g.client.event;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import com.mvp4g.client.Mvp4gException;
 import com.mvp4g.client.Mvp4gModule;
+import com.mvp4g.client.annotation.Debug.LogLevel;
+import com.mvp4g.client.annotation.Event.Lane;
 import com.mvp4g.client.history.HistoryProxy;
 import com.mvp4g.client.history.HistoryProxyProvider;
 import com.mvp4g.client.presenter.PresenterInterface;
@@ -41,9 +44,24 @@ public abstract class BaseEventBus
   private       boolean                                       changeHistoryStoredForNextOne    = false;
   private       boolean                                       filteringEnabled                 = true;
   private       boolean                                       changeFilteringEnabledForNextOne = false;
-  private       Map<Class<?>, List<EventHandlerInterface<?>>> handlersMap                      = new HashMap<Class<?>, List<EventHandlerInterface<?>>>();
+  private       Map<Class<?>, HandlerList>                    handlersMap                      = new HashMap<Class<?>, HandlerList>();
+  private       Map<Class<?>, HandlerPool>                    handlerPools                     = new HashMap<Class<?>, HandlerPool>();
+  private       int                                           dispatchDepth                    = 0;
+  private       List<EventHandlerInterface<?>>                removedDuringDispatch            = null;
 
-  private List<EventFilter<?>> filters = new ArrayList<EventFilter<? extends EventBus>>();
+  private List<EventFilter<?>>              filters      = new ArrayList<EventFilter<? extends EventBus>>();
+  private Map<String, List<EventFilter<?>>> eventFilters = new HashMap<String, List<EventFilter<?>>>();
+
+  private BaseTokenGenerator tokenGenerator;
+
+  private EventScheduler eventScheduler;
+  private EventQueue     eventQueue;
+  private boolean        releasingDeferredEvent = false;
+  private boolean        unloaded               = false;
+
+  private LogLevel             logLevel     = LogLevel.SIMPLE;
+  private String[]             logFilter    = null;
+  private Map<String, Boolean> loggedEvents = new HashMap<String, Boolean>();
 
   @SuppressWarnings("unchecked")
   public static <V, E extends EventBus, P extends PresenterInterface<? super V, ? super E>> P setPresenter(boolean reverseView,
@@ -125,6 +143,101 @@ public abstract class BaseEventBus
     this.filteringEnabled = filteringEnabled;
   }
 
+  /*
+   * (non-Javadoc)
+   *
+   * @see com.mvp4g.client.event.EventBus#setLogLevel(com.mvp4g.client.annotation.Debug.LogLevel)
+   */
+  public void setLogLevel(LogLevel logLevel) {
+    this.logLevel = (logLevel == null) ?
+                    LogLevel.OFF :
+                    logLevel;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see com.mvp4g.client.event.EventBus#getLogLevel()
+   */
+  public LogLevel getLogLevel() {
+    return logLevel;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see com.mvp4g.client.event.EventBus#setLogFilter(java.lang.String)
+   */
+  public void setLogFilter(String logFilter) {
+    this.logFilter = (logFilter == null) ?
+                     null :
+                     logFilter.split(",");
+    loggedEvents.clear();
+  }
+
+  /**
+   * Check if a log of the given level should be written for an event. Generated code calls this
+   * method before building the log message so that no message is built for an event that isn't
+   * logged.
+   *
+   * @param level
+   *   level of the log
+   * @param eventName
+   *   name of the logged event
+   *
+   * @return true if the log should be written
+   */
+  protected boolean isLoggable(LogLevel level,
+                               String eventName) {
+    if ((logLevel == LogLevel.OFF) || (level.ordinal() > logLevel.ordinal())) {
+      return false;
+    }
+    if (logFilter == null) {
+      return true;
+    }
+    Boolean logged = loggedEvents.get(eventName);
+    if (logged == null) {
+      logged = false;
+      for (String glob : logFilter) {
+        if (matches(glob.trim(),
+                    eventName)) {
+          logged = true;
+          break;
+        }
+      }
+      loggedEvents.put(eventName,
+                       logged);
+    }
+    return logged;
+  }
+
+  /**
+   * Match a name against a glob where '*' matches any sequence of characters and '?' any
+   * character.
+   */
+  static boolean matches(String glob,
+                         String name) {
+    int g = 0, n = 0, star = -1, mark = 0;
+    while (n < name.length()) {
+      if ((g < glob.length()) && ((glob.charAt(g) == '?') || (glob.charAt(g) == name.charAt(n)))) {
+        g++;
+        n++;
+      } else if ((g < glob.length()) && (glob.charAt(g) == '*')) {
+        star = g++;
+        mark = n;
+      } else if (star > -1) {
+        g = star + 1;
+        n = ++mark;
+      } else {
+        return false;
+      }
+    }
+    while ((g < glob.length()) && (glob.charAt(g) == '*')) {
+      g++;
+    }
+    return g == glob.length();
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -144,11 +257,14 @@ public abstract class BaseEventBus
   public <E extends EventBus, T extends EventHandlerInterface<E>> T addHandler(Class<T> handlerClass,
                                                                                boolean bind)
     throws Mvp4gException {
-    T handler = createHandler(handlerClass);
+    T handler = pollRecycledHandler(handlerClass);
     if (handler == null) {
-      throw new Mvp4gException("Handler with type " +
-                               handlerClass.getName() +
-                               " couldn't be created by the Mvp4g. Have you forgotten to set multiple attribute to true for this handler or are you trying to create an handler that belongs to another module (another type of event bus injected in this handler) or have you set a splitter for this handler?");
+      handler = createHandler(handlerClass);
+      if (handler == null) {
+        throw new Mvp4gException("Handler with type " +
+                                 handlerClass.getName() +
+                                 " couldn't be created by the Mvp4g. Have you forgotten to set multiple attribute to true for this handler or are you trying to create an handler that belongs to another module (another type of event bus injected in this handler) or have you set a splitter for this handler?");
+      }
     }
     finishAddHandler(handler,
                      handlerClass,
@@ -163,12 +279,91 @@ public abstract class BaseEventBus
    * EventHandlerInterface)
    */
   public <T extends EventHandlerInterface<?>> void removeHandler(T handler) {
-    List<EventHandlerInterface<?>> handlers = handlersMap.get(handler.getClass());
-    if (handlers != null) {
-      handlers.remove(handler);
+    HandlerList handlers = handlersMap.get(handler.getClass());
+    if ((handlers != null) && handlers.remove(handler) && handlerPools.containsKey(handler.getClass())) {
+      if (dispatchDepth > 0) {
+        // the handler may be removing itself, it is recycled once the dispatch is over
+        if (removedDuringDispatch == null) {
+          removedDuringDispatch = new ArrayList<EventHandlerInterface<?>>();
+        }
+        if (!removedDuringDispatch.contains(handler)) {
+          removedDuringDispatch.add(handler);
+        }
+      } else {
+        recycleHandler(handler);
+      }
     }
   }
 
+  /**
+   * Indicate that the handlers of a class with a pool are about to be called. Until the matching
+   * call to {@link #endDispatch()}, removed handlers aren't recycled so that a handler that removes
+   * itself isn't reset or reused while it's handling the event. It should only be used by the
+   * framework.
+   */
+  public void beginDispatch() {
+    dispatchDepth++;
+  }
+
+  /**
+   * Indicate that the handlers of a class with a pool have been called. The handlers removed
+   * during the outermost dispatch are recycled. It should only be used by the framework.
+   */
+  public void endDispatch() {
+    dispatchDepth--;
+    if ((dispatchDepth == 0) && (removedDuringDispatch != null)) {
+      List<EventHandlerInterface<?>> removed = removedDuringDispatch;
+      removedDuringDispatch = null;
+      for (EventHandlerInterface<?> handler : removed) {
+        recycleHandler(handler);
+      }
+    }
+  }
+
+  /**
+   * Set the number of removed handlers of a class kept to be reused by the next handlers added. It
+   * should only be used by the framework.
+   *
+   * @param handlerClass
+   *   class of the handlers, it must implement <code>Recyclable</code>
+   * @param poolSize
+   *   maximum number of handlers kept
+   */
+  public void setHandlerPoolSize(Class<? extends EventHandlerInterface<?>> handlerClass,
+                                 int poolSize) {
+    handlerPools.put(handlerClass,
+                     new HandlerPool(poolSize));
+  }
+
+  private void recycleHandler(EventHandlerInterface<?> handler) {
+    HandlerPool pool     = handlerPools.get(handler.getClass());
+    HandlerList handlers = handlersMap.get(handler.getClass());
+    // a handler added twice, or added again during the dispatch, is still in use
+    if (!pool.isFull() && !handlers.contains(handler)) {
+      ((Recyclable) handler).recycle();
+      handler.setActivated(true);
+      pool.offer(handler);
+    }
+  }
+
+  /**
+   * Take a removed handler kept to be reused. It should only be used by the framework.
+   *
+   * @param <T>
+   *   type of the handler
+   * @param handlerClass
+   *   class of the handler
+   *
+   * @return recycled handler, already bound, null if none has been kept
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends EventHandlerInterface<?>> T pollRecycledHandler(Class<T> handlerClass) {
+    HandlerPool pool = handlerPools.get(handlerClass);
+    return (pool == null) ?
+           null :
+           (T) pool.poll();
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -184,7 +379,63 @@ public abstract class BaseEventBus
    * @see com.mvp4g.client.event.EventBus#removeEventFilter(com.mvp4g.client.event .EventFilter)
    */
   public void removeEventFilter(EventFilter<? extends EventBus> filter) {
-    filters.remove(filter);
+    removeEventFilter(filters,
+                      filter);
+    if (!eventFilters.isEmpty()) {
+      List<String> emptyEvents = new ArrayList<String>();
+      for (Map.Entry<String, List<EventFilter<?>>> entry : eventFilters.entrySet()) {
+        List<EventFilter<?>> scopedFilters = entry.getValue();
+        removeEventFilter(scopedFilters,
+                          filter);
+        if (scopedFilters.isEmpty()) {
+          emptyEvents.add(entry.getKey());
+        }
+      }
+      for (String eventName : emptyEvents) {
+        eventFilters.remove(eventName);
+      }
+    }
+  }
+
+  /**
+   * Remove a filter from a list of filters. If the filter hasn't been added as is, the lazy filter
+   * that delegates to it is removed instead.
+   */
+  private void removeEventFilter(List<EventFilter<?>> filterList,
+                                 EventFilter<?> filter) {
+    if (!filterList.remove(filter)) {
+      Iterator<EventFilter<?>> it = filterList.iterator();
+      EventFilter<?>           registered;
+      while (it.hasNext()) {
+        registered = it.next();
+        if ((registered instanceof LazyEventFilter) && ((LazyEventFilter<?>) registered).wraps(filter)) {
+          it.remove();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Add an event filter that is only called for the given events.
+   *
+   * @param filter
+   *   new event filter to add
+   * @param eventNames
+   *   names of the events the filter applies to
+   */
+  public void addEventFilter(EventFilter<? extends EventBus> filter,
+                             String[] eventNames) {
+    List<EventFilter<?>> scopedFilters;
+    for (String eventName : eventNames) {
+      scopedFilters = eventFilters.get(eventName);
+      if (scopedFilters == null) {
+        scopedFilters = new ArrayList<EventFilter<?>>();
+        eventFilters.put(eventName,
+                         scopedFilters);
+      }
+      scopedFilters.add(filter);
+    }
   }
 
   /*
@@ -196,6 +447,112 @@ public abstract class BaseEventBus
     return HistoryProxyProvider.INSTANCE.get();
   }
 
+  /**
+   * @return the scheduler used to delay events. If no scheduler has been set, a
+   * {@link DefaultEventScheduler} is created.
+   */
+  public EventScheduler getEventScheduler() {
+    if (eventScheduler == null) {
+      eventScheduler = new DefaultEventScheduler();
+    }
+    return eventScheduler;
+  }
+
+  /**
+   * @param eventScheduler
+   *   the scheduler to use to delay events
+   */
+  public void setEventScheduler(EventScheduler eventScheduler) {
+    this.eventScheduler = eventScheduler;
+  }
+
+  /**
+   * @return the queue of the deferred events of this event bus
+   */
+  public EventQueue getEventQueue() {
+    if (eventQueue == null) {
+      eventQueue = new EventQueue(this);
+    }
+    return eventQueue;
+  }
+
+  /**
+   * Unload the event bus when its module is unloaded: the deferred events not handled yet are
+   * dropped and the events waiting for their shaper won't be fired. It should only be used by the
+   * framework.
+   */
+  public void unload() {
+    unloaded = true;
+    if (eventQueue != null) {
+      eventQueue.clear();
+    }
+  }
+
+  /**
+   * @return true if the module of the event bus has been unloaded
+   */
+  public boolean isUnloaded() {
+    return unloaded;
+  }
+
+  /**
+   * Add a deferred event to the event queue, unless the event is fired by the queue itself.
+   *
+   * @param lane
+   *   lane of the event
+   * @param eventName
+   *   event's name
+   * @param params
+   *   event parameters for this event
+   *
+   * @return true if the event has been added to the queue, false if it must be handled now
+   */
+  protected boolean deferEvent(Lane lane,
+                               String eventName,
+                               Object[] params) {
+    if (releasingDeferredEvent) {
+      releasingDeferredEvent = false;
+      return false;
+    }
+    getEventQueue().add(lane,
+                        eventName,
+                        params);
+    return true;
+  }
+
+  /**
+   * Fires a deferred event taken from the event queue.
+   *
+   * @param eventName
+   *   event's name
+   * @param params
+   *   event parameters for this event
+   */
+  void fireDeferredEvent(String eventName,
+                         Object[] params) {
+    releasingDeferredEvent = true;
+    try {
+      dispatchDeferredEvent(eventName,
+                            params);
+    } finally {
+      releasingDeferredEvent = false;
+    }
+  }
+
+  /**
+   * Calls the method of a deferred event. This method is overridden by the generated event bus
+   * when at least one event is deferred.
+   *
+   * @param eventName
+   *   event's name
+   * @param params
+   *   event parameters for this event
+   */
+  protected void dispatchDeferredEvent(String eventName,
+                                       Object[] params) {
+    throw new Mvp4gException("Event " + eventName + " isn't a deferred event.");
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -205,6 +562,67 @@ public abstract class BaseEventBus
     tokenMode = true;
   }
 
+  /**
+   * Return the token generator of the event bus: an event bus whose events with a token
+   * generation only generate their token, without being fired. It's set by the framework when the
+   * event bus has such events.
+   *
+   * @return the token generator of the event bus, null if it has none
+   */
+  public EventBus getTokenGenerator() {
+    return tokenGenerator;
+  }
+
+  /**
+   * Set the token generator of the event bus. It should only be used by the framework.
+   *
+   * @param tokenGenerator
+   *   token generator of the event bus
+   */
+  public void setTokenGenerator(BaseTokenGenerator tokenGenerator) {
+    this.tokenGenerator = tokenGenerator;
+  }
+
+  /**
+   * Generate the tokens of an event with a token generation for several sets of parameters at
+   * once, for example to build the links of a list.
+   *
+   * @param eventName
+   *   name of the event
+   * @param params
+   *   parameters of the event, one array for each token to generate
+   *
+   * @return the generated tokens, in the same order as the parameters
+   */
+  public String[] generateTokens(String eventName,
+                                 Object[]... params) {
+    if (tokenGenerator != null) {
+      return tokenGenerator.generateTokens(eventName,
+                                           params);
+    }
+    throw new Mvp4gException("Event " + eventName + " can't generate a token.");
+  }
+
+  /**
+   * When a ClassCastException is thrown while executing dispatch method, verify if it is thrown
+   * by this class. If it's the case, then send an Mvp4gException to indicate that an object with
+   * the wrong class type has been sent with the event.
+   *
+   * @param e
+   *   ClassCastException thrown
+   * @param eventName
+   *   name of the event dispatched while error is thrown
+   */
+  protected void handleClassCastException(ClassCastException e,
+                                          String eventName) {
+    if (e.getStackTrace()[0].getClassName()
+                            .equals(this.getClass()
+                                        .getName())) {
+      throw new Mvp4gException("Class of the object sent with event " + eventName + " is incorrect.");
+    }
+    throw e;
+  }
+
   /**
    * Create a new instance of the given handler class.
    *
@@ -239,9 +657,9 @@ public abstract class BaseEventBus
       handler.isActivated(false,
                           null);
     }
-    List<EventHandlerInterface<?>> handlers = handlersMap.get(handlerClass);
+    HandlerList handlers = handlersMap.get(handlerClass);
     if (handlers == null) {
-      handlers = new ArrayList<EventHandlerInterface<?>>();
+      handlers = new HandlerList();
       handlersMap.put(handlerClass,
                       handlers);
     }
@@ -330,6 +748,20 @@ public abstract class BaseEventBus
     return ret;
   }
 
+  /**
+   * Checks if the filtering method needs to be called for an event that none of the static filters
+   * applies to. It's the case if filters have been added when the application runs or if the
+   * filtering has been changed for the next event.
+   *
+   * @param eventName
+   *   event's name
+   *
+   * @return true if filterEvent must be called for this event
+   */
+  protected boolean isFilteringNeeded(String eventName) {
+    return changeFilteringEnabledForNextOne || (filteringEnabled && (!filters.isEmpty() || eventFilters.containsKey(eventName)));
+  }
+
   /**
    * Performs the actual filtering by calling each associated event filter in turn. If any event
    * filter returns false, then the event will be canceled.
@@ -354,6 +786,18 @@ public abstract class BaseEventBus
         return false;
       }
     }
+    List<EventFilter<?>> scopedFilters = eventFilters.get(eventName);
+    if (scopedFilters != null) {
+      filterCount = scopedFilters.size();
+      for (int i = 0; i < filterCount; i++) {
+        filter = scopedFilters.get(i);
+        if (!filter.filterEvent(eventName,
+                                params,
+                                this)) {
+          return false;
+        }
+      }
+    }
     return true;
   }
 
@@ -369,9 +813,34 @@ public abstract class BaseEventBus
    */
   @SuppressWarnings("unchecked")
   public <T extends EventHandlerInterface<?>> List<T> getHandlers(Class<T> handlerClass) {
-    List<T> list = (List<T>) handlersMap.get(handlerClass);
-    return (list == null) ?
+    HandlerList handlers = handlersMap.get(handlerClass);
+    if (handlers == null) {
+      return null;
+    }
+    List<T> list = new ArrayList<T>(handlers.size());
+    for (EventHandlerInterface<?> handler : handlers.snapshot()) {
+      list.add((T) handler);
+    }
+    return list;
+  }
+
+  /**
+   * Returns the handlers with the given class without copying them. It should only be used by the
+   * framework.<br>
+   * <br>
+   * The returned array must not be modified. It is never modified by the event bus either: adding
+   * or removing a handler of this class creates a new snapshot, so it is safe to iterate over it
+   * while handlers are added or removed.
+   *
+   * @param handlerClass
+   *   class of the handlers
+   *
+   * @return array of handlers, null if no handler of this class has ever been added
+   */
+  public EventHandlerInterface<?>[] getHandlerSnapshot(Class<? extends EventHandlerInterface<?>> handlerClass) {
+    HandlerList handlers = handlersMap.get(handlerClass);
+    return (handlers == null) ?
            null :
-           new ArrayList<T>(list);
+           handlers.snapshot();
   }
 }
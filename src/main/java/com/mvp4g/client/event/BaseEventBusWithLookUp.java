@@ -15,8 +15,6 @@
  */
 package com.mvp4g.client.event;
 
-import com.mvp4g.client.Mvp4gException;
-
 /**
  * Abstract implementation of <code>EventBusWithLookup</code>. This class should only be used by the
  * framework.
@@ -27,25 +25,7 @@ public abstract class BaseEventBusWithLookUp
   extends BaseEventBus
   implements EventBusWithLookup {
 
-  /**
-   * When a ClassCastException is thrown while executing dispatch method, verify if it is thrown
-   * by this class. If it's the case, then send an Mvp4gException to indicate that an object with
-   * the wrong class type has been sent with the event.
-   *
-   * @param e
-   *   ClassCastException thrown
-   * @param eventName
-   *   name of the event dispatched while error is thrown
-   */
-  protected void handleClassCastException(ClassCastException e,
-                                          String eventName) {
-    if (e.getStackTrace()[0].getClassName()
-                            .equals(this.getClass()
-                                        .getName())) {
-      throw new Mvp4gException("Class of the object sent with event " + eventName + " is incorrect.");
-    }
-    throw e;
-  }  /*
+  /*
    * (non-Javadoc)
    *
    * @see com.mvp4g.client.event.EventBusWithLookup#dispatch(java.lang.String)
@@ -15,6 +15,9 @@
  */
 package com.mvp4g.client.event;
 
+import com.mvp4g.client.ModuleProfiler;
+import com.mvp4g.client.Mvp4gException;
+
 /**
  * Default implementation of <code>EventHandlerInterface</code>.<br>
  * <br>
@@ -55,17 +58,46 @@ public class BaseEventHandler<E extends EventBus>
   }
 
   /**
-   * Set the event bus in token generation mode and return it. When the event bus is in token
-   * generation mode, for the next call to an event method, it won't fire the event and forward it
-   * to handlers but instead, it will generate the event token.
+   * Return the token generator of the event bus. When calling an event method of the token
+   * generator, it won't fire the event and forward it to handlers but instead, it will generate
+   * the event token.<br>
+   * <br>
+   * If the event bus has no token generator, the event bus is set in token generation mode for the
+   * next event and returned.
    *
-   * @return the event bus in token generation mode.
+   * @return the token generator of the event bus.
    */
+  @SuppressWarnings("unchecked")
   public E getTokenGenerator() {
+    if (eventBus instanceof BaseEventBus) {
+      EventBus tokenGenerator = ((BaseEventBus) eventBus).getTokenGenerator();
+      if (tokenGenerator != null) {
+        return (E) tokenGenerator;
+      }
+    }
     eventBus.setTokenGenerationModeForNextEvent();
     return eventBus;
   }
 
+  /**
+   * Generate the tokens of an event for several sets of parameters at once.
+   *
+   * @param eventName
+   *   name of the event
+   * @param params
+   *   parameters of the event, one array for each token to generate
+   *
+   * @return the generated tokens, in the same order as the parameters
+   */
+  public String[] generateTokens(String eventName,
+                                 Object[]... params) {
+    if (eventBus instanceof BaseEventBus) {
+      return ((BaseEventBus) eventBus).generateTokens(eventName,
+                                                      params);
+    }
+    throw new Mvp4gException("Event " + eventName + " can't generate a token.");
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -86,21 +118,47 @@ public class BaseEventHandler<E extends EventBus>
   public final boolean isActivated(boolean passive,
                                    String eventName,
                                    Object... parameters) {
-    boolean activated = this.activated &&
-                        pass(eventName,
-                             parameters);
-    if (activated) {
-      if (passive) {
-        return binded;
+    return activated &&
+           pass(eventName,
+                parameters) &&
+           prepareForEvent(passive);
+  }
+
+  /**
+   * Same as <code>isActivated</code> but without calling the <code>pass</code> method.<br>
+   * <br>
+   * The generated event bus calls this method for handlers that don't override
+   * <code>pass</code>, so that no array of parameters has to be built each time an event is
+   * fired.
+   *
+   * @param passive
+   *   indicate if it's a passive event or not
+   *
+   * @return true if the handler is activated, false otherwise
+   */
+  public final boolean isActivatedWithoutPass(boolean passive) {
+    return activated && prepareForEvent(passive);
+  }
+
+  private boolean prepareForEvent(boolean passive) {
+    if (passive) {
+      return binded;
+    }
+    onBeforeEvent();
+    if (!binded) {
+      ModuleProfiler profiler = ModuleProfiler.INSTANCE;
+      if (profiler.isProfiled(eventBus)) {
+        double start = profiler.now();
+        bind();
+        profiler.bound(eventBus,
+                       getClass().getName(),
+                       start);
       } else {
-        onBeforeEvent();
-        if (!binded) {
-          bind();
-          binded = true;
-        }
+        bind();
       }
+      binded = true;
     }
-    return activated;
+    return true;
   }
 
   /**
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client.event;
+
+import com.mvp4g.client.Mvp4gException;
+import com.mvp4g.client.annotation.Debug.LogLevel;
+import com.mvp4g.client.history.HistoryProxy;
+import com.mvp4g.client.history.NavigationConfirmationInterface;
+import com.mvp4g.client.history.NavigationEventCommand;
+
+/**
+ * Base implementation of the token generator of an event bus. It should only be used by the
+ * framework.<br>
+ * <br>
+ * The generated token generator implements the interface of the event bus: its events with a token
+ * generation only return their token whereas its other events are forwarded to the event bus. It
+ * has no state of its own, all the other methods are forwarded to the event bus as well.
+ */
+public abstract class BaseTokenGenerator
+  implements EventBus {
+
+  private final EventBus eventBus;
+
+  /**
+   * @param eventBus
+   *   event bus of the token generator
+   */
+  protected BaseTokenGenerator(EventBus eventBus) {
+    this.eventBus = eventBus;
+  }
+
+  /**
+   * Generate the tokens of an event with a token generation for several sets of parameters at
+   * once. This method is overridden by the generated token generator.
+   *
+   * @param eventName
+   *   name of the event
+   * @param params
+   *   parameters of the event, one array for each token to generate
+   *
+   * @return the generated tokens, in the same order as the parameters
+   */
+  public String[] generateTokens(String eventName,
+                                 Object[]... params) {
+    throw new Mvp4gException("Event " + eventName + " can't generate a token.");
+  }
+
+  /**
+   * When a ClassCastException is thrown while generating tokens, verify if it is thrown by this
+   * class. If it's the case, then send an Mvp4gException to indicate that an object with the wrong
+   * class type has been sent with the event.
+   *
+   * @param e
+   *   ClassCastException thrown
+   * @param eventName
+   *   name of the event whose tokens were generated
+   */
+  protected void handleClassCastException(ClassCastException e,
+                                          String eventName) {
+    if (e.getStackTrace()[0].getClassName()
+                            .equals(this.getClass()
+                                        .getName())) {
+      throw new Mvp4gException("Class of the object sent with event " + eventName + " is incorrect.");
+    }
+    throw e;
+  }
+
+  public void setApplicationHistoryStored(boolean historyStored) {
+    eventBus.setApplicationHistoryStored(historyStored);
+  }
+
+  public void setHistoryStoredForNextOne(boolean historyStored) {
+    eventBus.setHistoryStoredForNextOne(historyStored);
+  }
+
+  public boolean isHistoryStored() {
+    return eventBus.isHistoryStored();
+  }
+
+  public void setHistoryStored(boolean historyStored) {
+    eventBus.setHistoryStored(historyStored);
+  }
+
+  public void setFilteringEnabledForNextOne(boolean filteringEnabled) {
+    eventBus.setFilteringEnabledForNextOne(filteringEnabled);
+  }
+
+  public boolean isFilteringEnabled() {
+    return eventBus.isFilteringEnabled();
+  }
+
+  public void setFilteringEnabled(boolean filteringEnabled) {
+    eventBus.setFilteringEnabled(filteringEnabled);
+  }
+
+  public void setLogLevel(LogLevel logLevel) {
+    eventBus.setLogLevel(logLevel);
+  }
+
+  public LogLevel getLogLevel() {
+    return eventBus.getLogLevel();
+  }
+
+  public void setLogFilter(String logFilter) {
+    eventBus.setLogFilter(logFilter);
+  }
+
+  public <E extends EventBus, T extends EventHandlerInterface<E>> T addHandler(Class<T> handlerClass)
+    throws Mvp4gException {
+    return eventBus.addHandler(handlerClass);
+  }
+
+  public <E extends EventBus, T extends EventHandlerInterface<E>> T addHandler(Class<T> handlerClass,
+                                                                               boolean bind)
+    throws Mvp4gException {
+    return eventBus.addHandler(handlerClass,
+                               bind);
+  }
+
+  public <T extends EventHandlerInterface<?>> void removeHandler(T handler) {
+    eventBus.removeHandler(handler);
+  }
+
+  public void addEventFilter(EventFilter<? extends EventBus> filter) {
+    eventBus.addEventFilter(filter);
+  }
+
+  public void removeEventFilter(EventFilter<? extends EventBus> filter) {
+    eventBus.removeEventFilter(filter);
+  }
+
+  public void setNavigationConfirmation(NavigationConfirmationInterface navigationConfirmation) {
+    eventBus.setNavigationConfirmation(navigationConfirmation);
+  }
+
+  public void confirmNavigation(NavigationEventCommand event) {
+    eventBus.confirmNavigation(event);
+  }
+
+  public HistoryProxy getHistory() {
+    return eventBus.getHistory();
+  }
+
+  /**
+   * Nothing is done: the events of the token generator always generate their token.
+   */
+  public void setTokenGenerationModeForNextEvent() {
+    // nothing to do
+  }
+
+  /*
+   * Look up methods of the event buses with look up, the generated token generator only
+   * implements them if its event bus does.
+   */
+
+  public void dispatch(String eventName,
+                       Object... data) {
+    ((EventBusWithLookup) eventBus).dispatch(eventName,
+                                             data);
+  }
+
+  public void dispatch(String eventName) {
+    ((EventBusWithLookup) eventBus).dispatch(eventName);
+  }
+
+  public <E extends Enum<E>> void dispatch(Enum<E> enumEventName,
+                                           Object... data) {
+    ((EventBusWithLookup) eventBus).dispatch(enumEventName,
+                                             data);
+  }
+
+  public <E extends Enum<E>> void dispatch(Enum<E> enumEventName) {
+    ((EventBusWithLookup) eventBus).dispatch(enumEventName);
+  }
+
+}
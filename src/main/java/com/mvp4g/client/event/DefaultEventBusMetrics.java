@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gwt.core.client.Duration;
+
+/**
+ * Default implementation of the event bus metrics. It counts events and filter rejections and
+ * keeps a latency histogram for each handler of each event and for each child module load.<br>
+ * <br>
+ * Counters and histograms are created the first time an event, a handler or a module is measured;
+ * after that, recording a measure doesn't allocate anything.
+ */
+public class DefaultEventBusMetrics
+  implements EventBusMetrics {
+
+  private Map<String, int[]>                         eventCounts      = new HashMap<String, int[]>();
+  private Map<String, int[]>                         filterRejections = new HashMap<String, int[]>();
+  private Map<String, Map<String, LatencyHistogram>> handlers         = new HashMap<String, Map<String, LatencyHistogram>>();
+  private Map<String, LatencyHistogram>              childModules     = new HashMap<String, LatencyHistogram>();
+
+  public double now() {
+    return Duration.currentTimeMillis();
+  }
+
+  public void onEvent(String eventName) {
+    increment(eventCounts,
+              eventName);
+  }
+
+  public void onHandle(String eventName,
+                       String handlerName,
+                       double durationMillis) {
+    Map<String, LatencyHistogram> eventHandlers = handlers.get(eventName);
+    if (eventHandlers == null) {
+      eventHandlers = new HashMap<String, LatencyHistogram>();
+      handlers.put(eventName,
+                   eventHandlers);
+    }
+    getHistogram(eventHandlers,
+                 handlerName).record(durationMillis);
+  }
+
+  public void onFilterRejection(String eventName) {
+    increment(filterRejections,
+              eventName);
+  }
+
+  public void onChildModuleLoad(String moduleClassName,
+                                double durationMillis) {
+    getHistogram(childModules,
+                 moduleClassName).record(durationMillis);
+  }
+
+  /**
+   * @param eventName
+   *   name of the event
+   *
+   * @return number of times the event has been fired
+   */
+  public int getEventCount(String eventName) {
+    return getCount(eventCounts,
+                    eventName);
+  }
+
+  /**
+   * @param eventName
+   *   name of the event
+   *
+   * @return number of times the event has been stopped by a filter
+   */
+  public int getFilterRejectionCount(String eventName) {
+    return getCount(filterRejections,
+                    eventName);
+  }
+
+  /**
+   * @param eventName
+   *   name of the event
+   * @param handlerName
+   *   name of the handler
+   *
+   * @return latency histogram of the handler for the event, null if the handler hasn't handled the
+   * event yet
+   */
+  public LatencyHistogram getHandlerHistogram(String eventName,
+                                              String handlerName) {
+    Map<String, LatencyHistogram> eventHandlers = handlers.get(eventName);
+    return (eventHandlers == null) ?
+           null :
+           eventHandlers.get(handlerName);
+  }
+
+  /**
+   * @param moduleClassName
+   *   class of the child module
+   *
+   * @return load time histogram of the child module, null if the module hasn't been loaded yet
+   */
+  public LatencyHistogram getChildModuleHistogram(String moduleClassName) {
+    return childModules.get(moduleClassName);
+  }
+
+  /**
+   * Forget all the measures.
+   */
+  public void reset() {
+    eventCounts.clear();
+    filterRejections.clear();
+    handlers.clear();
+    childModules.clear();
+  }
+
+  private void increment(Map<String, int[]> counts,
+                         String name) {
+    int[] count = counts.get(name);
+    if (count == null) {
+      count = new int[1];
+      counts.put(name,
+                 count);
+    }
+    count[0]++;
+  }
+
+  private int getCount(Map<String, int[]> counts,
+                       String name) {
+    int[] count = counts.get(name);
+    return (count == null) ?
+           0 :
+           count[0];
+  }
+
+  private LatencyHistogram getHistogram(Map<String, LatencyHistogram> histograms,
+                                        String name) {
+    LatencyHistogram histogram = histograms.get(name);
+    if (histogram == null) {
+      histogram = new LatencyHistogram();
+      histograms.put(name,
+                     histogram);
+    }
+    return histogram;
+  }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
+
+/**
+ * Default implementation of the event scheduler based on the browser clock and timers.
+ */
+public class DefaultEventScheduler
+  implements EventScheduler {
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see com.mvp4g.client.event.EventScheduler#now()
+   */
+  public double now() {
+    return Duration.currentTimeMillis();
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see com.mvp4g.client.event.EventScheduler#schedule(int, com.google.gwt.user.client.Command)
+   */
+  public void schedule(int delayMillis,
+                       final Command command) {
+    if (delayMillis <= 0) {
+      Scheduler.get()
+               .scheduleDeferred(command);
+    } else {
+      new Timer() {
+
+        @Override
+        public void run() {
+          command.execute();
+        }
+
+      }.schedule(delayMillis);
+    }
+  }
+
+}
@@ -27,6 +27,8 @@ public class DefaultMvp4gLogger
 
   static final String INDENT = "    ";
 
+  private static String[] indents = new String[0];
+
   public void log(String message,
                   int depth) {
     GWT.log(createLog(message,
@@ -36,15 +38,32 @@ public class DefaultMvp4gLogger
 
   String createLog(String message,
                    int depth) {
-    if (depth == 0) {
+    if (depth <= 0) {
       return message;
     } else {
-      StringBuilder indent = new StringBuilder(message.length() + depth * INDENT.length());
-      for (int i = 0; i < depth; ++i) {
-        indent.append(INDENT);
+      return getIndent(depth) + message;
+    }
+  }
+
+  /**
+   * Indents are built once per depth and then reused.
+   */
+  static String getIndent(int depth) {
+    if (depth >= indents.length) {
+      String[] newIndents = new String[depth + 1];
+      System.arraycopy(indents,
+                       0,
+                       newIndents,
+                       0,
+                       indents.length);
+      for (int i = indents.length; i <= depth; i++) {
+        newIndents[i] = (i == 0) ?
+                        "" :
+                        newIndents[i - 1] + INDENT;
       }
-      indent.append(message);
-      return indent.toString();
+      indents = newIndents;
     }
+    return indents[depth];
   }
+
 }
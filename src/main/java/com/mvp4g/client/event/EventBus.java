@@ -16,6 +16,7 @@
 package com.mvp4g.client.event;
 
 import com.mvp4g.client.Mvp4gException;
+import com.mvp4g.client.annotation.Debug.LogLevel;
 import com.mvp4g.client.history.HistoryProxy;
 import com.mvp4g.client.history.NavigationConfirmationInterface;
 import com.mvp4g.client.history.NavigationEventCommand;
@@ -93,7 +94,34 @@ public interface EventBus {
   void setFilteringEnabled(boolean filteringEnabled);
 
   /**
-   * Create a new instance of the handler, bind it and add it to event bus.<br>
+   * Set the level of the logs generated thanks to the <code>Debug</code> annotation. This method
+   * has no effect if the event bus isn't annotated with <code>Debug</code>.
+   *
+   * @param logLevel
+   *   level of the logs, <code>LogLevel.OFF</code> to deactivate them
+   */
+  void setLogLevel(LogLevel logLevel);
+
+  /**
+   * Indicate the current level of the logs.
+   *
+   * @return level of the logs
+   */
+  LogLevel getLogLevel();
+
+  /**
+   * Restrict the logs to the events whose name matches the given pattern. The pattern is a list
+   * of globs separated by commas, where '*' matches any sequence of characters and '?' any
+   * character, for example "load*,show?Presenter".
+   *
+   * @param logFilter
+   *   pattern of the logged events, null to log all events
+   */
+  void setLogFilter(String logFilter);
+
+  /**
+   * Create a new instance of the handler, bind it and add it to event bus. If the handler is
+   * pooled, a recycled instance is reused instead when there is one.<br>
    * <br>
    * . Calling this method is equivalent to addHandler(handlerClass, true);
    *
@@ -140,7 +168,8 @@ public interface EventBus {
     throws Mvp4gException;
 
   /**
-   * Remove the instance of the handler from the event bus
+   * Remove the instance of the handler from the event bus. If the handler is pooled and the pool
+   * isn't full, the handler is recycled and kept to be reused by the next handler added.
    *
    * @param <T>
    *   type of the handler to remove
@@ -158,7 +187,8 @@ public interface EventBus {
   void addEventFilter(EventFilter<? extends EventBus> filter);
 
   /**
-   * Remove event filter
+   * Remove event filter. The filters declared with <code>@Filters</code> can be removed as well,
+   * even though the event bus only knows them through the lazy filters that create them.
    *
    * @param filter
    *   event filter to remove
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+/**
+ * Interface that receives the measures of an event bus when the event bus is annotated with
+ * <code>@Metrics</code>.<br>
+ * <br>
+ * Calls to the metrics are generated directly into the event bus, so methods are called on the hot
+ * path and shouldn't allocate or do any heavy work.
+ */
+public interface EventBusMetrics {
+
+  /**
+   * @return current time in milliseconds, used to measure durations
+   */
+  double now();
+
+  /**
+   * Called each time an event is fired.
+   *
+   * @param eventName
+   *   name of the event
+   */
+  void onEvent(String eventName);
+
+  /**
+   * Called each time a handler has handled an event.
+   *
+   * @param eventName
+   *   name of the event
+   * @param handlerName
+   *   name of the handler
+   * @param durationMillis
+   *   time spent by the handler
+   */
+  void onHandle(String eventName,
+                String handlerName,
+                double durationMillis);
+
+  /**
+   * Called each time an event is stopped by a filter.
+   *
+   * @param eventName
+   *   name of the event
+   */
+  void onFilterRejection(String eventName);
+
+  /**
+   * Called when a child module has been loaded.
+   *
+   * @param moduleClassName
+   *   class of the child module
+   * @param durationMillis
+   *   time between the load request and the creation of the module
+   */
+  void onChildModuleLoad(String moduleClassName,
+                         double durationMillis);
+
+}
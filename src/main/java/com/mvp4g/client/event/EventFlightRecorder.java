@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import com.google.gwt.core.client.Duration;
+
+/**
+ * Flight recorder that keeps the last events fired by the event buses annotated with
+ * <code>FlightRecorder</code>. For each event, it records the module, the event name, the
+ * handlers that handled it, its duration and its nesting depth (an event fired by a handler is
+ * one level deeper than the event that caused it).<br>
+ * <br>
+ * Records are stored in arrays allocated once, overwriting the oldest record when the recorder is
+ * full, so recording an event doesn't allocate anything. The content of the recorder can be
+ * retrieved at any time with {@link #dump()}.<br>
+ * <br>
+ * All modules share the same recorder so that a cascade of events through several modules can be
+ * read in order.
+ */
+public class EventFlightRecorder {
+
+  public static final int DEFAULT_CAPACITY = 256;
+
+  /**
+   * Maximum number of handler names recorded for an event. Handlers beyond this limit are only
+   * counted.
+   */
+  public static final int MAX_HANDLERS = 8;
+
+  public static final EventFlightRecorder INSTANCE = new EventFlightRecorder(DEFAULT_CAPACITY);
+
+  // record ids cycle through a power of two so that id & mask always gives the same slot
+  private static final int ID_MASK = (1 << 30) - 1;
+
+  private int        mask;
+  private int[]      ids;
+  private String[]   modules;
+  private String[]   events;
+  private String[][] handlers;
+  private int[]      handlerCounts;
+  private int[]      depths;
+  private double[]   startTimes;
+  private double[]   durations;
+  private int        nextId = 0;
+  private int        size   = 0;
+
+  /**
+   * @param capacity
+   *   number of records kept, rounded up to the next power of two
+   */
+  public EventFlightRecorder(int capacity) {
+    allocate(roundCapacity(capacity));
+  }
+
+  /**
+   * Start the record of an event.
+   *
+   * @param moduleName
+   *   name of the module that fires the event
+   * @param eventName
+   *   name of the event
+   * @param depth
+   *   nesting depth of the event
+   *
+   * @return id of the record, to give to {@link #handled(int, String)} and {@link #end(int)}
+   */
+  public int start(String moduleName,
+                   String eventName,
+                   int depth) {
+    int id   = nextId;
+    int slot = id & mask;
+    nextId = (id + 1) & ID_MASK;
+    if (size <= mask) {
+      size++;
+    }
+    ids[slot] = id;
+    modules[slot] = moduleName;
+    events[slot] = eventName;
+    handlerCounts[slot] = 0;
+    depths[slot] = depth;
+    durations[slot] = -1;
+    startTimes[slot] = now();
+    return id;
+  }
+
+  /**
+   * Record that a handler handles the event. Nothing is recorded if the record has already been
+   * overwritten.
+   *
+   * @param id
+   *   id of the record
+   * @param handlerName
+   *   name of the handler
+   */
+  public void handled(int id,
+                      String handlerName) {
+    int slot = id & mask;
+    if (ids[slot] == id) {
+      int count = handlerCounts[slot]++;
+      if (count < MAX_HANDLERS) {
+        handlers[slot][count] = handlerName;
+      }
+    }
+  }
+
+  /**
+   * End the record of an event. Nothing is recorded if the record has already been overwritten.
+   *
+   * @param id
+   *   id of the record
+   */
+  public void end(int id) {
+    int slot = id & mask;
+    if (ids[slot] == id) {
+      durations[slot] = now() - startTimes[slot];
+    }
+  }
+
+  /**
+   * Make sure the recorder can keep at least the given number of records. Records already
+   * captured are kept, including the ones that haven't ended yet.
+   *
+   * @param capacity
+   *   minimum number of records kept
+   */
+  public void ensureCapacity(int capacity) {
+    int newCapacity = roundCapacity(capacity);
+    if (newCapacity > getCapacity()) {
+      int        oldMask          = mask;
+      int[]      oldIds           = ids;
+      String[]   oldModules       = modules;
+      String[]   oldEvents        = events;
+      String[][] oldHandlers      = handlers;
+      int[]      oldHandlerCounts = handlerCounts;
+      int[]      oldDepths        = depths;
+      double[]   oldStartTimes    = startTimes;
+      double[]   oldDurations     = durations;
+      allocate(newCapacity);
+      int oldSlot, slot;
+      for (int i = 0; i < size; i++) {
+        oldSlot = (nextId - size + i) & oldMask;
+        slot = oldIds[oldSlot] & mask;
+        ids[slot] = oldIds[oldSlot];
+        modules[slot] = oldModules[oldSlot];
+        events[slot] = oldEvents[oldSlot];
+        handlers[slot] = oldHandlers[oldSlot];
+        handlerCounts[slot] = oldHandlerCounts[oldSlot];
+        depths[slot] = oldDepths[oldSlot];
+        startTimes[slot] = oldStartTimes[oldSlot];
+        durations[slot] = oldDurations[oldSlot];
+      }
+    }
+  }
+
+  /**
+   * @return number of records the recorder can keep
+   */
+  public int getCapacity() {
+    return mask + 1;
+  }
+
+  /**
+   * @return number of records currently kept
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @param index
+   *   index of the record, 0 being the oldest one
+   *
+   * @return name of the module that fired the event
+   */
+  public String getModuleName(int index) {
+    return modules[getSlot(index)];
+  }
+
+  /**
+   * @param index
+   *   index of the record, 0 being the oldest one
+   *
+   * @return name of the event
+   */
+  public String getEventName(int index) {
+    return events[getSlot(index)];
+  }
+
+  /**
+   * @param index
+   *   index of the record, 0 being the oldest one
+   *
+   * @return names of the handlers that handled the event (at most {@link #MAX_HANDLERS})
+   */
+  public String[] getHandlers(int index) {
+    int      slot   = getSlot(index);
+    String[] result = new String[Math.min(handlerCounts[slot],
+                                          MAX_HANDLERS)];
+    System.arraycopy(handlers[slot],
+                     0,
+                     result,
+                     0,
+                     result.length);
+    return result;
+  }
+
+  /**
+   * @param index
+   *   index of the record, 0 being the oldest one
+   *
+   * @return number of handlers that handled the event
+   */
+  public int getHandlerCount(int index) {
+    return handlerCounts[getSlot(index)];
+  }
+
+  /**
+   * @param index
+   *   index of the record, 0 being the oldest one
+   *
+   * @return nesting depth of the event
+   */
+  public int getDepth(int index) {
+    return depths[getSlot(index)];
+  }
+
+  /**
+   * @param index
+   *   index of the record, 0 being the oldest one
+   *
+   * @return duration of the event in milliseconds, -1 if the event hasn't ended yet
+   */
+  public double getDuration(int index) {
+    return durations[getSlot(index)];
+  }
+
+  /**
+   * Build a readable version of the records, one line per event from the oldest to the newest,
+   * indented by nesting depth.
+   *
+   * @return content of the recorder
+   */
+  public String dump() {
+    StringBuilder builder = new StringBuilder(size * 80);
+    int           slot, count;
+    for (int i = 0; i < size; i++) {
+      slot = getSlot(i);
+      builder.append(DefaultMvp4gLogger.getIndent(Math.max(depths[slot],
+                                                           0)));
+      builder.append("Module: ")
+             .append(modules[slot])
+             .append(" || event: ")
+             .append(events[slot]);
+      count = handlerCounts[slot];
+      if (count > 0) {
+        builder.append(" || handler(s): ");
+        for (int j = 0; j < Math.min(count,
+                                     MAX_HANDLERS); j++) {
+          if (j > 0) {
+            builder.append(", ");
+          }
+          builder.append(handlers[slot][j]);
+        }
+        if (count > MAX_HANDLERS) {
+          builder.append(" (+")
+                 .append(count - MAX_HANDLERS)
+                 .append(")");
+        }
+      }
+      builder.append(" || ");
+      if (durations[slot] < 0) {
+        builder.append("running");
+      } else {
+        builder.append(durations[slot])
+               .append(" ms");
+      }
+      builder.append("\n");
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Forget all the records.
+   */
+  public void clear() {
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = -1;
+    }
+    size = 0;
+  }
+
+  protected double now() {
+    return Duration.currentTimeMillis();
+  }
+
+  private int getSlot(int index) {
+    if ((index < 0) || (index >= size)) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return (nextId - size + index) & mask;
+  }
+
+  private void allocate(int capacity) {
+    mask = capacity - 1;
+    ids = new int[capacity];
+    for (int i = 0; i < capacity; i++) {
+      ids[i] = -1;
+    }
+    modules = new String[capacity];
+    events = new String[capacity];
+    handlers = new String[capacity][MAX_HANDLERS];
+    handlerCounts = new int[capacity];
+    depths = new int[capacity];
+    startTimes = new double[capacity];
+    durations = new double[capacity];
+  }
+
+  private static int roundCapacity(int capacity) {
+    int rounded = 1;
+    while (rounded < capacity) {
+      rounded <<= 1;
+    }
+    return rounded;
+  }
+
+}
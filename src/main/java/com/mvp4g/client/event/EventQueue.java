@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import java.util.ArrayDeque;
+
+import com.google.gwt.user.client.Command;
+import com.mvp4g.client.annotation.Event.Lane;
+
+/**
+ * Queue of the deferred events of an event bus. It should only be used by the framework.<br>
+ * <br>
+ * Events are stored in one lane per priority (input, normal, background). Once the browser gets
+ * the control back, the queue handles the events of the highest priority lane first and stops
+ * when its time budget is spent. The remaining events are handled during the next ticks.<br>
+ * <br>
+ * Time and ticks are given by the event scheduler of the event bus.
+ */
+public class EventQueue {
+
+  /**
+   * Default time budget of a tick in milliseconds
+   */
+  public static final int DEFAULT_TIME_BUDGET = 8;
+
+  private final BaseEventBus                eventBus;
+  private final ArrayDeque<DeferredEvent>[] lanes;
+  private       int                         timeBudget = DEFAULT_TIME_BUDGET;
+  private       boolean                     scheduled  = false;
+
+  private final Command drain = new Command() {
+
+    public void execute() {
+      drain();
+    }
+
+  };
+
+  @SuppressWarnings("unchecked")
+  public EventQueue(BaseEventBus eventBus) {
+    this.eventBus = eventBus;
+    Lane[] values = Lane.values();
+    lanes = new ArrayDeque[values.length];
+    for (int i = 0; i < values.length; i++) {
+      lanes[i] = new ArrayDeque<DeferredEvent>();
+    }
+  }
+
+  /**
+   * Add an event to the queue.
+   *
+   * @param lane
+   *   lane of the event
+   * @param eventName
+   *   name of the event
+   * @param params
+   *   parameters of the event
+   */
+  public void add(Lane lane,
+                  String eventName,
+                  Object[] params) {
+    lanes[lane.ordinal()].add(new DeferredEvent(eventName,
+                                                params));
+    if (!scheduled) {
+      scheduled = true;
+      eventBus.getEventScheduler()
+              .schedule(0,
+                        drain);
+    }
+  }
+
+  /**
+   * @return number of events waiting to be handled
+   */
+  public int size() {
+    int size = 0;
+    for (ArrayDeque<DeferredEvent> lane : lanes) {
+      size += lane.size();
+    }
+    return size;
+  }
+
+  /**
+   * Drop the events waiting to be handled.
+   */
+  public void clear() {
+    for (ArrayDeque<DeferredEvent> lane : lanes) {
+      lane.clear();
+    }
+  }
+
+  /**
+   * @return the time in milliseconds the queue can spend handling events during a tick
+   */
+  public int getTimeBudget() {
+    return timeBudget;
+  }
+
+  /**
+   * @param timeBudget
+   *   the time in milliseconds the queue can spend handling events during a tick. At least one
+   *   event is handled at each tick.
+   */
+  public void setTimeBudget(int timeBudget) {
+    this.timeBudget = timeBudget;
+  }
+
+  private void drain() {
+    scheduled = false;
+    if (eventBus.isUnloaded()) {
+      clear();
+      return;
+    }
+    EventScheduler scheduler = eventBus.getEventScheduler();
+    double         deadline  = scheduler.now() + timeBudget;
+    DeferredEvent  event;
+    try {
+      while ((event = poll()) != null) {
+        eventBus.fireDeferredEvent(event.eventName,
+                                   event.params);
+        if (scheduler.now() >= deadline) {
+          break;
+        }
+      }
+    } finally {
+      // budget spent or handler failure: remaining events are handled during the next ticks
+      if (!scheduled && (size() > 0)) {
+        scheduled = true;
+        scheduler.schedule(0,
+                           drain);
+      }
+    }
+  }
+
+  private DeferredEvent poll() {
+    for (ArrayDeque<DeferredEvent> lane : lanes) {
+      if (!lane.isEmpty()) {
+        return lane.poll();
+      }
+    }
+    return null;
+  }
+
+  private static class DeferredEvent {
+
+    private final String   eventName;
+    private final Object[] params;
+
+    private DeferredEvent(String eventName,
+                          Object[] params) {
+      this.eventName = eventName;
+      this.params = params;
+    }
+
+  }
+
+}
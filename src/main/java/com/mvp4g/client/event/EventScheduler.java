@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import com.google.gwt.user.client.Command;
+
+/**
+ * Clock and timer used by the event bus to delay events (for example events shaped thanks to the
+ * shaping attribute of <code>@Event</code>).<br>
+ * <br>
+ * By default, the event bus uses {@link DefaultEventScheduler}. Another implementation can be set
+ * with {@link BaseEventBus#setEventScheduler(EventScheduler)}, for example to control the time in
+ * a test.
+ */
+public interface EventScheduler {
+
+  /**
+   * @return current time in milliseconds
+   */
+  double now();
+
+  /**
+   * Execute a command once the given delay has expired. With a delay of 0, the command is executed
+   * once the browser event currently handled is over.
+   *
+   * @param delayMillis
+   *   delay in milliseconds
+   * @param command
+   *   command to execute
+   */
+  void schedule(int delayMillis,
+                Command command);
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import com.google.gwt.user.client.Command;
+import com.mvp4g.client.annotation.Event.Shaping;
+
+/**
+ * Limits the rate at which an event is handled. It should only be used by the framework: the
+ * generated event bus creates one shaper for each event with a shaping and asks it at the
+ * beginning of the event method if the event can be handled now.<br>
+ * <br>
+ * When a fire is delayed, the shaper keeps its parameters and refires the event thanks to the
+ * {@link #fire(Object[])} method once the delay has expired. Time and delays are given by the
+ * event scheduler of the event bus.
+ */
+public abstract class EventShaper {
+
+  private final BaseEventBus eventBus;
+  private final Shaping      shaping;
+  private final int          window;
+
+  private Object[] pending;
+  private Object[] previous;
+  private boolean  hasPrevious = false;
+  private boolean  scheduled   = false;
+  private boolean  releasing   = false;
+  private boolean  fired       = false;
+  private double   lastFire;
+  private double   dueTime;
+
+  private final Command release = new Command() {
+
+    public void execute() {
+      release();
+    }
+
+  };
+
+  /**
+   * @param eventBus
+   *   event bus that fires the event
+   * @param shaping
+   *   shaping of the event
+   * @param window
+   *   window in milliseconds for the DEBOUNCE and THROTTLE shapings
+   */
+  public EventShaper(BaseEventBus eventBus,
+                     Shaping shaping,
+                     int window) {
+    this.eventBus = eventBus;
+    this.shaping = shaping;
+    this.window = window;
+  }
+
+  /**
+   * @param params
+   *   parameters of the fire
+   *
+   * @return true if the event can be handled now, false if it is ignored or delayed
+   */
+  public boolean shape(Object[] params) {
+    if (releasing) {
+      // the event is refired by the shaper
+      releasing = false;
+      return true;
+    }
+    double now;
+    switch (shaping) {
+      case COALESCE:
+        pending = params;
+        schedule(0);
+        return false;
+      case DEBOUNCE:
+        pending = params;
+        dueTime = eventBus.getEventScheduler()
+                          .now() + window;
+        schedule(window);
+        return false;
+      case THROTTLE:
+        now = eventBus.getEventScheduler()
+                      .now();
+        if (!scheduled && (!fired || (now - lastFire >= window))) {
+          fired = true;
+          lastFire = now;
+          return true;
+        }
+        pending = params;
+        schedule((int) Math.ceil(lastFire + window - now));
+        return false;
+      case DISTINCT:
+        if (hasPrevious && sameParameters(previous,
+                                          params)) {
+          return false;
+        }
+        previous = params;
+        hasPrevious = true;
+        return true;
+      default:
+        return true;
+    }
+  }
+
+  /**
+   * Refires the event with the given parameters.
+   *
+   * @param params
+   *   parameters of the last fire
+   */
+  protected abstract void fire(Object[] params);
+
+  private void schedule(int delay) {
+    if (!scheduled) {
+      scheduled = true;
+      eventBus.getEventScheduler()
+              .schedule(delay,
+                        release);
+    }
+  }
+
+  private void release() {
+    if (eventBus.isUnloaded()) {
+      // the module has been unloaded since the fire was delayed
+      scheduled = false;
+      pending = null;
+      return;
+    }
+    EventScheduler scheduler = eventBus.getEventScheduler();
+    double         now       = scheduler.now();
+    if ((shaping == Shaping.DEBOUNCE) && (now < dueTime)) {
+      // the event has been fired again since the timer was set
+      scheduler.schedule((int) Math.ceil(dueTime - now),
+                         release);
+      return;
+    }
+    scheduled = false;
+    lastFire = now;
+    Object[] params = pending;
+    pending = null;
+    releasing = true;
+    try {
+      fire(params);
+    } finally {
+      releasing = false;
+    }
+  }
+
+  private boolean sameParameters(Object[] params1,
+                                 Object[] params2) {
+    if (params1 == params2) {
+      return true;
+    }
+    if ((params1 == null) || (params2 == null) || (params1.length != params2.length)) {
+      return false;
+    }
+    for (int i = 0; i < params1.length; i++) {
+      if ((params1[i] == null) ? (params2[i] != null) : !params1[i].equals(params2[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
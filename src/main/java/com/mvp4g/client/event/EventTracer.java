@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import com.google.gwt.core.client.Duration;
+
+/**
+ * Tracer that links events to the event that caused them. Each event dispatched by an event bus
+ * annotated with <code>Tracing</code> opens a span whose parent is the span open when the event is
+ * fired, so that an event fired by a handler is a child of the event handled. Spans of the same
+ * cascade share the id of the first span, the trace id.<br>
+ * <br>
+ * All modules share the same tracer. Child module loads open a span too and, when the module is
+ * loaded asynchronously, the span of the event that asked for the load is resumed in the callback
+ * so that events forwarded to the child module belong to the same trace.<br>
+ * <br>
+ * The last spans are kept in a ring buffer and can be exported with {@link #toChromeTrace()} in the
+ * Chrome Trace Event format, to be displayed as a flame chart (chrome://tracing or the Performance
+ * panel of Chrome DevTools).
+ */
+public class EventTracer {
+
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  public static final EventTracer INSTANCE = new EventTracer(DEFAULT_CAPACITY);
+
+  private int       capacity;
+  private int[]     spanIds;
+  private int[]     traceIds;
+  private int[]     parentIds;
+  private boolean[] resumed;
+  private String[]  modules;
+  private String[]  names;
+  private double[]  starts;
+  private double[]  durations;
+  private int       nextSlot   = 0;
+  private int       size       = 0;
+  private int       nextSpanId = 1;
+  private double    origin     = -1;
+
+  // open spans and resumed contexts, a resumed context has no slot
+  private int[] stackSpans  = new int[16];
+  private int[] stackTraces = new int[16];
+  private int[] stackSlots  = new int[16];
+  private int   depth       = 0;
+
+  /**
+   * @param capacity
+   *   number of spans kept
+   */
+  public EventTracer(int capacity) {
+    setCapacity(capacity);
+  }
+
+  /**
+   * Change the number of spans kept. Spans already kept are forgotten.
+   *
+   * @param capacity
+   *   number of spans kept
+   */
+  public void setCapacity(int capacity) {
+    this.capacity = Math.max(capacity,
+                             1);
+    spanIds = new int[this.capacity];
+    traceIds = new int[this.capacity];
+    parentIds = new int[this.capacity];
+    resumed = new boolean[this.capacity];
+    modules = new String[this.capacity];
+    names = new String[this.capacity];
+    starts = new double[this.capacity];
+    durations = new double[this.capacity];
+    clear();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Open a span. Its parent is the span currently open (or resumed), if any.
+   *
+   * @param moduleName
+   *   name of the module
+   * @param name
+   *   name of the span (event name or child module load)
+   *
+   * @return id of the span, to give to {@link #end(int)}
+   */
+  public int begin(String moduleName,
+                   String name) {
+    int spanId = nextSpanId;
+    nextSpanId = (spanId == Integer.MAX_VALUE) ?
+                 1 :
+                 spanId + 1;
+    int     parentId  = 0;
+    int     traceId   = spanId;
+    boolean isResumed = false;
+    if ((depth > 0) && (stackSpans[depth - 1] != 0)) {
+      parentId = stackSpans[depth - 1];
+      traceId = stackTraces[depth - 1];
+      isResumed = (stackSlots[depth - 1] == -1);
+    }
+    double now = now();
+    if (origin < 0) {
+      origin = now;
+    }
+    int slot = nextSlot;
+    nextSlot = (slot + 1) % capacity;
+    if (size < capacity) {
+      size++;
+    }
+    spanIds[slot] = spanId;
+    traceIds[slot] = traceId;
+    parentIds[slot] = parentId;
+    resumed[slot] = isResumed;
+    modules[slot] = moduleName;
+    names[slot] = name;
+    starts[slot] = now;
+    durations[slot] = -1;
+    push(spanId,
+         traceId,
+         slot);
+    return spanId;
+  }
+
+  /**
+   * Close a span and the spans opened after it that haven't been closed.
+   *
+   * @param spanId
+   *   id of the span
+   */
+  public void end(int spanId) {
+    for (int i = depth - 1; i >= 0; i--) {
+      if ((stackSpans[i] == spanId) && (stackSlots[i] > -1)) {
+        int slot = stackSlots[i];
+        if (spanIds[slot] == spanId) {
+          durations[slot] = now() - starts[slot];
+        }
+        depth = i;
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return id of the span currently open, 0 if none
+   */
+  public int getCurrentSpanId() {
+    return (depth == 0) ?
+           0 :
+           stackSpans[depth - 1];
+  }
+
+  /**
+   * @return id of the trace currently open, 0 if none
+   */
+  public int getCurrentTraceId() {
+    return (depth == 0) ?
+           0 :
+           stackTraces[depth - 1];
+  }
+
+  /**
+   * Resume a span captured with {@link #getCurrentTraceId()} and {@link #getCurrentSpanId()}
+   * before an asynchronous call. Spans opened until {@link #release()} is called become children
+   * of this span.
+   *
+   * @param traceId
+   *   id of the trace
+   * @param spanId
+   *   id of the span
+   */
+  public void resume(int traceId,
+                     int spanId) {
+    push(spanId,
+         traceId,
+         -1);
+  }
+
+  /**
+   * Release the span resumed by the last call to {@link #resume(int, int)}.
+   */
+  public void release() {
+    if ((depth > 0) && (stackSlots[depth - 1] == -1)) {
+      depth--;
+    }
+  }
+
+  /**
+   * @return number of spans kept
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Export the spans in the Chrome Trace Event format. Closed spans are exported as complete
+   * events, spans still open as begin events. A span opened in a resumed context is linked to its
+   * parent by a flow event.
+   *
+   * @return JSON trace
+   */
+  public String toChromeTrace() {
+    StringBuilder builder = new StringBuilder(64 + size * 160);
+    builder.append("{\"traceEvents\":[");
+    int     first = (nextSlot - size + capacity) % capacity;
+    int     slot, parentSlot;
+    boolean comma = false;
+    for (int i = 0; i < size; i++) {
+      slot = (first + i) % capacity;
+      if (comma) {
+        builder.append(",");
+      }
+      comma = true;
+      builder.append("{\"name\":\"");
+      appendEscaped(builder,
+                    names[slot]);
+      builder.append("\",\"cat\":\"");
+      appendEscaped(builder,
+                    modules[slot]);
+      if (durations[slot] < 0) {
+        builder.append("\",\"ph\":\"B\"");
+      } else {
+        builder.append("\",\"ph\":\"X\",\"dur\":");
+        builder.append(toMicros(durations[slot]));
+      }
+      builder.append(",\"ts\":")
+             .append(toMicros(starts[slot] - origin))
+             .append(",\"pid\":1,\"tid\":1,\"args\":{\"traceId\":")
+             .append(traceIds[slot])
+             .append(",\"spanId\":")
+             .append(spanIds[slot])
+             .append(",\"parentId\":")
+             .append(parentIds[slot])
+             .append("}}");
+      if (resumed[slot]) {
+        parentSlot = findSlot(parentIds[slot]);
+        if (parentSlot > -1) {
+          builder.append(",{\"name\":\"resume\",\"cat\":\"flow\",\"ph\":\"s\",\"id\":")
+                 .append(spanIds[slot])
+                 .append(",\"ts\":")
+                 .append(toMicros(starts[parentSlot] - origin))
+                 .append(",\"pid\":1,\"tid\":1}");
+          builder.append(",{\"name\":\"resume\",\"cat\":\"flow\",\"ph\":\"f\",\"bp\":\"e\",\"id\":")
+                 .append(spanIds[slot])
+                 .append(",\"ts\":")
+                 .append(toMicros(starts[slot] - origin))
+                 .append(",\"pid\":1,\"tid\":1}");
+        }
+      }
+    }
+    builder.append("]}");
+    return builder.toString();
+  }
+
+  /**
+   * Forget the spans kept. Spans still open can still be closed.
+   */
+  public void clear() {
+    for (int i = 0; i < capacity; i++) {
+      spanIds[i] = 0;
+    }
+    nextSlot = 0;
+    size = 0;
+    origin = -1;
+  }
+
+  protected double now() {
+    return Duration.currentTimeMillis();
+  }
+
+  private void push(int spanId,
+                    int traceId,
+                    int slot) {
+    if (depth == stackSpans.length) {
+      stackSpans = grow(stackSpans);
+      stackTraces = grow(stackTraces);
+      stackSlots = grow(stackSlots);
+    }
+    stackSpans[depth] = spanId;
+    stackTraces[depth] = traceId;
+    stackSlots[depth] = slot;
+    depth++;
+  }
+
+  private int findSlot(int spanId) {
+    for (int i = 0; i < capacity; i++) {
+      if (spanIds[i] == spanId) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int[] grow(int[] array) {
+    int[] newArray = new int[array.length * 2];
+    System.arraycopy(array,
+                     0,
+                     newArray,
+                     0,
+                     array.length);
+    return newArray;
+  }
+
+  private static long toMicros(double millis) {
+    return Math.round(millis * 1000);
+  }
+
+  private static void appendEscaped(StringBuilder builder,
+                                    String value) {
+    char c;
+    for (int i = 0; i < value.length(); i++) {
+      c = value.charAt(i);
+      if ((c == '"') || (c == '\\')) {
+        builder.append('\\');
+      }
+      builder.append(c);
+    }
+  }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client.event;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Handlers of one class added to an event bus. It should only be used by the framework.<br>
+ * <br>
+ * Handlers are stored in the order they have been added. Each handler knows its slot thanks to an
+ * identity index, so a handler is added or removed in constant time: a removed handler only leaves
+ * an empty slot that is dropped the next time the slots are compacted.<br>
+ * <br>
+ * As with the list used before, a handler added several times is stored several times and each
+ * removal only removes its first occurrence.<br>
+ * <br>
+ * Events iterate over a compact snapshot of the handlers. A snapshot is never modified once it has
+ * been returned, it is rebuilt the first time it is asked after a change.
+ */
+class HandlerList {
+
+  private static final EventHandlerInterface<?>[] EMPTY = new EventHandlerInterface<?>[0];
+
+  // slot of the first occurrence of each handler
+  private Map<EventHandlerInterface<?>, Integer> indexes = new IdentityHashMap<EventHandlerInterface<?>, Integer>();
+
+  // number of occurrences after the first one of the handlers added several times
+  private Map<EventHandlerInterface<?>, Integer> duplicates = new IdentityHashMap<EventHandlerInterface<?>, Integer>();
+
+  // number of handlers in the list, counting each occurrence
+  private int handlerCount = 0;
+
+  // slots of the handlers, a removed handler leaves a null slot
+  private EventHandlerInterface<?>[] slots = new EventHandlerInterface<?>[4];
+
+  // number of slots used, including the empty ones
+  private int slotCount = 0;
+
+  private EventHandlerInterface<?>[] snapshot = EMPTY;
+
+  /**
+   * Add a handler at the end of the list. A handler already in the list is added once more.
+   *
+   * @param handler
+   *   handler to add
+   */
+  void add(EventHandlerInterface<?> handler) {
+    if (slotCount == slots.length) {
+      if (handlerCount <= (slotCount >> 1)) {
+        // at least half of the slots are empty, reuse them
+        compact();
+      } else {
+        EventHandlerInterface<?>[] newSlots = new EventHandlerInterface<?>[slotCount << 1];
+        System.arraycopy(slots,
+                         0,
+                         newSlots,
+                         0,
+                         slotCount);
+        slots = newSlots;
+      }
+    }
+    if (indexes.containsKey(handler)) {
+      Integer duplicateCount = duplicates.get(handler);
+      duplicates.put(handler,
+                     (duplicateCount == null) ?
+                     1 :
+                     duplicateCount + 1);
+    } else {
+      indexes.put(handler,
+                  slotCount);
+    }
+    slots[slotCount++] = handler;
+    handlerCount++;
+    snapshot = null;
+  }
+
+  /**
+   * Remove the first occurrence of a handler from the list.
+   *
+   * @param handler
+   *   handler to remove
+   *
+   * @return true if the handler was in the list
+   */
+  boolean remove(EventHandlerInterface<?> handler) {
+    Integer index = indexes.remove(handler);
+    if (index == null) {
+      return false;
+    }
+    slots[index] = null;
+    Integer duplicateCount = duplicates.remove(handler);
+    if (duplicateCount != null) {
+      // only handlers added several times pay for the search of their next occurrence
+      int next = index + 1;
+      while (slots[next] != handler) {
+        next++;
+      }
+      indexes.put(handler,
+                  next);
+      if (duplicateCount > 1) {
+        duplicates.put(handler,
+                       duplicateCount - 1);
+      }
+    }
+    handlerCount--;
+    snapshot = null;
+    return true;
+  }
+
+  /**
+   * @param handler
+   *   handler to look for
+   *
+   * @return true if the handler is in the list
+   */
+  boolean contains(EventHandlerInterface<?> handler) {
+    return indexes.containsKey(handler);
+  }
+
+  /**
+   * @return number of handlers in the list, a handler added several times is counted several times
+   */
+  int size() {
+    return handlerCount;
+  }
+
+  /**
+   * Returns the handlers in the order they have been added. The returned array must not be
+   * modified.
+   *
+   * @return handlers of the list
+   */
+  EventHandlerInterface<?>[] snapshot() {
+    if (snapshot == null) {
+      EventHandlerInterface<?>[] newSnapshot = new EventHandlerInterface<?>[handlerCount];
+      int                        j           = 0;
+      for (int i = 0; i < slotCount; i++) {
+        if (slots[i] != null) {
+          newSnapshot[j++] = slots[i];
+        }
+      }
+      snapshot = newSnapshot;
+    }
+    return snapshot;
+  }
+
+  private void compact() {
+    int j = 0;
+    EventHandlerInterface<?> handler;
+    for (int i = 0; i < slotCount; i++) {
+      handler = slots[i];
+      if (handler != null) {
+        if (i != j) {
+          slots[j] = handler;
+          if (indexes.get(handler) == i) {
+            indexes.put(handler,
+                        j);
+          }
+        }
+        j++;
+      }
+    }
+    for (int i = j; i < slotCount; i++) {
+      slots[i] = null;
+    }
+    slotCount = j;
+  }
+
+}
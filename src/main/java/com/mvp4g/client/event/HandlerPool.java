@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client.event;
+
+/**
+ * Recycled handlers of one class waiting to be reused. It should only be used by the framework.
+ */
+class HandlerPool {
+
+  private EventHandlerInterface<?>[] handlers;
+
+  private int count = 0;
+
+  /**
+   * @param poolSize
+   *   maximum number of handlers kept
+   */
+  HandlerPool(int poolSize) {
+    handlers = new EventHandlerInterface<?>[poolSize];
+  }
+
+  /**
+   * @return true if no more handler can be kept
+   */
+  boolean isFull() {
+    return count == handlers.length;
+  }
+
+  /**
+   * Keep a handler, nothing is done if the pool is full.
+   *
+   * @param handler
+   *   handler to keep
+   */
+  void offer(EventHandlerInterface<?> handler) {
+    if (count < handlers.length) {
+      handlers[count++] = handler;
+    }
+  }
+
+  /**
+   * @return handler kept the most recently, null if none
+   */
+  EventHandlerInterface<?> poll() {
+    if (count == 0) {
+      return null;
+    }
+    EventHandlerInterface<?> handler = handlers[--count];
+    handlers[count] = null;
+    return handler;
+  }
+
+  /**
+   * @return number of handlers kept
+   */
+  int size() {
+    return count;
+  }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+/**
+ * Latency histogram with fixed buckets. Recording a value doesn't allocate anything.<br>
+ * <br>
+ * The upper bounds of the buckets, in milliseconds, are given by {@link #BUCKET_BOUNDS}. A last
+ * bucket counts the values greater than the last bound.
+ */
+public class LatencyHistogram {
+
+  /**
+   * Upper bounds of the buckets in milliseconds
+   */
+  public static final double[] BUCKET_BOUNDS = { 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000 };
+
+  private final int[]  counts = new int[BUCKET_BOUNDS.length + 1];
+  private       int    count  = 0;
+  private       double total  = 0;
+  private       double max    = 0;
+
+  /**
+   * @param durationMillis
+   *   value to record
+   */
+  public void record(double durationMillis) {
+    int i = 0;
+    while ((i < BUCKET_BOUNDS.length) && (durationMillis > BUCKET_BOUNDS[i])) {
+      i++;
+    }
+    counts[i]++;
+    count++;
+    total += durationMillis;
+    if (durationMillis > max) {
+      max = durationMillis;
+    }
+  }
+
+  /**
+   * @param bucket
+   *   index of the bucket
+   *
+   * @return number of values recorded in the bucket
+   */
+  public int getBucketCount(int bucket) {
+    return counts[bucket];
+  }
+
+  /**
+   * @return number of buckets
+   */
+  public int getBucketsSize() {
+    return counts.length;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public double getTotal() {
+    return total;
+  }
+
+  public double getMax() {
+    return max;
+  }
+
+  public double getMean() {
+    return (count == 0) ?
+           0 :
+           total / count;
+  }
+
+  /**
+   * @param percentile
+   *   percentile between 0 and 100
+   *
+   * @return upper bound of the bucket that contains the percentile (or the max value for the last
+   * bucket)
+   */
+  public double getPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    double threshold  = count * percentile / 100;
+    int    cumulative = 0;
+    for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+      cumulative += counts[i];
+      if (cumulative >= threshold) {
+        return BUCKET_BOUNDS[i];
+      }
+    }
+    return max;
+  }
+
+  public void reset() {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = 0;
+    }
+    count = 0;
+    total = 0;
+    max = 0;
+  }
+
+}
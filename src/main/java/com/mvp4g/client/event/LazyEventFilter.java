@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client.event;
+
+/**
+ * Event filter created by the first event it has to filter.<br>
+ * <br>
+ * The framework registers this filter instead of the filters of the event bus so that they aren't
+ * created when the module starts. <code>BaseEventBus.removeEventFilter</code> removes this filter
+ * when it's given the filter it delegates to (see {@link #wraps(EventFilter)}).
+ *
+ * @param <E>
+ *   type of the event bus
+ */
+public abstract class LazyEventFilter<E extends EventBus>
+  implements EventFilter<E> {
+
+  private EventFilter<E> filter = null;
+
+  public boolean filterEvent(String eventName,
+                             Object[] params,
+                             E eventBus) {
+    if (isUnloaded()) {
+      return false;
+    }
+    return getFilter().filterEvent(eventName,
+                                   params,
+                                   eventBus);
+  }
+
+  /**
+   * Indicate if this filter delegates to the given filter. The filter to delegate to is created if
+   * it hasn't been yet, since the given filter may have been obtained elsewhere before the first
+   * event (for example a singleton injected in a presenter).
+   *
+   * @param eventFilter
+   *   filter to compare to the filter to delegate to
+   *
+   * @return true if this filter delegates to the given filter
+   */
+  public boolean wraps(EventFilter<?> eventFilter) {
+    return !isUnloaded() && getFilter().equals(eventFilter);
+  }
+
+  /**
+   * Create the filter to delegate to. Only called once.
+   *
+   * @return the filter
+   */
+  protected abstract EventFilter<E> createFilter();
+
+  /**
+   * Indicate if the module that registered this filter has been unloaded. The filter then stops
+   * every event without being created.
+   *
+   * @return true if the module has been unloaded
+   */
+  protected boolean isUnloaded() {
+    return false;
+  }
+
+  private EventFilter<E> getFilter() {
+    if (filter == null) {
+      filter = createFilter();
+    }
+    return filter;
+  }
+
+}
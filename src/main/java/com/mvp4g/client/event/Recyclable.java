@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client.event;
+
+/**
+ * Interface that a multiple handler must implement to be pooled thanks to the
+ * <code>poolSize</code> attribute of <code>Presenter</code> or <code>EventHandler</code>.<br>
+ * <br>
+ * When a pooled handler is removed from the event bus, it is recycled and kept until the next
+ * handler of the same class is added. The handler is reused with its view and isn't bound again.
+ */
+public interface Recyclable {
+
+  /**
+   * Called when the handler has been removed from the event bus and is about to be kept to be
+   * reused. The handler and its view should go back to the state they had when the handler was
+   * created.
+   */
+  void recycle();
+
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.history;
+
+import com.google.gwt.user.client.Command;
+
+/**
+ * Trie of the history names registered in the place service. Each level of the trie is a segment
+ * of the history name (child module history names then event history name).<br>
+ * <br>
+ * A token is resolved in one pass, comparing the segments in place, so that no string is
+ * allocated to find the history converter of a token. The name of the event given to the
+ * converter is computed once, when the route is added.<br>
+ * <br>
+ * History names of modules that haven't been loaded yet can also be declared, so that a token can
+ * be validated before loading any module.
+ */
+class HistoryRouteTrie {
+
+  private static final Route[] NO_CHILDREN = new Route[0];
+
+  private final Route root = new Route(null,
+                                       null);
+
+  /**
+   * Route of the trie, its converter is null if no history name ends at this segment.
+   */
+  static class Route {
+
+    private final String  segment;
+    private final String  historyName;
+    @SuppressWarnings("rawtypes")
+    private HistoryConverter converter = null;
+    private Route[]          children  = NO_CHILDREN;
+    private boolean          childRoute;
+    private boolean          declared  = false;
+    private Command          prefetch  = null;
+
+    Route(String segment,
+          String historyName) {
+      this.segment = segment;
+      this.historyName = historyName;
+    }
+
+    /**
+     * @return converter of the route, null if no history name ends at this route
+     */
+    @SuppressWarnings("rawtypes")
+    HistoryConverter getConverter() {
+      return converter;
+    }
+
+    /**
+     * @return name of the event given to the converter (last segment of the history name)
+     */
+    String getEventName() {
+      return segment;
+    }
+
+    /**
+     * @return history name of the route
+     */
+    String getHistoryName() {
+      return historyName;
+    }
+
+    /**
+     * @return true if the route belongs to a child module
+     */
+    boolean isChildRoute() {
+      return childRoute;
+    }
+
+    private Route getChild(String token,
+                           int start,
+                           int end) {
+      int    length = end - start;
+      String childSegment;
+      for (Route child : children) {
+        childSegment = child.segment;
+        if ((childSegment.length() == length) && token.startsWith(childSegment,
+                                                                  start)) {
+          return child;
+        }
+      }
+      return null;
+    }
+
+    private Route addChild(String childSegment,
+                           String childHistoryName) {
+      Route   child       = new Route(childSegment,
+                                      childHistoryName);
+      Route[] newChildren = new Route[children.length + 1];
+      System.arraycopy(children,
+                       0,
+                       newChildren,
+                       0,
+                       children.length);
+      newChildren[children.length] = child;
+      children = newChildren;
+      return child;
+    }
+
+  }
+
+  /**
+   * Add a route for a history name. If a route already exists for this name, its converter is
+   * replaced.
+   *
+   * @param historyName
+   *   history name of the event, including the history names of the child modules
+   * @param converter
+   *   converter of the event
+   */
+  @SuppressWarnings("rawtypes")
+  void add(String historyName,
+           HistoryConverter converter) {
+    Route route = getOrCreate(historyName);
+    route.converter = converter;
+    route.childRoute = (historyName.indexOf(PlaceService.MODULE_SEPARATOR) > -1);
+  }
+
+  /**
+   * Declare the history name of an event whose module may not be loaded yet.
+   *
+   * @param historyName
+   *   history name of the event, including the history names of the child modules
+   */
+  void declare(String historyName) {
+    getOrCreate(historyName).declared = true;
+  }
+
+  /**
+   * Set the command that prefetches the code needed to load a child module.
+   *
+   * @param moduleHistoryName
+   *   history name of the module, including the history names of its parent modules
+   * @param prefetch
+   *   command that prefetches the code of the module
+   */
+  void setPrefetch(String moduleHistoryName,
+                   Command prefetch) {
+    getOrCreate(moduleHistoryName).prefetch = prefetch;
+  }
+
+  /**
+   * Find the route of a history name.
+   *
+   * @param historyName
+   *   history name to look for
+   *
+   * @return route with a converter, null if no converter has been added for this name
+   */
+  Route find(String historyName) {
+    return find(historyName,
+                0,
+                historyName.length());
+  }
+
+  /**
+   * Find the route of the history name stored between two indexes of a token.
+   *
+   * @param token
+   *   token that contains the history name
+   * @param start
+   *   index of the first character of the history name
+   * @param end
+   *   index after the last character of the history name
+   *
+   * @return route with a converter, null if no converter has been added for this name
+   */
+  Route find(String token,
+             int start,
+             int end) {
+    Route route = findRoute(token,
+                            start,
+                            end,
+                            null);
+    return ((route == null) || (route.converter == null)) ?
+           null :
+           route;
+  }
+
+  /**
+   * Check if the history name stored between two indexes of a token has been added or declared.
+   *
+   * @param token
+   *   token that contains the history name
+   * @param start
+   *   index of the first character of the history name
+   * @param end
+   *   index after the last character of the history name
+   *
+   * @return true if a converter has been added or if the name has been declared
+   */
+  boolean isDeclared(String token,
+                     int start,
+                     int end) {
+    Route route = findRoute(token,
+                            start,
+                            end,
+                            null);
+    return (route != null) && (route.declared || (route.converter != null));
+  }
+
+  /**
+   * Find the prefetch command of the deepest module on the path of the history name stored
+   * between two indexes of a token.
+   *
+   * @param token
+   *   token that contains the history name
+   * @param start
+   *   index of the first character of the history name
+   * @param end
+   *   index after the last character of the history name
+   *
+   * @return prefetch command, null if no module of the path has one
+   */
+  Command findPrefetch(String token,
+                       int start,
+                       int end) {
+    Command[] prefetch = new Command[1];
+    findRoute(token,
+              start,
+              end,
+              prefetch);
+    return prefetch[0];
+  }
+
+  private Route findRoute(String token,
+                          int start,
+                          int end,
+                          Command[] prefetch) {
+    Route route = root;
+    int   segmentEnd;
+    while ((route != null) && (start <= end)) {
+      if ((prefetch != null) && (route.prefetch != null)) {
+        prefetch[0] = route.prefetch;
+      }
+      segmentEnd = token.indexOf(PlaceService.MODULE_SEPARATOR,
+                                 start);
+      if ((segmentEnd == -1) || (segmentEnd > end)) {
+        segmentEnd = end;
+      }
+      route = route.getChild(token,
+                             start,
+                             segmentEnd);
+      start = segmentEnd + 1;
+    }
+    return route;
+  }
+
+  private Route getOrCreate(String historyName) {
+    Route route = root;
+    Route child;
+    int   start = 0;
+    int   end;
+    do {
+      end = historyName.indexOf(PlaceService.MODULE_SEPARATOR,
+                                start);
+      if (end == -1) {
+        end = historyName.length();
+      }
+      child = route.getChild(historyName,
+                             start,
+                             end);
+      if (child == null) {
+        child = route.addChild(historyName.substring(start,
+                                                     end),
+                               historyName.substring(0,
+                                                     end));
+      }
+      route = child;
+      start = end + 1;
+    } while (end < historyName.length());
+    return route;
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client.history;
+
+import com.mvp4g.client.event.EventBus;
+
+/**
+ * History converter created the first time a token has to be converted by it.<br>
+ * <br>
+ * The framework registers this converter to the place service instead of the history converters of
+ * the module so that they aren't created when the module starts.
+ *
+ * @param <E>
+ *   type of the event bus
+ */
+public abstract class LazyHistoryConverter<E extends EventBus>
+  implements HistoryConverter<E> {
+
+  private HistoryConverter<E> converter = null;
+
+  public void convertFromToken(String historyName,
+                               String param,
+                               E eventBus) {
+    if (!isUnloaded()) {
+      getConverter().convertFromToken(historyName,
+                                      param,
+                                      eventBus);
+    }
+  }
+
+  public boolean isCrawlable() {
+    return !isUnloaded() && getConverter().isCrawlable();
+  }
+
+  /**
+   * Create the converter to delegate to. Only called once.
+   *
+   * @return the converter
+   */
+  protected abstract HistoryConverter<E> createConverter();
+
+  /**
+   * Indicate if the module that registered this converter has been unloaded. Tokens are then
+   * ignored without creating the converter.
+   *
+   * @return true if the module has been unloaded
+   */
+  protected boolean isUnloaded() {
+    return false;
+  }
+
+  private HistoryConverter<E> getConverter() {
+    if (converter == null) {
+      converter = createConverter();
+    }
+    return converter;
+  }
+
+}
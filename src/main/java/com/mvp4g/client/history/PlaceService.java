@@ -15,11 +15,9 @@
  */
 package com.mvp4g.client.history;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
+import com.google.gwt.user.client.Command;
 import com.mvp4g.client.Mvp4gEventPasser;
 import com.mvp4g.client.Mvp4gModule;
 
@@ -59,8 +57,12 @@ public class PlaceService
   private HistoryProxy history = null;
   private Mvp4gModule  module  = null;
 
-  @SuppressWarnings("rawtypes")
-  private Map<String, HistoryConverter> converters = new HashMap<String, HistoryConverter>();
+  private HistoryRouteTrie routes = new HistoryRouteTrie();
+
+  // route found by the default parseToken for the token being converted
+  private HistoryRouteTrie.Route parsedRoute = null;
+
+  private boolean hasManifest = false;
 
   private boolean enabled = true;
 
@@ -112,25 +114,67 @@ public class PlaceService
   }
 
   /**
-   * Convert the token to an event
+   * Convert the token to an event.<br>
+   * <br>
+   * The token is parsed by {@link #parseToken(String)}. By default, the history name is resolved
+   * while parsing the token thanks to the route trie, so that the event of this module is
+   * dispatched without looking for its converter again. Events of child modules are forwarded to
+   * the child modules since they may need to be loaded.<br>
+   * <br>
+   * If the history names of the child modules have been declared (see {@link #addRoute(String)}),
+   * an unknown history name is rejected before loading any module and the code of all the modules
+   * to load for a known one is requested at once.
    *
    * @param token
    *   the token to convert
    */
+  @SuppressWarnings("unchecked")
   protected void convertToken(String token) {
     boolean toContinue = false;
     if (token != null) {
       if (token.startsWith(CRAWLABLE)) {
-        token = token.substring(1);
+        token = token.substring(CRAWLABLE.length());
       }
       toContinue = (token.length() > 0);
     }
 
     if (toContinue) {
-      String[] result = parseToken(token);
-      if (!forwardToChildModuleIfNeeded(result[0],
-                                        result[1])) {
-        dispatchEvent(result[0],
+      parsedRoute = null;
+      String[]               result      = parseToken(token);
+      String                 historyName = result[0];
+      HistoryRouteTrie.Route route       = parsedRoute;
+      parsedRoute = null;
+      if ((route != null) && (route.getHistoryName() != historyName)) {
+        // parseToken has been overridden and returned another history name
+        route = null;
+      }
+      if ((route == null) && (historyName != null)) {
+        route = routes.find(historyName);
+        if ((route == null) && hasManifest) {
+          if (!routes.isDeclared(historyName,
+                                 0,
+                                 historyName.length())) {
+            // no module of the application knows this history name, no need to load any of them
+            sendNotFoundEvent(module);
+            return;
+          }
+          Command prefetch = routes.findPrefetch(historyName,
+                                                 0,
+                                                 historyName.length());
+          if (prefetch != null) {
+            prefetch.execute();
+          }
+        }
+      }
+
+      if ((route != null) && !route.isChildRoute()) {
+        route.getConverter()
+             .convertFromToken(route.getEventName(),
+                               result[1],
+                               module.getEventBus());
+      } else if ((historyName == null) || !forwardToChildModuleIfNeeded(historyName,
+                                                                        result[1])) {
+        dispatchEvent(historyName,
                       result[1],
                       module);
       }
@@ -141,7 +185,11 @@ public class PlaceService
 
   /**
    * Parse the token and return a string array. The first element of this array contains the event
-   * name whereas the second element contains the parameters associated to the event.
+   * name whereas the second element contains the parameters associated to the event.<br>
+   * <br>
+   * When the token contains a history name with a converter, the returned history name is the one
+   * of its route, found in place in the token. Subclasses can override this method to parse tokens
+   * another way.
    *
    * @param token
    *   token to parse
@@ -149,15 +197,23 @@ public class PlaceService
    * @return array of string
    */
   protected String[] parseToken(String token) {
-    String[] result = new String[2];
-    int      index  = token.lastIndexOf(getParamSeparator());
-    result[0] = (index == -1) ?
-                token :
+    String                 separator = getParamSeparator();
+    String[]               result    = new String[2];
+    int                    index     = token.lastIndexOf(separator);
+    int                    end       = (index == -1) ?
+                                       token.length() :
+                                       index;
+    HistoryRouteTrie.Route route     = routes.find(token,
+                                                   0,
+                                                   end);
+    result[0] = (route == null) ?
                 token.substring(0,
-                                index);
+                                end) :
+                route.getHistoryName();
     result[1] = (index == -1) ?
                 null :
-                token.substring(index + 1);
+                token.substring(index + separator.length());
+    parsedRoute = route;
     return result;
   }
 
@@ -211,15 +267,14 @@ public class PlaceService
                                String param,
                                Mvp4gModule module) {
     if (historyName != null) {
-      @SuppressWarnings("rawtypes") HistoryConverter converter = converters.get(historyName);
-      if (converter == null) {
+      HistoryRouteTrie.Route route = routes.find(historyName);
+      if (route == null) {
         sendNotFoundEvent(module);
       } else {
-        String[] tab            = historyName.split(MODULE_SEPARATOR);
-        String   finalEventName = tab[tab.length - 1];
-        converter.convertFromToken(finalEventName,
-                                   param,
-                                   module.getEventBus());
+        route.getConverter()
+             .convertFromToken(route.getEventName(),
+                               param,
+                               module.getEventBus());
       }
     } else {
       sendNotFoundEvent(module);
@@ -250,8 +305,9 @@ public class PlaceService
     String token = tokenize(eventName,
                             param);
 
-    if (converters.get(eventName)
-                  .isCrawlable()) {
+    if (routes.find(eventName)
+              .getConverter()
+              .isCrawlable()) {
       token = CRAWLABLE + token;
     }
     if (!onlyToken) {
@@ -261,6 +317,34 @@ public class PlaceService
     return token;
   }
 
+  /**
+   * Generate the tokens of an event for several parameters at once, without changing the browser
+   * history. Each token is built by {@link #tokenize(String, String)}, the converter of the event
+   * is only looked up once.
+   *
+   * @param eventName
+   *   event's name
+   * @param params
+   *   event's parameters, one for each token
+   *
+   * @return the generated tokens, in the same order as the parameters
+   */
+  public String[] generateTokens(String eventName,
+                                 String[] params) {
+    boolean  crawlable = routes.find(eventName)
+                               .getConverter()
+                               .isCrawlable();
+    String[] tokens    = new String[params.length];
+    for (int i = 0; i < params.length; i++) {
+      tokens[i] = tokenize(eventName,
+                           params[i]);
+      if (crawlable) {
+        tokens[i] = CRAWLABLE + tokens[i];
+      }
+    }
+    return tokens;
+  }
+
   /**
    * Transform an event and its parameters to a token
    *
@@ -288,15 +372,18 @@ public class PlaceService
   }
 
   /**
-   * Clear the history token stored in the browse history url by adding a new empty token
+   * Clear the history token stored in the browse history url by adding a new empty token. The
+   * tokens cached for the pure history converter methods are dropped.
    */
   public void clearHistory() {
+    TokenCache.invalidateAll();
     history.newItem("",
                     false);
   }
 
   /**
-   * Add a converter for an event.
+   * Add a converter for an event. The tokens cached for the pure history converter methods are
+   * dropped.
    *
    * @param historyName
    *   name of the event to store in the token
@@ -306,8 +393,37 @@ public class PlaceService
   @SuppressWarnings("rawtypes")
   public void addConverter(String historyName,
                            HistoryConverter converter) {
-    converters.put(historyName,
-                   converter);
+    routes.add(historyName,
+               converter);
+    TokenCache.invalidateAll();
+  }
+
+  /**
+   * Declare the history name of an event of a child module that may not be loaded yet. Once a
+   * history name has been declared, tokens that contain an history name that hasn't been added nor
+   * declared are rejected without loading any child module.
+   *
+   * @param historyName
+   *   name of the event to store in the token, including the history names of the child modules
+   */
+  public void addRoute(String historyName) {
+    routes.declare(historyName);
+    hasManifest = true;
+  }
+
+  /**
+   * Set the command to execute to start loading the code of a child module (and of its parent
+   * modules) when a token of this module is converted before the module is loaded.
+   *
+   * @param moduleHistoryName
+   *   history name of the child module, including the history names of its parent modules
+   * @param prefetch
+   *   command that starts loading the code of the module
+   */
+  public void addModuleRoute(String moduleHistoryName,
+                             Command prefetch) {
+    routes.setPrefetch(moduleHistoryName,
+                       prefetch);
   }
 
   /**
@@ -316,6 +432,7 @@ public class PlaceService
    */
   public void setModule(Mvp4gModule module) {
     this.module = module;
+    TokenCache.invalidateAll();
   }
 
   /**
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.history;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the tokens generated for events whose history converter method is pure (see
+ * <code>@PureToken</code>).<br>
+ * <br>
+ * Tokens are stored by event name and event parameters. Parameters are compared with their
+ * <code>equals</code> method and referenced by the cache, so they must be immutable. When the cache
+ * is full, the least recently used token is removed.<br>
+ * <br>
+ * All the caches are emptied when {@link #invalidateAll()} is called, which the place service does
+ * each time its configuration changes.
+ */
+public class TokenCache {
+
+  public static final int DEFAULT_CAPACITY = 256;
+
+  // incremented each time all the caches must be emptied
+  private static int generation = 0;
+
+  private final LinkedHashMap<Key, String> tokens;
+
+  private int cacheGeneration = generation;
+
+  /**
+   * Build a cache with the default capacity.
+   */
+  public TokenCache() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Build a cache.
+   *
+   * @param capacity
+   *   maximum number of tokens stored
+   */
+  public TokenCache(final int capacity) {
+    tokens = new LinkedHashMap<Key, String>(16,
+                                            0.75f,
+                                            true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+        return size() > capacity;
+      }
+
+    };
+  }
+
+  /**
+   * Get the token generated for an event.
+   *
+   * @param eventName
+   *   name of the event
+   * @param params
+   *   parameters of the event
+   *
+   * @return the token, null if no token is stored for this event and these parameters
+   */
+  public String get(String eventName,
+                    Object[] params) {
+    checkGeneration();
+    return tokens.get(new Key(eventName,
+                              params));
+  }
+
+  /**
+   * Store the token generated for an event.
+   *
+   * @param eventName
+   *   name of the event
+   * @param params
+   *   parameters of the event
+   * @param token
+   *   token generated for the event
+   */
+  public void put(String eventName,
+                  Object[] params,
+                  String token) {
+    if (token != null) {
+      checkGeneration();
+      tokens.put(new Key(eventName,
+                         params),
+                 token);
+    }
+  }
+
+  /**
+   * @return number of tokens stored
+   */
+  public int size() {
+    checkGeneration();
+    return tokens.size();
+  }
+
+  /**
+   * Remove all the tokens.
+   */
+  public void clear() {
+    tokens.clear();
+  }
+
+  /**
+   * Remove the tokens of all the caches. The caches are emptied the next time they are used.
+   */
+  public static void invalidateAll() {
+    generation++;
+  }
+
+  private void checkGeneration() {
+    if (cacheGeneration != generation) {
+      tokens.clear();
+      cacheGeneration = generation;
+    }
+  }
+
+  private static class Key {
+
+    private final String   eventName;
+    private final Object[] params;
+    private final int      hash;
+
+    private Key(String eventName,
+                Object[] params) {
+      this.eventName = eventName;
+      this.params = params;
+      this.hash = (31 * eventName.hashCode()) + Arrays.hashCode(params);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return (hash == other.hash) && eventName.equals(other.eventName) && Arrays.equals(params,
+                                                                                        other.params);
+    }
+
+  }
+
+}
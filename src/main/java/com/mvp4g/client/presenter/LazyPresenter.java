@@ -15,6 +15,7 @@
  */
 package com.mvp4g.client.presenter;
 
+import com.mvp4g.client.ModuleProfiler;
 import com.mvp4g.client.event.EventBus;
 import com.mvp4g.client.view.LazyView;
 
@@ -51,7 +52,17 @@ public class LazyPresenter<V extends LazyView, E extends EventBus>
   @Override
   final public void bind() {
     createPresenter();
-    view.createView();
+    ModuleProfiler profiler = ModuleProfiler.INSTANCE;
+    if (profiler.isProfiled(eventBus)) {
+      double start = profiler.now();
+      view.createView();
+      profiler.viewCreated(eventBus,
+                           view.getClass()
+                               .getName(),
+                           start);
+    } else {
+      view.createView();
+    }
     bindView();
   }
 
@@ -16,16 +16,32 @@
 package com.mvp4g.rebind;
 
 import com.google.gwt.core.client.RunAsyncCallback;
+import com.google.gwt.core.client.prefetch.Prefetcher;
+import com.google.gwt.core.client.prefetch.RunAsyncCode;
 import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.core.ext.typeinfo.JClassType;
 import com.google.gwt.user.rebind.SourceWriter;
+import com.mvp4g.client.ModuleEvictor;
+import com.mvp4g.client.Mvp4gUnloadableModule;
+import com.mvp4g.client.ModuleProfiler;
+import com.mvp4g.client.ModulePrefetcher;
 import com.mvp4g.client.Mvp4gModule;
 import com.mvp4g.client.Mvp4gRunAsync;
+import com.mvp4g.client.annotation.Event;
 import com.mvp4g.client.annotation.Debug.LogLevel;
 import com.mvp4g.client.annotation.History.HistoryConverterType;
+import com.mvp4g.client.annotation.module.ChildModule.Prefetch;
 import com.mvp4g.client.event.BaseEventBus;
+import com.mvp4g.client.event.BaseTokenGenerator;
+import com.mvp4g.client.event.EventFilter;
+import com.mvp4g.client.event.EventFlightRecorder;
+import com.mvp4g.client.event.EventTracer;
+import com.mvp4g.client.event.LazyEventFilter;
 import com.mvp4g.client.history.ClearHistory;
+import com.mvp4g.client.history.HistoryConverter;
+import com.mvp4g.client.history.LazyHistoryConverter;
 import com.mvp4g.client.history.PlaceService;
+import com.mvp4g.client.history.TokenCache;
 import com.mvp4g.rebind.config.Mvp4gConfiguration;
 import com.mvp4g.rebind.config.element.*;
 import com.mvp4g.rebind.exception.InvalidMvp4gConfigurationException;
@@ -69,23 +85,36 @@ class Mvp4gConfigurationFileWriter {
     sourceWriter.print("protected ");
     sourceWriter.print(getGinjectorClassName());
     sourceWriter.println(" injector = null;");
+    sourceWriter.println("private boolean unloaded = false;");
     DebugElement debug = configuration.getDebug();
     if (debug != null) {
       sourceWriter.print("protected ");
       sourceWriter.print(debug.getLogger());
       sourceWriter.println(" logger;");
     }
+    MetricsElement metrics = configuration.getMetrics();
+    if (metrics != null) {
+      sourceWriter.print("protected ");
+      sourceWriter.print(metrics.getMetrics());
+      sourceWriter.println(" metrics;");
+    }
     sourceWriter.print("protected ");
     sourceWriter.print(configuration.getModule()
                                     .getQualifiedSourceName());
     sourceWriter.println(" itself = this;");
 
-    writeLoaders(false);
+    writeLoaders();
+
+    writeServices();
+
+    writeHistoryConverters();
 
     writeParentEventBus();
 
     writeChildModules();
 
+    writeUnloadModule();
+
     writeHistoryConnection();
 
     sourceWriter.println();
@@ -96,6 +125,7 @@ class Mvp4gConfigurationFileWriter {
 
     sourceWriter.println("public void createAndStartModule(){");
     sourceWriter.indent();
+    writeProfilerPhaseBegin();
 //    sourceWriter.println(" GWT.log(\"mvp4g version ==> mvp4g-1.5.1-SNAPSHOT\");");
     if (configuration.getHistory() != null) {
       sourceWriter.print("HistoryProxyProvider.INSTANCE.set(new ");
@@ -113,8 +143,10 @@ class Mvp4gConfigurationFileWriter {
 
     sourceWriter.println();
 
-    sourceWriter.print("createModule();");
-    sourceWriter.print("startModule();");
+    sourceWriter.println("createModule();");
+    sourceWriter.println("startModule();");
+
+    writeProfilerPhaseEnd("createAndStartModule");
 
     sourceWriter.outdent();
     sourceWriter.println("}");
@@ -131,7 +163,10 @@ class Mvp4gConfigurationFileWriter {
     sourceWriter.println("public void createModule(){");
     sourceWriter.indent();
 
-    writeLoaders(true);
+    writeProfilerPhaseBegin();
+    if (configuration.getProfiling() != null) {
+      sourceWriter.println("double profileStart;");
+    }
 
     writeViews();
 
@@ -139,9 +174,11 @@ class Mvp4gConfigurationFileWriter {
 
     writeLogger();
 
+    writeMetrics();
+
     sourceWriter.println();
 
-    writeServices();
+    writeFlightRecorder();
 
     sourceWriter.println();
 
@@ -161,14 +198,25 @@ class Mvp4gConfigurationFileWriter {
 
     sourceWriter.println();
 
+    if (configuration.getProfiling() != null) {
+      sourceWriter.print(ModuleProfiler.class.getCanonicalName());
+      sourceWriter.print(".INSTANCE.register(eventBus, \"");
+      sourceWriter.print(getModuleName());
+      sourceWriter.println("\");");
+    }
+
     injectEventBus();
 
+    writeHandlerPools();
+
     sourceWriter.println();
 
     writeEventFilters();
 
     sourceWriter.println();
 
+    writeLogLevel();
+
     sourceWriter.outdent();
 
     StartElement start = configuration.getStart();
@@ -188,6 +236,8 @@ class Mvp4gConfigurationFileWriter {
       sourceWriter.println("this.startView = startPresenter.getView();");
     }
 
+    writeProfilerPhaseEnd("createModule");
+
     sourceWriter.println("}");
 
   }
@@ -196,11 +246,125 @@ class Mvp4gConfigurationFileWriter {
     sourceWriter.println("public void startModule(){");
     sourceWriter.indent();
 
+    writeProfilerPhaseBegin();
+
     writeStartEvent();
+    writeModulePrefetch();
 
+    writeProfilerPhaseEnd("startModule");
+
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+
+  }
+
+  /**
+   * Write the statement that queues the passer of a request if the child module is already being
+   * loaded. The passer will be given the module once it's loaded.
+   */
+  private void writePendingLoad(String pending) {
+    sourceWriter.print("if(");
+    sourceWriter.print(pending);
+    sourceWriter.println(" != null){");
+    sourceWriter.indent();
+    sourceWriter.print(pending);
+    sourceWriter.println(".add(passer);");
+    sourceWriter.println("return;");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+  }
+
+  /**
+   * Write the statement that ignores a callback of a child module or splitter load if the module
+   * has been unloaded while the code was loading.
+   */
+  private void writeUnloadedGuard() {
+    sourceWriter.println("if(unloaded){");
+    sourceWriter.indent();
+    sourceWriter.println("return;");
     sourceWriter.outdent();
     sourceWriter.println("}");
+  }
+
+  private void writeForwardToChildModule(ChildModuleElement module,
+                                         String passer) {
+    sourceWriter.println("newModule.onForward();");
+
+    if (module.isAutoDisplay()) {
+      EventElement event = getElement(module.getEventToDisplayView(),
+                                      configuration.getEvents());
+      writeDispatchEvent(event.getType(),
+                         "(" + event.getEventObjectClass()[0] + ") newModule.getStartView()");
+    }
 
+    sourceWriter.print("if(");
+    sourceWriter.print(passer);
+    sourceWriter.print(" != null) ");
+    sourceWriter.print(passer);
+    sourceWriter.println(".pass(newModule);");
+  }
+
+  /**
+   * Write the fragments of the child modules to the module prefetcher once the module has started:
+   * fragments are prefetched according to the prefetch attribute of the child or when the child is
+   * predicted to be loaded next. Only child modules loaded thanks to a named split point can be
+   * prefetched.
+   */
+  private void writeModulePrefetch() {
+    String  suffix          = configuration.getSuffix();
+    boolean hasMultipleImpl = (suffix != null) && (suffix.length() > 0);
+    if (!configuration.isAsyncEnabled() || hasMultipleImpl) {
+      return;
+    }
+
+    String  modulePrefetcher = ModulePrefetcher.class.getCanonicalName();
+    String  prefetcher       = Prefetcher.class.getCanonicalName();
+    String  runAsyncCode     = RunAsyncCode.class.getCanonicalName();
+    boolean hasFragment      = false;
+    for (ChildModuleElement module : configuration.getChildModules()) {
+      if (!module.isAsync()) {
+        continue;
+      }
+      sourceWriter.print(modulePrefetcher);
+      sourceWriter.print(".INSTANCE.add(\"");
+      sourceWriter.print(module.getClassName());
+      sourceWriter.print("\", new ");
+      sourceWriter.print(modulePrefetcher);
+      sourceWriter.println(".Fragment(){");
+      sourceWriter.indent();
+      sourceWriter.println("public boolean isLoaded(){");
+      sourceWriter.indent();
+      sourceWriter.print("return ");
+      sourceWriter.print(runAsyncCode);
+      sourceWriter.print(".runAsyncCode(");
+      sourceWriter.print(module.getClassName());
+      sourceWriter.println(".class).isLoaded();");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+      sourceWriter.println("public void fetch(){");
+      sourceWriter.indent();
+      sourceWriter.print(prefetcher);
+      sourceWriter.print(".prefetch(");
+      sourceWriter.print(runAsyncCode);
+      sourceWriter.print(".runAsyncCode(");
+      sourceWriter.print(module.getClassName());
+      sourceWriter.println(".class));");
+      sourceWriter.print(prefetcher);
+      sourceWriter.println(".start();");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+      sourceWriter.outdent();
+      sourceWriter.print("}, ");
+      sourceWriter.print(Prefetch.class.getCanonicalName());
+      sourceWriter.print(".");
+      sourceWriter.print(module.getPrefetch());
+      sourceWriter.println(");");
+      hasFragment = true;
+    }
+    if (hasFragment) {
+      sourceWriter.print(modulePrefetcher);
+      sourceWriter.println(".INSTANCE.start();");
+    }
   }
 
   private void writeGetters() {
@@ -267,16 +431,28 @@ class Mvp4gConfigurationFileWriter {
     if (hasChildren) {
 
       sourceWriter.println("public java.util.Map<String, Mvp4gModule> modules = new java.util.HashMap<String, Mvp4gModule>();");
-      sourceWriter.println();
 
-      String            moduleClassName = null;
-      EventElement      event           = null;
-      Set<EventElement> events          = configuration.getEvents();
+      String moduleClassName = null;
 
       ChildModulesElement loadConfig = configuration.getLoadChildConfig();
       String              errorEvent, beforeEvent, afterEvent;
       boolean             isError, isBefore, isAfter;
 
+      boolean isEvicting = (loadConfig != null) && loadConfig.isEvicting();
+      if (isEvicting) {
+        String moduleEvictor = ModuleEvictor.class.getCanonicalName();
+        sourceWriter.print("private ");
+        sourceWriter.print(moduleEvictor);
+        sourceWriter.print(" evictor = new ");
+        sourceWriter.print(moduleEvictor);
+        sourceWriter.print("(modules, ");
+        sourceWriter.print(loadConfig.getMaxLoaded());
+        sourceWriter.print(", ");
+        sourceWriter.print(loadConfig.getIdleTimeout());
+        sourceWriter.println(");");
+      }
+      sourceWriter.println();
+
       if (loadConfig == null) {
         errorEvent = null;
         beforeEvent = null;
@@ -308,7 +484,10 @@ class Mvp4gConfigurationFileWriter {
       String  asyncImpl       = null;
       String  asyncCallback   = null;
       String  loaderName      = null;
-      boolean hasLoader;
+      boolean hasMetrics      = (configuration.getMetrics() != null);
+      boolean hasTracing      = (configuration.getTracing() != null);
+      boolean hasLoader, isTraceResumed, isCoalesced;
+      String  pending;
       for (ChildModuleElement module : children) {
         isAsync = module.isAsync() && isAsyncEnabled;
 
@@ -333,18 +512,70 @@ class Mvp4gConfigurationFileWriter {
         }
 
         moduleClassName = module.getClassName();
+
+        // while an asynchronous load is in flight, the other requests wait for it
+        isCoalesced = isAsync || hasLoader;
+        pending = "pending" + module.getName();
+        if (isCoalesced) {
+          sourceWriter.print("private List<Mvp4gEventPasser> ");
+          sourceWriter.print(pending);
+          sourceWriter.println(" = null;");
+        }
+
         sourceWriter.print("private void load");
         sourceWriter.print(module.getName());
         sourceWriter.println("(final String eventName, final Mvp4gEventPasser passer){");
         sourceWriter.indent();
 
+        if (isCoalesced) {
+          writePendingLoad(pending);
+        }
+
+        if (isAsync) {
+          // the fragments waiting to be prefetched mustn't delay the one of this module
+          sourceWriter.print("if(!modules.containsKey(\"");
+          sourceWriter.print(moduleClassName);
+          sourceWriter.print("\")) ");
+          sourceWriter.print(ModulePrefetcher.class.getCanonicalName());
+          sourceWriter.print(".INSTANCE.onNavigation(\"");
+          sourceWriter.print(moduleClassName);
+          sourceWriter.println("\");");
+        }
+
+        if (hasMetrics) {
+          sourceWriter.println("final double metricsStart = metrics.now();");
+        }
+
+        // the module is loaded in a callback, the span of the event has to be resumed there
+        isTraceResumed = hasTracing && (isAsync || hasLoader);
+        if (isTraceResumed) {
+          sourceWriter.print("final int traceId = ");
+          sourceWriter.print(EventTracer.class.getCanonicalName());
+          sourceWriter.println(".INSTANCE.getCurrentTraceId();");
+          sourceWriter.print("final int traceParent = ");
+          sourceWriter.print(EventTracer.class.getCanonicalName());
+          sourceWriter.println(".INSTANCE.getCurrentSpanId();");
+        }
+
         if (hasLoader) {
           sourceWriter.println("final Object[] params = (passer == null) ? null : passer.getEventObjects();");
+          sourceWriter.print("get_");
           sourceWriter.print(loaderName);
-          sourceWriter.println(".preLoad( eventBus, eventName, params, new Command(){");
+          sourceWriter.println("().preLoad( eventBus, eventName, params, new Command(){");
           sourceWriter.indent();
           sourceWriter.println("public void execute() {");
           sourceWriter.indent();
+          writeUnloadedGuard();
+          // another request may have started the load while the loader was deciding
+          writePendingLoad(pending);
+        }
+
+        if (isCoalesced) {
+          sourceWriter.print("if(!modules.containsKey(\"");
+          sourceWriter.print(moduleClassName);
+          sourceWriter.print("\")) ");
+          sourceWriter.print(pending);
+          sourceWriter.println(" = new java.util.ArrayList<Mvp4gEventPasser>();");
         }
 
         if (isAsync) {
@@ -360,21 +591,36 @@ class Mvp4gConfigurationFileWriter {
             sourceWriter.print(".class )).load( new ");
             sourceWriter.print(asyncCallback);
           } else {
-            sourceWriter.print("GWT.runAsync(new RunAsyncCallback");
+            // named split point so that the fragment of the module can be prefetched
+            sourceWriter.print("GWT.runAsync(");
+            sourceWriter.print(moduleClassName);
+            sourceWriter.print(".class, new RunAsyncCallback");
           }
-          sourceWriter.print("() {");
+          sourceWriter.println("() {");
           sourceWriter.indent();
           sourceWriter.println("public void onSuccess() {");
           sourceWriter.indent();
+          writeUnloadedGuard();
           if (isAfter) {
             writeDispatchEvent(afterEvent,
                                null);
           }
           if (hasLoader) {
+            sourceWriter.print("get_");
             sourceWriter.print(loaderName);
-            sourceWriter.println(".onSuccess(eventBus, eventName, params );");
+            sourceWriter.println("().onSuccess(eventBus, eventName, params );");
           }
         }
+        if (isTraceResumed) {
+          sourceWriter.print(EventTracer.class.getCanonicalName());
+          sourceWriter.println(".INSTANCE.resume(traceId, traceParent);");
+        }
+        if (hasTracing) {
+          sourceWriter.print("final int traceSpan = ");
+          writeTracerBegin("\"load " + module.getName() + "\"");
+          sourceWriter.println("try {");
+          sourceWriter.indent();
+        }
         sourceWriter.print(moduleClassName);
         sourceWriter.print(" newModule = (");
         sourceWriter.print(moduleClassName);
@@ -391,37 +637,78 @@ class Mvp4gConfigurationFileWriter {
         sourceWriter.println("\", newModule);");
         sourceWriter.println("newModule.setParentModule(itself);");
         sourceWriter.println("newModule.createAndStartModule();");
+        if (hasMetrics) {
+          sourceWriter.print("metrics.onChildModuleLoad(\"");
+          sourceWriter.print(moduleClassName);
+          sourceWriter.println("\", metrics.now() - metricsStart);");
+        }
         sourceWriter.outdent();
         sourceWriter.println("}");
+        if (isEvicting) {
+          sourceWriter.print("evictor.onUse(\"");
+          sourceWriter.print(moduleClassName);
+          sourceWriter.println("\");");
+        }
 
-        sourceWriter.println("newModule.onForward();");
+        writeForwardToChildModule(module,
+                                  "passer");
 
-        if (module.isAutoDisplay()) {
-          event = getElement(module.getEventToDisplayView(),
-                             events);
-          writeDispatchEvent(event.getType(),
-                             "(" + event.getEventObjectClass()[0] + ") newModule.getStartView()");
+        if (isCoalesced) {
+          sourceWriter.print("if(");
+          sourceWriter.print(pending);
+          sourceWriter.println(" != null){");
+          sourceWriter.indent();
+          sourceWriter.print("List<Mvp4gEventPasser> queued = ");
+          sourceWriter.print(pending);
+          sourceWriter.println(";");
+          sourceWriter.print(pending);
+          sourceWriter.println(" = null;");
+          sourceWriter.println("for(Mvp4gEventPasser queuedPasser : queued){");
+          sourceWriter.indent();
+          writeForwardToChildModule(module,
+                                    "queuedPasser");
+          sourceWriter.outdent();
+          sourceWriter.println("}");
+          sourceWriter.outdent();
+          sourceWriter.println("}");
+        }
+        if (hasTracing) {
+          sourceWriter.outdent();
+          sourceWriter.println("}");
+          sourceWriter.println("finally {");
+          sourceWriter.indent();
+          sourceWriter.print(EventTracer.class.getCanonicalName());
+          sourceWriter.println(".INSTANCE.end(traceSpan);");
+          if (isTraceResumed) {
+            sourceWriter.print(EventTracer.class.getCanonicalName());
+            sourceWriter.println(".INSTANCE.release();");
+          }
+          sourceWriter.outdent();
+          sourceWriter.println("}");
         }
-
-        sourceWriter.println("if(passer != null) passer.pass(newModule);");
         if (isAsync) {
           sourceWriter.outdent();
           sourceWriter.println("}");
           sourceWriter.println("public void onFailure(Throwable reason) {");
+          sourceWriter.indent();
+          writeUnloadedGuard();
+          // requests waiting for the module are dropped, the error is only sent once
+          sourceWriter.print(pending);
+          sourceWriter.println(" = null;");
           if (isAfter) {
             writeDispatchEvent(afterEvent,
                                null);
           }
           if (isError) {
-            sourceWriter.indent();
             writeDispatchEvent(errorEvent,
                                formError);
-            sourceWriter.outdent();
           }
           if (hasLoader) {
+            sourceWriter.print("get_");
             sourceWriter.print(loaderName);
-            sourceWriter.println(".onFailure( eventBus, eventName, params, reason );");
+            sourceWriter.println("().onFailure( eventBus, eventName, params, reason );");
           }
+          sourceWriter.outdent();
           sourceWriter.println("}");
           sourceWriter.outdent();
           sourceWriter.println("});");
@@ -446,32 +733,104 @@ class Mvp4gConfigurationFileWriter {
       sourceWriter.println("Mvp4gModule childModule = modules.get(childModuleClassName);");
       sourceWriter.println("if((childModule != null) && (passer != null)){");
       sourceWriter.indent();
+      ChildModulesElement loadConfig = configuration.getLoadChildConfig();
+      if ((loadConfig != null) && loadConfig.isEvicting()) {
+        sourceWriter.println("evictor.onUse(childModuleClassName);");
+      }
       sourceWriter.println("passer.pass(childModule);");
       sourceWriter.outdent();
       sourceWriter.println("}");
       sourceWriter.outdent();
       sourceWriter.println("}");
 
-      String childModuleClassName, childModuleName;
+      sourceWriter.println("else {");
+      sourceWriter.indent();
+      sourceWriter.println("switch (childModuleClassName){");
+      sourceWriter.indent();
       for (ChildModuleElement childModule : configuration.getChildModules()) {
-        childModuleName = childModule.getName();
-        childModuleClassName = childModule.getClassName();
-        sourceWriter.print("else if(\"");
-        sourceWriter.print(childModuleClassName);
-        sourceWriter.println("\".equals(childModuleClassName)){");
+        sourceWriter.print("case \"");
+        sourceWriter.print(childModule.getClassName());
+        sourceWriter.println("\":");
         sourceWriter.indent();
         sourceWriter.print("load");
-        sourceWriter.print(childModuleName);
+        sourceWriter.print(childModule.getName());
         sourceWriter.println("(eventName, passer);");
+        sourceWriter.println("break;");
         sourceWriter.outdent();
-        sourceWriter.println("}");
       }
-      sourceWriter.println("else {");
+      sourceWriter.println("default:");
       sourceWriter.indent();
       sourceWriter.println("throw new Mvp4gException( \"ChildModule \" + childModuleClassName + \" not found. Is this module a sibling module?\" );");
       sourceWriter.outdent();
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+    }
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+  }
+
+  /**
+   * Write the method that unloads the module: the child modules are unloaded and the fields that
+   * lead to the instances created by the module are cleared so that a view still referenced
+   * elsewhere doesn't retain the whole module.
+   */
+  private void writeUnloadModule() {
+    sourceWriter.println("public void unloadModule(){");
+    sourceWriter.indent();
+    // callbacks still pending check this flag to ignore the module
+    sourceWriter.println("unloaded = true;");
+    Set<ChildModuleElement> children = configuration.getChildModules();
+    if (children.size() > 0) {
+      ChildModulesElement loadConfig = configuration.getLoadChildConfig();
+      if ((loadConfig != null) && loadConfig.isEvicting()) {
+        sourceWriter.println("evictor.clear();");
+      }
+      sourceWriter.println("for(Mvp4gModule childModule : modules.values()){");
+      sourceWriter.indent();
+      sourceWriter.print("if(childModule instanceof ");
+      sourceWriter.print(Mvp4gUnloadableModule.class.getCanonicalName());
+      sourceWriter.println("){");
+      sourceWriter.indent();
+      sourceWriter.print("((");
+      sourceWriter.print(Mvp4gUnloadableModule.class.getCanonicalName());
+      sourceWriter.println(") childModule).unloadModule();");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+      sourceWriter.outdent();
       sourceWriter.println("}");
+      sourceWriter.println("modules.clear();");
+      boolean isAsyncEnabled = configuration.isAsyncEnabled();
+      for (ChildModuleElement module : children) {
+        if ((module.isAsync() && isAsyncEnabled) || (module.getLoader() != null)) {
+          sourceWriter.print("pending");
+          sourceWriter.print(module.getName());
+          sourceWriter.println(" = null;");
+        }
+      }
     }
+    for (LoaderElement loader : configuration.getLoaders()) {
+      sourceWriter.print(loader.getName());
+      sourceWriter.println(" = null;");
+    }
+    for (ServiceElement service : configuration.getServices()) {
+      sourceWriter.print(service.getName());
+      sourceWriter.println(" = null;");
+    }
+    for (HistoryConverterElement converter : configuration.getHistoryConverters()) {
+      sourceWriter.print(converter.getName());
+      sourceWriter.println(" = null;");
+    }
+    sourceWriter.println("startPresenter = null;");
+    sourceWriter.println("startView = null;");
+    if (configuration.getProfiling() != null) {
+      sourceWriter.print(ModuleProfiler.class.getCanonicalName());
+      sourceWriter.println(".INSTANCE.unregister(eventBus);");
+    }
+    sourceWriter.println("eventBus.unload();");
+    sourceWriter.println("eventBus = null;");
+    sourceWriter.println("injector = null;");
     sourceWriter.outdent();
     sourceWriter.println("}");
   }
@@ -552,6 +911,15 @@ class Mvp4gConfigurationFileWriter {
                                              "_"));
       sourceWriter.println("();");
     }
+    MetricsElement metrics = configuration.getMetrics();
+    if (metrics != null) {
+      String metricsClass = metrics.getMetrics();
+      sourceWriter.print(metricsClass);
+      sourceWriter.print(" get");
+      sourceWriter.print(metricsClass.replace(".",
+                                              "_"));
+      sourceWriter.println("();");
+    }
     if (configuration.isRootModule()) {
       HistoryElement history = configuration.getHistory();
       String placeServiceClass = (history == null) ?
@@ -589,17 +957,73 @@ class Mvp4gConfigurationFileWriter {
       sourceWriter.print(placeServiceClass.replace(".",
                                                    "_"));
       sourceWriter.println("();");
+      writeHistoryManifest();
     }
+  }
 
-    String name = null;
-
+  /**
+   * Write the accessors of the history converters, a converter is only created the first time it's
+   * needed.
+   */
+  private void writeHistoryConverters() {
+    String name;
     for (HistoryConverterElement converter : configuration.getHistoryConverters()) {
       name = converter.getName();
-      createInstance(name,
-                     converter.getClassName(),
-                     true);
+      writeLazyAccessorBegin(converter.getClassName(),
+                             name);
+      sourceWriter.print(name);
+      sourceWriter.print(" = injector.get");
+      sourceWriter.print(name);
+      sourceWriter.println("();");
       injectServices(name,
                      converter.getInjectedServices());
+      writeLazyAccessorEnd(name);
+    }
+  }
+
+  /**
+   * Write the manifest of the history names of the descendant modules so that the place service
+   * can validate a token and prefetch the code of the modules to load before loading them.
+   */
+  private void writeHistoryManifest() {
+    for (String historyName : configuration.getHistoryManifest()) {
+      sourceWriter.print("placeService.addRoute(\"");
+      sourceWriter.print(historyName);
+      sourceWriter.println("\");");
+    }
+
+    String prefetcher   = Prefetcher.class.getCanonicalName();
+    String runAsyncCode = RunAsyncCode.class.getCanonicalName();
+    for (Map.Entry<String, List<String>> entry : configuration.getHistorySplitPoints()
+                                                              .entrySet()) {
+      sourceWriter.print("placeService.addModuleRoute(\"");
+      sourceWriter.print(entry.getKey());
+      sourceWriter.println("\", new Command(){");
+      sourceWriter.indent();
+      sourceWriter.println("public void execute(){");
+      sourceWriter.indent();
+      sourceWriter.print(prefetcher);
+      sourceWriter.print(".prefetch(");
+      sourceWriter.print(Arrays.class.getCanonicalName());
+      sourceWriter.print(".asList(");
+      boolean first = true;
+      for (String moduleClassName : entry.getValue()) {
+        if (!first) {
+          sourceWriter.print(", ");
+        }
+        sourceWriter.print(runAsyncCode);
+        sourceWriter.print(".runAsyncCode(");
+        sourceWriter.print(moduleClassName);
+        sourceWriter.print(".class)");
+        first = false;
+      }
+      sourceWriter.println("));");
+      sourceWriter.print(prefetcher);
+      sourceWriter.println(".start();");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+      sourceWriter.outdent();
+      sourceWriter.println("});");
     }
   }
 
@@ -611,7 +1035,8 @@ class Mvp4gConfigurationFileWriter {
   private void writeViews() {
 
     for (ViewElement view : configuration.getViews()) {
-      if (view.isInstantiateAtStart()) {
+      // a view only used by a lazy presenter is created with it
+      if (view.isInstantiateAtStart() && !isLazyView(view.getName())) {
         createInstance(view.getName(),
                        view.getClassName(),
                        true);
@@ -631,7 +1056,7 @@ class Mvp4gConfigurationFileWriter {
     String className = null;
 
     for (PresenterElement presenter : configuration.getPresenters()) {
-      if (!presenter.isMultiple() && !presenter.isAsync()) {
+      if (!presenter.isMultiple() && !presenter.isAsync() && !isLazy(presenter)) {
         name = presenter.getName();
         className = presenter.getClassName();
         view = presenter.getView();
@@ -665,7 +1090,7 @@ class Mvp4gConfigurationFileWriter {
     String className = null;
 
     for (EventHandlerElement eventHandler : configuration.getEventHandlers()) {
-      if (!eventHandler.isMultiple() && !eventHandler.isAsync()) {
+      if (!eventHandler.isMultiple() && !eventHandler.isAsync() && !isLazy(eventHandler)) {
         name = eventHandler.getName();
         className = eventHandler.getClassName();
 
@@ -687,25 +1112,42 @@ class Mvp4gConfigurationFileWriter {
   private void injectEventBus() {
 
     for (PresenterElement presenter : configuration.getPresenters()) {
-      if (!presenter.isMultiple() && !presenter.isAsync()) {
+      if (!presenter.isMultiple() && !presenter.isAsync() && !isLazy(presenter)) {
         sourceWriter.print(presenter.getName());
         sourceWriter.println(".setEventBus(eventBus);");
       }
     }
 
     for (EventHandlerElement eventHandler : configuration.getEventHandlers()) {
-      if (!eventHandler.isMultiple() && !eventHandler.isAsync()) {
+      if (!eventHandler.isMultiple() && !eventHandler.isAsync() && !isLazy(eventHandler)) {
         sourceWriter.print(eventHandler.getName());
         sourceWriter.println(".setEventBus(eventBus);");
       }
     }
 
     if (configuration.isRootModule()) {
-      sourceWriter.print("placeService.setModule(itself);");
+      sourceWriter.println("placeService.setModule(itself);");
     }
 
   }
 
+  /**
+   * Write the size of the pools of the multiple handlers that are reused once removed.
+   */
+  private void writeHandlerPools() {
+    List<EventHandlerElement> handlers = new ArrayList<EventHandlerElement>(configuration.getPresenters());
+    handlers.addAll(configuration.getEventHandlers());
+    for (EventHandlerElement handler : handlers) {
+      if (isPooled(handler)) {
+        sourceWriter.print("eventBus.setHandlerPoolSize(");
+        sourceWriter.print(handler.getClassName());
+        sourceWriter.print(".class, ");
+        sourceWriter.print(handler.getPoolSize());
+        sourceWriter.println(");");
+      }
+    }
+  }
+
   /**
    * Write the logger included in the configuration file.
    * <br>
@@ -722,6 +1164,47 @@ class Mvp4gConfigurationFileWriter {
     }
   }
 
+  /**
+   * Write the initial level of the logs. The level can then be changed at runtime.
+   */
+  private void writeLogLevel() {
+    DebugElement debug = configuration.getDebug();
+    if (debug != null) {
+      sourceWriter.print("eventBus.setLogLevel(");
+      sourceWriter.print(LogLevel.class.getCanonicalName());
+      sourceWriter.print(".");
+      sourceWriter.print(debug.getLogLevel());
+      sourceWriter.println(");");
+    }
+  }
+
+  /**
+   * Write the metrics included in the configuration file.
+   */
+  private void writeMetrics() {
+    MetricsElement metrics = configuration.getMetrics();
+    if (metrics != null) {
+      sourceWriter.print("metrics = injector.get");
+      sourceWriter.print(metrics.getMetrics()
+                                .replace(".",
+                                         "_"));
+      sourceWriter.println("();");
+    }
+  }
+
+  /**
+   * Write the capacity needed by the flight recorder.
+   */
+  private void writeFlightRecorder() {
+    FlightRecorderElement flightRecorder = configuration.getFlightRecorder();
+    if (flightRecorder != null) {
+      sourceWriter.print(EventFlightRecorder.class.getCanonicalName());
+      sourceWriter.print(".INSTANCE.ensureCapacity(");
+      sourceWriter.print(flightRecorder.getCapacity());
+      sourceWriter.println(");");
+    }
+  }
+
   /**
    * Write the services included in the configuration file.
    * <br>
@@ -734,9 +1217,9 @@ class Mvp4gConfigurationFileWriter {
     for (ServiceElement service : configuration.getServices()) {
       name = service.getName();
 
-      sourceWriter.print("final ");
-      sourceWriter.print(service.getGeneratedClassName());
-      sourceWriter.print(" ");
+      // the proxy is only created the first time the service is injected
+      writeLazyAccessorBegin(service.getGeneratedClassName(),
+                             name);
       sourceWriter.print(name);
       sourceWriter.print(" = GWT.create(");
       sourceWriter.print(service.getClassName());
@@ -747,8 +1230,9 @@ class Mvp4gConfigurationFileWriter {
         sourceWriter.print(name);
         sourceWriter.print(").setServiceEntryPoint(\"");
         sourceWriter.print(service.getPath());
-        sourceWriter.print("\");");
+        sourceWriter.println("\");");
       }
+      writeLazyAccessorEnd(name);
     }
   }
 
@@ -770,6 +1254,8 @@ class Mvp4gConfigurationFileWriter {
 
     writeMultipleConstructor();
 
+    writeLazyHandlers();
+
     List<EventElement> eventsWithHistory = new ArrayList<EventElement>();
 
     Set<EventHandlerElement> eventHandlers = new HashSet<EventHandlerElement>(configuration.getPresenters());
@@ -779,6 +1265,9 @@ class Mvp4gConfigurationFileWriter {
     String                  type, history, param;
     List<String>            activate, deactivate, handlers, binds, generates;
     boolean                 hasLog         = (configuration.getDebug() != null);
+    boolean                 hasRecorder    = (configuration.getFlightRecorder() != null);
+    boolean                 hasTracing     = (configuration.getTracing() != null);
+    boolean                 hasMetrics     = (configuration.getMetrics() != null);
     Set<EventFilterElement> filters        = configuration.getEventFilters();
     EventFiltersElement     filtersElement = configuration.getEventFilterConfiguration();
     boolean filterAfterHistory = (filtersElement == null) ?
@@ -786,6 +1275,7 @@ class Mvp4gConfigurationFileWriter {
                                  filtersElement.isAfterHistory();
     boolean hasFilter = (filters != null) && (filters.size() > 0) || ((filtersElement != null) && (filtersElement.isForceFilters()));
     boolean isNavigationEvent, isWithTokenGeneration;
+
     for (EventElement event : configuration.getEvents()) {
       type = event.getType();
       objectClasses = event.getEventObjectClass();
@@ -800,6 +1290,10 @@ class Mvp4gConfigurationFileWriter {
       generates = event.getGenerate();
       isWithTokenGeneration = event.isWithTokenGeneration();
 
+      if (event.hasShaping()) {
+        writeEventShaper(event);
+      }
+
       sourceWriter.print("public ");
       sourceWriter.print((isWithTokenGeneration) ?
                          "String " :
@@ -844,10 +1338,11 @@ class Mvp4gConfigurationFileWriter {
       sourceWriter.indent();
 
       if (isWithTokenGeneration) {
+        // setTokenGenerationModeForNextEvent: only the token is generated
         sourceWriter.println("if(tokenMode){");
         sourceWriter.indent();
+        sourceWriter.println("tokenMode=false;");
         if (event.isTokenGenerationFromParent()) {
-          sourceWriter.println("tokenMode=false;");
           sourceWriter.print("((");
           sourceWriter.print(BaseEventBus.class.getName());
           sourceWriter.println(") parentEventBus).tokenMode = true;");
@@ -855,16 +1350,29 @@ class Mvp4gConfigurationFileWriter {
           writeParentEvent(event,
                            param);
         } else {
-          sourceWriter.print("return ");
-          writeEventHistoryConvertion(event,
-                                      getElement(history,
-                                                 configuration.getHistoryConverters()),
-                                      param,
-                                      true);
+          sourceWriter.print("return ((");
+          sourceWriter.print(configuration.getEventBus()
+                                          .getInterfaceClassName());
+          sourceWriter.print(") getTokenGenerator()).");
+          sourceWriter.print(type);
+          sourceWriter.print("(");
+          if (param != null) {
+            sourceWriter.print(param);
+          }
+          sourceWriter.println(");");
         }
         sourceWriter.outdent();
-        sourceWriter.println("} else {");
-        sourceWriter.indent();
+        sourceWriter.println("}");
+      }
+
+      if (event.hasShaping()) {
+        writeEventShaping(event,
+                          param);
+      }
+
+      if (event.isDeferred()) {
+        writeEventDeferral(event,
+                           param);
       }
 
       if (isNavigationEvent) {
@@ -879,8 +1387,23 @@ class Mvp4gConfigurationFileWriter {
         sourceWriter.indent();
       }
 
-      if (hasLog) {
+      if (hasTracing) {
+        sourceWriter.print("final int traceSpan = ");
+        writeTracerBegin("\"" + event.getName() + "\"");
+      }
+
+      if (hasLog || hasRecorder || hasTracing) {
         sourceWriter.println("int startLogDepth = BaseEventBus.logDepth;");
+        if (hasRecorder) {
+          sourceWriter.print("final int flightRecord = ");
+          sourceWriter.print(EventFlightRecorder.class.getCanonicalName());
+          sourceWriter.print(".INSTANCE.start(\"");
+          sourceWriter.print(configuration.getModule()
+                                          .getSimpleSourceName());
+          sourceWriter.print("\", \"");
+          sourceWriter.print(event.getName());
+          sourceWriter.println("\", startLogDepth + 1);");
+        }
         sourceWriter.println("try {");
         sourceWriter.indent();
         sourceWriter.println("++BaseEventBus.logDepth;");
@@ -890,6 +1413,12 @@ class Mvp4gConfigurationFileWriter {
         sourceWriter.println("++BaseEventBus.logDepth;");
       }
 
+      if (hasMetrics) {
+        sourceWriter.print("metrics.onEvent(\"");
+        sourceWriter.print(event.getName());
+        sourceWriter.println("\");");
+      }
+
       if (!filterAfterHistory) {
         writeEventFilter(hasFilter,
                          event,
@@ -948,12 +1477,20 @@ class Mvp4gConfigurationFileWriter {
                        param,
                        true);
 
-      if (hasLog) {
+      if (hasLog || hasRecorder || hasTracing) {
         sourceWriter.outdent();
         sourceWriter.println("}");
         sourceWriter.println("finally {");
         sourceWriter.indent();
         sourceWriter.println("BaseEventBus.logDepth = startLogDepth;");
+        if (hasRecorder) {
+          sourceWriter.print(EventFlightRecorder.class.getCanonicalName());
+          sourceWriter.println(".INSTANCE.end(flightRecord);");
+        }
+        if (hasTracing) {
+          sourceWriter.print(EventTracer.class.getCanonicalName());
+          sourceWriter.println(".INSTANCE.end(traceSpan);");
+        }
         sourceWriter.outdent();
         sourceWriter.println("}");
       }
@@ -966,9 +1503,8 @@ class Mvp4gConfigurationFileWriter {
       }
 
       if (isWithTokenGeneration) {
-        sourceWriter.outdent();
+        // tokens are generated by the token generator
         sourceWriter.println("return null;");
-        sourceWriter.println("}");
       }
 
       sourceWriter.outdent();
@@ -976,6 +1512,8 @@ class Mvp4gConfigurationFileWriter {
 
     }
 
+    writeDeferredEventDispatch();
+
     if (eventBus.isWithLookUp()) {
       writeEventLookUp();
     }
@@ -1012,12 +1550,28 @@ class Mvp4gConfigurationFileWriter {
 
     sourceWriter.println("};");
 
+    writeTokenGenerator();
+
     for (EventElement event : eventsWithHistory) {
       sourceWriter.print("addConverter( \"");
       sourceWriter.print(event.getName());
       sourceWriter.print("\",");
+      sourceWriter.print("new ");
+      sourceWriter.print(LazyHistoryConverter.class.getCanonicalName());
+      sourceWriter.println("(){");
+      sourceWriter.indent();
+      sourceWriter.print("protected ");
+      sourceWriter.print(HistoryConverter.class.getCanonicalName());
+      sourceWriter.println(" createConverter(){");
+      sourceWriter.indent();
+      sourceWriter.print("return get_");
       sourceWriter.print(event.getHistory());
-      sourceWriter.print(");");
+      sourceWriter.println("();");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+      writeIsUnloaded();
+      sourceWriter.outdent();
+      sourceWriter.println("});");
     }
   }
 
@@ -1043,6 +1597,7 @@ class Mvp4gConfigurationFileWriter {
         if (!eventHandler.isMultiple()) {
           // passive events not allowed for binds
           writeBindHandling(bind,
+                            eventHandler,
                             type,
                             name,
                             param);
@@ -1051,10 +1606,12 @@ class Mvp4gConfigurationFileWriter {
                                    "",
                                    fromEventBus);
           writeBindHandling("handler",
+                            eventHandler,
                             type,
                             name,
                             param); // handler contains bind for cycle
-          writeMultipleActionEnd();
+          writeMultipleActionEnd(eventHandler,
+                                 fromEventBus);
         }
       }
     }
@@ -1066,22 +1623,27 @@ class Mvp4gConfigurationFileWriter {
                                   eventHandlers);
         if (!eventHandler.isMultiple()) {
           writeEventHandling(handler,
+                             eventHandler,
                              type,
                              name,
                              calledMethod,
                              param,
-                             isPassive);
+                             isPassive,
+                             fromEventBus);
         } else {
           writeMultipleActionBegin(eventHandler,
                                    "",
                                    fromEventBus);
           writeEventHandling("handler",
+                             eventHandler,
                              type,
                              name,
                              calledMethod,
                              param,
-                             isPassive);
-          writeMultipleActionEnd();
+                             isPassive,
+                             fromEventBus);
+          writeMultipleActionEnd(eventHandler,
+                                 fromEventBus);
         }
       }
 
@@ -1091,7 +1653,30 @@ class Mvp4gConfigurationFileWriter {
       for (String generate : generates) {
         eventHandler = getElement(generate,
                                   eventHandlers);
-        if (eventHandler instanceof PresenterElement) {
+        if (eventHandler.isPooled()) {
+          // a recycled handler is already bound, it only has to be added again
+          sourceWriter.print(eventHandler.getClassName());
+          sourceWriter.print(" ");
+          sourceWriter.print(eventHandler.getName());
+          sourceWriter.print(" = eventBus.pollRecycledHandler(");
+          sourceWriter.print(eventHandler.getClassName());
+          sourceWriter.println(".class);");
+          sourceWriter.print("if(");
+          sourceWriter.print(eventHandler.getName());
+          sourceWriter.println(" == null){");
+          sourceWriter.indent();
+          sourceWriter.print(eventHandler.getName());
+          sourceWriter.print(" = ");
+          if (eventHandler instanceof PresenterElement) {
+            createPresenter((PresenterElement) eventHandler,
+                            false);
+          } else {
+            createEventHandler(eventHandler,
+                               false);
+          }
+          sourceWriter.outdent();
+          sourceWriter.println("}");
+        } else if (eventHandler instanceof PresenterElement) {
           createPresenter((PresenterElement) eventHandler,
                           true);
         } else {
@@ -1104,40 +1689,312 @@ class Mvp4gConfigurationFileWriter {
         sourceWriter.print(eventHandler.getClassName());
         sourceWriter.println(".class, true);");
         writeEventHandling(generate,
+                           eventHandler,
                            type,
                            name,
                            calledMethod,
                            param,
-                           isPassive);
+                           isPassive,
+                           fromEventBus);
       }
     }
   }
 
+  /**
+   * Write the method of a lazy converter or filter that tells it the module has been unloaded.
+   */
+  private void writeIsUnloaded() {
+    sourceWriter.println("protected boolean isUnloaded(){");
+    sourceWriter.indent();
+    sourceWriter.println("return unloaded;");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+  }
+
   private void writeEventFilters() {
     String filterName;
     for (EventFilterElement filter : configuration.getEventFilters()) {
       filterName = filter.getName();
-      createInstance(filterName,
-                     filter.getClassName(),
-                     true);
-      sourceWriter.print("eventBus.addEventFilter(");
+      // the filter is only created by the first event it filters
+      sourceWriter.print("eventBus.addEventFilter(new ");
+      sourceWriter.print(LazyEventFilter.class.getCanonicalName());
+      sourceWriter.println("(){");
+      sourceWriter.indent();
+      sourceWriter.print("protected ");
+      sourceWriter.print(EventFilter.class.getCanonicalName());
+      sourceWriter.println(" createFilter(){");
+      sourceWriter.indent();
+      sourceWriter.print("return injector.get");
       sourceWriter.print(filterName);
-      sourceWriter.print(");");
-    }
-  }
-
-  private void writeEventHistoryConvertion(EventElement event,
-                                           HistoryConverterElement historyConverterElement,
-                                           String param,
+      sourceWriter.println("();");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+      writeIsUnloaded();
+      sourceWriter.outdent();
+      sourceWriter.print("}");
+      String[] events = filter.getEvents();
+      if (events != null) {
+        sourceWriter.print(", new String[]{");
+        for (int i = 0; i < events.length; i++) {
+          if (i > 0) {
+            sourceWriter.print(", ");
+          }
+          sourceWriter.print("\"");
+          sourceWriter.print(events[i]);
+          sourceWriter.print("\"");
+        }
+        sourceWriter.print("}");
+      }
+      sourceWriter.print(");");
+    }
+  }
+
+  /**
+   * Write the token generator of the event bus: a class implementing the interface of the event
+   * bus whose token generation events go straight to the history converter and the place service,
+   * without the logs, filters and handlers of the events. Other events and methods are forwarded to
+   * the event bus.
+   */
+  private void writeTokenGenerator() {
+    boolean hasTokenGeneration = false;
+    boolean hasPureToken       = false;
+    for (EventElement event : configuration.getEvents()) {
+      hasTokenGeneration = hasTokenGeneration || event.isWithTokenGeneration();
+      hasPureToken = hasPureToken || (event.isWithTokenGeneration() && event.isPureToken());
+    }
+    if (!hasTokenGeneration) {
+      return;
+    }
+
+    EventBusElement eventBus = configuration.getEventBus();
+    String          parentEventBusClass = configuration.isRootModule() ?
+                                          null :
+                                          configuration.getParentEventBus()
+                                                       .getQualifiedSourceName();
+
+    sourceWriter.print("class TokenGenerator extends ");
+    sourceWriter.print(BaseTokenGenerator.class.getCanonicalName());
+    sourceWriter.print(" implements ");
+    sourceWriter.print(eventBus.getInterfaceClassName());
+    sourceWriter.println("{");
+    sourceWriter.indent();
+
+    if (hasPureToken) {
+      sourceWriter.print("private final ");
+      sourceWriter.print(TokenCache.class.getCanonicalName());
+      sourceWriter.print(" tokenCache = new ");
+      sourceWriter.print(TokenCache.class.getCanonicalName());
+      sourceWriter.println("();");
+    }
+
+    sourceWriter.println("TokenGenerator(){");
+    sourceWriter.indent();
+    sourceWriter.println("super(eventBus);");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+
+    String[]                objectClasses;
+    String                  param;
+    HistoryConverterElement historyConverter;
+    for (EventElement event : configuration.getEvents()) {
+      objectClasses = event.getEventObjectClass();
+      param = null;
+      sourceWriter.print("public ");
+      sourceWriter.print(event.isWithTokenGeneration() ?
+                         "String " :
+                         "void ");
+      sourceWriter.print(event.getType());
+      sourceWriter.print("(");
+      if ((objectClasses != null) && (objectClasses.length > 0)) {
+        StringBuilder paramBuilder = new StringBuilder(10 * objectClasses.length);
+        for (int i = 0; i < objectClasses.length; i++) {
+          if (i > 0) {
+            sourceWriter.print(",");
+            paramBuilder.append(",");
+          }
+          sourceWriter.print(objectClasses[i]);
+          sourceWriter.print(" attr");
+          sourceWriter.print(Integer.toString(i));
+          paramBuilder.append("attr");
+          paramBuilder.append(i);
+        }
+        param = paramBuilder.toString();
+      }
+      sourceWriter.println("){");
+      sourceWriter.indent();
+      if (!event.isWithTokenGeneration()) {
+        sourceWriter.print("eventBus.");
+        sourceWriter.print(event.getType());
+        sourceWriter.print("(");
+        if (param != null) {
+          sourceWriter.print(param);
+        }
+        sourceWriter.println(");");
+      } else if (event.isTokenGenerationFromParent()) {
+        sourceWriter.print("return ((");
+        sourceWriter.print(parentEventBusClass);
+        sourceWriter.print(") ((");
+        sourceWriter.print(BaseEventBus.class.getName());
+        sourceWriter.print(") parentEventBus).getTokenGenerator()).");
+        sourceWriter.print(event.getType());
+        sourceWriter.print("(");
+        if (param != null) {
+          sourceWriter.print(param);
+        }
+        sourceWriter.println(");");
+      } else {
+        historyConverter = getElement(event.getHistory(),
+                                      configuration.getHistoryConverters());
+        if (event.isPureToken()) {
+          writePureTokenGeneration(event,
+                                   historyConverter,
+                                   param);
+        } else {
+          sourceWriter.print("return ");
+          writeTokenPlace(event,
+                          historyConverter,
+                          param);
+        }
+      }
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+    }
+
+    writeBulkTokenGeneration();
+
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+    sourceWriter.println("eventBus.setTokenGenerator(new TokenGenerator());");
+  }
+
+  /**
+   * Write the bulk token generation of the token generator: the history converter is called for
+   * each set of parameters and all the tokens are then built at once by the place service.
+   */
+  private void writeBulkTokenGeneration() {
+    sourceWriter.println("public String[] generateTokens( String eventName, Object[]... data ){");
+    sourceWriter.indent();
+    sourceWriter.println("try{");
+    sourceWriter.indent();
+    sourceWriter.println("if ( eventName != null ){");
+    sourceWriter.indent();
+    sourceWriter.println("switch ( eventName ){");
+    sourceWriter.indent();
+    for (EventElement event : configuration.getEvents()) {
+      if (!event.isWithTokenGeneration()) {
+        continue;
+      }
+      sourceWriter.print("case \"");
+      sourceWriter.print(event.getName());
+      sourceWriter.println("\": {");
+      sourceWriter.indent();
+      if (event.isTokenGenerationFromParent()) {
+        sourceWriter.print("return ((");
+        sourceWriter.print(BaseEventBus.class.getName());
+        sourceWriter.print(") parentEventBus).generateTokens(\"");
+        sourceWriter.print(configuration.getParentEventName(event));
+        sourceWriter.println("\", data);");
+      } else {
+        sourceWriter.println("String[] forms = new String[data.length];");
+        sourceWriter.println("for(int i = 0; i < data.length; i++){");
+        sourceWriter.indent();
+        sourceWriter.print("forms[i] = ");
+        writeHistoryConverterCall(event,
+                                  getElement(event.getHistory(),
+                                             configuration.getHistoryConverters()),
+                                  getCastedParams(event.getEventObjectClass(),
+                                                  "data[i]"));
+        sourceWriter.println(";");
+        sourceWriter.outdent();
+        sourceWriter.println("}");
+        sourceWriter.print("return itself.generateTokens(\"");
+        sourceWriter.print(event.getName());
+        sourceWriter.println("\", forms);");
+      }
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+    }
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+    sourceWriter.outdent();
+    sourceWriter.println("} catch ( ClassCastException e ) {");
+    sourceWriter.indent();
+    sourceWriter.println("handleClassCastException( e, eventName );");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+    sourceWriter.println("return super.generateTokens(eventName, data);");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+  }
+
+  /**
+   * Write the token generation of an event whose converter method is pure: the token is looked up
+   * in the token cache first and the converter is only called if it's not found.
+   */
+  private void writePureTokenGeneration(EventElement event,
+                                        HistoryConverterElement historyConverterElement,
+                                        String param) {
+    sourceWriter.print("Object[] tokenKey = new Object[]{");
+    if (param != null) {
+      sourceWriter.print(param);
+    }
+    sourceWriter.println("};");
+    sourceWriter.print("String token = tokenCache.get(\"");
+    sourceWriter.print(event.getType());
+    sourceWriter.println("\", tokenKey);");
+    sourceWriter.println("if(token == null){");
+    sourceWriter.indent();
+    sourceWriter.print("token = ");
+    writeTokenPlace(event,
+                    historyConverterElement,
+                    param);
+    sourceWriter.print("tokenCache.put(\"");
+    sourceWriter.print(event.getType());
+    sourceWriter.println("\", tokenKey, token);");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+    sourceWriter.println("return token;");
+  }
+
+  private void writeTokenPlace(EventElement event,
+                               HistoryConverterElement historyConverterElement,
+                               String param) {
+    sourceWriter.print("itself.place(\"");
+    sourceWriter.print(event.getName());
+    sourceWriter.print("\", ");
+    writeHistoryConverterCall(event,
+                              historyConverterElement,
+                              param);
+    sourceWriter.println(", true);");
+  }
+
+  private void writeEventHistoryConvertion(EventElement event,
+                                           HistoryConverterElement historyConverterElement,
+                                           String param,
                                            boolean onlyTokens) {
     sourceWriter.print("place( itself, \"");
     sourceWriter.print(event.getName());
     sourceWriter.print("\",");
+    writeHistoryConverterCall(event,
+                              historyConverterElement,
+                              param);
+    sourceWriter.print(",");
+    sourceWriter.print(Boolean.toString(onlyTokens));
+    sourceWriter.println(");");
+
+  }
+
+  private void writeHistoryConverterCall(EventElement event,
+                                         HistoryConverterElement historyConverterElement,
+                                         String param) {
     HistoryConverterType type = com.mvp4g.client.annotation.History.HistoryConverterType.valueOf(historyConverterElement.getType());
     switch (type) {
       case DEFAULT:
+        sourceWriter.print("get_");
         sourceWriter.print(historyConverterElement.getName());
-        sourceWriter.print(".");
+        sourceWriter.print("().");
         sourceWriter.print(event.getCalledMethod());
         sourceWriter.print("(");
         if (param != null) {
@@ -1146,11 +2003,12 @@ class Mvp4gConfigurationFileWriter {
         sourceWriter.print(")");
         break;
       case SIMPLE:
+        sourceWriter.print("get_");
         sourceWriter.print(historyConverterElement.getName());
-        sourceWriter.print(".convertToToken(\"");
+        sourceWriter.print("().convertToToken(\"");
         sourceWriter.print(event.getName());
         sourceWriter.print("\"");
-        if (param != null) {
+        if ((param != null) && (param.length() > 0)) {
           sourceWriter.print(",");
           sourceWriter.print(param);
         }
@@ -1160,10 +2018,6 @@ class Mvp4gConfigurationFileWriter {
         sourceWriter.print("null");
         break;
     }
-    sourceWriter.print(",");
-    sourceWriter.print(Boolean.toString(onlyTokens));
-    sourceWriter.println(");");
-
   }
 
   private void writeMultipleActionBegin(EventHandlerElement eventHandler,
@@ -1171,15 +2025,23 @@ class Mvp4gConfigurationFileWriter {
                                         boolean fromEventBus) {
     String className   = eventHandler.getClassName();
     String elementName = eventHandler.getName() + varSubName;
-    sourceWriter.print("List<");
-    sourceWriter.print(className);
-    sourceWriter.print("> handlers");
+    if (isPooled(eventHandler)) {
+      // a handler removed by the loop mustn't be recycled before the loop is over
+      if (!fromEventBus) {
+        sourceWriter.print("eventBus.");
+      }
+      sourceWriter.println("beginDispatch();");
+      sourceWriter.println("try{");
+      sourceWriter.indent();
+    }
+    // the snapshot is never modified by the event bus, no need to copy it
+    sourceWriter.print("EventHandlerInterface<?>[] handlers");
     sourceWriter.print(elementName);
     sourceWriter.print(" = ");
     if (!fromEventBus) {
       sourceWriter.print("eventBus.");
     }
-    sourceWriter.print("getHandlers(");
+    sourceWriter.print("getHandlerSnapshot(");
     sourceWriter.print(className);
     sourceWriter.println(".class);");
     sourceWriter.print("if(handlers");
@@ -1190,19 +2052,37 @@ class Mvp4gConfigurationFileWriter {
     sourceWriter.println(" handler;");
     sourceWriter.print("int handlerCount = handlers");
     sourceWriter.print(elementName);
-    sourceWriter.println(".size();");
+    sourceWriter.println(".length;");
     sourceWriter.println("for(int i=0; i<handlerCount; i++){");
     sourceWriter.indent();
-    sourceWriter.print("handler = handlers");
+    sourceWriter.print("handler = (");
+    sourceWriter.print(className);
+    sourceWriter.print(") handlers");
     sourceWriter.print(elementName);
-    sourceWriter.println(".get(i);");
+    sourceWriter.println("[i];");
   }
 
-  private void writeMultipleActionEnd() {
+  private void writeMultipleActionEnd(EventHandlerElement eventHandler,
+                                      boolean fromEventBus) {
     sourceWriter.outdent();
     sourceWriter.println("}");
     sourceWriter.outdent();
     sourceWriter.println("}");
+    if (isPooled(eventHandler)) {
+      sourceWriter.outdent();
+      sourceWriter.println("}finally{");
+      sourceWriter.indent();
+      if (!fromEventBus) {
+        sourceWriter.print("eventBus.");
+      }
+      sourceWriter.println("endDispatch();");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+    }
+  }
+
+  private boolean isPooled(EventHandlerElement eventHandler) {
+    return eventHandler.isMultiple() && eventHandler.isPooled();
   }
 
   private void writeActivation(List<String> activateList,
@@ -1223,39 +2103,49 @@ class Mvp4gConfigurationFileWriter {
                                  fromEventBus);
         sourceWriter.print("handler");
         sourceWriter.println(activateStr);
-        writeMultipleActionEnd();
+        writeMultipleActionEnd(handler,
+                               fromEventBus);
       } else {
-        sourceWriter.print(handlerName);
+        sourceWriter.print(getHandlerAccess(handler));
         sourceWriter.println(activateStr);
       }
     }
   }
 
   private void writeEventHandling(String handler,
+                                  EventHandlerElement eventHandler,
                                   String type,
                                   String name,
                                   String calledMethod,
                                   String param,
-                                  boolean passive) {
+                                  boolean passive,
+                                  boolean fromEventBus) {
     sourceWriter.print("if (");
-    sourceWriter.print(handler);
-    sourceWriter.print(".isActivated(");
-    sourceWriter.print(Boolean.toString(passive));
-    sourceWriter.print(", \"");
-    sourceWriter.print(name);
-    sourceWriter.print("\"");
-    if (param != null) {
-      sourceWriter.print(", new Object[]{");
-      sourceWriter.print(param);
-      sourceWriter.print("}");
-    }
-    sourceWriter.println(")){");
+    writeIsActivated(handler,
+                     eventHandler,
+                     passive,
+                     name,
+                     param);
+    sourceWriter.println("){");
     sourceWriter.indent();
 
     writeDetailedLog(handler,
                      type,
                      false);
 
+    // the record only exists in the event method
+    if (fromEventBus && (configuration.getFlightRecorder() != null)) {
+      sourceWriter.print(EventFlightRecorder.class.getCanonicalName());
+      sourceWriter.print(".INSTANCE.handled(flightRecord, \"");
+      sourceWriter.print(eventHandler.getName());
+      sourceWriter.println("\");");
+    }
+
+    boolean hasMetrics = (configuration.getMetrics() != null);
+    if (hasMetrics) {
+      sourceWriter.println("double metricsStart = metrics.now();");
+    }
+
     sourceWriter.print(handler);
     sourceWriter.print(".");
     sourceWriter.print(calledMethod);
@@ -1265,6 +2155,14 @@ class Mvp4gConfigurationFileWriter {
     }
     sourceWriter.println(");");
 
+    if (hasMetrics) {
+      sourceWriter.print("metrics.onHandle(\"");
+      sourceWriter.print(name);
+      sourceWriter.print("\", \"");
+      sourceWriter.print(eventHandler.getName());
+      sourceWriter.println("\", metrics.now() - metricsStart);");
+    }
+
     sourceWriter.outdent();
     sourceWriter.println("}");
   }
@@ -1276,34 +2174,77 @@ class Mvp4gConfigurationFileWriter {
    * @param type
    */
   private void writeBindHandling(String bind,
+                                 EventHandlerElement eventHandler,
                                  String type,
                                  String name,
                                  String param) {
-    sourceWriter.print(bind);
-    sourceWriter.print(".isActivated(");
-    sourceWriter.print("false"); // passive events not allowed for binds
-    sourceWriter.print(", \"");
-    sourceWriter.print(name);
-    sourceWriter.print("\"");
-    if (param != null) {
-      sourceWriter.print(", new Object[]{");
-      sourceWriter.print(param);
-      sourceWriter.print("}");
-    }
-    sourceWriter.println(");");
+    // passive events not allowed for binds
+    writeIsActivated(bind,
+                     eventHandler,
+                     false,
+                     name,
+                     param);
+    sourceWriter.println(";");
 
     writeDetailedLog(bind,
                      type,
                      true);
   }
 
+  /**
+   * Write the activation check of a handler. If the handler doesn't override the pass method, the
+   * parameters aren't needed so no array is built.
+   */
+  private void writeIsActivated(String handler,
+                                EventHandlerElement eventHandler,
+                                boolean passive,
+                                String name,
+                                String param) {
+    if (isLazy(eventHandler)) {
+      // a passive event never creates a lazy handler
+      if (passive) {
+        sourceWriter.print(handler);
+        sourceWriter.print(" != null && ");
+        sourceWriter.print(handler);
+      } else {
+        sourceWriter.print(getHandlerAccess(eventHandler));
+      }
+    } else {
+      sourceWriter.print(handler);
+    }
+    if (eventHandler.hasActivationWithoutPass()) {
+      sourceWriter.print(".isActivatedWithoutPass(");
+      sourceWriter.print(Boolean.toString(passive));
+    } else {
+      sourceWriter.print(".isActivated(");
+      sourceWriter.print(Boolean.toString(passive));
+      sourceWriter.print(", \"");
+      sourceWriter.print(name);
+      sourceWriter.print("\"");
+      if (param != null) {
+        sourceWriter.print(", new Object[]{");
+        sourceWriter.print(param);
+        sourceWriter.print("}");
+      }
+    }
+    sourceWriter.print(")");
+  }
+
   private void writeEventFilter(boolean hasFilter,
                                 EventElement event,
                                 String parentParam) {
     if (hasFilter) {
+      String eventName = event.getName();
       sourceWriter.indent();
-      sourceWriter.print("if (!filterEvent(\"");
-      sourceWriter.print(event.getName());
+      sourceWriter.print("if (");
+      if (!hasStaticFilter(eventName)) {
+        // no filter set in the configuration applies to this event, only call filterEvent if needed
+        sourceWriter.print("isFilteringNeeded(\"");
+        sourceWriter.print(eventName);
+        sourceWriter.print("\") && ");
+      }
+      sourceWriter.print("!filterEvent(\"");
+      sourceWriter.print(eventName);
       sourceWriter.print("\"");
       if (parentParam != null) {
         sourceWriter.print(", new Object[]{");
@@ -1314,6 +2255,11 @@ class Mvp4gConfigurationFileWriter {
 
       sourceWriter.indent();
       writeEventFiltersLog(event.getType());
+      if (configuration.getMetrics() != null) {
+        sourceWriter.print("metrics.onFilterRejection(\"");
+        sourceWriter.print(eventName);
+        sourceWriter.println("\");");
+      }
       sourceWriter.print("return");
       if (event.isWithTokenGeneration() && !event.isNavigationEvent()) {
         sourceWriter.print(" null");
@@ -1324,6 +2270,138 @@ class Mvp4gConfigurationFileWriter {
     }
   }
 
+  /**
+   * Build the list of parameters to call an event method with the objects of an array.
+   *
+   * @param objectClasses
+   *   classes of the event's objects
+   * @param array
+   *   name of the array that contains the objects
+   *
+   * @return parameters separated by commas
+   */
+  private String getCastedParams(String[] objectClasses,
+                                 String array) {
+    if ((objectClasses == null) || (objectClasses.length == 0)) {
+      return "";
+    }
+    int           nbParams     = objectClasses.length;
+    StringBuilder paramBuilder = new StringBuilder(50 * nbParams);
+    for (int i = 0; i < nbParams; i++) {
+      if (i > 0) {
+        paramBuilder.append(",");
+      }
+      paramBuilder.append("(");
+      paramBuilder.append(getAssociatedClass(objectClasses[i]));
+      paramBuilder.append(") ");
+      paramBuilder.append(array);
+      paramBuilder.append("[");
+      paramBuilder.append(Integer.toString(i));
+      paramBuilder.append("]");
+    }
+    return paramBuilder.toString();
+  }
+
+  private void writeEventShaper(EventElement event) {
+    String[] objectClasses = event.getEventObjectClass();
+    sourceWriter.print("private final EventShaper ");
+    sourceWriter.print(event.getType());
+    sourceWriter.print("Shaper = new EventShaper(this, ");
+    sourceWriter.print(Event.Shaping.class.getCanonicalName());
+    sourceWriter.print(".");
+    sourceWriter.print(event.getShaping());
+    sourceWriter.print(", ");
+    sourceWriter.print(Integer.toString(event.getShapingWindow()));
+    sourceWriter.println("){");
+    sourceWriter.indent();
+    sourceWriter.println("protected void fire(Object[] data){");
+    sourceWriter.indent();
+    sourceWriter.print(event.getType());
+    sourceWriter.print("(");
+    sourceWriter.print(getCastedParams(objectClasses,
+                                       "data"));
+    sourceWriter.println(");");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+    sourceWriter.outdent();
+    sourceWriter.println("};");
+  }
+
+  private void writeEventShaping(EventElement event,
+                                 String param) {
+    sourceWriter.print("if (!");
+    sourceWriter.print(event.getType());
+    sourceWriter.print("Shaper.shape(");
+    if (param == null) {
+      sourceWriter.print("null");
+    } else {
+      sourceWriter.print("new Object[]{");
+      sourceWriter.print(param);
+      sourceWriter.print("}");
+    }
+    sourceWriter.println(")){");
+    sourceWriter.indent();
+    sourceWriter.println("return;");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+  }
+
+  private void writeEventDeferral(EventElement event,
+                                  String param) {
+    sourceWriter.print("if (deferEvent(");
+    sourceWriter.print(Event.Lane.class.getCanonicalName());
+    sourceWriter.print(".");
+    sourceWriter.print(event.getLane());
+    sourceWriter.print(", \"");
+    sourceWriter.print(event.getName());
+    sourceWriter.print("\", ");
+    if (param == null) {
+      sourceWriter.print("null");
+    } else {
+      sourceWriter.print("new Object[]{");
+      sourceWriter.print(param);
+      sourceWriter.print("}");
+    }
+    sourceWriter.println(")){");
+    sourceWriter.indent();
+    sourceWriter.println("return;");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+  }
+
+  private void writeDeferredEventDispatch() {
+    boolean hasDeferredEvent = false;
+    for (EventElement event : configuration.getEvents()) {
+      if (event.isDeferred()) {
+        if (!hasDeferredEvent) {
+          hasDeferredEvent = true;
+          sourceWriter.println("protected void dispatchDeferredEvent( String eventType, Object[] data ){");
+          sourceWriter.indent();
+          sourceWriter.println("switch ( eventType ){");
+          sourceWriter.indent();
+        }
+        sourceWriter.print("case \"");
+        sourceWriter.print(event.getName());
+        sourceWriter.println("\":");
+        sourceWriter.indent();
+        sourceWriter.print(event.getType());
+        sourceWriter.print("(");
+        sourceWriter.print(getCastedParams(event.getEventObjectClass(),
+                                           "data"));
+        sourceWriter.println(");");
+        sourceWriter.println("return;");
+        sourceWriter.outdent();
+      }
+    }
+    if (hasDeferredEvent) {
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+      sourceWriter.println("super.dispatchDeferredEvent( eventType, data );");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+    }
+  }
+
   private void writeEventLookUp() {
 
     sourceWriter.println("public void dispatch( String eventType, Object... data ){");
@@ -1332,6 +2410,13 @@ class Mvp4gConfigurationFileWriter {
     sourceWriter.println("try{");
     sourceWriter.indent();
 
+    // a string switch is compiled to a hashed look up (by javac and by GWT), so the cost of a
+    // dispatch doesn't depend on the number of events of the event bus.
+    sourceWriter.println("if ( eventType != null ){");
+    sourceWriter.indent();
+    sourceWriter.println("switch ( eventType ){");
+    sourceWriter.indent();
+
     String[] objectClasses = null;
     String   param         = null;
 
@@ -1339,47 +2424,26 @@ class Mvp4gConfigurationFileWriter {
 
       objectClasses = event.getEventObjectClass();
 
-      if ((objectClasses == null) || (objectClasses.length == 0)) {
-        param = "();";
-      } else {
-        int           nbParams     = objectClasses.length;
-        StringBuilder paramBuilder = new StringBuilder(50 * nbParams);
-        int           i;
-        for (i = 0; i < (nbParams - 1); i++) {
-          paramBuilder.append("(");
-          paramBuilder.append(getAssociatedClass(objectClasses[i]));
-          paramBuilder.append(") data[");
-          paramBuilder.append(Integer.toString(i));
-          paramBuilder.append("],");
-        }
-
-        paramBuilder.append("(");
-        paramBuilder.append(getAssociatedClass(objectClasses[i]));
-        paramBuilder.append(") data[");
-        paramBuilder.append(Integer.toString(i));
-        paramBuilder.append("]");
-
-        param = "(" + paramBuilder.toString() + ");";
-
-      }
+      param = "(" + getCastedParams(objectClasses,
+                                    "data") + ");";
 
-      sourceWriter.print("if ( \"");
+      sourceWriter.print("case \"");
       sourceWriter.print(event.getName());
-      sourceWriter.println("\".equals( eventType ) ){");
+      sourceWriter.println("\":");
 
       sourceWriter.indent();
       sourceWriter.print(event.getType());
       sourceWriter.println(param);
+      sourceWriter.println("return;");
       sourceWriter.outdent();
-      sourceWriter.print("} else ");
 
     }
 
-    sourceWriter.println("{");
-    sourceWriter.indent();
-    sourceWriter.println("throw new Mvp4gException( \"Event \" + eventType + \" doesn't exist. Have you forgotten to add it to your Mvp4g configuration file?\" );");
     sourceWriter.outdent();
     sourceWriter.println("}");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+    sourceWriter.println("throw new Mvp4gException( \"Event \" + eventType + \" doesn't exist. Have you forgotten to add it to your Mvp4g configuration file?\" );");
 
     sourceWriter.outdent();
     sourceWriter.println("} catch ( ClassCastException e ) {");
@@ -1470,6 +2534,10 @@ class Mvp4gConfigurationFileWriter {
   private void createInstance(String elementName,
                               String className,
                               boolean isFinal) {
+    boolean hasProfiling = (configuration.getProfiling() != null);
+    if (hasProfiling) {
+      writeProfilerNow("profileStart");
+    }
     if (isFinal) {
       sourceWriter.print("final ");
     }
@@ -1479,6 +2547,9 @@ class Mvp4gConfigurationFileWriter {
     sourceWriter.print(" = injector.get");
     sourceWriter.print(elementName);
     sourceWriter.println("();");
+    if (hasProfiling) {
+      writeProfilerConstructed(elementName);
+    }
   }
 
   private void createPresenter(PresenterElement presenter,
@@ -1494,9 +2565,17 @@ class Mvp4gConfigurationFileWriter {
     sourceWriter.print(Boolean.toString(presenter.hasInverseView()));
     sourceWriter.print(", injector.get");
     sourceWriter.print(elementName);
-    sourceWriter.print("(), injector.get");
-    sourceWriter.print(presenter.getView());
-    sourceWriter.println("(), eventBus);");
+    sourceWriter.print("(), ");
+    String view = presenter.getView();
+    if (isLazy(presenter) && !isLazyView(view)) {
+      // the view is shared with another presenter, it has been created at start
+      sourceWriter.print(view);
+    } else {
+      sourceWriter.print("injector.get");
+      sourceWriter.print(view);
+      sourceWriter.print("()");
+    }
+    sourceWriter.println(", eventBus);");
     injectServices(elementName,
                    presenter.getInjectedServices());
   }
@@ -1529,38 +2608,143 @@ class Mvp4gConfigurationFileWriter {
                               List<InjectedElement> injectedServices) {
     for (InjectedElement service : injectedServices) {
       sourceWriter.print(elementName);
-      sourceWriter.println("." + service.getSetterName() + "(" + service.getElementName() + ");");
+      sourceWriter.println("." + service.getSetterName() + "(get_" + service.getElementName() + "());");
     }
   }
 
+  /**
+   * Write the holders of the lazy handlers. A lazy handler (and its view) is only created, injected
+   * and given the event bus by the first event that needs it.
+   */
+  private void writeLazyHandlers() {
+    List<EventHandlerElement> handlers = new ArrayList<EventHandlerElement>(configuration.getPresenters());
+    handlers.addAll(configuration.getEventHandlers());
+    String name;
+    for (EventHandlerElement handler : handlers) {
+      if (isLazy(handler)) {
+        name = handler.getName();
+        writeLazyAccessorBegin(handler.getClassName(),
+                               name);
+        sourceWriter.print(name);
+        sourceWriter.print(" = ");
+        if (handler instanceof PresenterElement) {
+          createPresenter((PresenterElement) handler,
+                          false);
+        } else {
+          createEventHandler(handler,
+                             false);
+        }
+        writeLazyAccessorEnd(name);
+      }
+    }
+  }
+
+  /**
+   * @return true if the handler is a singleton created by the first event that needs it instead of
+   * at start. Only the start presenter and the handlers explicitly eager are created at start.
+   */
+  private boolean isLazy(EventHandlerElement handler) {
+    if (handler.isMultiple() || handler.isAsync() || handler.isEager()) {
+      return false;
+    }
+    // handlers of a splitter are created by the splitter
+    for (SplitterElement splitter : configuration.getSplitters()) {
+      if (splitter.getHandlers()
+                  .contains(handler)) {
+        return false;
+      }
+    }
+    StartElement start = configuration.getStart();
+    boolean isStartPresenter = (handler instanceof PresenterElement) && (start != null) && start.hasPresenter() &&
+                               handler.getName()
+                                      .equals(start.getPresenter());
+    return !isStartPresenter;
+  }
+
+  /**
+   * @return true if the view is only used by one lazy presenter so it can be created with it.
+   */
+  private boolean isLazyView(String viewName) {
+    int count = 0;
+    for (PresenterElement presenter : configuration.getPresenters()) {
+      if (!presenter.isMultiple() && !presenter.isAsync() && viewName.equals(presenter.getView())) {
+        if (!isLazy(presenter)) {
+          return false;
+        }
+        count++;
+      }
+    }
+    return count == 1;
+  }
+
+  /**
+   * @return the expression returning the handler, creating it first if it's lazy.
+   */
+  private String getHandlerAccess(EventHandlerElement handler) {
+    return isLazy(handler) ?
+           "get_" + handler.getName() + "()" :
+           handler.getName();
+  }
+
   private void writeMultipleConstructor() {
-    sourceWriter.println("protected <T extends EventHandlerInterface<?>> T createHandler( Class<T> handlerClass ){");
-    sourceWriter.indent();
+    List<EventHandlerElement> multipleHandlers = new ArrayList<EventHandlerElement>();
     for (PresenterElement presenter : configuration.getPresenters()) {
       if (presenter.isMultiple() && !presenter.isAsync()) {
-        sourceWriter.print("if (");
-        sourceWriter.print(presenter.getClassName());
-        sourceWriter.println(".class.equals(handlerClass)){");
-        sourceWriter.indent();
-        sourceWriter.print("return (T) ");
-        createPresenter(presenter,
-                        false);
-        sourceWriter.outdent();
-        sourceWriter.println("}");
+        multipleHandlers.add(presenter);
       }
     }
     for (EventHandlerElement eventHandler : configuration.getEventHandlers()) {
       if (eventHandler.isMultiple()) {
-        sourceWriter.print("if (");
-        sourceWriter.print(eventHandler.getClassName());
-        sourceWriter.println(".class.equals(handlerClass)){");
+        multipleHandlers.add(eventHandler);
+      }
+    }
+
+    // the handler class is looked up once in a map to find the case creating it
+    if (!multipleHandlers.isEmpty()) {
+      sourceWriter.println("private java.util.Map<Class<?>, Integer> handlerIds = null;");
+    }
+    sourceWriter.println("protected <T extends EventHandlerInterface<?>> T createHandler( Class<T> handlerClass ){");
+    sourceWriter.indent();
+    if (!multipleHandlers.isEmpty()) {
+      sourceWriter.println("if (handlerIds == null){");
+      sourceWriter.indent();
+      sourceWriter.println("handlerIds = new java.util.HashMap<Class<?>, Integer>();");
+      for (int i = 0; i < multipleHandlers.size(); i++) {
+        sourceWriter.print("handlerIds.put(");
+        sourceWriter.print(multipleHandlers.get(i)
+                                           .getClassName());
+        sourceWriter.print(".class, ");
+        sourceWriter.print(Integer.toString(i));
+        sourceWriter.println(");");
+      }
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+      sourceWriter.println("Integer handlerId = handlerIds.get(handlerClass);");
+      sourceWriter.println("if (handlerId != null){");
+      sourceWriter.indent();
+      sourceWriter.println("switch (handlerId){");
+      sourceWriter.indent();
+      EventHandlerElement handler;
+      for (int i = 0; i < multipleHandlers.size(); i++) {
+        handler = multipleHandlers.get(i);
+        sourceWriter.print("case ");
+        sourceWriter.print(Integer.toString(i));
+        sourceWriter.println(":");
         sourceWriter.indent();
         sourceWriter.print("return (T) ");
-        createEventHandler(eventHandler,
-                           false);
+        if (handler instanceof PresenterElement) {
+          createPresenter((PresenterElement) handler,
+                          false);
+        } else {
+          createEventHandler(handler,
+                             false);
+        }
         sourceWriter.outdent();
-        sourceWriter.println("}");
       }
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
     }
     sourceWriter.outdent();
     sourceWriter.println("return null;");
@@ -1908,11 +3092,13 @@ class Mvp4gConfigurationFileWriter {
       sourceWriter.indent();
       if (hasLoader) {
         sourceWriter.println("final Object[] params = (passer == null) ? null : passer.getEventObjects();");
+        sourceWriter.print("get_");
         sourceWriter.print(loaderName);
-        sourceWriter.println(".preLoad( eventBus, eventName, params, new Command(){");
+        sourceWriter.println("().preLoad( eventBus, eventName, params, new Command(){");
         sourceWriter.indent();
         sourceWriter.println("public void execute() {");
         sourceWriter.indent();
+        writeUnloadedGuard();
       }
 
       if (isBefore) {
@@ -1936,13 +3122,15 @@ class Mvp4gConfigurationFileWriter {
 
       sourceWriter.println("public void onSuccess() { ");
       sourceWriter.indent();
+      writeUnloadedGuard();
       if (isAfter) {
         writeDispatchEvent(afterEvent,
                            null);
       }
       if (hasLoader) {
+        sourceWriter.print("get_");
         sourceWriter.print(loaderName);
-        sourceWriter.println(".onSuccess(eventBus, eventName, params );");
+        sourceWriter.println("().onSuccess(eventBus, eventName, params );");
       }
       sourceWriter.print("if (");
       sourceWriter.print(splitterName);
@@ -1959,6 +3147,7 @@ class Mvp4gConfigurationFileWriter {
       sourceWriter.println("}");
       sourceWriter.println("public void onFailure( Throwable reason ) {");
       sourceWriter.indent();
+      writeUnloadedGuard();
       if (isAfter) {
         writeDispatchEvent(afterEvent,
                            null);
@@ -1970,8 +3159,9 @@ class Mvp4gConfigurationFileWriter {
         sourceWriter.outdent();
       }
       if (hasLoader) {
+        sourceWriter.print("get_");
         sourceWriter.print(loaderName);
-        sourceWriter.println(".onFailure( eventBus, eventName, params, reason );");
+        sourceWriter.println("().onFailure( eventBus, eventName, params, reason );");
       }
       sourceWriter.outdent();
       sourceWriter.println("}");
@@ -2102,24 +3292,61 @@ class Mvp4gConfigurationFileWriter {
     }
   }
 
-  private void writeLoaders(boolean forInstantion) {
-    Set<LoaderElement> loaders = configuration.getLoaders();
-    for (LoaderElement loader : loaders) {
-      if (!forInstantion) {
-        sourceWriter.print(loader.getClassName());
-        sourceWriter.print(" ");
-      }
-      sourceWriter.print(loader.getName());
-      if (forInstantion) {
-        sourceWriter.print(" = ");
-        sourceWriter.print("injector.get");
-        sourceWriter.print(loader.getName());
-        sourceWriter.print("()");
-      }
-      sourceWriter.println(";");
+  private void writeLoaders() {
+    String name;
+    for (LoaderElement loader : configuration.getLoaders()) {
+      name = loader.getName();
+      // a loader is only created the first time a module or a splitter is loaded with it
+      writeLazyAccessorBegin(loader.getClassName(),
+                             name);
+      sourceWriter.print(name);
+      sourceWriter.print(" = injector.get");
+      sourceWriter.print(name);
+      sourceWriter.println("();");
+      writeLazyAccessorEnd(name);
     }
   }
 
+  /**
+   * Write the field holding a lazy element and the beginning of its accessor, the caller writes the
+   * creation of the element and closes the accessor thanks to <code>writeLazyAccessorEnd</code>.
+   */
+  private void writeLazyAccessorBegin(String className,
+                                      String name) {
+    sourceWriter.print("private ");
+    sourceWriter.print(className);
+    sourceWriter.print(" ");
+    sourceWriter.print(name);
+    sourceWriter.println(" = null;");
+    sourceWriter.print("private ");
+    sourceWriter.print(className);
+    sourceWriter.print(" get_");
+    sourceWriter.print(name);
+    sourceWriter.println("(){");
+    sourceWriter.indent();
+    sourceWriter.print("if (");
+    sourceWriter.print(name);
+    sourceWriter.println(" == null){");
+    sourceWriter.indent();
+    if (configuration.getProfiling() != null) {
+      sourceWriter.print("double ");
+      writeProfilerNow("profileStart");
+    }
+  }
+
+  private void writeLazyAccessorEnd(String name) {
+    if (configuration.getProfiling() != null) {
+      writeProfilerConstructed(name);
+    }
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+    sourceWriter.print("return ");
+    sourceWriter.print(name);
+    sourceWriter.println(";");
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+  }
+
   /**
    * Retrieve an element exists in a set thanks to its unique identifier
    *
@@ -2205,39 +3432,64 @@ class Mvp4gConfigurationFileWriter {
     sourceWriter.outdent();
     sourceWriter.println("}");
 
+    sourceWriter.println("public String[] generateTokens(String token, String[] forms){");
+    sourceWriter.indent();
+    if (!configuration.isRootModule()) {
+      String historyName = configuration.getHistoryName();
+      if (historyName != null) {
+        sourceWriter.print("return parentModule.generateTokens(\"");
+        sourceWriter.print(historyName);
+        sourceWriter.print(PlaceService.MODULE_SEPARATOR);
+        sourceWriter.println("\" + token, forms );");
+      } else {
+        sourceWriter.println("throw new Mvp4gException(\"This method shouldn't be called. There is no history support for this module.\");");
+      }
+    } else {
+      sourceWriter.println("return placeService.generateTokens( token, forms );");
+    }
+    sourceWriter.outdent();
+    sourceWriter.println("}");
+
     sourceWriter.println("public void dispatchHistoryEvent(String eventType, final Mvp4gEventPasser passer){");
     sourceWriter.indent();
     sourceWriter.println("int index = eventType.indexOf(PlaceService.MODULE_SEPARATOR);");
     sourceWriter.println("if(index > -1){");
     sourceWriter.indent();
-    sourceWriter.println("String moduleHistoryName = eventType.substring(0, index);");
-    sourceWriter.println("String nextToken = eventType.substring(index + 1);");
-    sourceWriter.println("Mvp4gEventPasser nextPasser = new Mvp4gEventPasser(nextToken) {");
-    sourceWriter.indent();
-    sourceWriter.println("public void pass(Mvp4gModule module) {");
-    sourceWriter.indent();
-    sourceWriter.println("module.dispatchHistoryEvent((String) eventObjects[0], passer);");
-    sourceWriter.outdent();
-    sourceWriter.println("}");
-    sourceWriter.outdent();
-    sourceWriter.println("};");
 
-    String historyName;
+    // one switch on the history name of the module instead of a test per child
+    boolean hasChildHistory = false;
+    String  historyName;
     for (ChildModuleElement child : configuration.getChildModules()) {
       historyName = child.getHistoryName();
       if ((historyName != null) && (historyName.length() > 0)) {
-        sourceWriter.print("if(\"");
+        if (!hasChildHistory) {
+          sourceWriter.println("switch (eventType.substring(0, index)){");
+          sourceWriter.indent();
+          hasChildHistory = true;
+        }
+        sourceWriter.print("case \"");
         sourceWriter.print(historyName);
-        sourceWriter.println("\".equals(moduleHistoryName)){");
+        sourceWriter.println("\":");
         sourceWriter.indent();
         sourceWriter.print("load");
         sourceWriter.print(child.getName());
-        sourceWriter.println("(null, nextPasser);");
-        sourceWriter.println("return;");
+        sourceWriter.println("(null, new Mvp4gEventPasser(eventType.substring(index + 1)) {");
+        sourceWriter.indent();
+        sourceWriter.println("public void pass(Mvp4gModule module) {");
+        sourceWriter.indent();
+        sourceWriter.println("module.dispatchHistoryEvent((String) eventObjects[0], passer);");
         sourceWriter.outdent();
         sourceWriter.println("}");
+        sourceWriter.outdent();
+        sourceWriter.println("});");
+        sourceWriter.println("return;");
+        sourceWriter.outdent();
       }
     }
+    if (hasChildHistory) {
+      sourceWriter.outdent();
+      sourceWriter.println("}");
+    }
 
     sourceWriter.println("passer.setEventObject(false);");
     sourceWriter.println("passer.pass(this);");
@@ -2285,6 +3537,8 @@ class Mvp4gConfigurationFileWriter {
                         String[] objectClasses) {
     DebugElement debug = configuration.getDebug();
     if (debug != null) {
+      writeLogCheck(LogLevel.SIMPLE,
+                    type);
       sourceWriter.print("logger.log(\"");
       sourceWriter.print(beforeText);
       sourceWriter.print("Module: ");
@@ -2306,6 +3560,8 @@ class Mvp4gConfigurationFileWriter {
         sourceWriter.print("\"");
       }
       sourceWriter.println(", BaseEventBus.logDepth);");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
     }
   }
 
@@ -2314,9 +3570,9 @@ class Mvp4gConfigurationFileWriter {
                                 boolean isBind) {
     DebugElement debug = configuration.getDebug();
 
-    if (debug != null &&
-        debug.getLogLevel()
-             .equals(LogLevel.DETAILED.name())) {
+    if (debug != null) {
+      writeLogCheck(LogLevel.DETAILED,
+                    eventType);
       sourceWriter.print("logger.log(");
       sourceWriter.print(handler);
       if (isBind) {
@@ -2326,18 +3582,104 @@ class Mvp4gConfigurationFileWriter {
       }
       sourceWriter.print(eventType);
       sourceWriter.println("\", BaseEventBus.logDepth);");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
     }
   }
 
+  /**
+   * Write the runtime check of the log level. Logs are always generated when the event bus is
+   * annotated with Debug but the messages are only built when this check passes. The caller must
+   * close the block.
+   */
+  private void writeLogCheck(LogLevel level,
+                             String eventType) {
+    sourceWriter.print("if (isLoggable(");
+    sourceWriter.print(LogLevel.class.getCanonicalName());
+    sourceWriter.print(".");
+    sourceWriter.print(level.name());
+    sourceWriter.print(", \"");
+    sourceWriter.print(eventType);
+    sourceWriter.println("\")){");
+    sourceWriter.indent();
+  }
+
+  /**
+   * Write the opening of a span, the caller writes what comes before.
+   */
+  /**
+   * Write the statement keeping the time when a lifecycle method of the module starts, if the
+   * module is profiled.
+   */
+  private void writeProfilerPhaseBegin() {
+    if (configuration.getProfiling() != null) {
+      sourceWriter.print("double ");
+      writeProfilerNow("phaseStart");
+    }
+  }
+
+  private void writeProfilerPhaseEnd(String phase) {
+    if (configuration.getProfiling() != null) {
+      sourceWriter.print(ModuleProfiler.class.getCanonicalName());
+      sourceWriter.print(".INSTANCE.phase(\"");
+      sourceWriter.print(getModuleName());
+      sourceWriter.print("\", \"");
+      sourceWriter.print(phase);
+      sourceWriter.println("\", phaseStart);");
+    }
+  }
+
+  private void writeProfilerNow(String variable) {
+    sourceWriter.print(variable);
+    sourceWriter.print(" = ");
+    sourceWriter.print(ModuleProfiler.class.getCanonicalName());
+    sourceWriter.println(".INSTANCE.now();");
+  }
+
+  private void writeProfilerConstructed(String elementName) {
+    sourceWriter.print(ModuleProfiler.class.getCanonicalName());
+    sourceWriter.print(".INSTANCE.constructed(\"");
+    sourceWriter.print(getModuleName());
+    sourceWriter.print("\", \"");
+    sourceWriter.print(elementName);
+    sourceWriter.println("\", profileStart);");
+  }
+
+  private String getModuleName() {
+    return configuration.getModule()
+                        .getSimpleSourceName();
+  }
+
+  private void writeTracerBegin(String name) {
+    sourceWriter.print(EventTracer.class.getCanonicalName());
+    sourceWriter.print(".INSTANCE.begin(\"");
+    sourceWriter.print(configuration.getModule()
+                                    .getSimpleSourceName());
+    sourceWriter.print("\", ");
+    sourceWriter.print(name);
+    sourceWriter.println(");");
+  }
+
+  private boolean hasStaticFilter(String eventName) {
+    for (EventFilterElement filter : configuration.getEventFilters()) {
+      if (filter.isFiltering(eventName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private void writeEventFiltersLog(String type) {
     DebugElement debug = configuration.getDebug();
 
-    if (debug != null &&
-        debug.getLogLevel()
-             .equals(LogLevel.DETAILED.name())) {
+    if (debug != null) {
+      writeLogCheck(LogLevel.DETAILED,
+                    type);
       sourceWriter.print("logger.log(\"event ");
       sourceWriter.print(type);
       sourceWriter.println(" didn't pass filter(s)\", BaseEventBus.logDepth);");
+      sourceWriter.outdent();
+      sourceWriter.println("}");
     }
   }
 
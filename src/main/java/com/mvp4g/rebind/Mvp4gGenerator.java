@@ -44,6 +44,7 @@ import com.mvp4g.client.Mvp4gEventPasser;
 import com.mvp4g.client.Mvp4gException;
 import com.mvp4g.client.Mvp4gModule;
 import com.mvp4g.client.Mvp4gRunAsync;
+import com.mvp4g.client.Mvp4gUnloadableModule;
 import com.mvp4g.client.annotation.EventHandler;
 import com.mvp4g.client.annotation.Events;
 import com.mvp4g.client.annotation.History;
@@ -53,6 +54,7 @@ import com.mvp4g.client.event.BaseEventBus;
 import com.mvp4g.client.event.EventBus;
 import com.mvp4g.client.event.EventFilter;
 import com.mvp4g.client.event.EventHandlerInterface;
+import com.mvp4g.client.event.EventShaper;
 import com.mvp4g.client.history.DefaultHistoryProxy;
 import com.mvp4g.client.history.HistoryConverter;
 import com.mvp4g.client.history.HistoryProxyProvider;
@@ -263,6 +265,7 @@ public class Mvp4gGenerator
                                                                                      generatedClassName);
 
     classFactory.addImplementedInterface(originalType.getName());
+    classFactory.addImplementedInterface(Mvp4gUnloadableModule.class.getName());
     String[] classesToImport = getClassesToImport();
     for (String classToImport : classesToImport) {
       classFactory.addImport(classToImport);
@@ -362,7 +365,8 @@ public class Mvp4gGenerator
                           Mvp4gRunAsync.class.getName(),
                           Command.class.getName(),
                           HistoryProxyProvider.class.getName(),
-                          DefaultHistoryProxy.class.getName() };
+                          DefaultHistoryProxy.class.getName(),
+                          EventShaper.class.getName() };
   }
 
   @Override
@@ -26,8 +26,12 @@ import com.mvp4g.client.Mvp4gLoader;
 import com.mvp4g.client.Mvp4gModule;
 import com.mvp4g.client.SingleSplitter;
 import com.mvp4g.client.annotation.*;
+import com.mvp4g.client.annotation.module.ChildModule;
+import com.mvp4g.client.annotation.module.ChildModules;
 import com.mvp4g.client.annotation.module.HistoryName;
 import com.mvp4g.client.annotation.module.Loader;
+import com.mvp4g.client.event.BaseEventHandler;
+import com.mvp4g.client.event.EventBusMetrics;
 import com.mvp4g.client.event.EventFilter;
 import com.mvp4g.client.event.EventHandlerInterface;
 import com.mvp4g.client.event.Mvp4gLogger;
@@ -89,6 +93,16 @@ public class Mvp4gConfiguration {
 
   private static final String ASYNC_START_PRESENTER = "Presenter %s: start presenter can't be loaded asynchronously. Async attribute must not be set.";
 
+  private static final String SHAPING_WITH_TOKEN_GENERATION = "Event %s: an event that generates a token can't be shaped.";
+  private static final String SHAPING_WITHOUT_WINDOW        = "Event %s: the %s shaping needs a shaping window greater than 0.";
+  private static final String DISTINCT_WITHOUT_PARAMETER    = "Event %s: the DISTINCT shaping needs an event with at least one parameter.";
+  private static final String DEFERRED_TOKEN_GENERATION     = "Event %s: an event that generates a token can't be deferred.";
+  private static final String DEFERRED_WITH_SHAPING         = "Event %s: an event can't be deferred and shaped at the same time.";
+
+  private static final String UNKNOWN_FILTERED_EVENT = "Event Filter %s: the filter is set for the event %s but the event bus has no event with this name.";
+
+  private static final String WRONG_RECORDER_CAPACITY = "Flight Recorder: the capacity must be greater than 0, %s is not valid.";
+
   private Set<PresenterElement>           presenters                   = new HashSet<PresenterElement>();
   private Set<EventHandlerElement>        eventHandlers                = new HashSet<EventHandlerElement>();
   private Set<ViewElement>                views                        = new HashSet<ViewElement>();
@@ -109,9 +123,17 @@ public class Mvp4gConfiguration {
   private Map<String, JClassType>         othersEventBusClassMap       = new HashMap<String, JClassType>();
   // associate a module class name with its parent
   private Map<String, ChildModuleElement> moduleParentEventBusClassMap = new HashMap<String, ChildModuleElement>();
+  // history names of the events of all the descendant modules
+  private List<String>                    historyManifest              = new ArrayList<String>();
+  // associate the history name of a descendant module with the split points loading it
+  private Map<String, List<String>>       historySplitPoints           = new LinkedHashMap<String, List<String>>();
   private JClassType                      parentEventBus               = null;
   private String                          historyName                  = null;
   private DebugElement                    debug                        = null;
+  private MetricsElement                  metrics                      = null;
+  private FlightRecorderElement           flightRecorder               = null;
+  private TracingElement                  tracing                      = null;
+  private ProfilingElement                profiling                    = null;
   private GinModuleElement                ginModule                    = null;
   private EventFiltersElement             eventFilterConfiguration     = null;
 
@@ -183,6 +205,7 @@ public class Mvp4gConfiguration {
     }
 
     findChildModuleHistoryNameAndLoader();
+    findHistoryManifest();
     checkUniquenessOfAllElements();
     validateEventHandlers();
     validateSplitters();
@@ -194,6 +217,8 @@ public class Mvp4gConfiguration {
     validateChildModules();
     validateEvents();
     validateDebug();
+    validateMetrics();
+    validateFlightRecorder();
     suffix = getSuffix(validateGinModule());
     validateStart();
 
@@ -371,6 +396,21 @@ public class Mvp4gConfiguration {
     return moduleParentEventBusClassMap;
   }
 
+  /**
+   * @return the history names of the events of all the descendant modules
+   */
+  public List<String> getHistoryManifest() {
+    return historyManifest;
+  }
+
+  /**
+   * @return the history names of the descendant modules associated with the class names of the
+   * modules loaded by a named split point to reach them
+   */
+  public Map<String, List<String>> getHistorySplitPoints() {
+    return historySplitPoints;
+  }
+
   /**
    * @return the loadChildConfig
    */
@@ -438,6 +478,62 @@ public class Mvp4gConfiguration {
     this.debug = debug;
   }
 
+  /**
+   * @return the metrics, null if the event bus isn't measured
+   */
+  public MetricsElement getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * @param metrics the metrics to set
+   */
+  public void setMetrics(MetricsElement metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * @return the flight recorder, null if the events aren't recorded
+   */
+  public FlightRecorderElement getFlightRecorder() {
+    return flightRecorder;
+  }
+
+  /**
+   * @param flightRecorder the flight recorder to set
+   */
+  public void setFlightRecorder(FlightRecorderElement flightRecorder) {
+    this.flightRecorder = flightRecorder;
+  }
+
+  /**
+   * @return the tracing, null if the events aren't traced
+   */
+  public TracingElement getTracing() {
+    return tracing;
+  }
+
+  /**
+   * @param tracing the tracing to set
+   */
+  public void setTracing(TracingElement tracing) {
+    this.tracing = tracing;
+  }
+
+  /**
+   * @return the profiling, null if the module isn't profiled
+   */
+  public ProfilingElement getProfiling() {
+    return profiling;
+  }
+
+  /**
+   * @param profiling the profiling to set
+   */
+  public void setProfiling(ProfilingElement profiling) {
+    this.profiling = profiling;
+  }
+
   /**
    * @return the ginModule
    */
@@ -675,6 +771,14 @@ public class Mvp4gConfiguration {
                                            eventBusParam.getQualifiedSourceName(),
                                            eventBus.getInterfaceClassName());
           }
+
+          for (EventElement event : eventList) {
+            if (event.isWithTokenGeneration() && isPureToken(hcType,
+                                                             history,
+                                                             event)) {
+              event.setPureToken(Boolean.toString(Boolean.TRUE));
+            }
+          }
         }
       } else {
         if (!clearHistoryClassName.equals(history.getClassName())) {
@@ -706,6 +810,40 @@ public class Mvp4gConfiguration {
 
   }
 
+  /**
+   * Check if the method of the history converter that converts the event to a token has been
+   * marked as pure, directly or thanks to its class.
+   *
+   * @param hcType  type of the history converter
+   * @param history history converter element
+   * @param event   event converted to a token
+   * @return true if the token only depends on the parameters of the event
+   */
+  private boolean isPureToken(JClassType hcType,
+                              HistoryConverterElement history,
+                              EventElement event) {
+    String methodName;
+    switch (History.HistoryConverterType.valueOf(history.getType())) {
+      case DEFAULT:
+        methodName = event.getCalledMethod();
+        break;
+      case SIMPLE:
+        methodName = "convertToToken";
+        break;
+      default:
+        return false;
+    }
+    if (hcType.getAnnotation(PureToken.class) != null) {
+      return true;
+    }
+    for (JMethod method : hcType.getOverridableMethods()) {
+      if (methodName.equals(method.getName()) && (method.getAnnotation(PureToken.class) != null)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Checks that all event handler names correspond to a configured mvp4g element. Verify that
    * these elements are valid. Remove the ones that don't handle events or aren't associated with
@@ -914,6 +1052,9 @@ public class Mvp4gConfiguration {
             if (!presenter.isMultiple() && !presenter.isAsync()) {
               view.setInstantiateAtStart(true);
             }
+
+            findActivationWithoutPass(presenter,
+                                      presenterType);
           }
         }
 
@@ -951,10 +1092,15 @@ public class Mvp4gConfiguration {
                                  eventBusType,
                                  toKeep);
         if (toKeep) {
+          type = getType(eventHandler,
+                         eventHandler.getClassName());
           toKeep = findPossibleBroadcast(broadcastMap,
                                          eventHandler,
-                                         getType(eventHandler,
-                                                 eventHandler.getClassName())) || !notDirectHandler || eventHandler.isMultiple();
+                                         type) || !notDirectHandler || eventHandler.isMultiple();
+          if (toKeep) {
+            findActivationWithoutPass(eventHandler,
+                                      type);
+          }
         }
       }
 
@@ -1237,6 +1383,7 @@ public class Mvp4gConfiguration {
                                       eventBus.getInterfaceClassName());
     JClassType filterType, eventBusParam;
     JParameterizedType genEventFilter;
+    Set<String> eventNames = null;
     for (EventFilterElement filter : eventFilters) {
       filterType = getType(filter,
                            filter.getClassName());
@@ -1256,6 +1403,24 @@ public class Mvp4gConfiguration {
                                        eventBus.getInterfaceClassName(),
                                        eventBusParam.getQualifiedSourceName());
       }
+
+      FilterEvents filterEvents = filterType.getAnnotation(FilterEvents.class);
+      if (filterEvents != null) {
+        if (eventNames == null) {
+          eventNames = new HashSet<String>();
+          for (EventElement event : events) {
+            eventNames.add(event.getName());
+          }
+        }
+        for (String eventName : filterEvents.value()) {
+          if (!eventNames.contains(eventName)) {
+            throw new InvalidMvp4gConfigurationException(String.format(UNKNOWN_FILTERED_EVENT,
+                                                                       filter.getClassName(),
+                                                                       eventName));
+          }
+        }
+        filter.setEvents(filterEvents.value());
+      }
     }
   }
 
@@ -1313,6 +1478,41 @@ public class Mvp4gConfiguration {
     return true;
   }
 
+  /**
+   * Checks if the activation of the handler can be verified without the event parameters, ie if the
+   * handler extends <code>BaseEventHandler</code> and none of its classes declares a
+   * <code>pass</code> method.
+   *
+   * @param eventHandler     handler to check
+   * @param eventHandlerType type of the handler
+   */
+  private void findActivationWithoutPass(EventHandlerElement eventHandler,
+                                         JClassType eventHandlerType) {
+    String     baseEventHandler      = BaseEventHandler.class.getCanonicalName();
+    boolean    activationWithoutPass = false;
+    JClassType type                  = eventHandlerType;
+    while (type != null) {
+      if (baseEventHandler.equals(type.getQualifiedSourceName())) {
+        activationWithoutPass = true;
+        break;
+      }
+      if (declaresPass(type)) {
+        break;
+      }
+      type = type.getSuperclass();
+    }
+    eventHandler.setActivationWithoutPass(Boolean.toString(activationWithoutPass));
+  }
+
+  private boolean declaresPass(JClassType type) {
+    for (JMethod method : type.getMethods()) {
+      if ("pass".equals(method.getName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private void removeFromActivateDeactivate(List<EventElement> eventActivateList,
                                             List<EventElement> eventDeactivateList,
                                             EventHandlerElement eventHandler) {
@@ -1629,6 +1829,37 @@ public class Mvp4gConfiguration {
     EventElement eventElt;
     String[] objClasses;
 
+    Event.Shaping shaping;
+    for (EventElement e : events) {
+      if (e.isDeferred()) {
+        if (e.isWithTokenGeneration()) {
+          throw new InvalidMvp4gConfigurationException(String.format(DEFERRED_TOKEN_GENERATION,
+                                                                     e.getType()));
+        }
+        if (e.hasShaping()) {
+          throw new InvalidMvp4gConfigurationException(String.format(DEFERRED_WITH_SHAPING,
+                                                                     e.getType()));
+        }
+      }
+      if (e.hasShaping()) {
+        shaping = Event.Shaping.valueOf(e.getShaping());
+        if (e.isWithTokenGeneration()) {
+          throw new InvalidMvp4gConfigurationException(String.format(SHAPING_WITH_TOKEN_GENERATION,
+                                                                     e.getType()));
+        }
+        if (((shaping == Event.Shaping.DEBOUNCE) || (shaping == Event.Shaping.THROTTLE)) && (e.getShapingWindow() <= 0)) {
+          throw new InvalidMvp4gConfigurationException(String.format(SHAPING_WITHOUT_WINDOW,
+                                                                     e.getType(),
+                                                                     shaping.name()));
+        }
+        objClasses = e.getEventObjectClass();
+        if ((shaping == Event.Shaping.DISTINCT) && ((objClasses == null) || (objClasses.length == 0))) {
+          throw new InvalidMvp4gConfigurationException(String.format(DISTINCT_WITHOUT_PARAMETER,
+                                                                     e.getType()));
+        }
+      }
+    }
+
     if (start.hasForwardEventType()) {
       if (isRootModule()) {
         throw new InvalidMvp4gConfigurationException(WRONG_FORWARD_EVENT);
@@ -1804,6 +2035,31 @@ public class Mvp4gConfiguration {
     }
   }
 
+  void validateMetrics()
+    throws NotFoundClassException, InvalidTypeException {
+    if (metrics != null) {
+      JClassType metricsType = getType(metrics,
+                                       metrics.getMetrics());
+      if (!metricsType.isAssignableTo(oracle.findType(EventBusMetrics.class.getCanonicalName()))) {
+        throw new InvalidTypeException(metrics,
+                                       "Metrics",
+                                       metrics.getMetrics(),
+                                       EventBusMetrics.class.getCanonicalName());
+      }
+    }
+  }
+
+  void validateFlightRecorder()
+    throws InvalidMvp4gConfigurationException {
+    if (flightRecorder != null) {
+      String capacity = flightRecorder.getCapacity();
+      if (Integer.parseInt(capacity) <= 0) {
+        throw new InvalidMvp4gConfigurationException(String.format(WRONG_RECORDER_CAPACITY,
+                                                                   capacity));
+      }
+    }
+  }
+
   String[] validateGinModule()
     throws InvalidMvp4gConfigurationException {
     String[] propertiesValues = getGinModulesByProperties();
@@ -2087,6 +2343,91 @@ public class Mvp4gConfiguration {
     }
   }
 
+  /**
+   * Build the manifest of the history names of all the descendant modules of the root module, so
+   * that a token can be validated before any child module is loaded.<br>
+   * For each descendant module with an history name, the modules loaded by a named split point
+   * on the way to this module are also stored so that their fragments can be prefetched.
+   *
+   * @throws InvalidMvp4gConfigurationException if a child module class can't be found
+   */
+  void findHistoryManifest()
+    throws InvalidMvp4gConfigurationException {
+    historyManifest.clear();
+    historySplitPoints.clear();
+    if (isRootModule()) {
+      String[] properties = (ginModule == null) ?
+                            null :
+                            ginModule.getModuleProperties();
+      boolean namedSplitPoint = isAsyncEnabled() && ((properties == null) || (properties.length == 0));
+      Set<String> visited = new HashSet<String>();
+      for (ChildModuleElement childModule : childModules) {
+        if (childModule.getHistoryName() != null) {
+          addToHistoryManifest(childModule.getClassName(),
+                               childModule.getHistoryName(),
+                               namedSplitPoint && childModule.isAsync(),
+                               new ArrayList<String>(),
+                               visited);
+        }
+      }
+    }
+  }
+
+  private void addToHistoryManifest(String moduleClassName,
+                                    String moduleHistoryName,
+                                    boolean namedSplitPoint,
+                                    List<String> parentSplitPoints,
+                                    Set<String> visited)
+    throws InvalidMvp4gConfigurationException {
+    JClassType moduleEventBus = othersEventBusClassMap.get(moduleClassName);
+    if ((moduleEventBus == null) || !visited.add(moduleClassName)) {
+      return;
+    }
+
+    List<String> splitPoints = new ArrayList<String>(parentSplitPoints);
+    if (namedSplitPoint) {
+      splitPoints.add(moduleClassName);
+    }
+    if (!splitPoints.isEmpty()) {
+      historySplitPoints.put(moduleHistoryName,
+                             splitPoints);
+    }
+
+    Event  event;
+    String eventName;
+    for (JMethod method : moduleEventBus.getOverridableMethods()) {
+      event = method.getAnnotation(Event.class);
+      if ((event != null) && ((event.historyConverterName()
+                                    .length() > 0) || !Event.NoHistoryConverter.class.equals(event.historyConverter()))) {
+        eventName = Event.DEFAULT_NAME.equals(event.name()) ?
+                    method.getName() :
+                    event.name();
+        historyManifest.add(moduleHistoryName + PlaceService.MODULE_SEPARATOR + eventName);
+      }
+    }
+
+    ChildModules children = moduleEventBus.getAnnotation(ChildModules.class);
+    if (children != null) {
+      Events annotation = moduleEventBus.getAnnotation(Events.class);
+      boolean namedChildSplitPoint = isAsyncEnabled() && ((annotation == null) || (annotation.ginModuleProperties().length == 0));
+      String      childClassName;
+      HistoryName childHistoryName;
+      for (ChildModule child : children.value()) {
+        childClassName = child.moduleClass()
+                              .getCanonicalName();
+        childHistoryName = getType(null,
+                                   childClassName).getAnnotation(HistoryName.class);
+        if (childHistoryName != null) {
+          addToHistoryManifest(childClassName,
+                               moduleHistoryName + PlaceService.MODULE_SEPARATOR + childHistoryName.value(),
+                               namedChildSplitPoint && child.async(),
+                               splitPoints,
+                               visited);
+        }
+      }
+    }
+  }
+
   void validateHistoryName(String historyName,
                            Mvp4gElement element)
     throws InvalidMvp4gConfigurationException {
@@ -2152,6 +2493,29 @@ public class Mvp4gConfiguration {
     return false;
   }
 
+  /**
+   * Return the name of the parent event forwarded by the given event. This name is used by the
+   * parent event bus to generate the tokens of its events.
+   *
+   * @param e
+   *   event forwarded to the parent
+   * @return name of the parent event, its type if it has no name
+   */
+  public String getParentEventName(EventElement e) {
+    String eventType = e.getType();
+    if (parentEventBus != null) {
+      for (JMethod m : parentEventBus.getOverridableMethods()) {
+        if (eventType.equals(m.getName())) {
+          Event event = m.getAnnotation(Event.class);
+          if ((event != null) && !Event.DEFAULT_NAME.equals(event.name())) {
+            return event.name();
+          }
+        }
+      }
+    }
+    return eventType;
+  }
+
   String getSuffix(String[] propertiesValues) {
     if ((propertiesValues == null) || (propertiesValues.length == 0)) {
       return "";
@@ -16,6 +16,7 @@
 package com.mvp4g.rebind.config.element;
 
 import com.google.gwt.core.ext.typeinfo.JClassType;
+import com.mvp4g.client.annotation.module.ChildModule.Prefetch;
 
 public class ChildModuleElement
   extends SimpleMvp4gElement {
@@ -71,6 +72,24 @@ public class ChildModuleElement
                 autoDisplay);
   }
 
+  public String getPrefetch() {
+    String prefetch = getProperty("prefetch");
+    // By default, the module isn't prefetched
+    return (prefetch == null) ?
+           Prefetch.NONE.name() :
+           prefetch;
+  }
+
+  public void setPrefetch(String prefetch) {
+    setProperty("prefetch",
+                prefetch);
+  }
+
+  public boolean isPrefetched() {
+    return !Prefetch.NONE.name()
+                         .equals(getPrefetch());
+  }
+
   public String getHistoryName() {
     return getProperty("historyName");
   }
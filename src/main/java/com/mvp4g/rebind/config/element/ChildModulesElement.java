@@ -56,4 +56,34 @@ public class ChildModulesElement
                 afterEvent);
   }
 
+  public String getMaxLoaded() {
+    String maxLoaded = getProperty("maxLoaded");
+    // By default, there is no limit
+    return (maxLoaded == null) ?
+           "0" :
+           maxLoaded;
+  }
+
+  public void setMaxLoaded(String maxLoaded) {
+    setProperty("maxLoaded",
+                maxLoaded);
+  }
+
+  public String getIdleTimeout() {
+    String idleTimeout = getProperty("idleTimeout");
+    // By default, idle modules are kept
+    return (idleTimeout == null) ?
+           "0" :
+           idleTimeout;
+  }
+
+  public void setIdleTimeout(String idleTimeout) {
+    setProperty("idleTimeout",
+                idleTimeout);
+  }
+
+  public boolean isEvicting() {
+    return !"0".equals(getMaxLoaded()) || !"0".equals(getIdleTimeout());
+  }
+
 }
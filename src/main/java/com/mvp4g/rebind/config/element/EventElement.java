@@ -18,6 +18,8 @@ package com.mvp4g.rebind.config.element;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.mvp4g.client.annotation.Event;
+
 /**
  * An Mvp4g Event configuration element.<br>
  *
@@ -270,6 +272,20 @@ public class EventElement
                 tokenGenerationFromParent);
   }
 
+  public boolean isPureToken() {
+    return Boolean.TRUE.toString()
+                       .equalsIgnoreCase(getPureToken());
+  }
+
+  public String getPureToken() {
+    return getProperty("pureToken");
+  }
+
+  public void setPureToken(String pureToken) {
+    setProperty("pureToken",
+                pureToken);
+  }
+
   public boolean isPassive() {
     return Boolean.TRUE.toString()
                        .equalsIgnoreCase(getPassive());
@@ -293,4 +309,57 @@ public class EventElement
                 broadcastTo);
   }
 
+  public boolean hasShaping() {
+    String shaping = getShaping();
+    return (shaping != null) && !Event.Shaping.NONE.name()
+                                                   .equals(shaping);
+  }
+
+  public String getShaping() {
+    return getProperty("shaping");
+  }
+
+  public void setShaping(String shaping) {
+    setProperty("shaping",
+                shaping);
+  }
+
+  public int getShapingWindow() {
+    String window = getProperty("shapingWindow");
+    return (window == null) ?
+           0 :
+           Integer.parseInt(window);
+  }
+
+  public void setShapingWindow(String shapingWindow) {
+    setProperty("shapingWindow",
+                shapingWindow);
+  }
+
+  public boolean isDeferred() {
+    return Boolean.TRUE.toString()
+                       .equalsIgnoreCase(getDeferred());
+  }
+
+  public String getDeferred() {
+    return getProperty("deferred");
+  }
+
+  public void setDeferred(String deferred) {
+    setProperty("deferred",
+                deferred);
+  }
+
+  public String getLane() {
+    String lane = getProperty("lane");
+    return (lane == null) ?
+           Event.Lane.NORMAL.name() :
+           lane;
+  }
+
+  public void setLane(String lane) {
+    setProperty("lane",
+                lane);
+  }
+
 }
\ No newline at end of file
@@ -23,4 +23,32 @@ public class EventFilterElement
     super("eventFilter");
   }
 
+  public String[] getEvents() {
+    return getValues("events");
+  }
+
+  public void setEvents(String[] events) {
+    setValues("events",
+              events);
+  }
+
+  /**
+   * @param eventName
+   *   name of the event
+   *
+   * @return true if the filter must be called for the given event
+   */
+  public boolean isFiltering(String eventName) {
+    String[] events = getEvents();
+    if (events == null) {
+      return true;
+    }
+    for (String event : events) {
+      if (event.equals(eventName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
 }
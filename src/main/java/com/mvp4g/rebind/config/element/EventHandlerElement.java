@@ -45,6 +45,55 @@ public class EventHandlerElement
                 multiple);
   }
 
+  public boolean isPooled() {
+    return !"0".equals(getPoolSize());
+  }
+
+  public String getPoolSize() {
+    String poolSize = getProperty("poolSize");
+    // By default, removed handlers aren't kept
+    return (poolSize == null) ?
+           "0" :
+           poolSize;
+  }
+
+  public void setPoolSize(String poolSize) {
+    setProperty("poolSize",
+                poolSize);
+  }
+
+  public boolean isEager() {
+    return Boolean.TRUE.toString()
+                       .equalsIgnoreCase(getEager());
+  }
+
+  public String getEager() {
+    return getProperty("eager");
+  }
+
+  public void setEager(String eager) {
+    setProperty("eager",
+                eager);
+  }
+
+  /**
+   * @return true if the handler extends <code>BaseEventHandler</code> without overriding its
+   * <code>pass</code> method, ie the event parameters aren't needed to know if it's activated.
+   */
+  public boolean hasActivationWithoutPass() {
+    return Boolean.TRUE.toString()
+                       .equalsIgnoreCase(getActivationWithoutPass());
+  }
+
+  public String getActivationWithoutPass() {
+    return getProperty("activationWithoutPass");
+  }
+
+  public void setActivationWithoutPass(String activationWithoutPass) {
+    setProperty("activationWithoutPass",
+                activationWithoutPass);
+  }
+
   public boolean isAsync() {
     return (getAsync() != null);
   }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.rebind.config.element;
+
+import com.mvp4g.client.event.DefaultEventBusMetrics;
+
+public class MetricsElement
+  extends Mvp4gElement {
+
+  private static final String METRICS_ELEMENT_ID = MetricsElement.class.getName();
+
+  public MetricsElement() {
+    super("metrics");
+  }
+
+  @Override
+  public String getUniqueIdentifierName() {
+    return METRICS_ELEMENT_ID;
+  }
+
+  public String getMetrics() {
+    String metrics = getProperty("metrics");
+    return (metrics == null) ?
+           DefaultEventBusMetrics.class.getCanonicalName() :
+           metrics;
+  }
+
+  public void setMetrics(String metrics) {
+    setProperty("metrics",
+                metrics);
+  }
+
+}
@@ -21,6 +21,7 @@ import java.util.Set;
 import com.google.gwt.core.ext.typeinfo.JClassType;
 import com.mvp4g.client.Mvp4gSplitter;
 import com.mvp4g.client.annotation.NotAsync;
+import com.mvp4g.client.event.Recyclable;
 import com.mvp4g.rebind.config.Mvp4gConfiguration;
 import com.mvp4g.rebind.config.element.EventHandlerElement;
 import com.mvp4g.rebind.config.element.Mvp4gWithServicesElement;
@@ -59,6 +60,25 @@ public abstract class AbstractHandlerAnnotationsLoader<A extends Annotation, T e
     eventHandler.setName(eventHandlerName);
     eventHandler.setClassName(className);
     eventHandler.setMultiple(Boolean.toString(isAnnotationMultiple(annotation)));
+    eventHandler.setEager(Boolean.toString(isAnnotationEager(annotation)));
+
+    int poolSize = getAnnotationPoolSize(annotation);
+    if (poolSize != 0) {
+      if ((poolSize < 0) || !eventHandler.isMultiple()) {
+        String err = "Only a multiple handler can be pooled and its pool size can't be negative.";
+        throw new Mvp4gAnnotationException(className,
+                                           null,
+                                           err);
+      }
+      if (!c.isAssignableTo(configuration.getOracle()
+                                         .findType(Recyclable.class.getCanonicalName()))) {
+        String err = "A pooled handler must implement " + Recyclable.class.getCanonicalName() + " to be reset when it's removed.";
+        throw new Mvp4gAnnotationException(className,
+                                           null,
+                                           err);
+      }
+      eventHandler.setPoolSize(Integer.toString(poolSize));
+    }
 
     Class<? extends Mvp4gSplitter> splitter = getAnnotationSplitter(annotation);
     if (!splitter.equals(NotAsync.class)) {
@@ -82,6 +102,10 @@ public abstract class AbstractHandlerAnnotationsLoader<A extends Annotation, T e
 
   abstract protected boolean isAnnotationMultiple(A annotation);
 
+  abstract protected int getAnnotationPoolSize(A annotation);
+
+  abstract protected boolean isAnnotationEager(A annotation);
+
   abstract protected Class<? extends Mvp4gSplitter> getAnnotationSplitter(A annotation);
 
   abstract protected Set<T> getConfigList(Mvp4gConfiguration configuration);
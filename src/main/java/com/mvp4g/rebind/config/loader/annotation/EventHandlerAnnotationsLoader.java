@@ -69,6 +69,16 @@ public class EventHandlerAnnotationsLoader
     return annotation.multiple();
   }
 
+  @Override
+  protected int getAnnotationPoolSize(EventHandler annotation) {
+    return annotation.poolSize();
+  }
+
+  @Override
+  protected boolean isAnnotationEager(EventHandler annotation) {
+    return annotation.eager();
+  }
+
   @Override
   protected Class<? extends Mvp4gSplitter> getAnnotationSplitter(EventHandler annotation) {
     return annotation.async();
@@ -118,6 +118,14 @@ public class EventsAnnotationsLoader
         loadDebug(c,
                   annotation,
                   configuration);
+        loadMetrics(c,
+                    configuration);
+        loadFlightRecorder(c,
+                           configuration);
+        loadTracing(c,
+                    configuration);
+        loadProfiling(c,
+                      configuration);
         loadGinModule(annotation,
                       configuration);
         loadHistoryProxy(annotation,
@@ -274,6 +282,8 @@ public class EventsAnnotationsLoader
         module.setClassName(moduleClass);
         module.setAsync(Boolean.toString(child.async()));
         module.setAutoDisplay(Boolean.toString(child.autoDisplay()));
+        module.setPrefetch(child.prefetch()
+                                .name());
 
         addElement(modules,
                    module,
@@ -281,6 +291,24 @@ public class EventsAnnotationsLoader
                    null);
 
       }
+
+      int maxLoaded   = childModules.maxLoaded();
+      int idleTimeout = childModules.idleTimeout();
+      if ((maxLoaded < 0) || (idleTimeout < 0)) {
+        String err = "maxLoaded and idleTimeout of " + ChildModules.class.getSimpleName() + " can't be negative.";
+        throw new Mvp4gAnnotationException(c.getQualifiedSourceName(),
+                                           null,
+                                           err);
+      }
+      if ((maxLoaded > 0) || (idleTimeout > 0)) {
+        ChildModulesElement childConfig = configuration.getLoadChildConfig();
+        if (childConfig == null) {
+          childConfig = new ChildModulesElement();
+          configuration.setLoadChildConfig(childConfig);
+        }
+        childConfig.setMaxLoaded(Integer.toString(maxLoaded));
+        childConfig.setIdleTimeout(Integer.toString(idleTimeout));
+      }
     }
 
   }
@@ -442,6 +470,12 @@ public class EventsAnnotationsLoader
                                                             .getQualifiedSourceName()
                                                             .equals(String.class.getName())));
       element.setPassive(Boolean.toString(event.passive()));
+      element.setShaping(event.shaping()
+                              .name());
+      element.setShapingWindow(Integer.toString(event.shapingWindow()));
+      element.setDeferred(Boolean.toString(event.deferred()));
+      element.setLane(event.lane()
+                           .name());
       broadcast = event.broadcastTo();
       if (!Event.NoBroadcast.class.equals(broadcast)) {
         element.setBroadcastTo(broadcast.getCanonicalName());
@@ -518,6 +552,45 @@ public class EventsAnnotationsLoader
     }
   }
 
+  private void loadMetrics(JClassType c,
+                           Mvp4gConfiguration configuration) {
+    Metrics metrics = c.getAnnotation(Metrics.class);
+
+    if (metrics != null) {
+      MetricsElement metricsElem = new MetricsElement();
+      metricsElem.setMetrics(metrics.value()
+                                    .getCanonicalName());
+
+      configuration.setMetrics(metricsElem);
+    }
+  }
+
+  private void loadFlightRecorder(JClassType c,
+                                  Mvp4gConfiguration configuration) {
+    FlightRecorder flightRecorder = c.getAnnotation(FlightRecorder.class);
+
+    if (flightRecorder != null) {
+      FlightRecorderElement flightRecorderElem = new FlightRecorderElement();
+      flightRecorderElem.setCapacity(Integer.toString(flightRecorder.capacity()));
+
+      configuration.setFlightRecorder(flightRecorderElem);
+    }
+  }
+
+  private void loadTracing(JClassType c,
+                           Mvp4gConfiguration configuration) {
+    if (c.getAnnotation(Tracing.class) != null) {
+      configuration.setTracing(new TracingElement());
+    }
+  }
+
+  private void loadProfiling(JClassType c,
+                             Mvp4gConfiguration configuration) {
+    if (c.getAnnotation(Profiling.class) != null) {
+      configuration.setProfiling(new ProfilingElement());
+    }
+  }
+
   private void loadGinModule(Events annotation,
                              Mvp4gConfiguration configuration)
     throws Mvp4gAnnotationException {
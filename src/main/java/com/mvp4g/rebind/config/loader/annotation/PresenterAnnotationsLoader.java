@@ -82,6 +82,16 @@ public class PresenterAnnotationsLoader
     return annotation.multiple();
   }
 
+  @Override
+  protected int getAnnotationPoolSize(Presenter annotation) {
+    return annotation.poolSize();
+  }
+
+  @Override
+  protected boolean isAnnotationEager(Presenter annotation) {
+    return annotation.eager();
+  }
+
   @Override
   protected Class<? extends Mvp4gSplitter> getAnnotationSplitter(Presenter annotation) {
     return annotation.async();
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mvp4g.client.test_tools.EventSchedulerStub;
+import com.mvp4g.client.test_tools.Mvp4gModuleStub;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ModuleEvictorTest {
+
+  private EventSchedulerStub       scheduler;
+  private Map<String, Mvp4gModule> modules;
+
+  @Before
+  public void setUp() {
+    scheduler = new EventSchedulerStub();
+    modules = new HashMap<String, Mvp4gModule>();
+  }
+
+  @Test
+  public void testMaxLoaded() {
+    ModuleEvictor evictor = newEvictor(2,
+                                       0);
+    Mvp4gModuleStub m1 = use(evictor,
+                             "m1");
+    Mvp4gModuleStub m2 = use(evictor,
+                             "m2");
+    // m1 becomes the most recently used module
+    evictor.onUse("m1");
+    Mvp4gModuleStub m3 = use(evictor,
+                             "m3");
+
+    // the module is only evicted once the event that loaded m3 has been handled
+    assertFalse(m2.isUnloaded());
+    assertEquals(3,
+                 modules.size());
+    assertEquals(1,
+                 scheduler.getScheduledCount());
+
+    scheduler.advance(0);
+    assertTrue(m2.isUnloaded());
+    assertFalse(m1.isUnloaded());
+    assertFalse(m3.isUnloaded());
+    assertEquals(2,
+                 modules.size());
+    assertFalse(modules.containsKey("m2"));
+    assertEquals(2,
+                 evictor.size());
+    assertEquals(0,
+                 scheduler.getScheduledCount());
+  }
+
+  @Test
+  public void testMaxLoadedSingleTick() {
+    ModuleEvictor evictor = newEvictor(1,
+                                       0);
+    Mvp4gModuleStub m1 = use(evictor,
+                             "m1");
+    Mvp4gModuleStub m2 = use(evictor,
+                             "m2");
+    Mvp4gModuleStub m3 = use(evictor,
+                             "m3");
+    assertEquals(1,
+                 scheduler.getScheduledCount());
+
+    scheduler.advance(0);
+    assertTrue(m1.isUnloaded());
+    assertTrue(m2.isUnloaded());
+    assertFalse(m3.isUnloaded());
+    assertEquals(1,
+                 modules.size());
+    assertTrue(modules.containsKey("m3"));
+  }
+
+  @Test
+  public void testIdleTimeout() {
+    ModuleEvictor evictor = newEvictor(0,
+                                       1000);
+    Mvp4gModuleStub m1 = use(evictor,
+                             "m1");
+    // a single module is never idle
+    assertEquals(0,
+                 scheduler.getScheduledCount());
+    scheduler.advance(600);
+    Mvp4gModuleStub m2 = use(evictor,
+                             "m2");
+    scheduler.advance(300);
+    Mvp4gModuleStub m3 = use(evictor,
+                             "m3");
+
+    scheduler.advance(99);
+    assertFalse(m1.isUnloaded());
+    scheduler.advance(1);
+    assertTrue(m1.isUnloaded());
+    assertFalse(m2.isUnloaded());
+    scheduler.advance(600);
+    assertTrue(m2.isUnloaded());
+
+    // the most recently used module is kept even if it's idle
+    scheduler.advance(5000);
+    assertFalse(m3.isUnloaded());
+    assertEquals(1,
+                 modules.size());
+    assertEquals(0,
+                 scheduler.getScheduledCount());
+  }
+
+  @Test
+  public void testEvictAndClear() {
+    ModuleEvictor evictor = newEvictor(0,
+                                       1000);
+    Mvp4gModuleStub m1 = use(evictor,
+                             "m1");
+    Mvp4gModuleStub m2 = use(evictor,
+                             "m2");
+    evictor.evict("m1");
+    assertTrue(m1.isUnloaded());
+    assertFalse(modules.containsKey("m1"));
+
+    evictor.clear();
+    assertEquals(0,
+                 evictor.size());
+    scheduler.advance(5000);
+    assertFalse(m2.isUnloaded());
+  }
+
+  private ModuleEvictor newEvictor(int maxLoaded,
+                                   int idleTimeout) {
+    ModuleEvictor evictor = new ModuleEvictor(modules,
+                                              maxLoaded,
+                                              idleTimeout);
+    evictor.setEventScheduler(scheduler);
+    return evictor;
+  }
+
+  private Mvp4gModuleStub use(ModuleEvictor evictor,
+                              String moduleClassName) {
+    Mvp4gModuleStub module = new Mvp4gModuleStub(null);
+    modules.put(moduleClassName,
+                module);
+    evictor.onUse(moduleClassName);
+    return module;
+  }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mvp4g.client.annotation.module.ChildModule.Prefetch;
+import com.mvp4g.client.test_tools.EventSchedulerStub;
+import com.mvp4g.client.test_tools.TransitionStorageStub;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ModulePrefetcherTest {
+
+  private EventSchedulerStub scheduler;
+  private ModulePrefetcher   prefetcher;
+  private List<String>       fetched;
+
+  @Before
+  public void setUp() {
+    scheduler = new EventSchedulerStub();
+    prefetcher = new ModulePrefetcher();
+    prefetcher.setEventScheduler(scheduler);
+    fetched = new ArrayList<String>();
+  }
+
+  @Test
+  public void testOneAtATime() {
+    FragmentStub f1 = new FragmentStub("f1");
+    FragmentStub f2 = new FragmentStub("f2");
+    prefetcher.add("f1",
+                   f1,
+                   Prefetch.AFTER_START);
+    prefetcher.add("f2",
+                   f2,
+                   Prefetch.AFTER_START);
+    prefetcher.add("none",
+                   new FragmentStub("none"),
+                   Prefetch.NONE);
+    assertEquals(2,
+                 prefetcher.size());
+
+    scheduler.advance(0);
+    assertEquals(0,
+                 fetched.size());
+    prefetcher.start();
+    scheduler.advance(0);
+    assertEquals("[f1]",
+                 fetched.toString());
+
+    // f2 waits until f1 is loaded
+    scheduler.advance(1000);
+    assertEquals("[f1]",
+                 fetched.toString());
+    f1.loaded = true;
+    scheduler.advance(ModulePrefetcher.POLL_DELAY);
+    assertEquals("[f1, f2]",
+                 fetched.toString());
+    f2.loaded = true;
+    scheduler.advance(ModulePrefetcher.POLL_DELAY);
+    assertEquals(0,
+                 prefetcher.size());
+    assertEquals(0,
+                 scheduler.getScheduledCount());
+  }
+
+  @Test
+  public void testOnIdle() {
+    FragmentStub f1 = new FragmentStub("f1");
+    FragmentStub f2 = new FragmentStub("f2");
+    prefetcher.add("f1",
+                   f1,
+                   Prefetch.ON_IDLE);
+    prefetcher.add("f2",
+                   f2,
+                   Prefetch.AFTER_START);
+    prefetcher.start();
+    scheduler.advance(0);
+    assertEquals("[f2]",
+                 fetched.toString());
+    f2.loaded = true;
+    scheduler.advance(ModulePrefetcher.POLL_DELAY);
+    assertEquals("[f2, f1]",
+                 fetched.toString());
+  }
+
+  @Test
+  public void testNavigationPostpones() {
+    FragmentStub f1 = new FragmentStub("f1");
+    FragmentStub f2 = new FragmentStub("f2");
+    prefetcher.add("f1",
+                   f1,
+                   Prefetch.AFTER_START);
+    prefetcher.add("f2",
+                   f2,
+                   Prefetch.ON_IDLE);
+    prefetcher.onNavigation("m");
+    prefetcher.start();
+    scheduler.advance(ModulePrefetcher.POLL_DELAY - 1);
+    assertEquals(0,
+                 fetched.size());
+    scheduler.advance(1);
+    assertEquals("[f1]",
+                 fetched.toString());
+
+    f1.loaded = true;
+    prefetcher.onNavigation("m");
+    scheduler.advance(ModulePrefetcher.IDLE_DELAY - 1);
+    assertEquals("[f1]",
+                 fetched.toString());
+    scheduler.advance(1);
+    assertEquals("[f1, f2]",
+                 fetched.toString());
+  }
+
+  @Test
+  public void testLoadedFragmentsSkipped() {
+    FragmentStub f1 = new FragmentStub("f1");
+    FragmentStub f2 = new FragmentStub("f2");
+    f1.loaded = true;
+    prefetcher.add("f1",
+                   f1,
+                   Prefetch.AFTER_START);
+    prefetcher.add("f2",
+                   f2,
+                   Prefetch.AFTER_START);
+    prefetcher.start();
+    scheduler.advance(0);
+    assertEquals("[f2]",
+                 fetched.toString());
+  }
+
+  @Test
+  public void testCancel() {
+    FragmentStub f1 = new FragmentStub("f1");
+    prefetcher.add("f1",
+                   f1,
+                   Prefetch.AFTER_START);
+    prefetcher.add("f2",
+                   new FragmentStub("f2"),
+                   Prefetch.ON_IDLE);
+    prefetcher.start();
+    scheduler.advance(0);
+    prefetcher.cancel();
+    assertEquals(1,
+                 prefetcher.size());
+    f1.loaded = true;
+    scheduler.advance(ModulePrefetcher.IDLE_DELAY);
+    assertEquals("[f1]",
+                 fetched.toString());
+    assertEquals(0,
+                 prefetcher.size());
+  }
+
+  @Test
+  public void testPrediction() {
+    TransitionStorageStub storage = new TransitionStorageStub();
+    prefetcher.setTransitions(new ModuleTransitions(storage));
+    prefetcher.setPolicy(new MostLikelyPrefetchPolicy(1,
+                                                      0.5));
+    FragmentStub f1 = new FragmentStub("f1");
+    FragmentStub f2 = new FragmentStub("f2");
+    prefetcher.add("f1",
+                   f1,
+                   Prefetch.NONE);
+    prefetcher.start();
+    assertNull(prefetcher.getPredicted());
+
+    // m1 -> m2 is learnt
+    prefetcher.onNavigation("m1");
+    prefetcher.onNavigation("m2");
+    assertEquals(1,
+                 prefetcher.getTransitions()
+                           .getTransitions("m1")
+                           .get("m2")
+                           .intValue());
+    assertNotNull(storage.values.get(ModuleTransitions.STORAGE_KEY));
+
+    // next session
+    prefetcher = new ModulePrefetcher();
+    prefetcher.setEventScheduler(scheduler);
+    prefetcher.setTransitions(new ModuleTransitions(storage));
+    prefetcher.setPolicy(new MostLikelyPrefetchPolicy(1,
+                                                      0.5));
+    prefetcher.add("m1",
+                   f1,
+                   Prefetch.NONE);
+    prefetcher.start();
+    assertEquals("m1",
+                 prefetcher.getPredicted());
+    scheduler.advance(ModulePrefetcher.POLL_DELAY);
+    assertEquals("[f1]",
+                 fetched.toString());
+    f1.loaded = true;
+
+    prefetcher.onNavigation("m1");
+    assertEquals("m2",
+                 prefetcher.getPredicted());
+    // the fragment of m2 is only known once m1 has started
+    scheduler.advance(ModulePrefetcher.IDLE_DELAY);
+    assertEquals("[f1]",
+                 fetched.toString());
+    prefetcher.add("m2",
+                   f2,
+                   Prefetch.NONE);
+    scheduler.advance(ModulePrefetcher.POLL_DELAY);
+    assertEquals("[f1, f2]",
+                 fetched.toString());
+    assertNull(prefetcher.getPredicted());
+  }
+
+  @Test
+  public void testNoPredictionWithoutTransitions() {
+    prefetcher.add("m1",
+                   new FragmentStub("f1"),
+                   Prefetch.NONE);
+    prefetcher.start();
+    prefetcher.onNavigation("m1");
+    scheduler.advance(ModulePrefetcher.IDLE_DELAY);
+    assertNull(prefetcher.getPredicted());
+    assertEquals(0,
+                 fetched.size());
+  }
+
+  private class FragmentStub
+    implements ModulePrefetcher.Fragment {
+
+    private String  name;
+    private boolean loaded = false;
+
+    private FragmentStub(String name) {
+      this.name = name;
+    }
+
+    public boolean isLoaded() {
+      return loaded;
+    }
+
+    public void fetch() {
+      fetched.add(name);
+    }
+
+  }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mvp4g.client.test_tools.EventSchedulerStub;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModuleProfilerTest {
+
+  private EventSchedulerStub scheduler;
+  private ModuleProfiler     profiler;
+
+  @Before
+  public void setUp() {
+    scheduler = new EventSchedulerStub();
+    profiler = new ModuleProfiler();
+    profiler.setEventScheduler(scheduler);
+  }
+
+  @Test
+  public void testPhasesAndConstructions() {
+    double phaseStart = profiler.now();
+    double start      = profiler.now();
+    scheduler.elapse(3);
+    profiler.constructed("Module",
+                         "view",
+                         start);
+    start = profiler.now();
+    scheduler.elapse(2);
+    profiler.constructed("Module",
+                         "presenter",
+                         start);
+    profiler.phase("Module",
+                   "createModule",
+                   phaseStart);
+
+    ModuleProfile profile = profiler.getProfile("Module");
+    assertEquals("Module",
+                 profile.getModuleName());
+    assertEquals(5,
+                 profile.getPhases()
+                        .get("createModule"),
+                 0);
+    assertEquals(3,
+                 profile.getConstructions()
+                        .get("view"),
+                 0);
+    assertEquals(5,
+                 profile.getConstructionTime(),
+                 0);
+    assertEquals("{\"module\":\"Module\",\"phases\":{\"createModule\":5.0},\"constructions\":{\"view\":3.0,\"presenter\":2.0},\"binds\":{},\"viewCreations\":{}}",
+                 profile.toJson());
+    assertNull(profiler.getProfile("Other"));
+  }
+
+  @Test
+  public void testBindsOfRegisteredEventBus() {
+    Object eventBus = new Object();
+    Object other    = new Object();
+    assertFalse(profiler.isProfiled(eventBus));
+    profiler.register(eventBus,
+                      "Module");
+    assertTrue(profiler.isProfiled(eventBus));
+    assertFalse(profiler.isProfiled(other));
+    assertFalse(profiler.isProfiled(null));
+
+    double start = profiler.now();
+    scheduler.elapse(4);
+    profiler.bound(eventBus,
+                   "Handler",
+                   start);
+    profiler.bound(eventBus,
+                   "Handler",
+                   start);
+    profiler.viewCreated(eventBus,
+                         "View",
+                         start);
+    profiler.bound(other,
+                   "Other",
+                   start);
+
+    ModuleProfile profile = profiler.getProfile("Module");
+    assertEquals(8,
+                 profile.getBindTime(),
+                 0);
+    assertEquals(4,
+                 profile.getViewCreationTime(),
+                 0);
+    assertEquals(1,
+                 profiler.getProfiles()
+                         .size());
+
+    profiler.clear();
+    assertTrue(profiler.isProfiled(eventBus));
+    profiler.bound(eventBus,
+                   "Handler",
+                   start);
+    assertEquals(1,
+                 profiler.getProfile("Module")
+                         .getBinds()
+                         .size());
+
+    profiler.unregister(eventBus);
+    assertFalse(profiler.isProfiled(eventBus));
+  }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mvp4g.client.test_tools.TransitionStorageStub;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModuleTransitionsTest {
+
+  private TransitionStorageStub storage;
+  private ModuleTransitions     transitions;
+
+  @Before
+  public void setUp() {
+    storage = new TransitionStorageStub();
+    transitions = new ModuleTransitions(storage);
+  }
+
+  @Test
+  public void testRecord() {
+    transitions.record(null,
+                       "a");
+    transitions.record("a",
+                       "b");
+    transitions.record("a",
+                       "b");
+    transitions.record("a",
+                       "c");
+    // transitions to the same module and to no module are ignored
+    transitions.record("a",
+                       "a");
+    transitions.record("a",
+                       null);
+
+    Map<String, Integer> fromA = transitions.getTransitions("a");
+    assertEquals(2,
+                 fromA.size());
+    assertEquals(2,
+                 fromA.get("b")
+                      .intValue());
+    assertEquals(1,
+                 fromA.get("c")
+                      .intValue());
+    assertEquals(1,
+                 transitions.getTransitions(ModuleTransitions.START)
+                            .get("a")
+                            .intValue());
+    assertEquals(1,
+                 transitions.getTransitions(null)
+                            .size());
+    assertTrue(transitions.getTransitions("unknown")
+                          .isEmpty());
+  }
+
+  @Test
+  public void testPersistence() {
+    transitions.record(null,
+                       "a");
+    transitions.record("a",
+                       "b");
+    transitions.record("a",
+                       "b");
+
+    ModuleTransitions loaded = new ModuleTransitions(storage);
+    assertEquals(2,
+                 loaded.getTransitions("a")
+                       .get("b")
+                       .intValue());
+    assertEquals(1,
+                 loaded.getTransitions(null)
+                       .get("a")
+                       .intValue());
+
+    loaded.clear();
+    assertTrue(new ModuleTransitions(storage).getTransitions("a")
+                                             .isEmpty());
+  }
+
+  @Test
+  public void testCorruptedStorage() {
+    storage.values.put(ModuleTransitions.STORAGE_KEY,
+                       "a|b|2\nbroken\na|c|x\n|d|1");
+    transitions = new ModuleTransitions(storage);
+    assertEquals(1,
+                 transitions.getTransitions("a")
+                            .size());
+    assertEquals(2,
+                 transitions.getTransitions("a")
+                            .get("b")
+                            .intValue());
+    assertEquals(1,
+                 transitions.getTransitions(null)
+                            .get("d")
+                            .intValue());
+  }
+
+  @Test
+  public void testMaxTargets() {
+    for (int i = 0; i < ModuleTransitions.MAX_TARGETS; i++) {
+      transitions.record("a",
+                         "m" + i);
+      transitions.record("a",
+                         "m" + i);
+    }
+    transitions.record("a",
+                       "m0");
+    transitions.record("a",
+                       "new");
+    Map<String, Integer> fromA = transitions.getTransitions("a");
+    assertEquals(ModuleTransitions.MAX_TARGETS,
+                 fromA.size());
+    assertTrue(fromA.containsKey("new"));
+    assertTrue(fromA.containsKey("m0"));
+    assertFalse(fromA.containsKey("m1"));
+  }
+
+  @Test
+  public void testAging() {
+    transitions.record("a",
+                       "c");
+    for (int i = 0; i < ModuleTransitions.MAX_COUNT; i++) {
+      transitions.record("a",
+                         "b");
+    }
+    Map<String, Integer> fromA = transitions.getTransitions("a");
+    assertEquals(ModuleTransitions.MAX_COUNT / 2,
+                 fromA.get("b")
+                      .intValue());
+    assertNull(fromA.get("c"));
+  }
+
+  @Test
+  public void testMostLikelyPolicy() {
+    MostLikelyPrefetchPolicy policy = new MostLikelyPrefetchPolicy(2,
+                                                                   0.5);
+    assertNull(policy.predict(transitions,
+                              "a"));
+    transitions.record("a",
+                       "b");
+    // not seen enough
+    assertNull(policy.predict(transitions,
+                              "a"));
+    transitions.record("a",
+                       "b");
+    assertEquals("b",
+                 policy.predict(transitions,
+                                "a"));
+    transitions.record("a",
+                       "c");
+    transitions.record("a",
+                       "d");
+    transitions.record("a",
+                       "e");
+    // not likely enough
+    assertNull(policy.predict(transitions,
+                              "a"));
+  }
+
+}
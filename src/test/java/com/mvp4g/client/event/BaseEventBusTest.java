@@ -22,6 +22,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.mvp4g.client.Mvp4gException;
+import com.mvp4g.client.annotation.Debug.LogLevel;
 import com.mvp4g.client.history.DefaultHistoryProxy;
 import com.mvp4g.client.history.HistoryProxyProvider;
 import com.mvp4g.client.history.NavigationConfirmationInterface;
@@ -54,6 +55,9 @@ public class BaseEventBusTest {
       @SuppressWarnings("unchecked")
       @Override
       protected <T extends EventHandlerInterface<?>> T createHandler(Class<T> handlerClass) {
+        if (Presenters.PooledPresenter.class.equals(handlerClass)) {
+          return (T) new Presenters.PooledPresenter();
+        }
         return (T) ((SimplePresenter01.class.equals(handlerClass)) ?
                     new SimplePresenter01() :
                     null);
@@ -261,6 +265,155 @@ public class BaseEventBusTest {
     assertFalse(bus.filterEvent("test"));
   }
 
+  @Test
+  public void testScopedFilter() {
+    filter.setFilter(false);
+    bus.addEventFilter(filter,
+                       new String[] { "test" });
+    assertFalse(bus.filterEvent("test"));
+    assertTrue(bus.filterEvent("other"));
+
+    EventFilterStub filter2 = new EventFilterStub();
+    filter2.setFilter(true);
+    bus.addEventFilter(filter2);
+    assertFalse(bus.filterEvent("test"));
+    assertTrue(bus.filterEvent("other"));
+
+    bus.removeEventFilter(filter);
+    assertTrue(bus.filterEvent("test"));
+  }
+
+  @Test
+  public void testRemoveLazyFilter() {
+    filter.setFilter(false);
+    LazyEventFilter<EventBus> lazyFilter = new LazyEventFilter<EventBus>() {
+
+      @Override
+      protected EventFilter<EventBus> createFilter() {
+        return filter;
+      }
+    };
+    bus.addEventFilter(lazyFilter);
+    bus.addEventFilter(lazyFilter,
+                       new String[] { "test" });
+    assertFalse(bus.filterEvent("test"));
+
+    // the filter given is the one the lazy filter delegates to
+    bus.removeEventFilter(filter);
+    assertTrue(bus.filterEvent("test"));
+    assertFalse(bus.isFilteringNeeded("test"));
+  }
+
+  @Test
+  public void testRemoveLazyFilterNotCreated() {
+    filter.setFilter(false);
+    EventFilterStub filter2 = new EventFilterStub();
+    bus.addEventFilter(filter2);
+    bus.addEventFilter(new LazyEventFilter<EventBus>() {
+
+      @Override
+      protected EventFilter<EventBus> createFilter() {
+        return filter;
+      }
+    });
+
+    // the lazy filter is removed before its first event
+    bus.removeEventFilter(filter);
+    filter2.setFilter(true);
+    assertTrue(bus.filterEvent("test"));
+    bus.removeEventFilter(filter2);
+    assertFalse(bus.isFilteringNeeded("test"));
+  }
+
+  @Test
+  public void testFilteringNeeded() {
+    assertFalse(bus.isFilteringNeeded("test"));
+
+    bus.addEventFilter(filter,
+                       new String[] { "test" });
+    assertTrue(bus.isFilteringNeeded("test"));
+    assertFalse(bus.isFilteringNeeded("other"));
+
+    bus.removeEventFilter(filter);
+    assertFalse(bus.isFilteringNeeded("test"));
+
+    bus.addEventFilter(filter);
+    assertTrue(bus.isFilteringNeeded("other"));
+    bus.setFilteringEnabled(false);
+    assertFalse(bus.isFilteringNeeded("other"));
+
+    bus.removeEventFilter(filter);
+    bus.setFilteringEnabledForNextOne(true);
+    assertTrue(bus.isFilteringNeeded("other"));
+    assertTrue(bus.filterEvent("other"));
+    assertFalse(bus.isFilteringNeeded("other"));
+  }
+
+  @Test
+  public void testLogLevel() {
+    assertEquals(LogLevel.SIMPLE,
+                 bus.getLogLevel());
+    assertTrue(bus.isLoggable(LogLevel.SIMPLE,
+                              "test"));
+    assertFalse(bus.isLoggable(LogLevel.DETAILED,
+                               "test"));
+
+    bus.setLogLevel(LogLevel.DETAILED);
+    assertTrue(bus.isLoggable(LogLevel.SIMPLE,
+                              "test"));
+    assertTrue(bus.isLoggable(LogLevel.DETAILED,
+                              "test"));
+
+    bus.setLogLevel(LogLevel.OFF);
+    assertFalse(bus.isLoggable(LogLevel.SIMPLE,
+                               "test"));
+
+    bus.setLogLevel(null);
+    assertEquals(LogLevel.OFF,
+                 bus.getLogLevel());
+  }
+
+  @Test
+  public void testLogFilter() {
+    bus.setLogFilter("load*, show?View");
+    assertTrue(bus.isLoggable(LogLevel.SIMPLE,
+                              "load"));
+    assertTrue(bus.isLoggable(LogLevel.SIMPLE,
+                              "loadUser"));
+    assertTrue(bus.isLoggable(LogLevel.SIMPLE,
+                              "show1View"));
+    assertFalse(bus.isLoggable(LogLevel.SIMPLE,
+                               "showView"));
+    assertFalse(bus.isLoggable(LogLevel.SIMPLE,
+                               "reload"));
+
+    bus.setLogFilter("reload");
+    assertTrue(bus.isLoggable(LogLevel.SIMPLE,
+                              "reload"));
+    assertFalse(bus.isLoggable(LogLevel.SIMPLE,
+                               "loadUser"));
+
+    bus.setLogFilter(null);
+    assertTrue(bus.isLoggable(LogLevel.SIMPLE,
+                              "loadUser"));
+  }
+
+  @Test
+  public void testMatches() {
+    assertTrue(BaseEventBus.matches("*",
+                                    ""));
+    assertTrue(BaseEventBus.matches("a*b*c",
+                                    "aXbYbc"));
+    assertTrue(BaseEventBus.matches("a?c",
+                                    "abc"));
+    assertFalse(BaseEventBus.matches("a?c",
+                                     "ac"));
+    assertFalse(BaseEventBus.matches("a*b",
+                                     "abc"));
+    assertFalse(BaseEventBus.matches("",
+                                     "a"));
+  }
+
   @Test
   public void testSetFilterEnabledForNextOne() {
     assertTrue(bus.filterEvent("test"));
@@ -305,6 +458,166 @@ public class BaseEventBusTest {
                  list2);
   }
 
+  @Test
+  public void testAddHandlerTwice() {
+    SimplePresenter01 p = bus.addHandler(SimplePresenter01.class);
+    bus.finishAddHandler(p,
+                         SimplePresenter01.class,
+                         false);
+    List<SimplePresenter01> list = bus.getHandlers(SimplePresenter01.class);
+    assertEquals(2,
+                 list.size());
+    assertSame(p,
+               list.get(0));
+    assertSame(p,
+               list.get(1));
+
+    bus.removeHandler(p);
+    assertEquals(1,
+                 bus.getHandlers(SimplePresenter01.class)
+                    .size());
+    bus.removeHandler(p);
+    assertEquals(0,
+                 bus.getHandlers(SimplePresenter01.class)
+                    .size());
+  }
+
+  @Test
+  public void testHandlerSnapshot() {
+    assertNull(bus.getHandlerSnapshot(SimplePresenter01.class));
+
+    SimplePresenter01 p1 = bus.addHandler(SimplePresenter01.class);
+    EventHandlerInterface<?>[] snapshot = bus.getHandlerSnapshot(SimplePresenter01.class);
+    assertSame(snapshot,
+               bus.getHandlerSnapshot(SimplePresenter01.class));
+    assertEquals(1,
+                 snapshot.length);
+    assertSame(p1,
+               snapshot[0]);
+
+    // adding or removing a handler must not change a snapshot being iterated
+    SimplePresenter01 p2 = bus.addHandler(SimplePresenter01.class);
+    assertEquals(1,
+                 snapshot.length);
+    EventHandlerInterface<?>[] snapshot2 = bus.getHandlerSnapshot(SimplePresenter01.class);
+    assertEquals(2,
+                 snapshot2.length);
+    assertSame(p1,
+               snapshot2[0]);
+    assertSame(p2,
+               snapshot2[1]);
+
+    bus.removeHandler(p1);
+    assertEquals(2,
+                 snapshot2.length);
+    assertSame(p1,
+               snapshot2[0]);
+    EventHandlerInterface<?>[] snapshot3 = bus.getHandlerSnapshot(SimplePresenter01.class);
+    assertEquals(1,
+                 snapshot3.length);
+    assertSame(p2,
+               snapshot3[0]);
+
+    bus.removeHandler(p2);
+    assertEquals(0,
+                 bus.getHandlerSnapshot(SimplePresenter01.class).length);
+  }
+
+  @Test
+  public void testHandlerPool() {
+    assertNull(bus.pollRecycledHandler(Presenters.PooledPresenter.class));
+    bus.setHandlerPoolSize(Presenters.PooledPresenter.class,
+                           1);
+
+    Presenters.PooledPresenter p1 = bus.addHandler(Presenters.PooledPresenter.class);
+    Presenters.PooledPresenter p2 = bus.addHandler(Presenters.PooledPresenter.class);
+    assertEquals(1,
+                 p1.getBindCount());
+
+    p1.setActivated(false);
+    bus.removeHandler(p1);
+    assertEquals(1,
+                 p1.getRecycleCount());
+    // the pool is full, p2 isn't recycled
+    bus.removeHandler(p2);
+    assertEquals(0,
+                 p2.getRecycleCount());
+    // a handler that isn't in the event bus anymore isn't recycled twice
+    bus.removeHandler(p1);
+    assertEquals(1,
+                 p1.getRecycleCount());
+    assertEquals(0,
+                 bus.getHandlers(Presenters.PooledPresenter.class)
+                    .size());
+
+    Presenters.PooledPresenter p3 = bus.addHandler(Presenters.PooledPresenter.class);
+    assertSame(p1,
+               p3);
+    assertTrue(p3.isActivated(false,
+                              null));
+    assertEquals(1,
+                 p3.getBindCount());
+    assertSame(p3,
+               bus.getHandlers(Presenters.PooledPresenter.class)
+                  .get(0));
+
+    Presenters.PooledPresenter p4 = bus.addHandler(Presenters.PooledPresenter.class);
+    assertNotSame(p1,
+                  p4);
+    assertNotSame(p2,
+                  p4);
+  }
+
+  @Test
+  public void testHandlerPoolRemovedDuringDispatch() {
+    bus.setHandlerPoolSize(Presenters.PooledPresenter.class,
+                           2);
+    Presenters.PooledPresenter p1 = bus.addHandler(Presenters.PooledPresenter.class);
+    Presenters.PooledPresenter p2 = bus.addHandler(Presenters.PooledPresenter.class);
+
+    bus.beginDispatch();
+    // the handler removes itself while it's handling an event
+    bus.removeHandler(p1);
+    bus.removeHandler(p1);
+    assertEquals(0,
+                 p1.getRecycleCount());
+    assertNull(bus.pollRecycledHandler(Presenters.PooledPresenter.class));
+    bus.beginDispatch();
+    bus.removeHandler(p2);
+    bus.endDispatch();
+    assertEquals(0,
+                 p2.getRecycleCount());
+
+    bus.endDispatch();
+    assertEquals(1,
+                 p1.getRecycleCount());
+    assertEquals(1,
+                 p2.getRecycleCount());
+    assertSame(p2,
+               bus.pollRecycledHandler(Presenters.PooledPresenter.class));
+    assertSame(p1,
+               bus.pollRecycledHandler(Presenters.PooledPresenter.class));
+    assertNull(bus.pollRecycledHandler(Presenters.PooledPresenter.class));
+  }
+
+  @Test
+  public void testHandlerPoolAddedTwice() {
+    bus.setHandlerPoolSize(Presenters.PooledPresenter.class,
+                           1);
+    Presenters.PooledPresenter p1 = bus.addHandler(Presenters.PooledPresenter.class);
+    bus.finishAddHandler(p1,
+                         Presenters.PooledPresenter.class,
+                         false);
+
+    // the handler is still in the event bus
+    bus.removeHandler(p1);
+    assertEquals(0,
+                 p1.getRecycleCount());
+    bus.removeHandler(p1);
+    assertEquals(1,
+                 p1.getRecycleCount());
+  }
+
   @Test
   public void testDefaultAddHandler() {
     List<SimplePresenter01> list = bus.getHandlers(SimplePresenter01.class);
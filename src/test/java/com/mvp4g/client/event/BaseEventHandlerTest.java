@@ -19,9 +19,14 @@ package com.mvp4g.client.event;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.mvp4g.client.ModuleProfiler;
+import com.mvp4g.client.Mvp4gException;
 import com.mvp4g.client.history.NavigationConfirmationInterface;
 import com.mvp4g.client.history.NavigationEventCommand;
+import com.mvp4g.client.test_tools.EventSchedulerStub;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -95,6 +100,34 @@ public class BaseEventHandlerTest {
     assertTrue(bindCallCount == 1);
   }
 
+  @Test
+  public void testProfiledBind() {
+    final EventSchedulerStub scheduler = new EventSchedulerStub();
+    BaseEventHandler<EventBus> handler = new BaseEventHandler<EventBus>() {
+      public void bind() {
+        scheduler.elapse(6);
+      }
+    };
+    handler.setEventBus(bus);
+    ModuleProfiler.INSTANCE.setEventScheduler(scheduler);
+    ModuleProfiler.INSTANCE.register(bus,
+                                     "Module");
+    try {
+      assertTrue(handler.isActivated(false,
+                                     null));
+      assertTrue(handler.isActivated(false,
+                                     null));
+      assertEquals(6,
+                   ModuleProfiler.INSTANCE.getProfile("Module")
+                                          .getBindTime(),
+                   0);
+    } finally {
+      ModuleProfiler.INSTANCE.unregister(bus);
+      ModuleProfiler.INSTANCE.setEventScheduler(null);
+      ModuleProfiler.INSTANCE.clear();
+    }
+  }
+
   @Test
   public void testPassiveEvent() {
     BaseEventHandler<EventBus> handler = new BaseEventHandler<EventBus>() {
@@ -117,6 +150,31 @@ public class BaseEventHandlerTest {
     assertTrue(bindCallCount == 1);
   }
 
+  @Test
+  public void testActivatedWithoutPass() {
+    BaseEventHandler<EventBus> handler = new BaseEventHandler<EventBus>() {
+      public void bind() {
+        super.bind();
+        bindCallCount++;
+      }
+    };
+
+    assertFalse(handler.isActivatedWithoutPass(true));
+    assertTrue(bindCallCount == 0);
+
+    assertTrue(handler.isActivatedWithoutPass(false));
+    assertTrue(bindCallCount == 1);
+
+    assertTrue(handler.isActivatedWithoutPass(true));
+    assertTrue(handler.isActivatedWithoutPass(false));
+    assertTrue(bindCallCount == 1);
+
+    handler.setActivated(false);
+
+    assertFalse(handler.isActivatedWithoutPass(false));
+    assertFalse(handler.isActivatedWithoutPass(true));
+  }
+
   @Test
   public void testTokeniser() {
     eventHandler.setEventBus(bus);
@@ -126,6 +184,34 @@ public class BaseEventHandlerTest {
     assertTrue(bus.tokenMode);
   }
 
+  @Test
+  public void testTokenGenerator() {
+    BaseTokenGenerator tokenGenerator = new BaseTokenGenerator(bus) {
+
+      @Override
+      public String[] generateTokens(String eventName,
+                                     Object[]... params) {
+        return new String[] { eventName };
+      }
+
+    };
+    bus.setTokenGenerator(tokenGenerator);
+    eventHandler.setEventBus(bus);
+    assertSame(tokenGenerator,
+               eventHandler.getTokenGenerator());
+    assertFalse(bus.tokenMode);
+    assertArrayEquals(new String[] { "event" },
+                      eventHandler.generateTokens("event",
+                                                  new Object[] { "a" }));
+  }
+
+  @Test(expected = Mvp4gException.class)
+  public void testGenerateTokensWithoutTokenGenerator() {
+    eventHandler.setEventBus(bus);
+    eventHandler.generateTokens("event",
+                                new Object[] { "a" });
+  }
+
   @Test
   public void testPass() {
     EventHanderWithPass handler = new EventHanderWithPass();
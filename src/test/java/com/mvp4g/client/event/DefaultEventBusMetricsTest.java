@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DefaultEventBusMetricsTest {
+
+  private DefaultEventBusMetrics metrics;
+
+  @Before
+  public void setUp() {
+    metrics = new DefaultEventBusMetrics();
+  }
+
+  @Test
+  public void testEventCount() {
+    assertEquals(0,
+                 metrics.getEventCount("event"));
+    metrics.onEvent("event");
+    metrics.onEvent("event");
+    metrics.onEvent("event2");
+    assertEquals(2,
+                 metrics.getEventCount("event"));
+    assertEquals(1,
+                 metrics.getEventCount("event2"));
+  }
+
+  @Test
+  public void testFilterRejectionCount() {
+    assertEquals(0,
+                 metrics.getFilterRejectionCount("event"));
+    metrics.onFilterRejection("event");
+    assertEquals(1,
+                 metrics.getFilterRejectionCount("event"));
+    assertEquals(0,
+                 metrics.getEventCount("event"));
+  }
+
+  @Test
+  public void testHandlerHistogram() {
+    assertNull(metrics.getHandlerHistogram("event",
+                                           "handler"));
+    metrics.onHandle("event",
+                     "handler",
+                     3);
+    metrics.onHandle("event",
+                     "handler",
+                     5);
+    metrics.onHandle("event",
+                     "handler2",
+                     1);
+    LatencyHistogram histogram = metrics.getHandlerHistogram("event",
+                                                             "handler");
+    assertEquals(2,
+                 histogram.getCount());
+    assertEquals(8,
+                 histogram.getTotal(),
+                 0);
+    assertEquals(1,
+                 metrics.getHandlerHistogram("event",
+                                             "handler2")
+                        .getCount());
+    assertNull(metrics.getHandlerHistogram("event2",
+                                           "handler"));
+  }
+
+  @Test
+  public void testChildModuleHistogram() {
+    assertNull(metrics.getChildModuleHistogram("module"));
+    metrics.onChildModuleLoad("module",
+                              20);
+    assertEquals(20,
+                 metrics.getChildModuleHistogram("module")
+                        .getMax(),
+                 0);
+  }
+
+  @Test
+  public void testReset() {
+    metrics.onEvent("event");
+    metrics.onFilterRejection("event");
+    metrics.onHandle("event",
+                     "handler",
+                     1);
+    metrics.onChildModuleLoad("module",
+                              1);
+    metrics.reset();
+    assertEquals(0,
+                 metrics.getEventCount("event"));
+    assertEquals(0,
+                 metrics.getFilterRejectionCount("event"));
+    assertNull(metrics.getHandlerHistogram("event",
+                                           "handler"));
+    assertNull(metrics.getChildModuleHistogram("module"));
+  }
+
+}
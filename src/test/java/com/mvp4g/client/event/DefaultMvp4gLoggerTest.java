@@ -20,6 +20,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class DefaultMvp4gLoggerTest {
@@ -48,4 +49,18 @@ public class DefaultMvp4gLoggerTest {
                       .length() == 0);
   }
 
+  @Test
+  public void testIndentCache() {
+    String indent = DefaultMvp4gLogger.getIndent(3);
+    assertEquals(DefaultMvp4gLogger.INDENT.length() * 3,
+                 indent.length());
+    assertSame(indent,
+               DefaultMvp4gLogger.getIndent(3));
+    DefaultMvp4gLogger.getIndent(10);
+    assertSame(indent,
+               DefaultMvp4gLogger.getIndent(3));
+    assertEquals("",
+                 DefaultMvp4gLogger.getIndent(0));
+  }
+
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventFlightRecorderTest {
+
+  private double              time;
+  private EventFlightRecorder recorder;
+
+  @Before
+  public void setUp() {
+    time = 0;
+    recorder = new EventFlightRecorder(4) {
+
+      @Override
+      protected double now() {
+        return time;
+      }
+
+    };
+  }
+
+  @Test
+  public void testCapacity() {
+    assertEquals(4,
+                 recorder.getCapacity());
+    assertEquals(8,
+                 new EventFlightRecorder(5).getCapacity());
+    assertEquals(1,
+                 new EventFlightRecorder(0).getCapacity());
+  }
+
+  @Test
+  public void testRecord() {
+    int parent = recorder.start("Module",
+                                "parent",
+                                0);
+    recorder.handled(parent,
+                     "handler1");
+    time = 2;
+    int child = recorder.start("Module",
+                               "child",
+                               1);
+    recorder.handled(child,
+                     "handler2");
+    time = 3;
+    recorder.end(child);
+    time = 5;
+    recorder.handled(parent,
+                     "handler3");
+    recorder.end(parent);
+
+    assertEquals(2,
+                 recorder.getSize());
+    assertEquals("parent",
+                 recorder.getEventName(0));
+    assertEquals("Module",
+                 recorder.getModuleName(0));
+    assertArrayEquals(new String[] { "handler1",
+                                     "handler3" },
+                      recorder.getHandlers(0));
+    assertEquals(0,
+                 recorder.getDepth(0));
+    assertEquals(5,
+                 recorder.getDuration(0),
+                 0);
+    assertEquals("child",
+                 recorder.getEventName(1));
+    assertEquals(1,
+                 recorder.getDepth(1));
+    assertEquals(1,
+                 recorder.getDuration(1),
+                 0);
+  }
+
+  @Test
+  public void testOverwrite() {
+    int first = recorder.start("Module",
+                               "event0",
+                               0);
+    for (int i = 1; i < 6; i++) {
+      recorder.end(recorder.start("Module",
+                                  "event" + i,
+                                  0));
+    }
+    assertEquals(4,
+                 recorder.getSize());
+    assertEquals("event2",
+                 recorder.getEventName(0));
+    assertEquals("event5",
+                 recorder.getEventName(3));
+
+    // the first record has been overwritten, ending it mustn't change the new one
+    recorder.handled(first,
+                     "handler");
+    time = 10;
+    recorder.end(first);
+    for (int i = 0; i < 4; i++) {
+      assertEquals(0,
+                   recorder.getDuration(i),
+                   0);
+      assertEquals(0,
+                   recorder.getHandlerCount(i));
+    }
+  }
+
+  @Test
+  public void testMaxHandlers() {
+    int record = recorder.start("Module",
+                                "event",
+                                0);
+    for (int i = 0; i < EventFlightRecorder.MAX_HANDLERS + 2; i++) {
+      recorder.handled(record,
+                       "handler" + i);
+    }
+    assertEquals(EventFlightRecorder.MAX_HANDLERS + 2,
+                 recorder.getHandlerCount(0));
+    assertEquals(EventFlightRecorder.MAX_HANDLERS,
+                 recorder.getHandlers(0).length);
+    assertTrue(recorder.dump()
+                       .contains("(+2)"));
+  }
+
+  @Test
+  public void testEnsureCapacity() {
+    int open = -1;
+    for (int i = 0; i < 6; i++) {
+      open = recorder.start("Module",
+                            "event" + i,
+                            0);
+    }
+    recorder.ensureCapacity(3);
+    assertEquals(4,
+                 recorder.getCapacity());
+
+    recorder.ensureCapacity(8);
+    assertEquals(8,
+                 recorder.getCapacity());
+    assertEquals(4,
+                 recorder.getSize());
+    assertEquals("event2",
+                 recorder.getEventName(0));
+    assertEquals("event5",
+                 recorder.getEventName(3));
+
+    // a record started before the resize can still be ended
+    time = 7;
+    recorder.end(open);
+    assertEquals(7,
+                 recorder.getDuration(3),
+                 0);
+
+    recorder.start("Module",
+                   "event6",
+                   0);
+    assertEquals(5,
+                 recorder.getSize());
+    assertEquals("event6",
+                 recorder.getEventName(4));
+  }
+
+  @Test
+  public void testDump() {
+    int parent = recorder.start("Module",
+                                "parent",
+                                0);
+    recorder.handled(parent,
+                     "handler1");
+    int child = recorder.start("Module",
+                               "child",
+                               1);
+    time = 1.5;
+    recorder.end(child);
+    assertEquals("Module: Module || event: parent || handler(s): handler1 || running\n" +
+                 DefaultMvp4gLogger.INDENT + "Module: Module || event: child || 1.5 ms\n",
+                 recorder.dump());
+
+    recorder.clear();
+    assertEquals(0,
+                 recorder.getSize());
+    assertEquals("",
+                 recorder.dump());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testWrongIndex() {
+    recorder.getEventName(0);
+  }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mvp4g.client.Mvp4gException;
+import com.mvp4g.client.annotation.Event.Lane;
+import com.mvp4g.client.test_tools.EventBusWithLookUpStub;
+import com.mvp4g.client.test_tools.EventSchedulerStub;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EventQueueTest {
+
+  private DeferredEventBus   bus;
+  private EventSchedulerStub scheduler;
+  private List<String>       handled;
+
+  @Before
+  public void setUp() {
+    bus = new DeferredEventBus();
+    scheduler = new EventSchedulerStub();
+    bus.setEventScheduler(scheduler);
+    handled = new ArrayList<String>();
+  }
+
+  @Test
+  public void testDeferEvent() {
+    bus.event("a",
+              Lane.NORMAL);
+    assertTrue(handled.isEmpty());
+    assertEquals(1,
+                 bus.getEventQueue()
+                    .size());
+
+    scheduler.advance(0);
+    assertEquals("[a]",
+                 handled.toString());
+    assertEquals(0,
+                 bus.getEventQueue()
+                    .size());
+    assertEquals(0,
+                 scheduler.getScheduledCount());
+  }
+
+  @Test
+  public void testUnload() {
+    bus.event("a",
+              Lane.NORMAL);
+    bus.unload();
+    assertEquals(0,
+                 bus.getEventQueue()
+                    .size());
+
+    // events fired by the unloaded module are dropped as well
+    bus.event("b",
+              Lane.NORMAL);
+    scheduler.advance(0);
+    assertTrue(handled.isEmpty());
+    assertEquals(0,
+                 bus.getEventQueue()
+                    .size());
+  }
+
+  @Test
+  public void testLanes() {
+    bus.event("background",
+              Lane.BACKGROUND);
+    bus.event("normal1",
+              Lane.NORMAL);
+    bus.event("input",
+              Lane.INPUT);
+    bus.event("normal2",
+              Lane.NORMAL);
+    assertEquals(1,
+                 scheduler.getScheduledCount());
+
+    scheduler.advance(0);
+    assertEquals("[input, normal1, normal2, background]",
+                 handled.toString());
+  }
+
+  @Test
+  public void testTimeBudget() {
+    bus.getEventQueue()
+       .setTimeBudget(8);
+    bus.duration = 5;
+    for (int i = 0; i < 5; i++) {
+      bus.event("e" + i,
+                Lane.NORMAL);
+    }
+
+    // the budget is spent after the second event, the next ones are handled at the next ticks
+    scheduler.advance(0);
+    assertEquals("[e0, e1]",
+                 handled.toString());
+    assertEquals(3,
+                 bus.getEventQueue()
+                    .size());
+
+    scheduler.advance(0);
+    assertEquals("[e0, e1, e2, e3]",
+                 handled.toString());
+
+    scheduler.advance(0);
+    assertEquals("[e0, e1, e2, e3, e4]",
+                 handled.toString());
+    assertEquals(0,
+                 scheduler.getScheduledCount());
+  }
+
+  @Test
+  public void testEventFiredByDeferredEvent() {
+    bus.next = "next";
+    bus.event("first",
+              Lane.BACKGROUND);
+    bus.event("other",
+              Lane.BACKGROUND);
+
+    scheduler.advance(0);
+    assertEquals("[first, other, next]",
+                 handled.toString());
+  }
+
+  @Test
+  public void testFailure() {
+    bus.event("fail",
+              Lane.INPUT);
+    bus.event("a",
+              Lane.NORMAL);
+    try {
+      scheduler.advance(0);
+      fail();
+    } catch (RuntimeException e) {
+      assertEquals("fail",
+                   e.getMessage());
+    }
+    assertEquals(1,
+                 scheduler.getScheduledCount());
+    scheduler.advance(0);
+    assertEquals("[fail, a]",
+                 handled.toString());
+  }
+
+  @Test
+  public void testNotDeferredEvent() {
+    try {
+      BaseEventBus eventBus = new EventBusWithLookUpStub();
+      eventBus.fireDeferredEvent("unknown",
+                                 null);
+      fail();
+    } catch (Mvp4gException e) {
+      assertEquals("Event unknown isn't a deferred event.",
+                   e.getMessage());
+    }
+  }
+
+  /**
+   * Mimics the code generated for deferred events.
+   */
+  private class DeferredEventBus
+    extends EventBusWithLookUpStub {
+
+    private int    duration = 0;
+    private String next     = null;
+
+    void event(String name,
+               Lane lane) {
+      if (deferEvent(lane,
+                     "event",
+                     new Object[] { name,
+                                    lane })) {
+        return;
+      }
+      handled.add(name);
+      scheduler.elapse(duration);
+      if ("fail".equals(name)) {
+        throw new RuntimeException("fail");
+      }
+      if ((next != null) && "first".equals(name)) {
+        event(next,
+              Lane.BACKGROUND);
+      }
+    }
+
+    @Override
+    protected void dispatchDeferredEvent(String eventName,
+                                         Object[] params) {
+      event((String) params[0],
+            (Lane) params[1]);
+    }
+
+  }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mvp4g.client.annotation.Event.Shaping;
+import com.mvp4g.client.test_tools.EventBusWithLookUpStub;
+import com.mvp4g.client.test_tools.EventSchedulerStub;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventShaperTest {
+
+  private BaseEventBus       bus;
+  private EventSchedulerStub scheduler;
+  private List<Object>       handled;
+
+  @Before
+  public void setUp() {
+    bus = new EventBusWithLookUpStub();
+    scheduler = new EventSchedulerStub();
+    bus.setEventScheduler(scheduler);
+    handled = new ArrayList<Object>();
+  }
+
+  @Test
+  public void testNone() {
+    EventShaper shaper = new ShaperStub(Shaping.NONE,
+                                        0);
+    assertTrue(shaper.shape(new Object[] { 1 }));
+    assertTrue(shaper.shape(new Object[] { 1 }));
+    assertEquals(0,
+                 scheduler.getScheduledCount());
+  }
+
+  @Test
+  public void testCoalesce() {
+    ShaperStub shaper = new ShaperStub(Shaping.COALESCE,
+                                       0);
+    shaper.fireEvent(1);
+    shaper.fireEvent(2);
+    shaper.fireEvent(3);
+    assertTrue(handled.isEmpty());
+    assertEquals(1,
+                 scheduler.getScheduledCount());
+
+    scheduler.advance(0);
+    assertEquals(asList(3),
+                 handled);
+
+    shaper.fireEvent(4);
+    scheduler.advance(0);
+    assertEquals(asList(3,
+                        4),
+                 handled);
+  }
+
+  @Test
+  public void testDebounce() {
+    ShaperStub shaper = new ShaperStub(Shaping.DEBOUNCE,
+                                       100);
+    shaper.fireEvent(1);
+    scheduler.advance(60);
+    shaper.fireEvent(2);
+    scheduler.advance(60);
+    assertTrue(handled.isEmpty());
+
+    scheduler.advance(40);
+    assertEquals(asList(2),
+                 handled);
+
+    shaper.fireEvent(3);
+    scheduler.advance(100);
+    assertEquals(asList(2,
+                        3),
+                 handled);
+  }
+
+  @Test
+  public void testUnload() {
+    ShaperStub shaper = new ShaperStub(Shaping.DEBOUNCE,
+                                       100);
+    shaper.fireEvent(1);
+    bus.unload();
+    scheduler.advance(100);
+    assertTrue(handled.isEmpty());
+    assertEquals(0,
+                 scheduler.getScheduledCount());
+  }
+
+  @Test
+  public void testThrottle() {
+    ShaperStub shaper = new ShaperStub(Shaping.THROTTLE,
+                                       100);
+    shaper.fireEvent(1);
+    assertEquals(asList(1),
+                 handled);
+
+    scheduler.advance(30);
+    shaper.fireEvent(2);
+    scheduler.advance(30);
+    shaper.fireEvent(3);
+    assertEquals(asList(1),
+                 handled);
+
+    // last fire of the window is handled at the end of the window
+    scheduler.advance(40);
+    assertEquals(asList(1,
+                        3),
+                 handled);
+
+    scheduler.advance(50);
+    shaper.fireEvent(4);
+    assertEquals(asList(1,
+                        3),
+                 handled);
+
+    scheduler.advance(50);
+    assertEquals(asList(1,
+                        3,
+                        4),
+                 handled);
+
+    scheduler.advance(200);
+    shaper.fireEvent(5);
+    assertEquals(asList(1,
+                        3,
+                        4,
+                        5),
+                 handled);
+  }
+
+  @Test
+  public void testDistinct() {
+    ShaperStub shaper = new ShaperStub(Shaping.DISTINCT,
+                                       0);
+    shaper.fireEvent(1);
+    shaper.fireEvent(1);
+    shaper.fireEvent(2);
+    shaper.fireEvent(null);
+    shaper.fireEvent(null);
+    shaper.fireEvent(1);
+    assertEquals(asList(1,
+                        2,
+                        null,
+                        1),
+                 handled);
+    assertEquals(0,
+                 scheduler.getScheduledCount());
+  }
+
+  @Test
+  public void testRefireFromHandler() {
+    ShaperStub shaper = new ShaperStub(Shaping.COALESCE,
+                                       0) {
+
+      @Override
+      protected void handle(Object value) {
+        super.handle(value);
+        if (Integer.valueOf(1)
+                   .equals(value)) {
+          // a fire done by a handler is shaped again
+          fireEvent(2);
+        }
+      }
+
+    };
+    shaper.fireEvent(1);
+    scheduler.advance(0);
+    assertEquals(asList(1,
+                        2),
+                 handled);
+    assertFalse(shaper.shape(new Object[] { 3 }));
+  }
+
+  private List<Object> asList(Object... values) {
+    List<Object> list = new ArrayList<Object>();
+    for (Object value : values) {
+      list.add(value);
+    }
+    return list;
+  }
+
+  /**
+   * Mimics the code generated for an event with a shaping.
+   */
+  private class ShaperStub
+    extends EventShaper {
+
+    private ShaperStub(Shaping shaping,
+                       int window) {
+      super(bus,
+            shaping,
+            window);
+    }
+
+    void fireEvent(Object value) {
+      if (!shape(new Object[] { value })) {
+        return;
+      }
+      handle(value);
+    }
+
+    protected void handle(Object value) {
+      handled.add(value);
+    }
+
+    @Override
+    protected void fire(Object[] params) {
+      fireEvent(params[0]);
+    }
+
+  }
+
+}
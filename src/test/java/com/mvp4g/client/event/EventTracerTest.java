@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventTracerTest {
+
+  private double      time;
+  private EventTracer tracer;
+
+  @Before
+  public void setUp() {
+    time = 0;
+    tracer = new EventTracer(8) {
+
+      @Override
+      protected double now() {
+        return time;
+      }
+
+    };
+  }
+
+  @Test
+  public void testNesting() {
+    assertEquals(0,
+                 tracer.getCurrentSpanId());
+    int parent = tracer.begin("Module",
+                              "parent");
+    assertEquals(parent,
+                 tracer.getCurrentSpanId());
+    assertEquals(parent,
+                 tracer.getCurrentTraceId());
+    int child = tracer.begin("Module",
+                             "child");
+    assertEquals(child,
+                 tracer.getCurrentSpanId());
+    assertEquals(parent,
+                 tracer.getCurrentTraceId());
+    tracer.end(child);
+    assertEquals(parent,
+                 tracer.getCurrentSpanId());
+    tracer.end(parent);
+    assertEquals(0,
+                 tracer.getCurrentSpanId());
+
+    int other = tracer.begin("Module",
+                             "other");
+    assertEquals(other,
+                 tracer.getCurrentTraceId());
+    tracer.end(other);
+    assertEquals(3,
+                 tracer.getSize());
+  }
+
+  @Test
+  public void testEndUnclosedSpans() {
+    int parent = tracer.begin("Module",
+                              "parent");
+    tracer.begin("Module",
+                 "child");
+    tracer.end(parent);
+    assertEquals(0,
+                 tracer.getCurrentSpanId());
+
+    // unknown span, nothing is closed
+    parent = tracer.begin("Module",
+                          "parent");
+    tracer.end(-5);
+    assertEquals(parent,
+                 tracer.getCurrentSpanId());
+  }
+
+  @Test
+  public void testResume() {
+    int parent = tracer.begin("Module",
+                              "parent");
+    int traceId = tracer.getCurrentTraceId();
+    int spanId  = tracer.getCurrentSpanId();
+    tracer.end(parent);
+
+    tracer.resume(traceId,
+                  spanId);
+    int child = tracer.begin("ChildModule",
+                             "child");
+    assertEquals(traceId,
+                 tracer.getCurrentTraceId());
+    tracer.end(child);
+    assertEquals(parent,
+                 tracer.getCurrentSpanId());
+    tracer.release();
+    assertEquals(0,
+                 tracer.getCurrentSpanId());
+
+    // resuming an empty context starts a new trace
+    tracer.resume(0,
+                  0);
+    int root = tracer.begin("Module",
+                            "root");
+    assertEquals(root,
+                 tracer.getCurrentTraceId());
+    tracer.end(root);
+    tracer.release();
+    assertEquals(0,
+                 tracer.getCurrentSpanId());
+  }
+
+  @Test
+  public void testChromeTrace() {
+    time = 10;
+    int parent = tracer.begin("Module",
+                              "parent");
+    time = 11;
+    int child = tracer.begin("Module",
+                             "child");
+    time = 12.5;
+    tracer.end(child);
+    tracer.end(parent);
+    tracer.resume(parent,
+                  parent);
+    time = 20;
+    tracer.begin("Child\"Module",
+                 "load");
+    assertEquals("{\"traceEvents\":[" +
+                 "{\"name\":\"parent\",\"cat\":\"Module\",\"ph\":\"X\",\"dur\":2500,\"ts\":0,\"pid\":1,\"tid\":1,\"args\":{\"traceId\":1,\"spanId\":1,\"parentId\":0}}," +
+                 "{\"name\":\"child\",\"cat\":\"Module\",\"ph\":\"X\",\"dur\":1500,\"ts\":1000,\"pid\":1,\"tid\":1,\"args\":{\"traceId\":1,\"spanId\":2,\"parentId\":1}}," +
+                 "{\"name\":\"load\",\"cat\":\"Child\\\"Module\",\"ph\":\"B\",\"ts\":10000,\"pid\":1,\"tid\":1,\"args\":{\"traceId\":1,\"spanId\":3,\"parentId\":1}}," +
+                 "{\"name\":\"resume\",\"cat\":\"flow\",\"ph\":\"s\",\"id\":3,\"ts\":0,\"pid\":1,\"tid\":1}," +
+                 "{\"name\":\"resume\",\"cat\":\"flow\",\"ph\":\"f\",\"bp\":\"e\",\"id\":3,\"ts\":10000,\"pid\":1,\"tid\":1}" +
+                 "]}",
+                 tracer.toChromeTrace());
+  }
+
+  @Test
+  public void testCapacity() {
+    for (int i = 0; i < 10; i++) {
+      tracer.end(tracer.begin("Module",
+                              "event" + i));
+    }
+    assertEquals(8,
+                 tracer.getSize());
+    String trace = tracer.toChromeTrace();
+    assertTrue(trace.contains("\"event9\""));
+    assertTrue(!trace.contains("\"event1\""));
+
+    tracer.setCapacity(2);
+    assertEquals(0,
+                 tracer.getSize());
+    assertEquals("{\"traceEvents\":[]}",
+                 tracer.toChromeTrace());
+  }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client.event;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HandlerListTest {
+
+  private HandlerList list;
+
+  @Before
+  public void setUp() {
+    list = new HandlerList();
+  }
+
+  @Test
+  public void testEmpty() {
+    assertEquals(0,
+                 list.size());
+    assertEquals(0,
+                 list.snapshot().length);
+  }
+
+  @Test
+  public void testAddRemoveKeepOrder() {
+    EventHandlerInterface<?>[] handlers = newHandlers(5);
+    for (EventHandlerInterface<?> handler : handlers) {
+      list.add(handler);
+    }
+    assertArrayEquals(handlers,
+                      list.snapshot());
+
+    assertTrue(list.remove(handlers[1]));
+    assertTrue(list.remove(handlers[3]));
+    assertFalse(list.remove(handlers[3]));
+    assertEquals(3,
+                 list.size());
+    assertArrayEquals(new EventHandlerInterface<?>[] { handlers[0],
+                                                       handlers[2],
+                                                       handlers[4] },
+                      list.snapshot());
+
+    list.add(handlers[1]);
+    assertArrayEquals(new EventHandlerInterface<?>[] { handlers[0],
+                                                       handlers[2],
+                                                       handlers[4],
+                                                       handlers[1] },
+                      list.snapshot());
+  }
+
+  @Test
+  public void testAddTwice() {
+    EventHandlerInterface<?>[] handlers = newHandlers(2);
+    list.add(handlers[0]);
+    list.add(handlers[1]);
+    list.add(handlers[0]);
+    assertEquals(3,
+                 list.size());
+    assertArrayEquals(new EventHandlerInterface<?>[] { handlers[0],
+                                                       handlers[1],
+                                                       handlers[0] },
+                      list.snapshot());
+
+    // each removal only removes the first occurrence
+    assertTrue(list.remove(handlers[0]));
+    assertTrue(list.contains(handlers[0]));
+    assertArrayEquals(new EventHandlerInterface<?>[] { handlers[1],
+                                                       handlers[0] },
+                      list.snapshot());
+    assertTrue(list.remove(handlers[0]));
+    assertFalse(list.contains(handlers[0]));
+    assertFalse(list.remove(handlers[0]));
+    assertArrayEquals(new EventHandlerInterface<?>[] { handlers[1] },
+                      list.snapshot());
+  }
+
+  @Test
+  public void testAddTwiceCompaction() {
+    EventHandlerInterface<?>[] handlers = newHandlers(4);
+    EventHandlerInterface<?>   handler  = handlers[3];
+    list.add(handlers[0]);
+    list.add(handler);
+    list.add(handlers[1]);
+    list.add(handler);
+    assertTrue(list.remove(handlers[0]));
+    assertTrue(list.remove(handlers[1]));
+    // the slots are full and half empty, this add compacts them
+    list.add(handlers[2]);
+    assertArrayEquals(new EventHandlerInterface<?>[] { handler,
+                                                       handler,
+                                                       handlers[2] },
+                      list.snapshot());
+    assertTrue(list.remove(handler));
+    assertTrue(list.remove(handler));
+    assertFalse(list.remove(handler));
+    assertArrayEquals(new EventHandlerInterface<?>[] { handlers[2] },
+                      list.snapshot());
+  }
+
+  @Test
+  public void testRemoveByIdentity() {
+    EventHandlerInterface<?> handler = new EqualHandler();
+    list.add(handler);
+    assertFalse(list.remove(new EqualHandler()));
+    assertEquals(1,
+                 list.size());
+    assertTrue(list.remove(handler));
+    assertEquals(0,
+                 list.size());
+  }
+
+  @Test
+  public void testSnapshotNotModified() {
+    EventHandlerInterface<?>[] handlers = newHandlers(3);
+    list.add(handlers[0]);
+    list.add(handlers[1]);
+
+    EventHandlerInterface<?>[] snapshot = list.snapshot();
+    assertSame(snapshot,
+               list.snapshot());
+
+    list.add(handlers[2]);
+    list.remove(handlers[0]);
+    assertArrayEquals(new EventHandlerInterface<?>[] { handlers[0],
+                                                       handlers[1] },
+                      snapshot);
+    assertArrayEquals(new EventHandlerInterface<?>[] { handlers[1],
+                                                       handlers[2] },
+                      list.snapshot());
+  }
+
+  @Test
+  public void testCompaction() {
+    EventHandlerInterface<?>[] handlers = newHandlers(1000);
+    for (EventHandlerInterface<?> handler : handlers) {
+      list.add(handler);
+    }
+    // remove all handlers but the last one and add them back many times so that empty slots are
+    // reused
+    for (int j = 0; j < 5; j++) {
+      for (int i = 0; i < (handlers.length - 1); i++) {
+        assertTrue(list.remove(handlers[i]));
+      }
+      assertEquals(1,
+                   list.size());
+      for (int i = 0; i < (handlers.length - 1); i++) {
+        list.add(handlers[i]);
+      }
+    }
+
+    EventHandlerInterface<?>[] snapshot = list.snapshot();
+    assertEquals(handlers.length,
+                 snapshot.length);
+    assertSame(handlers[handlers.length - 1],
+               snapshot[0]);
+    for (int i = 0; i < (handlers.length - 1); i++) {
+      assertSame(handlers[i],
+                 snapshot[i + 1]);
+    }
+    for (int i = 0; i < handlers.length; i++) {
+      assertTrue(list.remove(handlers[i]));
+    }
+    assertEquals(0,
+                 list.snapshot().length);
+  }
+
+  private EventHandlerInterface<?>[] newHandlers(int count) {
+    EventHandlerInterface<?>[] handlers = new EventHandlerInterface<?>[count];
+    for (int i = 0; i < count; i++) {
+      handlers[i] = new BaseEventHandler<EventBus>();
+    }
+    return handlers;
+  }
+
+  private static class EqualHandler
+    extends BaseEventHandler<EventBus> {
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof EqualHandler;
+    }
+
+    @Override
+    public int hashCode() {
+      return 1;
+    }
+
+  }
+
+}
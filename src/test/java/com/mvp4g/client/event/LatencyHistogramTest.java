@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.event;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+  private LatencyHistogram histogram;
+
+  @Before
+  public void setUp() {
+    histogram = new LatencyHistogram();
+  }
+
+  @Test
+  public void testEmpty() {
+    assertEquals(0,
+                 histogram.getCount());
+    assertEquals(0,
+                 histogram.getMean(),
+                 0);
+    assertEquals(0,
+                 histogram.getPercentile(50),
+                 0);
+    assertEquals(LatencyHistogram.BUCKET_BOUNDS.length + 1,
+                 histogram.getBucketsSize());
+  }
+
+  @Test
+  public void testRecord() {
+    histogram.record(0.05);
+    histogram.record(0.1);
+    histogram.record(3);
+    histogram.record(2000);
+    assertEquals(2,
+                 histogram.getBucketCount(0));
+    assertEquals(1,
+                 histogram.getBucketCount(5));
+    assertEquals(1,
+                 histogram.getBucketCount(histogram.getBucketsSize() - 1));
+    assertEquals(4,
+                 histogram.getCount());
+    assertEquals(2003.15,
+                 histogram.getTotal(),
+                 0.0001);
+    assertEquals(2000,
+                 histogram.getMax(),
+                 0);
+    assertEquals(2003.15 / 4,
+                 histogram.getMean(),
+                 0.0001);
+  }
+
+  @Test
+  public void testPercentile() {
+    for (int i = 0; i < 9; i++) {
+      histogram.record(0.3);
+    }
+    histogram.record(1500);
+    assertEquals(0.5,
+                 histogram.getPercentile(50),
+                 0);
+    assertEquals(0.5,
+                 histogram.getPercentile(90),
+                 0);
+    assertEquals(1500,
+                 histogram.getPercentile(99),
+                 0);
+  }
+
+  @Test
+  public void testReset() {
+    histogram.record(4);
+    histogram.reset();
+    assertEquals(0,
+                 histogram.getCount());
+    assertEquals(0,
+                 histogram.getBucketCount(6));
+    assertEquals(0,
+                 histogram.getMax(),
+                 0);
+  }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client.event;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LazyEventFilterTest {
+
+  private int created  = 0;
+  private int filtered = 0;
+
+  @Test
+  public void testFilterCreatedOnce() {
+    LazyEventFilter<EventBus> filter = new LazyEventFilter<EventBus>() {
+
+      @Override
+      protected EventFilter<EventBus> createFilter() {
+        created++;
+        return new EventFilter<EventBus>() {
+
+          public boolean filterEvent(String eventName,
+                                     Object[] params,
+                                     EventBus eventBus) {
+            filtered++;
+            return "allowed".equals(eventName);
+          }
+        };
+      }
+    };
+    assertEquals(0,
+                 created);
+
+    assertTrue(filter.filterEvent("allowed",
+                                  null,
+                                  null));
+    assertFalse(filter.filterEvent("other",
+                                   new Object[] { "param" },
+                                   null));
+    assertEquals(1,
+                 created);
+    assertEquals(2,
+                 filtered);
+  }
+
+  @Test
+  public void testWraps() {
+    final EventFilter<EventBus> wrapped = new EventFilter<EventBus>() {
+
+      public boolean filterEvent(String eventName,
+                                 Object[] params,
+                                 EventBus eventBus) {
+        return true;
+      }
+    };
+    LazyEventFilter<EventBus> filter = new LazyEventFilter<EventBus>() {
+
+      @Override
+      protected EventFilter<EventBus> createFilter() {
+        created++;
+        return wrapped;
+      }
+    };
+    assertTrue(filter.wraps(wrapped));
+    assertFalse(filter.wraps(filter));
+    assertTrue(filter.filterEvent("event",
+                                  null,
+                                  null));
+    assertEquals(1,
+                 created);
+  }
+
+  @Test
+  public void testUnloaded() {
+    LazyEventFilter<EventBus> filter = new LazyEventFilter<EventBus>() {
+
+      @Override
+      protected EventFilter<EventBus> createFilter() {
+        created++;
+        return null;
+      }
+
+      @Override
+      protected boolean isUnloaded() {
+        return true;
+      }
+    };
+    assertFalse(filter.filterEvent("allowed",
+                                   null,
+                                   null));
+    assertFalse(filter.wraps(null));
+    assertEquals(0,
+                 created);
+  }
+
+}
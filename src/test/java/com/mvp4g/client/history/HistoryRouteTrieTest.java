@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.history;
+
+import com.google.gwt.user.client.Command;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HistoryRouteTrieTest {
+
+  private HistoryRouteTrie trie;
+  private ClearHistory     converter1;
+  private ClearHistory     converter2;
+  private ClearHistory     converter3;
+
+  @Before
+  public void setUp() {
+    trie = new HistoryRouteTrie();
+    converter1 = new ClearHistory();
+    converter2 = new ClearHistory();
+    converter3 = new ClearHistory();
+    trie.add("event",
+             converter1);
+    trie.add("child/event",
+             converter2);
+    trie.add("child/subChild/other",
+             converter3);
+  }
+
+  @Test
+  public void testFind() {
+    HistoryRouteTrie.Route route = trie.find("event");
+    assertSame(converter1,
+               route.getConverter());
+    assertEquals("event",
+                 route.getEventName());
+    assertEquals("event",
+                 route.getHistoryName());
+    assertFalse(route.isChildRoute());
+
+    route = trie.find("child/subChild/other");
+    assertSame(converter3,
+               route.getConverter());
+    assertEquals("other",
+                 route.getEventName());
+    assertEquals("child/subChild/other",
+                 route.getHistoryName());
+    assertTrue(route.isChildRoute());
+  }
+
+  @Test
+  public void testFindInToken() {
+    String token = "!child/event?param";
+    assertSame(converter2,
+               trie.find(token,
+                         1,
+                         token.indexOf('?'))
+                   .getConverter());
+    assertNull(trie.find(token,
+                         1,
+                         token.indexOf('?') - 1));
+  }
+
+  @Test
+  public void testNotFound() {
+    assertNull(trie.find("child"));
+    assertNull(trie.find("child/subChild"));
+    assertNull(trie.find("child/eve"));
+    assertNull(trie.find("child/event/"));
+    assertNull(trie.find("unknown/event"));
+    assertNull(trie.find(""));
+  }
+
+  @Test
+  public void testReplace() {
+    trie.add("child/event",
+             converter1);
+    assertSame(converter1,
+               trie.find("child/event")
+                   .getConverter());
+
+    trie.add("child",
+             converter2);
+    assertSame(converter2,
+               trie.find("child")
+                   .getConverter());
+    assertSame(converter3,
+               trie.find("child/subChild/other")
+                   .getConverter());
+  }
+
+  @Test
+  public void testDeclare() {
+    trie.declare("notLoaded/event");
+    assertTrue(trie.isDeclared("notLoaded/event",
+                               0,
+                               15));
+    assertTrue(trie.isDeclared("child/event",
+                               0,
+                               11));
+    assertFalse(trie.isDeclared("notLoaded",
+                                0,
+                                9));
+    assertFalse(trie.isDeclared("notLoaded/other",
+                                0,
+                                15));
+    assertNull(trie.find("notLoaded/event"));
+  }
+
+  @Test
+  public void testFindPrefetch() {
+    Command prefetch1 = new Command() {
+
+      public void execute() {
+      }
+
+    };
+    Command prefetch2 = new Command() {
+
+      public void execute() {
+      }
+
+    };
+    trie.setPrefetch("child",
+                     prefetch1);
+    trie.setPrefetch("child/subChild",
+                     prefetch2);
+    assertSame(prefetch1,
+               trie.findPrefetch("child/event",
+                                 0,
+                                 11));
+    assertSame(prefetch2,
+               trie.findPrefetch("child/subChild/other",
+                                 0,
+                                 20));
+    assertSame(prefetch1,
+               trie.findPrefetch("child/unknown/other",
+                                 0,
+                                 19));
+    assertNull(trie.findPrefetch("event",
+                                 0,
+                                 5));
+  }
+
+}
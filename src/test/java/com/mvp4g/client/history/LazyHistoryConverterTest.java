@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.mvp4g.client.history;
+
+import org.junit.Test;
+
+import com.mvp4g.client.event.EventBus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LazyHistoryConverterTest {
+
+  private int    created   = 0;
+  private String lastParam = null;
+
+  @Test
+  public void testConverterCreatedOnce() {
+    LazyHistoryConverter<EventBus> converter = new LazyHistoryConverter<EventBus>() {
+
+      @Override
+      protected HistoryConverter<EventBus> createConverter() {
+        created++;
+        return new HistoryConverter<EventBus>() {
+
+          public void convertFromToken(String historyName,
+                                       String param,
+                                       EventBus eventBus) {
+            lastParam = param;
+          }
+
+          public boolean isCrawlable() {
+            return true;
+          }
+        };
+      }
+    };
+    assertEquals(0,
+                 created);
+
+    assertTrue(converter.isCrawlable());
+    converter.convertFromToken("event",
+                               "param",
+                               null);
+    assertEquals("param",
+                 lastParam);
+    assertEquals(1,
+                 created);
+  }
+
+  @Test
+  public void testUnloaded() {
+    LazyHistoryConverter<EventBus> converter = new LazyHistoryConverter<EventBus>() {
+
+      @Override
+      protected HistoryConverter<EventBus> createConverter() {
+        created++;
+        return null;
+      }
+
+      @Override
+      protected boolean isUnloaded() {
+        return true;
+      }
+    };
+    assertFalse(converter.isCrawlable());
+    converter.convertFromToken("event",
+                               "param",
+                               null);
+    assertNull(lastParam);
+    assertEquals(0,
+                 created);
+  }
+
+}
@@ -20,12 +20,14 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
+import com.google.gwt.user.client.Command;
 import com.mvp4g.client.Mvp4gEventPasser;
 import com.mvp4g.client.test_tools.EventBusWithLookUpStub;
 import com.mvp4g.client.test_tools.HistoryProxyStub;
 import com.mvp4g.client.test_tools.Mvp4gModuleStub;
 import com.mvp4g.client.test_tools.ValueChangeEventStub;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -262,6 +264,56 @@ public class PlaceServiceTest {
     assertFalse(history.isIssueEvent());
   }
 
+  @Test
+  public void testGenerateTokens() {
+    String historyName = "historyName";
+    String token       = history.getToken();
+    placeServiceDefault.addConverter(historyName,
+                                     buildHistoryConverter(false));
+    placeServiceDefault.addConverter("crawlable",
+                                     buildHistoryConverter(true));
+    assertArrayEquals(new String[] { historyName + "?a",
+                                     historyName,
+                                     historyName + "?bc" },
+                      placeServiceDefault.generateTokens(historyName,
+                                                         new String[] { "a",
+                                                                        null,
+                                                                        "bc" }));
+    assertArrayEquals(new String[] { "!crawlable?a" },
+                      placeServiceDefault.generateTokens("crawlable",
+                                                         new String[] { "a" }));
+    assertArrayEquals(new String[0],
+                      placeServiceDefault.generateTokens(historyName,
+                                                         new String[0]));
+    assertEquals(token,
+                 history.getToken());
+  }
+
+  @Test
+  public void testGenerateTokensWithTokenize() {
+    PlaceService placeService = new PlaceService(new HistoryProxyStub()) {
+
+      @Override
+      public String tokenize(String eventName,
+                             String param) {
+        return eventName + "/" + param;
+      }
+
+    };
+    placeService.addConverter("historyName",
+                              buildHistoryConverter(false));
+    assertArrayEquals(new String[] { "historyName/a",
+                                     "historyName/null" },
+                      placeService.generateTokens("historyName",
+                                                  new String[] { "a",
+                                                                 null }));
+    assertEquals(placeService.place("historyName",
+                                    "a",
+                                    true),
+                 placeService.generateTokens("historyName",
+                                             new String[] { "a" })[0]);
+  }
+
   @Test
   public void testConverterCrawlable() {
     String historyName = "historyName";
@@ -273,6 +325,152 @@ public class PlaceServiceTest {
                          new Object[] { null });
   }
 
+  @Test
+  public void testConverterCrawlableWithParameters() {
+    String historyName = "historyName";
+    placeServiceDefault.addConverter(historyName,
+                                     buildHistoryConverter(true));
+    ValueChangeEvent<String> event = new ValueChangeEventStub<String>("!" + historyName + "?param");
+    placeServiceDefault.onValueChange(event);
+    eventBus.assertEvent(historyName,
+                         new Object[] { "param" });
+
+    event = new ValueChangeEventStub<String>("!" + historyName + "?a?b");
+    placeServiceDefault.onValueChange(event);
+    assertTrue(module.isHistoryNotFound());
+  }
+
+  @Test
+  public void testCustomParamSeparator() {
+    PlaceService placeService = new PlaceService(new HistoryProxyStub()) {
+
+      @Override
+      protected String getParamSeparator() {
+        return "::";
+      }
+
+    };
+    placeService.setModule(module);
+    placeService.addConverter("historyName",
+                              buildHistoryConverter(false));
+    placeService.onValueChange(new ValueChangeEventStub<String>("historyName::form"));
+    eventBus.assertEvent("historyName",
+                         new Object[] { "form" });
+  }
+
+  @Test
+  public void testParseToken() {
+    placeServiceDefault.addConverter("historyName",
+                                     buildHistoryConverter(false));
+    assertArrayEquals(new String[] { "historyName",
+                                     "form" },
+                      placeServiceDefault.parseToken("historyName?form"));
+    assertArrayEquals(new String[] { "unknown",
+                                     null },
+                      placeServiceDefault.parseToken("unknown"));
+  }
+
+  @Test
+  public void testOverriddenParseToken() {
+    PlaceService placeService = new PlaceService(new HistoryProxyStub()) {
+
+      @Override
+      protected String[] parseToken(String token) {
+        // tokens are stored as "form@historyName"
+        String[] result = super.parseToken(token);
+        int      index  = token.indexOf("@");
+        result[0] = token.substring(index + 1);
+        result[1] = token.substring(0,
+                                    index);
+        return result;
+      }
+
+    };
+    placeService.setModule(module);
+    placeService.addConverter("historyName",
+                              buildHistoryConverter(false));
+    placeService.onValueChange(new ValueChangeEventStub<String>("form@historyName"));
+    eventBus.assertEvent("historyName",
+                         new Object[] { "form" });
+
+    placeService.onValueChange(new ValueChangeEventStub<String>("!form@unknown"));
+    assertTrue(module.isHistoryNotFound());
+  }
+
+  @Test
+  public void testConverterPrefixOfChildModule() {
+    placeServiceDefault.addConverter("child",
+                                     buildHistoryConverter(false));
+    placeServiceDefault.addConverter("child/historyName",
+                                     buildHistoryConverter(false));
+    placeServiceDefault.onValueChange(new ValueChangeEventStub<String>("child?form"));
+    eventBus.assertEvent("child",
+                         new Object[] { "form" });
+
+    placeServiceDefault.onValueChange(new ValueChangeEventStub<String>("chil"));
+    assertTrue(module.isHistoryNotFound());
+  }
+
+  @Test
+  public void testRouteManifest() {
+    final int[] prefetchCount = new int[2];
+    placeServiceDefault.addRoute("child/event");
+    placeServiceDefault.addRoute("child/subChild/event");
+    placeServiceDefault.addModuleRoute("child",
+                                       new Command() {
+
+                                         public void execute() {
+                                           prefetchCount[0]++;
+                                         }
+
+                                       });
+    placeServiceDefault.addModuleRoute("child/subChild",
+                                       new Command() {
+
+                                         public void execute() {
+                                           prefetchCount[1]++;
+                                         }
+
+                                       });
+
+    // unknown history name: no module is loaded
+    placeServiceDefault.onValueChange(new ValueChangeEventStub<String>("child/unknown?form"));
+    assertTrue(module.isHistoryNotFound());
+    assertNull(module.getEventType());
+    assertEquals(0,
+                 prefetchCount[0]);
+
+    placeServiceDefault.onValueChange(new ValueChangeEventStub<String>("child/event?form"));
+    assertEquals("child/event",
+                 module.getEventType());
+    assertEquals(1,
+                 prefetchCount[0]);
+    assertEquals(0,
+                 prefetchCount[1]);
+
+    placeServiceDefault.onValueChange(new ValueChangeEventStub<String>("!child/subChild/event"));
+    assertEquals("child/subChild/event",
+                 module.getEventType());
+    assertEquals(1,
+                 prefetchCount[0]);
+    assertEquals(1,
+                 prefetchCount[1]);
+
+    // once the module is loaded, its converters are known and nothing is prefetched
+    placeServiceDefault.addConverter("child/event",
+                                     buildHistoryConverter(false));
+    placeServiceDefault.onValueChange(new ValueChangeEventStub<String>("child/event?form"));
+    assertEquals(1,
+                 prefetchCount[0]);
+  }
+
+  @Test
+  public void testNoRouteManifest() {
+    placeServiceDefault.onValueChange(new ValueChangeEventStub<String>("child/unknown?form"));
+    assertEquals("child/unknown",
+                 module.getEventType());
+  }
+
   @Test
   public void testNavigationConfirmationForHistory() {
     String historyName = "historyName";
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.history;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.mvp4g.client.test_tools.HistoryProxyStub;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TokenCacheTest {
+
+  private TokenCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new TokenCache(2);
+  }
+
+  @Test
+  public void testGetPut() {
+    assertNull(cache.get("event",
+                         new Object[] { "a", 1 }));
+    cache.put("event",
+              new Object[] { "a", 1 },
+              "event?a1");
+    assertEquals("event?a1",
+                 cache.get("event",
+                           new Object[] { "a", 1 }));
+    assertNull(cache.get("event",
+                         new Object[] { "a", 2 }));
+    assertNull(cache.get("other",
+                         new Object[] { "a", 1 }));
+
+    cache.put("noParam",
+              new Object[0],
+              "noParam");
+    assertEquals("noParam",
+                 cache.get("noParam",
+                           new Object[0]));
+  }
+
+  @Test
+  public void testNullToken() {
+    cache.put("event",
+              new Object[] { "a" },
+              null);
+    assertEquals(0,
+                 cache.size());
+  }
+
+  @Test
+  public void testEviction() {
+    cache.put("event1",
+              new Object[] { 1 },
+              "token1");
+    cache.put("event2",
+              new Object[] { 2 },
+              "token2");
+    // event1 becomes the most recently used token
+    assertEquals("token1",
+                 cache.get("event1",
+                           new Object[] { 1 }));
+    cache.put("event3",
+              new Object[] { 3 },
+              "token3");
+    assertEquals(2,
+                 cache.size());
+    assertNull(cache.get("event2",
+                         new Object[] { 2 }));
+    assertEquals("token1",
+                 cache.get("event1",
+                           new Object[] { 1 }));
+    assertEquals("token3",
+                 cache.get("event3",
+                           new Object[] { 3 }));
+
+    cache.clear();
+    assertEquals(0,
+                 cache.size());
+  }
+
+  @Test
+  public void testInvalidateAll() {
+    TokenCache other = new TokenCache();
+    cache.put("event",
+              new Object[] { 1 },
+              "token1");
+    other.put("event",
+              new Object[] { 1 },
+              "token1");
+    TokenCache.invalidateAll();
+    assertNull(cache.get("event",
+                         new Object[] { 1 }));
+    assertEquals(0,
+                 other.size());
+
+    cache.put("event",
+              new Object[] { 1 },
+              "token2");
+    assertEquals("token2",
+                 cache.get("event",
+                           new Object[] { 1 }));
+  }
+
+  @Test
+  public void testPlaceServiceInvalidates() {
+    PlaceService placeService = new PlaceService(new HistoryProxyStub());
+    cache.put("event",
+              new Object[] { 1 },
+              "token1");
+    placeService.addConverter("event",
+                              null);
+    assertNull(cache.get("event",
+                         new Object[] { 1 }));
+
+    cache.put("event",
+              new Object[] { 1 },
+              "token1");
+    placeService.clearHistory();
+    assertNull(cache.get("event",
+                         new Object[] { 1 }));
+  }
+
+  @Test
+  public void testDefaultCapacity() {
+    TokenCache defaultCache = new TokenCache();
+    for (int i = 0; i < TokenCache.DEFAULT_CAPACITY + 10; i++) {
+      defaultCache.put("event",
+                       new Object[] { i },
+                       "event?" + i);
+    }
+    assertEquals(TokenCache.DEFAULT_CAPACITY,
+                 defaultCache.size());
+  }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.test_tools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.user.client.Command;
+import com.mvp4g.client.event.EventScheduler;
+
+/**
+ * Event scheduler with a manual clock: scheduled commands are executed when the time is advanced.
+ */
+public class EventSchedulerStub
+  implements EventScheduler {
+
+  private double        now      = 0;
+  private List<Double>  dueTimes = new ArrayList<Double>();
+  private List<Command> commands = new ArrayList<Command>();
+
+  public double now() {
+    return now;
+  }
+
+  public void schedule(int delayMillis,
+                       Command command) {
+    dueTimes.add(now + delayMillis);
+    commands.add(command);
+  }
+
+  /**
+   * Advance the clock and execute the commands that are due, in the order of their due time.
+   *
+   * @param millis
+   *   time to add to the clock
+   */
+  public void advance(double millis) {
+    double target = now + millis;
+    int    next;
+    while ((next = nextDue(target)) > -1) {
+      now = Math.max(now,
+                     dueTimes.remove(next));
+      commands.remove(next)
+              .execute();
+    }
+    now = Math.max(now,
+                   target);
+  }
+
+  /**
+   * Advance the clock without executing any command (to simulate time spent by a handler).
+   *
+   * @param millis
+   *   time to add to the clock
+   */
+  public void elapse(double millis) {
+    now += millis;
+  }
+
+  public int getScheduledCount() {
+    return commands.size();
+  }
+
+  private int nextDue(double target) {
+    int    next = -1;
+    double min  = target;
+    for (int i = 0; i < dueTimes.size(); i++) {
+      if (dueTimes.get(i) <= min) {
+        min = dueTimes.get(i);
+        next = i;
+      }
+    }
+    return next;
+  }
+
+}
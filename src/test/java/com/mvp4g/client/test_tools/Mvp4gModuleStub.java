@@ -18,19 +18,20 @@ package com.mvp4g.client.test_tools;
 
 import com.mvp4g.client.Mvp4gEventPasser;
 import com.mvp4g.client.Mvp4gModule;
+import com.mvp4g.client.Mvp4gUnloadableModule;
 import com.mvp4g.client.event.EventBus;
 import com.mvp4g.client.history.HistoryConverter;
 import com.mvp4g.client.history.NavigationConfirmationInterface;
 import com.mvp4g.client.history.NavigationEventCommand;
 
 public class Mvp4gModuleStub
-  implements Mvp4gModule {
+  implements Mvp4gUnloadableModule {
 
   public final String TOKEN = "token";
 
   private EventBus eventBus;
   private String   eventType;
-  private boolean  tokenOnly, historyNotFound, historyInit;
+  private boolean  tokenOnly, historyNotFound, historyInit, unloaded;
   private Object           form;
   private Mvp4gEventPasser passer;
 
@@ -42,6 +43,10 @@ public class Mvp4gModuleStub
 
   }
 
+  public void unloadModule() {
+    unloaded = true;
+  }
+
   public void onForward() {
     // TODO Auto-generated method stub
 
@@ -69,6 +74,16 @@ public class Mvp4gModuleStub
     return TOKEN;
   }
 
+  public String[] generateTokens(String token,
+                                 String[] forms) {
+    this.eventType = token;
+    String[] tokens = new String[forms.length];
+    for (int i = 0; i < forms.length; i++) {
+      tokens[i] = TOKEN;
+    }
+    return tokens;
+  }
+
   public void dispatchHistoryEvent(String eventType,
                                    Mvp4gEventPasser passer) {
     this.eventType = eventType;
@@ -154,4 +169,8 @@ public class Mvp4gModuleStub
     return historyInit;
   }
 
+  public boolean isUnloaded() {
+    return unloaded;
+  }
+
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.client.test_tools;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.mvp4g.client.ModuleTransitions;
+
+/**
+ * Storage of module transitions kept in memory.
+ */
+public class TransitionStorageStub
+  implements ModuleTransitions.Storage {
+
+  public Map<String, String> values = new HashMap<String, String>();
+
+  public String load(String key) {
+    return values.get(key);
+  }
+
+  public void save(String key,
+                   String value) {
+    values.put(key,
+               value);
+  }
+
+}
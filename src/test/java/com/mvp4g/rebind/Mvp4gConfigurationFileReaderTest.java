@@ -23,6 +23,7 @@ import com.google.gwt.dev.util.UnitTestTreeLogger;
 import com.google.gwt.user.client.ui.Widget;
 import com.mvp4g.client.DefaultMvp4gGinModule;
 import com.mvp4g.client.Mvp4gModule;
+import com.mvp4g.client.annotation.Event;
 import com.mvp4g.client.annotation.Debug.LogLevel;
 import com.mvp4g.client.annotation.History.HistoryConverterType;
 import com.mvp4g.client.event.BaseEventBus;
@@ -37,6 +38,7 @@ import com.mvp4g.rebind.test_tools.*;
 import com.mvp4g.rebind.test_tools.annotation.EventFilters.EventFilter1;
 import com.mvp4g.rebind.test_tools.annotation.EventFilters.EventFilter2;
 import com.mvp4g.rebind.test_tools.annotation.Presenters;
+import com.mvp4g.rebind.test_tools.annotation.Events;
 import com.mvp4g.rebind.test_tools.annotation.events.EventBusOk;
 import com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent;
 import com.mvp4g.rebind.test_tools.annotation.handlers.SimpleEventHandler01;
@@ -45,9 +47,12 @@ import com.mvp4g.rebind.test_tools.annotation.presenters.SimplePresenter01;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class Mvp4gConfigurationFileReaderTest {
 
@@ -200,34 +205,171 @@ public class Mvp4gConfigurationFileReaderTest {
 
   private String[] getExpectedEvents() {
     return new String[] { "public void event4(){",
-                          "List<com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent> handlershandler4 = getHandlers(com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent.class);",
+                          "EventHandlerInterface<?>[] handlershandler4 = getHandlerSnapshot(com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent.class);",
                           "if(handlershandler4!= null){",
                           "com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent handler;",
-                          "int handlerCount = handlershandler4.size();",
+                          "int handlerCount = handlershandler4.length;",
                           "for(int i=0; i<handlerCount; i++){",
-                          "handler = handlershandler4.get(i);",
+                          "handler = (com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent) handlershandler4[i];",
                           "if (handler.isActivated(false, \"name3\")){",
                           "if (handler.isActivated(true, \"event4\")){",
                           "handler.onEvent4();",
                           "handler.onEvent3();",
                           "public void event2(java.lang.String attr0){",
-                          "List<com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter> handlershandler2 = getHandlers(com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter.class);",
+                          "EventHandlerInterface<?>[] handlershandler2 = getHandlerSnapshot(com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter.class);",
                           "if(handlershandler2!= null){",
                           "com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter handler;",
-                          "int handlerCount = handlershandler2.size();",
+                          "int handlerCount = handlershandler2.length;",
                           "for(int i=0; i<handlerCount; i++){",
-                          "handler = handlershandler2.get(i);",
+                          "handler = (com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter) handlershandler2[i];",
                           "if (handler.isActivated(false, \"event2\", new Object[]{attr0})){",
                           "handler.onEvent2(attr0);",
                           "public void event3(){",
-                          "if (handler3.isActivated(false, \"name3\")){",
-                          "if (handler3.isActivated(true, \"event4\")){",
+                          "if (get_handler3().isActivated(false, \"name3\")){",
+                          "if (handler3 != null && handler3.isActivated(true, \"event4\")){",
                           "handler3.onEvent4();",
                           "handler3.onEvent3();",
-                          "if (handler1.isActivated(false, \"event1\", new Object[]{attr0,attr1})){",
+                          "if (get_handler1().isActivated(false, \"event1\", new Object[]{attr0,attr1})){",
                           "handler1.onEvent1(attr0,attr1);" };
   }
 
+  @Test
+  public void testWriteEventsActivationWithoutPass() {
+
+    assertOutput(getExpectedEventsActivationWithoutPass(),
+                 false);
+
+    createHandlers();
+
+    for (PresenterElement presenter : configuration.getPresenters()) {
+      if ("handler1".equals(presenter.getName()) || "handler2".equals(presenter.getName())) {
+        presenter.setActivationWithoutPass(Boolean.TRUE.toString());
+      }
+    }
+
+    Set<EventElement> events = configuration.getEvents();
+
+    EventElement e1 = new EventElement();
+    e1.setType("event1");
+    e1.setHandlers(new String[] { "handler1" });
+    e1.setEventObjectClass(new String[] { "java.lang.String",
+                                          "java.lang.Object" });
+    e1.setBinds(new String[] { "handler3" });
+
+    EventElement e2 = new EventElement();
+    e2.setType("event2");
+    e2.setHandlers(new String[] { "handler2" });
+    e2.setEventObjectClass(new String[] { "java.lang.String" });
+
+    EventElement e3 = new EventElement();
+    e3.setType("event3");
+    e3.setBinds(new String[] { "handler2" });
+
+    events.add(e1);
+    events.add(e2);
+    events.add(e3);
+
+    writer.writeConf();
+
+    assertOutput(getExpectedEventsActivationWithoutPass(),
+                 true);
+    assertOutput(new String[] { "if (get_handler1().isActivated(false, \"event1\", new Object[]{attr0,attr1})){",
+                                "if (handler.isActivated(false, \"event2\", new Object[]{attr0})){" },
+                 false);
+  }
+
+  @Test
+  public void testWriteEventShaping() {
+
+    EventElement e1 = new EventElement();
+    e1.setType("event1");
+    e1.setEventObjectClass(new String[] { "java.lang.String",
+                                          "int" });
+    e1.setShaping(Event.Shaping.DEBOUNCE.name());
+    e1.setShapingWindow("100");
+
+    EventElement e2 = new EventElement();
+    e2.setType("event2");
+    e2.setShaping(Event.Shaping.COALESCE.name());
+
+    EventElement e3 = new EventElement();
+    e3.setType("event3");
+    e3.setShaping(Event.Shaping.NONE.name());
+
+    configuration.getEvents()
+                 .add(e1);
+    configuration.getEvents()
+                 .add(e2);
+    configuration.getEvents()
+                 .add(e3);
+
+    writer.writeConf();
+
+    assertOutput(new String[] { "private final EventShaper event1Shaper = new EventShaper(this, com.mvp4g.client.annotation.Event.Shaping.DEBOUNCE, 100){",
+                                "protected void fire(Object[] data){",
+                                "event1((java.lang.String) data[0],(Integer) data[1]);",
+                                "if (!event1Shaper.shape(new Object[]{attr0,attr1})){",
+                                "private final EventShaper event2Shaper = new EventShaper(this, com.mvp4g.client.annotation.Event.Shaping.COALESCE, 0){",
+                                "event2();",
+                                "if (!event2Shaper.shape(null)){" },
+                 true);
+    assertOutput(new String[] { "event3Shaper" },
+                 false);
+  }
+
+  @Test
+  public void testWriteDeferredEvents() {
+
+    assertOutput(new String[] { "protected void dispatchDeferredEvent( String eventType, Object[] data ){" },
+                 false);
+
+    EventElement e1 = new EventElement();
+    e1.setType("event1");
+    e1.setEventObjectClass(new String[] { "java.lang.String",
+                                          "int" });
+    e1.setDeferred(Boolean.TRUE.toString());
+    e1.setLane(Event.Lane.BACKGROUND.name());
+
+    EventElement e2 = new EventElement();
+    e2.setType("event2");
+    e2.setDeferred(Boolean.TRUE.toString());
+
+    EventElement e3 = new EventElement();
+    e3.setType("event3");
+
+    configuration.getEvents()
+                 .add(e1);
+    configuration.getEvents()
+                 .add(e2);
+    configuration.getEvents()
+                 .add(e3);
+
+    writer.writeConf();
+
+    assertOutput(new String[] { "if (deferEvent(com.mvp4g.client.annotation.Event.Lane.BACKGROUND, \"event1\", new Object[]{attr0,attr1})){",
+                                "if (deferEvent(com.mvp4g.client.annotation.Event.Lane.NORMAL, \"event2\", null)){",
+                                "protected void dispatchDeferredEvent( String eventType, Object[] data ){",
+                                "case \"event1\":",
+                                "event1((java.lang.String) data[0],(Integer) data[1]);",
+                                "case \"event2\":",
+                                "event2();",
+                                "super.dispatchDeferredEvent( eventType, data );" },
+                 true);
+    assertOutput(new String[] { "\"event3\", null)){",
+                                "case \"event3\":" },
+                 false);
+  }
+
+  private String[] getExpectedEventsActivationWithoutPass() {
+    return new String[] { "if (get_handler1().isActivatedWithoutPass(false)){",
+                          "handler1.onEvent1(attr0,attr1);",
+                          "get_handler3().isActivated(false, \"event1\", new Object[]{attr0,attr1});",
+                          "handler = (com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter) handlershandler2[i];",
+                          "if (handler.isActivatedWithoutPass(false)){",
+                          "handler.onEvent2(attr0);",
+                          "handler.isActivatedWithoutPass(false);" };
+  }
+
   private String[] getExpectedNotNavigationEvents() {
     return new String[] { "public void event1(java.lang.String attr0,java.lang.Object attr1){" };
   }
@@ -245,15 +387,17 @@ public class Mvp4gConfigurationFileReaderTest {
   private String[] getExpectedEventsWithLookup() {
     return new String[] { "public void dispatch( String eventType, Object... data ){",
                           "try{",
-                          "if ( \"event4\".equals( eventType ) ){",
+                          "if ( eventType != null ){",
+                          "switch ( eventType ){",
+                          "case \"event4\":",
                           "event4();",
-                          "} else if ( \"event2\".equals( eventType ) ){",
+                          "return;",
+                          "case \"event2\":",
                           "event2((java.lang.String) data[0]);",
-                          "} else if ( \"name3\".equals( eventType ) ){",
+                          "case \"name3\":",
                           "event3();",
-                          "if ( \"event1\".equals( eventType ) ){",
+                          "case \"event1\":",
                           "event1((java.lang.String) data[0],(java.lang.Object) data[1]);",
-                          "} else {",
                           "throw new Mvp4gException( \"Event \" + eventType + \" doesn't exist. Have you forgotten to add it to your Mvp4g configuration file?\" );",
                           "} catch ( ClassCastException e ) {",
                           "handleClassCastException( e, eventType );" };
@@ -281,13 +425,13 @@ public class Mvp4gConfigurationFileReaderTest {
   }
 
   private String[] getExpectedBindedEvents() {
-    return new String[] { "handler3.isActivated(false, \"event1\", new Object[]{attr0,attr1});",
-                          "List<com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter> handlershandler2 = getHandlers(com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter.class);",
+    return new String[] { "get_handler3().isActivated(false, \"event1\", new Object[]{attr0,attr1});",
+                          "EventHandlerInterface<?>[] handlershandler2 = getHandlerSnapshot(com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter.class);",
                           "if(handlershandler2!= null){",
                           "com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter handler;",
-                          "int handlerCount = handlershandler2.size();",
+                          "int handlerCount = handlershandler2.length;",
                           "for(int i=0; i<handlerCount; i++){",
-                          "handler = handlershandler2.get(i);",
+                          "handler = (com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter) handlershandler2[i];",
                           "handler.isActivated(false, \"name3\");" };
   }
 
@@ -394,21 +538,21 @@ public class Mvp4gConfigurationFileReaderTest {
   }
 
   private String[] getExpectedActivateDeactivate() {
-    return new String[] { "handler1.setActivated(false);",
-                          "List<com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter> handlershandler2de = getHandlers(com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter.class);",
+    return new String[] { "get_handler1().setActivated(false);",
+                          "EventHandlerInterface<?>[] handlershandler2de = getHandlerSnapshot(com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter.class);",
                           "if(handlershandler2de!= null){",
                           "com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter handler;",
-                          "int handlerCount = handlershandler2de.size();",
+                          "int handlerCount = handlershandler2de.length;",
                           "for(int i=0; i<handlerCount; i++){",
-                          "handler = handlershandler2de.get(i);",
+                          "handler = (com.mvp4g.rebind.test_tools.annotation.Presenters.MultiplePresenter) handlershandler2de[i];",
                           "handler.setActivated(false);",
-                          "handler3.setActivated(true);",
-                          "List<com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent> handlershandler4act = getHandlers(com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent.class);",
+                          "get_handler3().setActivated(true);",
+                          "EventHandlerInterface<?>[] handlershandler4act = getHandlerSnapshot(com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent.class);",
                           "if(handlershandler4act!= null){",
                           "com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent handler;",
-                          "int handlerCount = handlershandler4act.size();",
+                          "int handlerCount = handlershandler4act.length;",
                           "for(int i=0; i<handlerCount; i++){",
-                          "handler = handlershandler4act.get(i);",
+                          "handler = (com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent) handlershandler4act[i];",
                           "handler.setActivated(true);" };
   }
 
@@ -445,6 +589,10 @@ public class Mvp4gConfigurationFileReaderTest {
     assertOutput(getExpectedEventsWithToken(),
                  false);
 
+    TypeOracleStub oracle = (TypeOracleStub) configuration.getOracle();
+    configuration.setModule(oracle.addClass(Modules.Module01.class));
+    configuration.setParentEventBus(oracle.addClass(EventBusWithLookup.class));
+
     HistoryConverterElement hc = new HistoryConverterElement();
     hc.setClassName(SimpleHistoryConverter01.class.getCanonicalName());
     hc.setName("history");
@@ -487,22 +635,154 @@ public class Mvp4gConfigurationFileReaderTest {
 
     assertOutput(getExpectedEventsWithToken(),
                  true);
+    // only the event bus extends AbstractEventBus
+    String data = sourceWriter.getData();
+    assertEquals(data.indexOf("new AbstractEventBus(){"),
+                 data.lastIndexOf("new AbstractEventBus(){"));
+
+  }
+
+  @Test
+  public void testWriteEventsWithTokenMode() {
+    createHandlers();
+
+    HistoryConverterElement hc = new HistoryConverterElement();
+    hc.setClassName(SimpleHistoryConverter01.class.getCanonicalName());
+    hc.setName("history");
+    configuration.getHistoryConverters()
+                 .add(hc);
+
+    EventElement e1 = new EventElement();
+    e1.setType("event1");
+    e1.setHandlers(new String[] { "handler1" });
+    e1.setWithTokenGeneration("true");
+    e1.setHistory("history");
+    e1.setEventObjectClass(new String[] { "java.lang.String",
+                                          "java.lang.Object" });
+    configuration.getEvents()
+                 .add(e1);
+
+    writer.writeConf();
 
+    // in token mode, the token is returned before the handlers are called
+    String data       = sourceWriter.getData();
+    String tokenMode  = "public String event1(java.lang.String attr0,java.lang.Object attr1){\nif(tokenMode){\ntokenMode=false;\nreturn ((com.mvp4g.client.event.EventBus) getTokenGenerator()).event1(attr0,attr1);\n}";
+    int    tokenIndex = data.indexOf(tokenMode);
+    assertTrue(tokenIndex >= 0);
+    assertTrue(data.indexOf("handler1.onEvent1(attr0,attr1);") > tokenIndex);
+    assertTrue(data.indexOf("place( itself, \"event1\"") > tokenIndex);
+  }
+
+  @Test
+  public void testWriteEventsWithTokenAndName() {
+    TypeOracleStub oracle = (TypeOracleStub) configuration.getOracle();
+    configuration.setModule(oracle.addClass(Modules.Module01.class));
+    configuration.setParentEventBus(oracle.addClass(Events.EventBusWithHistoryChild.class));
+
+    HistoryConverterElement hc = new HistoryConverterElement();
+    hc.setClassName(SimpleHistoryConverter01.class.getCanonicalName());
+    hc.setName("history");
+    configuration.getHistoryConverters()
+                 .add(hc);
+
+    EventElement e1 = new EventElement();
+    e1.setType("event1");
+    e1.setName("eventName1");
+    e1.setWithTokenGeneration("true");
+    e1.setHistory("history");
+    e1.setEventObjectClass(new String[] { "java.lang.String",
+                                          "java.lang.Object" });
+
+    // the parent event2 is named historyName
+    EventElement e2 = new EventElement();
+    e2.setType("event2");
+    e2.setForwardToParent("true");
+    e2.setWithTokenGeneration("true");
+    e2.setTokenGenerationFromParent("true");
+
+    Set<EventElement> events = configuration.getEvents();
+    events.add(e1);
+    events.add(e2);
+
+    writer.writeConf();
+
+    assertOutput(new String[] { "case \"eventName1\": {",
+                                "return itself.generateTokens(\"eventName1\", forms);",
+                                "case \"event2\": {",
+                                "return ((com.mvp4g.client.event.BaseEventBus) parentEventBus).generateTokens(\"historyName\", data);" },
+                 true);
+    assertOutput(new String[] { "case \"event1\": {" },
+                 false);
   }
 
   public String[] getExpectedEventsWithToken() {
-    return new String[] { "public String event2(java.lang.String attr0,java.lang.Object attr1){",
-                          "if(tokenMode){",
-                          "tokenMode=false;",
-                          "((com.mvp4g.client.event.BaseEventBus) parentEventBus).tokenMode = true;",
-                          "return parentEventBus.event2(attr0,attr1);",
-                          "} else {",
+    return new String[] { "public String event2(java.lang.String attr0,java.lang.Object attr1){\nif(tokenMode){\ntokenMode=false;\n((com.mvp4g.client.event.BaseEventBus) parentEventBus).tokenMode = true;\nreturn parentEventBus.event2(attr0,attr1);\n}",
                           "return null;",
-                          "public String event1(java.lang.String attr0,java.lang.Object attr1){",
-                          "return place( itself, \"event1\",history.onEvent1(attr0,attr1),true);",
-                          "return place( itself, \"event3\",history.onEvent3(attr0,attr1),true);",
-                          "public String event3(final java.lang.String attr0,final java.lang.Object attr1){",
-                          "return;" };
+                          "public String event1(java.lang.String attr0,java.lang.Object attr1){\nif(tokenMode){\ntokenMode=false;\nreturn ((com.mvp4g.client.event.EventBus) getTokenGenerator()).event1(attr0,attr1);\n}",
+                          "public String event3(final java.lang.String attr0,final java.lang.Object attr1){\nif(tokenMode){\ntokenMode=false;\nreturn ((com.mvp4g.client.event.EventBus) getTokenGenerator()).event3(attr0,attr1);\n}",
+                          "return;",
+                          "class TokenGenerator extends com.mvp4g.client.event.BaseTokenGenerator implements com.mvp4g.client.event.EventBus{\nTokenGenerator(){\nsuper(eventBus);\n}",
+                          "eventBus.setTokenGenerator(new TokenGenerator());",
+                          "return itself.place(\"event1\", get_history().onEvent1(attr0,attr1), true);",
+                          "return itself.place(\"event3\", get_history().onEvent3(attr0,attr1), true);",
+                          "return ((com.mvp4g.client.event.EventBusWithLookup) ((com.mvp4g.client.event.BaseEventBus) parentEventBus).getTokenGenerator()).event2(attr0,attr1);",
+                          "public String[] generateTokens( String eventName, Object[]... data ){",
+                          "case \"event1\": {",
+                          "forms[i] = get_history().onEvent1((java.lang.String) data[i][0],(java.lang.Object) data[i][1]);",
+                          "return itself.generateTokens(\"event1\", forms);",
+                          "case \"event2\": {",
+                          "return ((com.mvp4g.client.event.BaseEventBus) parentEventBus).generateTokens(\"event2\", data);",
+                          "return super.generateTokens(eventName, data);" };
+  }
+
+  @Test
+  public void testWriteEventsWithPureToken() {
+    HistoryConverterElement hc = new HistoryConverterElement();
+    hc.setClassName(SimpleHistoryConverter01.class.getCanonicalName());
+    hc.setName("history");
+    configuration.getHistoryConverters()
+                 .add(hc);
+
+    EventElement e1 = new EventElement();
+    e1.setType("event1");
+    e1.setWithTokenGeneration("true");
+    e1.setPureToken("true");
+    e1.setHistory("history");
+    e1.setEventObjectClass(new String[] { "java.lang.String",
+                                          "int" });
+
+    EventElement e2 = new EventElement();
+    e2.setType("event2");
+    e2.setWithTokenGeneration("true");
+    e2.setHistory("history");
+
+    configuration.getEvents()
+                 .add(e1);
+    configuration.getEvents()
+                 .add(e2);
+
+    String[] expected = new String[] { "private final com.mvp4g.client.history.TokenCache tokenCache = new com.mvp4g.client.history.TokenCache();",
+                                       "Object[] tokenKey = new Object[]{attr0,attr1};",
+                                       "String token = tokenCache.get(\"event1\", tokenKey);",
+                                       "if(token == null){",
+                                       "token = itself.place(\"event1\", get_history().onEvent1(attr0,attr1), true);",
+                                       "tokenCache.put(\"event1\", tokenKey, token);",
+                                       "return token;",
+                                       "return itself.place(\"event2\", get_history().onEvent2(), true);" };
+    assertOutput(expected,
+                 false);
+    writer.writeConf();
+    assertOutput(expected,
+                 true);
+    assertOutput(new String[] { "Object[] tokenKey = new Object[]{};" },
+                 false);
+  }
+
+  @Test
+  public void testWriteEventsWithoutPureToken() {
+    writer.writeConf();
+    assertOutput(new String[] { "tokenCache" },
+                 false);
   }
 
   @Test
@@ -606,22 +886,30 @@ public class Mvp4gConfigurationFileReaderTest {
   }
 
   private String[] getExpectedHistoryEvents(boolean withToken) {
-    return new String[] { "place( itself, \"historyName\",history.onEvent2(attr0)," + withToken + ");",
-                          "place( itself, \"event1\",history.onEvent1(attr0,attr1)," + withToken + ");",
-                          "place( itself, \"event4\",null," + withToken + ");",
-                          "place( itself, \"event5\",history3.convertToToken(\"event5\",attr0,attr1)," + withToken + ");",
-                          "place( itself, \"event6\",history3.convertToToken(\"event6\")," + withToken + ");",
-                          "place( itself, \"event7\",history.onEvent7()," + withToken + ");" };
+    if (withToken) {
+      return new String[] { "itself.place(\"historyName\", get_history().onEvent2(attr0), true);",
+                            "itself.place(\"event1\", get_history().onEvent1(attr0,attr1), true);",
+                            "itself.place(\"event4\", null, true);",
+                            "itself.place(\"event5\", get_history3().convertToToken(\"event5\",attr0,attr1), true);",
+                            "itself.place(\"event6\", get_history3().convertToToken(\"event6\"), true);",
+                            "itself.place(\"event7\", get_history().onEvent7(), true);" };
+    }
+    return new String[] { "place( itself, \"historyName\",get_history().onEvent2(attr0),false);",
+                          "place( itself, \"event1\",get_history().onEvent1(attr0,attr1),false);",
+                          "place( itself, \"event4\",null,false);",
+                          "place( itself, \"event5\",get_history3().convertToToken(\"event5\",attr0,attr1),false);",
+                          "place( itself, \"event6\",get_history3().convertToToken(\"event6\"),false);",
+                          "place( itself, \"event7\",get_history().onEvent7(),false);" };
   }
 
   private String[] getExpectedHistoryEvents() {
     return new String[] { "clearHistory(itself);",
-                          "addConverter( \"event4\",history2);",
-                          "addConverter( \"historyName\",history);",
-                          "addConverter( \"event1\",history);",
-                          "addConverter( \"event5\",history3);",
-                          "addConverter( \"event6\",history3);",
-                          "addConverter( \"event7\",history);" };
+                          "addConverter( \"event4\",new com.mvp4g.client.history.LazyHistoryConverter(){\nprotected com.mvp4g.client.history.HistoryConverter createConverter(){\nreturn get_history2();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n});",
+                          "addConverter( \"historyName\",new com.mvp4g.client.history.LazyHistoryConverter(){\nprotected com.mvp4g.client.history.HistoryConverter createConverter(){\nreturn get_history();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n});",
+                          "addConverter( \"event1\",new com.mvp4g.client.history.LazyHistoryConverter(){\nprotected com.mvp4g.client.history.HistoryConverter createConverter(){\nreturn get_history();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n});",
+                          "addConverter( \"event5\",new com.mvp4g.client.history.LazyHistoryConverter(){\nprotected com.mvp4g.client.history.HistoryConverter createConverter(){\nreturn get_history3();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n});",
+                          "addConverter( \"event6\",new com.mvp4g.client.history.LazyHistoryConverter(){\nprotected com.mvp4g.client.history.HistoryConverter createConverter(){\nreturn get_history3();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n});",
+                          "addConverter( \"event7\",new com.mvp4g.client.history.LazyHistoryConverter(){\nprotected com.mvp4g.client.history.HistoryConverter createConverter(){\nreturn get_history();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n});" };
   }
 
   @Test
@@ -760,6 +1048,38 @@ public class Mvp4gConfigurationFileReaderTest {
 
   }
 
+  @Test
+  public void testWriteEventsWithPooledGenerate() {
+    createHandlers();
+    for (PresenterElement presenter : configuration.getPresenters()) {
+      if ("handler2".equals(presenter.getName())) {
+        presenter.setPoolSize("3");
+      }
+    }
+
+    EventElement e1 = new EventElement();
+    e1.setType("event1");
+    e1.setGenerate(new String[] { "handler2" });
+    configuration.getEvents()
+                 .add(e1);
+    EventElement e2 = new EventElement();
+    e2.setType("event2");
+    e2.setHandlers(new String[] { "handler2" });
+    configuration.getEvents()
+                 .add(e2);
+
+    String multiplePresenter = Presenters.MultiplePresenter.class.getCanonicalName();
+    String[] expected = new String[] { "placeService.setModule(itself);\neventBus.setHandlerPoolSize(" + multiplePresenter + ".class, 3);",
+                                       multiplePresenter + " handler2 = eventBus.pollRecycledHandler(" + multiplePresenter + ".class);\nif(handler2 == null){\nhandler2 = BaseEventBus.setPresenter(false, injector.gethandler2(), injector.getview(), eventBus);\n}\neventBus.finishAddHandler(handler2," + multiplePresenter + ".class, true);",
+                                       "beginDispatch();\ntry{\nEventHandlerInterface<?>[] handlershandler2 = getHandlerSnapshot(" + multiplePresenter + ".class);",
+                                       "handler.onEvent2();\n}\n}\n}\n}finally{\nendDispatch();\n}" };
+    assertOutput(expected,
+                 false);
+    writer.writeConf();
+    assertOutput(expected,
+                 true);
+  }
+
   @Test
   public void testWriteViews() {
 
@@ -841,11 +1161,13 @@ public class Mvp4gConfigurationFileReaderTest {
     p1.setName("rootPresenter");
     p1.setClassName("com.mvp4g.rebind.test_tools.RootPresenter");
     p1.setView("rootView");
+    p1.setEager("true");
 
     PresenterElement p2 = new PresenterElement();
     p2.setName("createUserPresenter");
     p2.setClassName("com.mvp4g.example.client.presenter.UserCreatePresenter");
     p2.setView("userCreateView");
+    p2.setEager("true");
     p2.getInjectedServices()
       .add(new InjectedElement("userService",
                                "setUserService"));
@@ -854,6 +1176,7 @@ public class Mvp4gConfigurationFileReaderTest {
     p3.setName("displayUserPresenter");
     p3.setClassName("com.mvp4g.example.client.presenter.display.UserDisplayPresenter");
     p3.setView("userDisplayView");
+    p3.setEager("true");
 
     Set<PresenterElement> presenters = configuration.getPresenters();
     presenters.add(p1);
@@ -880,7 +1203,7 @@ public class Mvp4gConfigurationFileReaderTest {
 
                           "createUserPresenter.setEventBus(eventBus);",
                           "createUserPresenter.setView(userCreateView);",
-                          "createUserPresenter.setUserService(userService);",
+                          "createUserPresenter.setUserService(get_userService());",
 
                           "final com.mvp4g.example.client.presenter.display.UserDisplayPresenter " + "displayUserPresenter = injector.getdisplayUserPresenter();",
 
@@ -899,12 +1222,14 @@ public class Mvp4gConfigurationFileReaderTest {
     p1.setName("rootPresenter");
     p1.setClassName("com.mvp4g.rebind.test_tools.RootPresenter");
     p1.setView("rootView");
+    p1.setEager("true");
     p1.setInverseView("true");
 
     PresenterElement p2 = new PresenterElement();
     p2.setName("createUserPresenter");
     p2.setClassName("com.mvp4g.example.client.presenter.UserCreatePresenter");
     p2.setView("userCreateView");
+    p2.setEager("true");
     p2.getInjectedServices()
       .add(new InjectedElement("userService",
                                "setUserService"));
@@ -913,6 +1238,7 @@ public class Mvp4gConfigurationFileReaderTest {
     p3.setName("displayUserPresenter");
     p3.setClassName("com.mvp4g.example.client.presenter.display.UserDisplayPresenter");
     p3.setView("userDisplayView");
+    p3.setEager("true");
 
     Set<PresenterElement> presenters = configuration.getPresenters();
     presenters.add(p1);
@@ -930,6 +1256,92 @@ public class Mvp4gConfigurationFileReaderTest {
                  true);
   }
 
+  @Test
+  public void testWriteLazyPresenters() {
+
+    ViewElement view1 = new ViewElement();
+    view1.setName("rootView");
+    view1.setClassName("com.mvp4g.rebind.test_tools.RootView");
+    view1.setInstantiateAtStart(true);
+
+    ViewElement view2 = new ViewElement();
+    view2.setName("userView");
+    view2.setClassName("com.mvp4g.example.client.view.UserCreateView");
+    view2.setInstantiateAtStart(true);
+
+    Set<ViewElement> views = configuration.getViews();
+    views.add(view1);
+    views.add(view2);
+
+    PresenterElement p1 = new PresenterElement();
+    p1.setName("rootPresenter");
+    p1.setClassName("com.mvp4g.rebind.test_tools.RootPresenter");
+    p1.setView("rootView");
+    p1.setInverseView("true");
+
+    PresenterElement p2 = new PresenterElement();
+    p2.setName("createUserPresenter");
+    p2.setClassName("com.mvp4g.example.client.presenter.UserCreatePresenter");
+    p2.setView("userView");
+    p2.getInjectedServices()
+      .add(new InjectedElement("userService",
+                               "setUserService"));
+
+    PresenterElement p3 = new PresenterElement();
+    p3.setName("displayUserPresenter");
+    p3.setClassName("com.mvp4g.example.client.presenter.display.UserDisplayPresenter");
+    p3.setView("userView");
+    p3.setEager("true");
+
+    Set<PresenterElement> presenters = configuration.getPresenters();
+    presenters.add(p1);
+    presenters.add(p2);
+    presenters.add(p3);
+
+    EventHandlerElement handler = new EventHandlerElement();
+    handler.setName("eventHandler");
+    handler.setClassName(SimpleEventHandler01.class.getCanonicalName());
+    configuration.getEventHandlers()
+                 .add(handler);
+
+    assertOutput(getExpectedLazyPresenters(),
+                 false);
+    writer.writeConf();
+    assertOutput(getExpectedLazyPresenters(),
+                 true);
+    assertOutput(new String[] { "final com.mvp4g.rebind.test_tools.RootView rootView = injector.getrootView();",
+                                "final com.mvp4g.rebind.test_tools.RootPresenter rootPresenter = injector.getrootPresenter();",
+                                "rootPresenter.setEventBus(eventBus);",
+                                "createUserPresenter.setEventBus(eventBus);",
+                                "eventHandler.setEventBus(eventBus);" },
+                 false);
+    assertOutput(new String[] { "final com.mvp4g.example.client.view.UserCreateView userView = injector.getuserView();",
+                                "displayUserPresenter.setEventBus(eventBus);" },
+                 true);
+
+    // the start presenter is always created at start
+    configuration.getStart()
+                 .setPresenter("rootPresenter");
+    sourceWriter = new SourceWriterTestStub();
+    writer = new Mvp4gConfigurationFileWriter(sourceWriter,
+                                              configuration);
+    writer.writeConf();
+    assertOutput(new String[] { "final com.mvp4g.rebind.test_tools.RootView rootView = injector.getrootView();",
+                                "final com.mvp4g.rebind.test_tools.RootPresenter rootPresenter = injector.getrootPresenter();",
+                                "rootPresenter.setEventBus(eventBus);",
+                                "this.startPresenter = rootPresenter;" },
+                 true);
+    assertOutput(new String[] { "private com.mvp4g.rebind.test_tools.RootPresenter get_rootPresenter(){" },
+                 false);
+  }
+
+  private String[] getExpectedLazyPresenters() {
+    return new String[] { "private com.mvp4g.rebind.test_tools.RootPresenter rootPresenter = null;",
+                          "private com.mvp4g.rebind.test_tools.RootPresenter get_rootPresenter(){\nif (rootPresenter == null){\nrootPresenter = BaseEventBus.setPresenter(true, injector.getrootPresenter(), injector.getrootView(), eventBus);\n}\nreturn rootPresenter;\n}",
+                          "createUserPresenter = BaseEventBus.setPresenter(false, injector.getcreateUserPresenter(), userView, eventBus);\ncreateUserPresenter.setUserService(get_userService());",
+                          "eventHandler = BaseEventBus.setEventHandler(injector.geteventHandler(), eventBus);" };
+  }
+
   @Test
   public void testWriteMultiplePresenters() {
 
@@ -988,8 +1400,10 @@ public class Mvp4gConfigurationFileReaderTest {
 //	}
 
   private String[] getMultiplePresenters(boolean reverse) {
-    return new String[] { "if (com.mvp4g.rebind.test_tools.RootPresenter.class.equals(handlerClass)){",
-                          "BaseEventBus.setPresenter(" + reverse + ", injector.getrootPresenter(), injector.getrootView(), eventBus);" };
+    return new String[] { "private java.util.Map<Class<?>, Integer> handlerIds = null;",
+                          "handlerIds.put(com.mvp4g.rebind.test_tools.RootPresenter.class, 0);",
+                          "Integer handlerId = handlerIds.get(handlerClass);",
+                          "switch (handlerId){\ncase 0:\nreturn (T) BaseEventBus.setPresenter(" + reverse + ", injector.getrootPresenter(), injector.getrootView(), eventBus);" };
   }
 
   @Test
@@ -1049,10 +1463,10 @@ public class Mvp4gConfigurationFileReaderTest {
   }
 
   private String[] getExpectedServices() {
-    return new String[] { "final com.mvp4g.example.client.rpc.UserServiceAsync " + "userRpcService = GWT.create(com.mvp4g.example.client.rpc.UserService.class);",
-                          "final com.mvp4g.example.client.services.UserServiceAsync " + "userService = GWT.create(com.mvp4g.example.client.services.UserService.class);",
-                          "((ServiceDefTarget) userService).setServiceEntryPoint(\"/service/user\");",
-                          "final com.mvp4g.example.client.services.display.UserServiceAsync " + "userDisplayService = GWT.create(com.mvp4g.example.client.services.display.UserService.class);" };
+    return new String[] { "private com.mvp4g.example.client.rpc.UserServiceAsync userRpcService = null;",
+                          "private com.mvp4g.example.client.rpc.UserServiceAsync get_userRpcService(){\nif (userRpcService == null){\n" + "userRpcService = GWT.create(com.mvp4g.example.client.rpc.UserService.class);\n}\nreturn userRpcService;\n}",
+                          "userService = GWT.create(com.mvp4g.example.client.services.UserService.class);\n((ServiceDefTarget) userService).setServiceEntryPoint(\"/service/user\");\n}\nreturn userService;",
+                          "private com.mvp4g.example.client.services.display.UserServiceAsync get_userDisplayService(){\nif (userDisplayService == null){\n" + "userDisplayService = GWT.create(com.mvp4g.example.client.services.display.UserService.class);" };
   }
 
   @Test
@@ -1325,9 +1739,8 @@ public class Mvp4gConfigurationFileReaderTest {
   private String[] getExpectedWithHistory() {
     return new String[] { "eventBus.init();",
                           "eventBus.notFound()",
-                          "final com.mvp4g.example.client.history.display.UserHistoryConverter userConverter = injector.getuserConverter()",
-                          "userConverter.setUserService(userService);",
-                          "final com.mvp4g.example.client.history.StringHistoryConverter stringConverter = injector.getstringConverter()", };
+                          "private com.mvp4g.example.client.history.display.UserHistoryConverter get_userConverter(){\nif (userConverter == null){\nuserConverter = injector.getuserConverter();\nuserConverter.setUserService(get_userService());\n}\nreturn userConverter;\n}",
+                          "private com.mvp4g.example.client.history.StringHistoryConverter get_stringConverter(){\nif (stringConverter == null){\nstringConverter = injector.getstringConverter();" };
 
   }
 
@@ -1339,11 +1752,6 @@ public class Mvp4gConfigurationFileReaderTest {
                           "public void dispatchHistoryEvent(String eventType, final Mvp4gEventPasser passer){",
                           "int index = eventType.indexOf(PlaceService.MODULE_SEPARATOR);",
                           "if(index > -1){",
-                          "String moduleHistoryName = eventType.substring(0, index);",
-                          "String nextToken = eventType.substring(index + 1);",
-                          "Mvp4gEventPasser nextPasser = new Mvp4gEventPasser(nextToken) {",
-                          "public void pass(Mvp4gModule module) {",
-                          "module.dispatchHistoryEvent((String) eventObjects[0], passer);",
                           "passer.setEventObject(false);",
                           "passer.pass(this);",
                           "}else{",
@@ -1447,44 +1855,106 @@ public class Mvp4gConfigurationFileReaderTest {
     assertOutput(getExpectedSetParent(),
                  false);
     writer.writeConf();
-    assertOutput(getExpectedSetParent(),
+    assertOutput(getExpectedSetParent(),
+                 true);
+    assertOutput(new String[] { "private PlaceService placeService = null;" },
+                 false);
+  }
+
+  private String[] getExpectedSetParent() {
+    return new String[] { "public void setParentModule(com.mvp4g.client.Mvp4gModule module){",
+                          "parentModule = module;",
+                          "parentEventBus = (com.mvp4g.client.event.EventBusWithLookup) module.getEventBus();" };
+  }
+
+  @Test
+  public void testWriteChildNoAsyncNoAutoLoad() {
+    TypeOracleStub     oracle      = (TypeOracleStub) configuration.getOracle();
+    JClassType         moduleType  = oracle.addClass(Modules.ModuleWithParent01.class);
+    ChildModuleElement childModule = new ChildModuleElement();
+    childModule.setClassName(moduleType.getQualifiedSourceName());
+    childModule.setName("childModule");
+    childModule.setAsync("false");
+    childModule.setAutoDisplay("false");
+
+    configuration.getChildModules()
+                 .add(childModule);
+
+    assertOutput(getExpectedChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
+                 false);
+    assertOutput(getExpectedAsyncChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
+                 false);
+    assertOutput(getExpectedAutoDisplayChildModule(),
+                 false);
+    writer.writeConf();
+    assertOutput(getExpectedChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
+                 true);
+    assertOutput(getExpectedAsyncChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
+                 false);
+    assertOutput(getExpectedAutoDisplayChildModule(),
+                 false);
+  }
+
+  @Test
+  public void testWriteChildModulePrefetch() {
+    TypeOracleStub     oracle      = (TypeOracleStub) configuration.getOracle();
+    ChildModuleElement childModule = new ChildModuleElement();
+    childModule.setClassName(oracle.addClass(Modules.Module01.class)
+                                   .getQualifiedSourceName());
+    childModule.setName("childModule");
+    childModule.setAutoDisplay("false");
+    childModule.setPrefetch("ON_IDLE");
+    ChildModuleElement notAsyncChildModule = new ChildModuleElement();
+    notAsyncChildModule.setClassName(oracle.addClass(Modules.ModuleWithParent01.class)
+                                           .getQualifiedSourceName());
+    notAsyncChildModule.setName("notAsyncChildModule");
+    notAsyncChildModule.setAsync("false");
+    notAsyncChildModule.setAutoDisplay("false");
+    notAsyncChildModule.setPrefetch("AFTER_START");
+
+    configuration.getChildModules()
+                 .add(childModule);
+    configuration.getChildModules()
+                 .add(notAsyncChildModule);
+
+    String   moduleClassName = Modules.Module01.class.getCanonicalName();
+    String[] expected        = new String[] { "com.mvp4g.client.ModulePrefetcher.INSTANCE.add(\"" + moduleClassName + "\", new com.mvp4g.client.ModulePrefetcher.Fragment(){",
+                                              "return com.google.gwt.core.client.prefetch.RunAsyncCode.runAsyncCode(" + moduleClassName + ".class).isLoaded();",
+                                              "com.google.gwt.core.client.prefetch.Prefetcher.prefetch(com.google.gwt.core.client.prefetch.RunAsyncCode.runAsyncCode(" + moduleClassName + ".class));",
+                                              "com.google.gwt.core.client.prefetch.Prefetcher.start();",
+                                              "}, com.mvp4g.client.annotation.module.ChildModule.Prefetch.ON_IDLE);",
+                                              "com.mvp4g.client.ModulePrefetcher.INSTANCE.start();",
+                                              "if(!modules.containsKey(\"" + moduleClassName + "\")) com.mvp4g.client.ModulePrefetcher.INSTANCE.onNavigation(\"" + moduleClassName + "\");" };
+    assertOutput(expected,
+                 false);
+    writer.writeConf();
+    assertOutput(expected,
                  true);
-    assertOutput(new String[] { "private PlaceService placeService = null;" },
+    assertOutput(new String[] { "}, com.mvp4g.client.annotation.module.ChildModule.Prefetch.AFTER_START);",
+                                "RunAsyncCode.runAsyncCode(" + Modules.ModuleWithParent01.class.getCanonicalName() + ".class).isLoaded();",
+                                "INSTANCE.onNavigation(\"" + Modules.ModuleWithParent01.class.getCanonicalName() + "\");" },
                  false);
   }
 
-  private String[] getExpectedSetParent() {
-    return new String[] { "public void setParentModule(com.mvp4g.client.Mvp4gModule module){",
-                          "parentModule = module;",
-                          "parentEventBus = (com.mvp4g.client.event.EventBusWithLookup) module.getEventBus();" };
-  }
-
   @Test
-  public void testWriteChildNoAsyncNoAutoLoad() {
+  public void testWriteChildModuleNotPrefetched() {
     TypeOracleStub     oracle      = (TypeOracleStub) configuration.getOracle();
-    JClassType         moduleType  = oracle.addClass(Modules.ModuleWithParent01.class);
     ChildModuleElement childModule = new ChildModuleElement();
-    childModule.setClassName(moduleType.getQualifiedSourceName());
+    childModule.setClassName(oracle.addClass(Modules.Module01.class)
+                                   .getQualifiedSourceName());
     childModule.setName("childModule");
-    childModule.setAsync("false");
     childModule.setAutoDisplay("false");
 
     configuration.getChildModules()
                  .add(childModule);
 
-    assertOutput(getExpectedChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
-                 false);
-    assertOutput(getExpectedAsyncChildModule(),
-                 false);
-    assertOutput(getExpectedAutoDisplayChildModule(),
-                 false);
+    // the fragment is still added so that it can be prefetched if it's predicted
+    String moduleClassName = Modules.Module01.class.getCanonicalName();
     writer.writeConf();
-    assertOutput(getExpectedChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
+    assertOutput(new String[] { "com.mvp4g.client.ModulePrefetcher.INSTANCE.add(\"" + moduleClassName + "\", new com.mvp4g.client.ModulePrefetcher.Fragment(){",
+                                "}, com.mvp4g.client.annotation.module.ChildModule.Prefetch.NONE);",
+                                "com.mvp4g.client.ModulePrefetcher.INSTANCE.start();" },
                  true);
-    assertOutput(getExpectedAsyncChildModule(),
-                 false);
-    assertOutput(getExpectedAutoDisplayChildModule(),
-                 false);
   }
 
   private String[] getExpectedChildModule(String moduleClassName) {
@@ -1498,9 +1968,9 @@ public class Mvp4gConfigurationFileReaderTest {
                           "newModule.setParentModule(itself);" };
   }
 
-  private String[] getExpectedAsyncChildModule() {
+  private String[] getExpectedAsyncChildModule(String moduleClassName) {
     return new String[] { "eventBus.beforeLoad();",
-                          "GWT.runAsync(new RunAsyncCallback() {",
+                          "GWT.runAsync(" + moduleClassName + ".class, new RunAsyncCallback() {",
                           "public void onSuccess() {",
                           "eventBus.afterLoad();",
                           "public void onFailure(Throwable reason) {",
@@ -1536,22 +2006,22 @@ public class Mvp4gConfigurationFileReaderTest {
 
     assertOutput(getExpectedChildModule(Modules.Module01.class.getCanonicalName()),
                  false);
-    assertOutput(getExpectedAsyncChildModuleErrorEmpty(),
+    assertOutput(getExpectedAsyncChildModuleErrorEmpty(Modules.Module01.class.getCanonicalName()),
                  false);
     assertOutput(getExpectedAutoDisplayChildModule(),
                  false);
     writer.writeConf();
     assertOutput(getExpectedChildModule(Modules.Module01.class.getCanonicalName()),
                  true);
-    assertOutput(getExpectedAsyncChildModuleErrorEmpty(),
+    assertOutput(getExpectedAsyncChildModuleErrorEmpty(Modules.Module01.class.getCanonicalName()),
                  true);
     assertOutput(getExpectedAutoDisplayChildModule(),
                  false);
   }
 
-  private String[] getExpectedAsyncChildModuleErrorEmpty() {
+  private String[] getExpectedAsyncChildModuleErrorEmpty(String moduleClassName) {
     return new String[] { "eventBus.beforeLoad();",
-                          "GWT.runAsync(new RunAsyncCallback() {",
+                          "GWT.runAsync(" + moduleClassName + ".class, new RunAsyncCallback() {",
                           "public void onSuccess() {",
                           "eventBus.afterLoad();",
                           "public void onFailure(Throwable reason) {",
@@ -1585,14 +2055,14 @@ public class Mvp4gConfigurationFileReaderTest {
 
     assertOutput(getExpectedChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
                  false);
-    assertOutput(getExpectedAsyncChildModule(),
+    assertOutput(getExpectedAsyncChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
                  false);
     assertOutput(getExpectedAutoDisplayChildModule(),
                  false);
     writer.writeConf();
     assertOutput(getExpectedChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
                  true);
-    assertOutput(getExpectedAsyncChildModule(),
+    assertOutput(getExpectedAsyncChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
                  true);
     assertOutput(getExpectedAutoDisplayChildModule(),
                  false);
@@ -1632,14 +2102,14 @@ public class Mvp4gConfigurationFileReaderTest {
 
     assertOutput(getExpectedChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
                  false);
-    assertOutput(getExpectedAsyncChildModule(),
+    assertOutput(getExpectedAsyncChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
                  false);
     assertOutput(getExpectedAutoDisplayChildModule(),
                  false);
     writer.writeConf();
     assertOutput(getExpectedChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
                  true);
-    assertOutput(getExpectedAsyncChildModule(),
+    assertOutput(getExpectedAsyncChildModule(Modules.ModuleWithParent01.class.getCanonicalName()),
                  true);
     assertOutput(getExpectedAutoDisplayChildModule(),
                  true);
@@ -1678,11 +2148,80 @@ public class Mvp4gConfigurationFileReaderTest {
                           "Mvp4gModule childModule = modules.get(childModuleClassName);",
                           "if((childModule != null) && (passer != null)){",
                           "passer.pass(childModule);",
-                          "else if(\"com.mvp4g.rebind.test_tools.Modules.ModuleWithParent01\".equals(childModuleClassName)){",
-                          "loadchildModule2(eventName, passer);",
-                          "else if(\"com.mvp4g.rebind.test_tools.Modules.Module01\".equals(childModuleClassName)){",
-                          "loadchildModule1(eventName, passer);",
-                          "throw new Mvp4gException( \"ChildModule \" + childModuleClassName + \" not found. Is this module a sibling module?\" );" };
+                          "switch (childModuleClassName){",
+                          "case \"com.mvp4g.rebind.test_tools.Modules.ModuleWithParent01\":\nloadchildModule1(eventName, passer);\nbreak;",
+                          "case \"com.mvp4g.rebind.test_tools.Modules.Module01\":\nloadchildModule2(eventName, passer);\nbreak;",
+                          "default:\nthrow new Mvp4gException( \"ChildModule \" + childModuleClassName + \" not found. Is this module a sibling module?\" );" };
+  }
+
+  @Test
+  public void testWriteCoalescedChildModuleLoad() {
+    TypeOracleStub     oracle      = (TypeOracleStub) configuration.getOracle();
+    ChildModuleElement childModule = new ChildModuleElement();
+    childModule.setClassName(oracle.addClass(Modules.Module01.class)
+                                   .getQualifiedSourceName());
+    childModule.setName("asyncChild");
+    childModule.setAutoDisplay("false");
+    ChildModuleElement syncChildModule = new ChildModuleElement();
+    syncChildModule.setClassName(oracle.addClass(Modules.ModuleWithParent01.class)
+                                       .getQualifiedSourceName());
+    syncChildModule.setName("syncChild");
+    syncChildModule.setAsync("false");
+    syncChildModule.setAutoDisplay("false");
+    configuration.getChildModules()
+                 .add(childModule);
+    configuration.getChildModules()
+                 .add(syncChildModule);
+
+    String[] expected = new String[] { "private List<Mvp4gEventPasser> pendingasyncChild = null;",
+                                       "if(pendingasyncChild != null){\npendingasyncChild.add(passer);\nreturn;\n}",
+                                       "if(!modules.containsKey(\"" + Modules.Module01.class.getCanonicalName() + "\")) pendingasyncChild = new java.util.ArrayList<Mvp4gEventPasser>();",
+                                       "if(pendingasyncChild != null){\nList<Mvp4gEventPasser> queued = pendingasyncChild;\npendingasyncChild = null;\nfor(Mvp4gEventPasser queuedPasser : queued){\nnewModule.onForward();\nif(queuedPasser != null) queuedPasser.pass(newModule);\n}\n}",
+                                       "public void onFailure(Throwable reason) {\nif(unloaded){\nreturn;\n}\npendingasyncChild = null;" };
+    assertOutput(expected,
+                 false);
+    writer.writeConf();
+    assertOutput(expected,
+                 true);
+    assertOutput(new String[] { "pendingsyncChild" },
+                 false);
+  }
+
+  @Test
+  public void testWriteChildModuleEviction() {
+    TypeOracleStub     oracle      = (TypeOracleStub) configuration.getOracle();
+    ChildModuleElement childModule = new ChildModuleElement();
+    childModule.setClassName(oracle.addClass(Modules.Module01.class)
+                                   .getQualifiedSourceName());
+    childModule.setName("asyncChild");
+    childModule.setAutoDisplay("false");
+    configuration.getChildModules()
+                 .add(childModule);
+
+    String[] unload = new String[] { "private boolean unloaded = false;",
+                                     "public void unloadModule(){\nunloaded = true;\nfor(Mvp4gModule childModule : modules.values()){\nif(childModule instanceof com.mvp4g.client.Mvp4gUnloadableModule){\n((com.mvp4g.client.Mvp4gUnloadableModule) childModule).unloadModule();\n}\n}\nmodules.clear();\npendingasyncChild = null;\nstartPresenter = null;\nstartView = null;\neventBus.unload();\neventBus = null;\ninjector = null;\n}",
+                                     "public void onSuccess() {\nif(unloaded){\nreturn;\n}" };
+    writer.writeConf();
+    assertOutput(unload,
+                 true);
+    assertOutput(new String[] { "evictor" },
+                 false);
+
+    ChildModulesElement loadConfig = new ChildModulesElement();
+    loadConfig.setMaxLoaded("3");
+    loadConfig.setIdleTimeout("60000");
+    configuration.setLoadChildConfig(loadConfig);
+    sourceWriter = new SourceWriterTestStub();
+    writer = new Mvp4gConfigurationFileWriter(sourceWriter,
+                                              configuration);
+
+    String[] expected = new String[] { "private com.mvp4g.client.ModuleEvictor evictor = new com.mvp4g.client.ModuleEvictor(modules, 3, 60000);",
+                                       "modules.put(\"" + Modules.Module01.class.getCanonicalName() + "\", newModule);\nnewModule.setParentModule(itself);\nnewModule.createAndStartModule();\n}\nevictor.onUse(\"" + Modules.Module01.class.getCanonicalName() + "\");\nnewModule.onForward();",
+                                       "if((childModule != null) && (passer != null)){\nevictor.onUse(childModuleClassName);\npasser.pass(childModule);",
+                                       "public void unloadModule(){\nunloaded = true;\nevictor.clear();\nfor(Mvp4gModule childModule : modules.values()){" };
+    writer.writeConf();
+    assertOutput(expected,
+                 true);
   }
 
   @Test
@@ -1725,12 +2264,13 @@ public class Mvp4gConfigurationFileReaderTest {
 
   private String[] getExpectedLoadChildModuleWithLoader() {
     return new String[] { "final Object[] params = (passer == null) ? null : passer.getEventObjects();",
-                          "loader.preLoad( eventBus, eventName, params, new Command(){",
+                          "get_loader().preLoad( eventBus, eventName, params, new Command(){",
                           "public void execute() {",
-                          "loader.onFailure( eventBus, eventName, params, reason );",
-                          "loader.onSuccess(eventBus, eventName, params );",
-                          "com.mvp4g.rebind.test_tools.Loaders.Loader1 loader;",
-                          "loader = injector.getloader();" };
+                          "public void execute() {\nif(unloaded){\nreturn;\n}\nif(pendingchildModule2 != null){\npendingchildModule2.add(passer);\nreturn;\n}",
+                          "get_loader().onFailure( eventBus, eventName, params, reason );",
+                          "get_loader().onSuccess(eventBus, eventName, params );",
+                          "private com.mvp4g.rebind.test_tools.Loaders.Loader1 loader = null;",
+                          "private com.mvp4g.rebind.test_tools.Loaders.Loader1 get_loader(){\nif (loader == null){\nloader = injector.getloader();\n}\nreturn loader;\n}" };
   }
 
   @Test
@@ -1966,6 +2506,8 @@ public class Mvp4gConfigurationFileReaderTest {
     return new String[] { "protected com.mvp4g.client.event.DefaultMvp4gLogger logger;",
                           "com.mvp4g.client.event.DefaultMvp4gLogger getcom_mvp4g_client_event_DefaultMvp4gLogger();",
                           "logger = injector.getcom_mvp4g_client_event_DefaultMvp4gLogger();",
+                          "eventBus.setLogLevel(com.mvp4g.client.annotation.Debug.LogLevel.SIMPLE);",
+                          "if (isLoggable(com.mvp4g.client.annotation.Debug.LogLevel.SIMPLE, \"test3\")){",
                           "int startLogDepth = BaseEventBus.logDepth;",
                           "++BaseEventBus.logDepth;",
                           "++BaseEventBus.logDepth;",
@@ -2004,10 +2546,282 @@ public class Mvp4gConfigurationFileReaderTest {
                  true);
   }
 
+  @Test
+  public void testWriteDebugOff() {
+
+    createHandlers();
+
+    EventElement event = new EventElement();
+    event.setType("test");
+    event.setHandlers(new String[] { "handler1" });
+    configuration.getEvents()
+                 .add(event);
+
+    DebugElement debug = new DebugElement();
+    debug.setLogLevel(LogLevel.OFF.name());
+    configuration.setDebug(debug);
+    assertOutput(getExpectedDebugOff(),
+                 false);
+    writer.writeConf();
+    assertOutput(getExpectedDebugOff(),
+                 true);
+  }
+
+  private String[] getExpectedDebugOff() {
+    return new String[] { "eventBus.setLogLevel(com.mvp4g.client.annotation.Debug.LogLevel.OFF);",
+                          "if (isLoggable(com.mvp4g.client.annotation.Debug.LogLevel.SIMPLE, \"test\")){",
+                          "logger.log(\"Module: Mvp4gModule || event: test\", BaseEventBus.logDepth);",
+                          "if (isLoggable(com.mvp4g.client.annotation.Debug.LogLevel.DETAILED, \"test\")){",
+                          "logger.log(handler1.toString() + \" handles test\", BaseEventBus.logDepth);" };
+  }
+
+  @Test
+  public void testWriteFlightRecorder() {
+
+    createHandlers();
+
+    EventElement event = new EventElement();
+    event.setType("test");
+    event.setHandlers(new String[] { "handler1",
+                                     "handler2" });
+    configuration.getEvents()
+                 .add(event);
+
+    FlightRecorderElement flightRecorder = new FlightRecorderElement();
+    flightRecorder.setCapacity("64");
+    configuration.setFlightRecorder(flightRecorder);
+    assertOutput(getExpectedFlightRecorder(),
+                 false);
+    writer.writeConf();
+    assertOutput(getExpectedFlightRecorder(),
+                 true);
+    assertOutput(new String[] { "logger.log(" },
+                 false);
+  }
+
+  private String[] getExpectedFlightRecorder() {
+    return new String[] { "com.mvp4g.client.event.EventFlightRecorder.INSTANCE.ensureCapacity(64);",
+                          "int startLogDepth = BaseEventBus.logDepth;",
+                          "final int flightRecord = com.mvp4g.client.event.EventFlightRecorder.INSTANCE.start(\"Mvp4gModule\", \"test\", startLogDepth + 1);",
+                          "++BaseEventBus.logDepth;",
+                          "com.mvp4g.client.event.EventFlightRecorder.INSTANCE.handled(flightRecord, \"handler1\");",
+                          "com.mvp4g.client.event.EventFlightRecorder.INSTANCE.handled(flightRecord, \"handler2\");",
+                          "BaseEventBus.logDepth = startLogDepth;",
+                          "com.mvp4g.client.event.EventFlightRecorder.INSTANCE.end(flightRecord);" };
+  }
+
+  @Test
+  public void testWriteHistoryManifest() {
+    String child = Modules.ModuleWithParent01.class.getCanonicalName();
+    String grandChild = Modules.ModuleWithParent02.class.getCanonicalName();
+    configuration.getHistoryManifest()
+                 .add("child/event1");
+    configuration.getHistoryManifest()
+                 .add("child/grandChild/event2");
+    configuration.getHistorySplitPoints()
+                 .put("child",
+                      Arrays.asList(child));
+    configuration.getHistorySplitPoints()
+                 .put("child/grandChild",
+                      Arrays.asList(child,
+                                    grandChild));
+
+    String[] expected = new String[] { "placeService.addRoute(\"child/event1\");",
+                                       "placeService.addRoute(\"child/grandChild/event2\");",
+                                       "placeService.addModuleRoute(\"child\", new Command(){",
+                                       "com.google.gwt.core.client.prefetch.Prefetcher.prefetch(java.util.Arrays.asList(com.google.gwt.core.client.prefetch.RunAsyncCode.runAsyncCode(" + child + ".class)));",
+                                       "placeService.addModuleRoute(\"child/grandChild\", new Command(){",
+                                       "com.google.gwt.core.client.prefetch.Prefetcher.prefetch(java.util.Arrays.asList(com.google.gwt.core.client.prefetch.RunAsyncCode.runAsyncCode(" + child + ".class), com.google.gwt.core.client.prefetch.RunAsyncCode.runAsyncCode(" + grandChild + ".class)));",
+                                       "com.google.gwt.core.client.prefetch.Prefetcher.start();" };
+    assertOutput(expected,
+                 false);
+    writer.writeConf();
+    assertOutput(expected,
+                 true);
+
+    // the routes are declared as soon as the place service is created, not in the Ginjector
+    assertOutput(new String[] { "placeService = injector.getcom_mvp4g_client_history_PlaceService();\nplaceService.addRoute(\"child/event1\");" },
+                 true);
+    String data          = sourceWriter.getData();
+    int    injectorStart = data.indexOf("public interface com_mvp4g_client_Mvp4gModuleGinjector extends Ginjector {");
+    String injector      = data.substring(injectorStart,
+                                          data.indexOf("}",
+                                                       injectorStart));
+    assertFalse(injector.contains("placeService"));
+  }
+
+  @Test
+  public void testWriteNoHistoryManifest() {
+    writer.writeConf();
+    assertOutput(new String[] { "placeService.addRoute(",
+                                "placeService.addModuleRoute(" },
+                 false);
+  }
+
+  @Test
+  public void testWriteTracing() {
+    EventElement event = new EventElement();
+    event.setType("test");
+    configuration.getEvents()
+                 .add(event);
+
+    TypeOracleStub     oracle      = (TypeOracleStub) configuration.getOracle();
+    JClassType         moduleType  = oracle.addClass(Modules.ModuleWithParent01.class);
+    ChildModuleElement childModule = new ChildModuleElement();
+    childModule.setClassName(moduleType.getQualifiedSourceName());
+    childModule.setName("childModule");
+    childModule.setAutoDisplay("false");
+    configuration.getChildModules()
+                 .add(childModule);
+
+    configuration.setTracing(new TracingElement());
+    assertOutput(getExpectedTracing(),
+                 false);
+    writer.writeConf();
+    assertOutput(getExpectedTracing(),
+                 true);
+  }
+
+  @Test
+  public void testWriteProfiling() {
+    ViewElement view = new ViewElement();
+    view.setName("rootView");
+    view.setClassName("com.mvp4g.rebind.test_tools.RootView");
+    view.setInstantiateAtStart(true);
+    configuration.getViews()
+                 .add(view);
+
+    PresenterElement presenter = new PresenterElement();
+    presenter.setName("rootPresenter");
+    presenter.setClassName("com.mvp4g.rebind.test_tools.RootPresenter");
+    presenter.setView("rootView");
+    presenter.setEager("true");
+    configuration.getPresenters()
+                 .add(presenter);
+
+    ServiceElement service = new ServiceElement();
+    service.setName("userService");
+    service.setClassName("com.mvp4g.example.client.services.UserService");
+    configuration.getServices()
+                 .add(service);
+
+    writer.writeConf();
+    assertOutput(getExpectedProfiling(),
+                 false);
+    assertOutput(new String[] { "createModule();\nstartModule();\n}" },
+                 true);
+
+    configuration.setProfiling(new ProfilingElement());
+    sourceWriter = new SourceWriterTestStub();
+    writer = new Mvp4gConfigurationFileWriter(sourceWriter,
+                                              configuration);
+    writer.writeConf();
+    assertOutput(getExpectedProfiling(),
+                 true);
+  }
+
+  private String[] getExpectedProfiling() {
+    String profiler = "com.mvp4g.client.ModuleProfiler.INSTANCE";
+    return new String[] { "double phaseStart = " + profiler + ".now();",
+                          "createModule();\nstartModule();\n" + profiler + ".phase(\"Mvp4gModule\", \"createAndStartModule\", phaseStart);",
+                          profiler + ".phase(\"Mvp4gModule\", \"createModule\", phaseStart);",
+                          profiler + ".phase(\"Mvp4gModule\", \"startModule\", phaseStart);",
+                          "double profileStart;",
+                          "profileStart = " + profiler + ".now();\nfinal com.mvp4g.rebind.test_tools.RootView rootView = injector.getrootView();\n" + profiler + ".constructed(\"Mvp4gModule\", \"rootView\", profileStart);",
+                          "profileStart = " + profiler + ".now();\nfinal com.mvp4g.rebind.test_tools.RootPresenter rootPresenter = injector.getrootPresenter();\n" + profiler + ".constructed(\"Mvp4gModule\", \"rootPresenter\", profileStart);",
+                          "if (userService == null){\ndouble profileStart = " + profiler + ".now();\nuserService = GWT.create(com.mvp4g.example.client.services.UserService.class);\n" + profiler + ".constructed(\"Mvp4gModule\", \"userService\", profileStart);\n}",
+                          profiler + ".register(eventBus, \"Mvp4gModule\");",
+                          profiler + ".unregister(eventBus);" };
+  }
+
+  @Test
+  public void testWriteTracingNoAsync() {
+    TypeOracleStub     oracle      = (TypeOracleStub) configuration.getOracle();
+    JClassType         moduleType  = oracle.addClass(Modules.ModuleWithParent01.class);
+    ChildModuleElement childModule = new ChildModuleElement();
+    childModule.setClassName(moduleType.getQualifiedSourceName());
+    childModule.setName("childModule");
+    childModule.setAsync("false");
+    childModule.setAutoDisplay("false");
+    configuration.getChildModules()
+                 .add(childModule);
+
+    configuration.setTracing(new TracingElement());
+    writer.writeConf();
+    assertOutput(new String[] { "final int traceSpan = com.mvp4g.client.event.EventTracer.INSTANCE.begin(\"Mvp4gModule\", \"load childModule\");",
+                                "com.mvp4g.client.event.EventTracer.INSTANCE.end(traceSpan);" },
+                 true);
+    assertOutput(new String[] { "com.mvp4g.client.event.EventTracer.INSTANCE.resume(traceId, traceParent);",
+                                "com.mvp4g.client.event.EventTracer.INSTANCE.release();" },
+                 false);
+  }
+
+  private String[] getExpectedTracing() {
+    return new String[] { "final int traceSpan = com.mvp4g.client.event.EventTracer.INSTANCE.begin(\"Mvp4gModule\", \"test\");",
+                          "int startLogDepth = BaseEventBus.logDepth;",
+                          "com.mvp4g.client.event.EventTracer.INSTANCE.end(traceSpan);",
+                          "final int traceId = com.mvp4g.client.event.EventTracer.INSTANCE.getCurrentTraceId();",
+                          "final int traceParent = com.mvp4g.client.event.EventTracer.INSTANCE.getCurrentSpanId();",
+                          "com.mvp4g.client.event.EventTracer.INSTANCE.resume(traceId, traceParent);",
+                          "final int traceSpan = com.mvp4g.client.event.EventTracer.INSTANCE.begin(\"Mvp4gModule\", \"load childModule\");",
+                          "if(passer != null) passer.pass(newModule);",
+                          "com.mvp4g.client.event.EventTracer.INSTANCE.release();" };
+  }
+
+  @Test
+  public void testWriteMetrics() {
+
+    createHandlers();
+
+    EventElement event = new EventElement();
+    event.setType("test");
+    event.setHandlers(new String[] { "handler1" });
+    event.setEventObjectClass(new String[] { Object.class.getCanonicalName() });
+    configuration.getEvents()
+                 .add(event);
+
+    EventFilterElement filter = new EventFilterElement();
+    filter.setClassName(EventFilter1.class.getCanonicalName());
+    filter.setName("filter1");
+    configuration.getEventFilters()
+                 .add(filter);
+
+    TypeOracleStub     oracle      = (TypeOracleStub) configuration.getOracle();
+    JClassType         moduleType  = oracle.addClass(Modules.ModuleWithParent01.class);
+    ChildModuleElement childModule = new ChildModuleElement();
+    childModule.setClassName(moduleType.getQualifiedSourceName());
+    childModule.setName("childModule");
+    childModule.setAsync("false");
+    childModule.setAutoDisplay("false");
+    configuration.getChildModules()
+                 .add(childModule);
+
+    configuration.setMetrics(new MetricsElement());
+    assertOutput(getExpectedMetrics(),
+                 false);
+    writer.writeConf();
+    assertOutput(getExpectedMetrics(),
+                 true);
+  }
+
+  private String[] getExpectedMetrics() {
+    return new String[] { "protected com.mvp4g.client.event.DefaultEventBusMetrics metrics;",
+                          "com.mvp4g.client.event.DefaultEventBusMetrics getcom_mvp4g_client_event_DefaultEventBusMetrics();",
+                          "metrics = injector.getcom_mvp4g_client_event_DefaultEventBusMetrics();",
+                          "metrics.onEvent(\"test\");",
+                          "metrics.onFilterRejection(\"test\");",
+                          "double metricsStart = metrics.now();",
+                          "metrics.onHandle(\"test\", \"handler1\", metrics.now() - metricsStart);",
+                          "final double metricsStart = metrics.now();",
+                          "metrics.onChildModuleLoad(\"" + Modules.ModuleWithParent01.class.getCanonicalName() + "\", metrics.now() - metricsStart);" };
+  }
+
   private String[] getExpectedDetailedDebug() {
     return new String[] { "protected com.mvp4g.rebind.test_tools.OneLogger logger;",
                           "com.mvp4g.rebind.test_tools.OneLogger getcom_mvp4g_rebind_test_tools_OneLogger();",
                           "logger = injector.getcom_mvp4g_rebind_test_tools_OneLogger();",
+                          "eventBus.setLogLevel(com.mvp4g.client.annotation.Debug.LogLevel.DETAILED);",
+                          "if (isLoggable(com.mvp4g.client.annotation.Debug.LogLevel.DETAILED, \"test2\")){",
                           "int startLogDepth = BaseEventBus.logDepth;",
                           "++BaseEventBus.logDepth;",
                           "++BaseEventBus.logDepth;",
@@ -2090,8 +2904,10 @@ public class Mvp4gConfigurationFileReaderTest {
   }
 
   private String[] getExpectedHistoryParent() {
-    return new String[] { "if(\"child\".equals(moduleHistoryName)){",
-                          "loadchild(null, nextPasser);",
+    return new String[] { "switch (eventType.substring(0, index)){",
+                          "case \"child\":\nloadchild(null, new Mvp4gEventPasser(eventType.substring(index + 1)) {",
+                          "public void pass(Mvp4gModule module) {",
+                          "module.dispatchHistoryEvent((String) eventObjects[0], passer);",
                           "return;" };
   }
 
@@ -2212,10 +3028,8 @@ public class Mvp4gConfigurationFileReaderTest {
   private String[] getExpectedEventFiltersInstantiation() {
     return new String[] { "com.mvp4g.rebind.test_tools.annotation.EventFilters.EventFilter2 getfilter2();",
                           "com.mvp4g.rebind.test_tools.annotation.EventFilters.EventFilter1 getfilter1();",
-                          "final com.mvp4g.rebind.test_tools.annotation.EventFilters.EventFilter2 filter2 = injector.getfilter2();",
-                          "eventBus.addEventFilter(filter2);",
-                          "final com.mvp4g.rebind.test_tools.annotation.EventFilters.EventFilter1 filter1 = injector.getfilter1();",
-                          "eventBus.addEventFilter(filter1);" };
+                          "eventBus.addEventFilter(new com.mvp4g.client.event.LazyEventFilter(){\nprotected com.mvp4g.client.event.EventFilter createFilter(){\nreturn injector.getfilter2();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n});",
+                          "eventBus.addEventFilter(new com.mvp4g.client.event.LazyEventFilter(){\nprotected com.mvp4g.client.event.EventFilter createFilter(){\nreturn injector.getfilter1();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n});" };
   }
 
   private String[] getExpectedEventFilters() {
@@ -2294,13 +3108,71 @@ public class Mvp4gConfigurationFileReaderTest {
 
     writer.writeConf();
 
-    assertOutput(getExpectedEventFilters(),
+    assertOutput(getExpectedDynamicEventFilters(),
                  true);
     assertOutput(getExpectedEventFiltersInstantiation(),
                  false);
 
   }
 
+  private String[] getExpectedDynamicEventFilters() {
+    return new String[] { "if (isFilteringNeeded(\"event2\") && !filterEvent(\"event2\", new Object[]{attr0})){",
+                          "if (isFilteringNeeded(\"event3\") && !filterEvent(\"event3\")){",
+                          "if (isFilteringNeeded(\"event1\") && !filterEvent(\"event1\", new Object[]{attr0,attr1})){" };
+  }
+
+  @Test
+  public void testWriteScopedEventFilters() {
+
+    EventFilterElement filter = new EventFilterElement();
+    filter.setClassName(EventFilter1.class.getCanonicalName());
+    filter.setName("filter1");
+    filter.setEvents(new String[] { "event1" });
+    EventFilterElement filter2 = new EventFilterElement();
+    filter2.setClassName(EventFilter2.class.getCanonicalName());
+    filter2.setName("filter2");
+    filter2.setEvents(new String[] { "event1",
+                                     "event2" });
+
+    configuration.getEventFilters()
+                 .add(filter);
+    configuration.getEventFilters()
+                 .add(filter2);
+
+    EventElement e1 = new EventElement();
+    e1.setType("event1");
+    e1.setEventObjectClass(new String[] { "java.lang.String",
+                                          "java.lang.Object" });
+
+    EventElement e2 = new EventElement();
+    e2.setType("event2");
+    e2.setEventObjectClass(new String[] { "java.lang.String" });
+
+    EventElement e3 = new EventElement();
+    e3.setType("event3");
+
+    configuration.getEvents()
+                 .add(e1);
+    configuration.getEvents()
+                 .add(e2);
+    configuration.getEvents()
+                 .add(e3);
+
+    writer.writeConf();
+
+    assertOutput(new String[] { "return injector.getfilter1();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n}, new String[]{\"event1\"});",
+                                "return injector.getfilter2();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n}, new String[]{\"event1\", \"event2\"});",
+                                "if (!filterEvent(\"event1\", new Object[]{attr0,attr1})){",
+                                "if (!filterEvent(\"event2\", new Object[]{attr0})){",
+                                "if (isFilteringNeeded(\"event3\") && !filterEvent(\"event3\")){" },
+                 true);
+    assertOutput(new String[] { "return injector.getfilter1();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n});",
+                                "return injector.getfilter2();\n}\nprotected boolean isUnloaded(){\nreturn unloaded;\n}\n});",
+                                "if (!filterEvent(\"event3\")){" },
+                 false);
+
+  }
+
   @Test
   public void testWriteEventFiltersWithLog() {
 
@@ -2358,7 +3230,8 @@ public class Mvp4gConfigurationFileReaderTest {
   }
 
   private String[] getExpectedEventFiltersLog() {
-    return new String[] { "logger.log(\"event event2 didn't pass filter(s)\", BaseEventBus.logDepth);",
+    return new String[] { "if (isLoggable(com.mvp4g.client.annotation.Debug.LogLevel.DETAILED, \"event2\")){",
+                          "logger.log(\"event event2 didn't pass filter(s)\", BaseEventBus.logDepth);",
                           "logger.log(\"event event3 didn't pass filter(s)\", BaseEventBus.logDepth);",
                           "logger.log(\"event event1 didn't pass filter(s)\", BaseEventBus.logDepth);" };
   }
@@ -2613,19 +3486,19 @@ public class Mvp4gConfigurationFileReaderTest {
   }
 
   private String[] getExpectedSplitterPassiveGenerateMultiple() {
-    return new String[] { "List<com.mvp4g.rebind.test_tools.annotation.presenters.SimplePresenter01> handlerspresenterMultiple = eventBus.getHandlers(com.mvp4g.rebind.test_tools.annotation.presenters.SimplePresenter01.class);",
+    return new String[] { "EventHandlerInterface<?>[] handlerspresenterMultiple = eventBus.getHandlerSnapshot(com.mvp4g.rebind.test_tools.annotation.presenters.SimplePresenter01.class);",
                           "if(handlerspresenterMultiple!= null){",
                           "com.mvp4g.rebind.test_tools.annotation.presenters.SimplePresenter01 handler;",
-                          "int handlerCount = handlerspresenterMultiple.size();",
+                          "int handlerCount = handlerspresenterMultiple.length;",
                           "for(int i=0; i<handlerCount; i++){",
-                          "handler = handlerspresenterMultiple.get(i);",
+                          "handler = (com.mvp4g.rebind.test_tools.annotation.presenters.SimplePresenter01) handlerspresenterMultiple[i];",
                           "if (handler.isActivated(true, \"event1\", new Object[]{attr0,attr1})){",
                           "handler.onEvent1(attr0,attr1);",
-                          "List<com.mvp4g.rebind.test_tools.annotation.handlers.SimpleEventHandler01> handlerseventHandlerMultiple = eventBus.getHandlers(com.mvp4g.rebind.test_tools.annotation.handlers.SimpleEventHandler01.class);",
+                          "EventHandlerInterface<?>[] handlerseventHandlerMultiple = eventBus.getHandlerSnapshot(com.mvp4g.rebind.test_tools.annotation.handlers.SimpleEventHandler01.class);",
                           "if(handlerseventHandlerMultiple!= null){",
                           "com.mvp4g.rebind.test_tools.annotation.handlers.SimpleEventHandler01 handler;",
-                          "int handlerCount = handlerseventHandlerMultiple.size();",
-                          "handler = handlerseventHandlerMultiple.get(i);",
+                          "int handlerCount = handlerseventHandlerMultiple.length;",
+                          "handler = (com.mvp4g.rebind.test_tools.annotation.handlers.SimpleEventHandler01) handlerseventHandlerMultiple[i];",
                           "handler.setActivated(true);",
                           "handler.setActivated(false);",
                           "public void event5(String attr0,String attr1,String attr2){",
@@ -2658,10 +3531,10 @@ public class Mvp4gConfigurationFileReaderTest {
   }
 
   private String[] getExpectedSplitterWithLoader() {
-    return new String[] { "loader.preLoad( eventBus, eventName, params, new Command(){",
+    return new String[] { "get_loader().preLoad( eventBus, eventName, params, new Command(){",
                           "public void execute() {",
-                          "loader.onSuccess(eventBus, eventName, params );",
-                          "loader.onFailure( eventBus, eventName, params, reason );" };
+                          "get_loader().onSuccess(eventBus, eventName, params );",
+                          "get_loader().onFailure( eventBus, eventName, params, reason );" };
   }
 
   @Test
@@ -2912,7 +3785,8 @@ public class Mvp4gConfigurationFileReaderTest {
                           "((SplitterRunAsyncImplsuffix) GWT.create(SplitterRunAsyncImplsuffix.class)).load(new SplitterMultipleRunAsyncCallbacksuffix(){",
                           "interface childModuleRunAsyncCallbacksuffix extends com.google.gwt.core.client.RunAsyncCallback {}",
                           "interface childModuleRunAsyncsuffix extends com.mvp4g.client.Mvp4gRunAsync<childModuleRunAsyncCallbacksuffix> {}",
-                          "((com.mvp4g.client.Mvp4gRunAsync) GWT.create(childModuleRunAsyncsuffix.class )).load( new childModuleRunAsyncCallbacksuffix() {public void onSuccess() {" };
+                          "((com.mvp4g.client.Mvp4gRunAsync) GWT.create(childModuleRunAsyncsuffix.class )).load( new childModuleRunAsyncCallbacksuffix() {",
+                          "public void onSuccess() {" };
   }
 
   @Test
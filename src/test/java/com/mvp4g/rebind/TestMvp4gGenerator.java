@@ -54,7 +54,8 @@ public class TestMvp4gGenerator {
                                               "com.mvp4g.client.Mvp4gRunAsync",
                                               "com.google.gwt.user.client.Command",
                                               "com.mvp4g.client.history.HistoryProxyProvider",
-                                              "com.mvp4g.client.history.DefaultHistoryProxy" };
+                                              "com.mvp4g.client.history.DefaultHistoryProxy",
+                                              "com.mvp4g.client.event.EventShaper" };
     assertArrayEquals(classesToImport,
                       generator.getClassesToImport());
   }
@@ -34,11 +34,15 @@ import com.google.gwt.inject.client.GinModule;
 import com.mvp4g.client.DefaultMvp4gGinModule;
 import com.mvp4g.client.Mvp4gModule;
 import com.mvp4g.client.SingleSplitter;
+import com.mvp4g.client.annotation.Event;
+import com.mvp4g.client.annotation.History.HistoryConverterType;
 import com.mvp4g.client.event.BaseEventBus;
 import com.mvp4g.client.event.BaseEventHandler;
+import com.mvp4g.client.event.DefaultEventBusMetrics;
 import com.mvp4g.client.event.DefaultMvp4gLogger;
 import com.mvp4g.client.event.EventBus;
 import com.mvp4g.client.event.EventBusWithLookup;
+import com.mvp4g.client.event.EventBusMetrics;
 import com.mvp4g.client.event.EventFilter;
 import com.mvp4g.client.event.Mvp4gLogger;
 import com.mvp4g.client.history.ClearHistory;
@@ -52,11 +56,13 @@ import com.mvp4g.rebind.config.element.EventElement;
 import com.mvp4g.rebind.config.element.EventFilterElement;
 import com.mvp4g.rebind.config.element.EventFiltersElement;
 import com.mvp4g.rebind.config.element.EventHandlerElement;
+import com.mvp4g.rebind.config.element.FlightRecorderElement;
 import com.mvp4g.rebind.config.element.GinModuleElement;
 import com.mvp4g.rebind.config.element.HistoryConverterElement;
 import com.mvp4g.rebind.config.element.HistoryElement;
 import com.mvp4g.rebind.config.element.InjectedElement;
 import com.mvp4g.rebind.config.element.LoaderElement;
+import com.mvp4g.rebind.config.element.MetricsElement;
 import com.mvp4g.rebind.config.element.PresenterElement;
 import com.mvp4g.rebind.config.element.ServiceElement;
 import com.mvp4g.rebind.config.element.SplitterElement;
@@ -75,6 +81,8 @@ import com.mvp4g.rebind.test_tools.OneObject;
 import com.mvp4g.rebind.test_tools.PropertyOracleStub;
 import com.mvp4g.rebind.test_tools.Splitters;
 import com.mvp4g.rebind.test_tools.annotation.EventFilters;
+import com.mvp4g.rebind.test_tools.annotation.Events.EventBusWithHistoryChild;
+import com.mvp4g.rebind.test_tools.annotation.Events.EventBusWithHistoryGrandChild;
 import com.mvp4g.rebind.test_tools.annotation.Events.EventBusWithNoStartPresenter;
 import com.mvp4g.rebind.test_tools.annotation.HistoryConverters;
 import com.mvp4g.rebind.test_tools.annotation.Presenters;
@@ -84,6 +92,7 @@ import com.mvp4g.rebind.test_tools.annotation.TestBroadcast2;
 import com.mvp4g.rebind.test_tools.annotation.events.EventBusOk;
 import com.mvp4g.rebind.test_tools.annotation.gin.OneGinModule;
 import com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithEvent;
+import com.mvp4g.rebind.test_tools.annotation.handlers.EventHandlerWithPass;
 import com.mvp4g.rebind.test_tools.annotation.handlers.SimpleEventHandler01;
 import com.mvp4g.rebind.test_tools.annotation.handlers.SimpleEventHandler02;
 import com.mvp4g.rebind.test_tools.annotation.handlers.SimpleEventHandler03;
@@ -105,6 +114,7 @@ import com.mvp4g.rebind.test_tools.annotation.views.SimpleView02;
 import com.mvp4g.rebind.test_tools.annotation.views.SimpleView03;
 import com.mvp4g.rebind.test_tools.annotation.views.SimpleView04;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -644,6 +654,40 @@ public class Mvp4gConfigurationTest {
 
   }
 
+  @Test
+  public void testEventHandlerActivationWithoutPass()
+    throws InvalidMvp4gConfigurationException {
+
+    ViewElement view = newView(SimpleView01.class,
+                               "view");
+    views.add(view);
+
+    PresenterElement presenter = newPresenter(SimplePresenter01.class,
+                                              "presenter");
+    presenter.setView("view");
+    presenters.add(presenter);
+
+    EventHandlerElement eventHandler = newEventHandler(SimpleEventHandler01.class,
+                                                       "eventHandler");
+    eventHandlers.add(eventHandler);
+
+    EventHandlerElement eventHandlerWithPass = newEventHandler(EventHandlerWithPass.class,
+                                                               "eventHandlerWithPass");
+    eventHandlers.add(eventHandlerWithPass);
+
+    EventElement event = newEvent("testEvent");
+    event.setHandlers(new String[] { "presenter",
+                                     "eventHandler",
+                                     "eventHandlerWithPass" });
+    events.add(event);
+
+    setEventBus();
+    configuration.validateEventHandlers();
+    assertTrue(presenter.hasActivationWithoutPass());
+    assertTrue(eventHandler.hasActivationWithoutPass());
+    assertFalse(eventHandlerWithPass.hasActivationWithoutPass());
+  }
+
   @Test
   public void testEventHandlerWrongInjectedView()
     throws InvalidMvp4gConfigurationException {
@@ -1180,6 +1224,44 @@ public class Mvp4gConfigurationTest {
     configuration.validateHistoryConverters();
   }
 
+  @Test
+  public void testEventHistoryConverterPureToken()
+    throws InvalidMvp4gConfigurationException {
+    historyConverters.add(newHistoryConverter(HistoryConverters.HistoryConverterWithPureMethod.class,
+                                              "hc1"));
+    HistoryConverterElement hc2 = newHistoryConverter(HistoryConverters.PureHistoryConverter.class,
+                                                      "hc2");
+    hc2.setType(HistoryConverterType.SIMPLE.name());
+    historyConverters.add(hc2);
+
+    EventElement pureEvent = newEvent("pureEvent");
+    pureEvent.setHistory("hc1");
+    pureEvent.setWithTokenGeneration("true");
+    events.add(pureEvent);
+
+    EventElement notPureEvent = newEvent("notPureEvent");
+    notPureEvent.setHistory("hc1");
+    notPureEvent.setWithTokenGeneration("true");
+    events.add(notPureEvent);
+
+    EventElement simpleEvent = newEvent("simpleEvent");
+    simpleEvent.setHistory("hc2");
+    simpleEvent.setWithTokenGeneration("true");
+    events.add(simpleEvent);
+
+    EventElement noTokenEvent = newEvent("noTokenEvent");
+    noTokenEvent.setHistory("hc2");
+    events.add(noTokenEvent);
+
+    setEventBus();
+    configuration.validateHistoryConverters();
+
+    assertTrue(pureEvent.isPureToken());
+    assertFalse(notPureEvent.isPureToken());
+    assertTrue(simpleEvent.isPureToken());
+    assertFalse(noTokenEvent.isPureToken());
+  }
+
   @Test(expected = UnknownConfigurationElementException.class)
   public void testStartEventFails()
     throws InvalidMvp4gConfigurationException {
@@ -1999,6 +2081,77 @@ public class Mvp4gConfigurationTest {
                  childModule1.getHistoryName());
   }
 
+  @Test
+  public void testFindHistoryManifest()
+    throws InvalidMvp4gConfigurationException {
+    String child = Modules.ModuleWithParent01.class.getCanonicalName();
+    String grandChild = Modules.ModuleWithParent02.class.getCanonicalName();
+    oracle.addClass(Modules.ModuleWithParent02.class);
+    oracle.addClass(Modules.ModuleWithParentNoName.class);
+    Map<String, JClassType> eventBusMap = configuration.getOthersEventBusClassMap();
+    eventBusMap.put(child,
+                    oracle.addClass(EventBusWithHistoryChild.class));
+    eventBusMap.put(grandChild,
+                    oracle.addClass(EventBusWithHistoryGrandChild.class));
+
+    ChildModuleElement childModule = newChildModule(Modules.ModuleWithParent01.class,
+                                                    "child");
+    childModule.setHistoryName("child");
+    childModules.add(childModule);
+
+    configuration.findHistoryManifest();
+
+    List<String> manifest = configuration.getHistoryManifest();
+    assertEquals(3,
+                 manifest.size());
+    assertTrue(manifest.contains("child/event1"));
+    assertTrue(manifest.contains("child/historyName"));
+    assertTrue(manifest.contains("child/moduleWithParent02/event4"));
+
+    Map<String, List<String>> splitPoints = configuration.getHistorySplitPoints();
+    assertEquals(2,
+                 splitPoints.size());
+    assertEquals(Arrays.asList(child),
+                 splitPoints.get("child"));
+    assertEquals(Arrays.asList(child,
+                               grandChild),
+                 splitPoints.get("child/moduleWithParent02"));
+
+    childModule.setAsync("false");
+    configuration.findHistoryManifest();
+    assertEquals(3,
+                 configuration.getHistoryManifest()
+                              .size());
+    assertEquals(Arrays.asList(grandChild),
+                 configuration.getHistorySplitPoints()
+                              .get("child/moduleWithParent02"));
+    assertNull(configuration.getHistorySplitPoints()
+                            .get("child"));
+
+    oracle.setGWT2(false);
+    configuration.findHistoryManifest();
+    assertTrue(configuration.getHistorySplitPoints()
+                            .isEmpty());
+  }
+
+  @Test
+  public void testFindHistoryManifestNotRoot()
+    throws InvalidMvp4gConfigurationException {
+    configuration.getOthersEventBusClassMap()
+                 .put(Modules.ModuleWithParent01.class.getCanonicalName(),
+                      oracle.addClass(EventBusWithHistoryChild.class));
+    ChildModuleElement childModule = newChildModule(Modules.ModuleWithParent01.class,
+                                                    "child");
+    childModule.setHistoryName("child");
+    childModules.add(childModule);
+
+    configuration.setModule(oracle.addClass(Modules.Module01.class));
+    configuration.setParentEventBus(oracle.addClass(EventBusWithLookup.class));
+    configuration.findHistoryManifest();
+    assertTrue(configuration.getHistoryManifest()
+                            .isEmpty());
+  }
+
   @Test(expected = InvalidMvp4gConfigurationException.class)
   public void testFindChildModuleSameHistory()
     throws InvalidMvp4gConfigurationException {
@@ -2679,6 +2832,36 @@ public class Mvp4gConfigurationTest {
     return eventFilter;
   }
 
+  @Test
+  public void testScopedEventFilters()
+    throws InvalidMvp4gConfigurationException {
+    EventBusElement eventBus = new EventBusElement(EventBusWithLookup.class.getName(),
+                                                   BaseEventBus.class.getName(),
+                                                   false);
+    configuration.setEventBus(eventBus);
+
+    EventFilterElement filter = newEventFilter(EventFilters.EventFilter4.class,
+                                               "filter");
+    eventFilters.add(filter);
+    events.add(newEvent("event1"));
+
+    try {
+      configuration.validateEventFilters();
+      fail();
+    } catch (InvalidMvp4gConfigurationException e) {
+      assertEquals("Event Filter " + EventFilters.EventFilter4.class.getCanonicalName() + ": the filter is set for the event event2 but the event bus has no event with this name.",
+                   e.getMessage());
+    }
+
+    events.add(newEvent("event2"));
+    configuration.validateEventFilters();
+    assertArrayEquals(new String[] { "event1",
+                                     "event2" },
+                      filter.getEvents());
+    assertTrue(filter.isFiltering("event1"));
+    assertFalse(filter.isFiltering("event3"));
+  }
+
   @Test
   public void testEventFiltersWrongClass()
     throws InvalidMvp4gConfigurationException {
@@ -2724,6 +2907,76 @@ public class Mvp4gConfigurationTest {
 
   }
 
+  @Test
+  public void testEventShaping()
+    throws InvalidMvp4gConfigurationException {
+    configuration.setHistory(null);
+    EventElement e = newEvent("event");
+    e.setShaping(Event.Shaping.DEBOUNCE.name());
+    events.add(e);
+
+    try {
+      configuration.validateEvents();
+      fail();
+    } catch (InvalidMvp4gConfigurationException ex) {
+      assertEquals("Event event: the DEBOUNCE shaping needs a shaping window greater than 0.",
+                   ex.getMessage());
+    }
+
+    e.setShapingWindow("100");
+    configuration.validateEvents();
+
+    e.setShaping(Event.Shaping.DISTINCT.name());
+    try {
+      configuration.validateEvents();
+      fail();
+    } catch (InvalidMvp4gConfigurationException ex) {
+      assertEquals("Event event: the DISTINCT shaping needs an event with at least one parameter.",
+                   ex.getMessage());
+    }
+
+    e.setEventObjectClass(new String[] { String.class.getName() });
+    configuration.validateEvents();
+
+    e.setWithTokenGeneration(Boolean.TRUE.toString());
+    try {
+      configuration.validateEvents();
+      fail();
+    } catch (InvalidMvp4gConfigurationException ex) {
+      assertEquals("Event event: an event that generates a token can't be shaped.",
+                   ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testDeferredEvent()
+    throws InvalidMvp4gConfigurationException {
+    configuration.setHistory(null);
+    EventElement e = newEvent("event");
+    e.setDeferred(Boolean.TRUE.toString());
+    events.add(e);
+    configuration.validateEvents();
+
+    e.setShaping(Event.Shaping.COALESCE.name());
+    try {
+      configuration.validateEvents();
+      fail();
+    } catch (InvalidMvp4gConfigurationException ex) {
+      assertEquals("Event event: an event can't be deferred and shaped at the same time.",
+                   ex.getMessage());
+    }
+
+    e.setShaping(Event.Shaping.NONE.name());
+    e.setWithTokenGeneration(Boolean.TRUE.toString());
+    try {
+      configuration.validateEvents();
+      fail();
+    } catch (InvalidMvp4gConfigurationException ex) {
+      assertEquals("Event event: an event that generates a token can't be deferred.",
+                   ex.getMessage());
+    }
+  }
+
   @Test
   public void testForwardEventWithParameter()
     throws InvalidMvp4gConfigurationException {
@@ -2952,6 +3205,55 @@ public class Mvp4gConfigurationTest {
     configuration.validateDebug();
   }
 
+  @Test
+  public void testMetrics()
+    throws NotFoundClassException, InvalidTypeException {
+    MetricsElement metrics = new MetricsElement();
+    oracle.addClass(OneObject.class);
+    metrics.setMetrics(OneObject.class.getCanonicalName());
+    configuration.setMetrics(metrics);
+    try {
+      configuration.validateMetrics();
+      fail();
+    } catch (InvalidTypeException e) {
+      assertTrue(e.getMessage()
+                  .contains(EventBusMetrics.class.getCanonicalName()));
+    }
+
+    metrics = new MetricsElement();
+    oracle.addClass(DefaultEventBusMetrics.class);
+    configuration.setMetrics(metrics);
+    assertSame(metrics,
+               configuration.getMetrics());
+    configuration.validateMetrics();
+
+    configuration.setMetrics(null);
+    configuration.validateMetrics();
+  }
+
+  @Test
+  public void testFlightRecorder()
+    throws InvalidMvp4gConfigurationException {
+    FlightRecorderElement flightRecorder = new FlightRecorderElement();
+    flightRecorder.setCapacity("0");
+    configuration.setFlightRecorder(flightRecorder);
+    try {
+      configuration.validateFlightRecorder();
+      fail();
+    } catch (InvalidMvp4gConfigurationException e) {
+      assertTrue(e.getMessage()
+                  .contains("0 is not valid"));
+    }
+
+    flightRecorder.setCapacity("16");
+    assertSame(flightRecorder,
+               configuration.getFlightRecorder());
+    configuration.validateFlightRecorder();
+
+    configuration.setFlightRecorder(null);
+    configuration.validateFlightRecorder();
+  }
+
   @Test
   public void testGin01()
     throws InvalidMvp4gConfigurationException {
@@ -3166,6 +3468,23 @@ public class Mvp4gConfigurationTest {
     configuration.validateHistoryConverters();
   }
 
+  @Test
+  public void testParentEventName() {
+    EventElement event1 = new EventElement();
+    event1.setType("event1");
+    EventElement event2 = new EventElement();
+    event2.setType("event2");
+
+    assertEquals("event2",
+                 configuration.getParentEventName(event2));
+
+    configuration.setParentEventBus(oracle.addClass(EventBusWithHistoryChild.class));
+    assertEquals("event1",
+                 configuration.getParentEventName(event1));
+    assertEquals("historyName",
+                 configuration.getParentEventName(event2));
+  }
+
   @Test
   public void testValidateSplitterStartPresenter() {
     setEventBus();
@@ -22,6 +22,7 @@ import com.google.gwt.core.ext.typeinfo.JClassType;
 import com.google.gwt.dev.javac.typemodel.TypeOracleStub;
 import com.mvp4g.rebind.test_tools.annotation.events.EventBusOk;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -35,7 +36,8 @@ public class ChildModuleElementTest
                                                                                                  "autoDisplay",
                                                                                                  "historyName",
                                                                                                  "parentModuleClass",
-                                                                                                 "loader" });
+                                                                                                 "loader",
+                                                                                                 "prefetch" });
 
   @Test
   public void testIsAsyncPath() {
@@ -69,6 +71,18 @@ public class ChildModuleElementTest
     assertFalse(childModuleElement.isAutoDisplay());
   }
 
+  @Test
+  public void testPrefetch() {
+    ChildModuleElement childModuleElement = new ChildModuleElement();
+    assertEquals("NONE",
+                 childModuleElement.getPrefetch());
+    assertFalse(childModuleElement.isPrefetched());
+    childModuleElement.setPrefetch("ON_IDLE");
+    assertTrue(childModuleElement.isPrefetched());
+    childModuleElement.setPrefetch("NONE");
+    assertFalse(childModuleElement.isPrefetched());
+  }
+
   @Test
   public void testParentEventBus() {
     ChildModuleElement childModuleElement = new ChildModuleElement();
@@ -16,6 +16,12 @@
 
 package com.mvp4g.rebind.config.element;
 
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 public class ChildModulesElementTest
   extends AbstractMvp4gElementTest<ChildModulesElement> {
 
@@ -43,4 +49,19 @@ public class ChildModulesElementTest
     return properties;
   }
 
+  @Test
+  public void testEviction() {
+    ChildModulesElement childModulesElement = new ChildModulesElement();
+    assertEquals("0",
+                 childModulesElement.getMaxLoaded());
+    assertEquals("0",
+                 childModulesElement.getIdleTimeout());
+    assertFalse(childModulesElement.isEvicting());
+    childModulesElement.setMaxLoaded("3");
+    assertTrue(childModulesElement.isEvicting());
+    childModulesElement.setMaxLoaded("0");
+    childModulesElement.setIdleTimeout("60000");
+    assertTrue(childModulesElement.isEvicting());
+  }
+
 }
@@ -20,6 +20,8 @@ import java.util.List;
 
 import org.junit.Test;
 
+import com.mvp4g.client.annotation.Event;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -332,4 +334,32 @@ public class EventElementTest
     assertFalse(element.isPassive());
   }
 
+  @Test
+  public void testShaping() {
+    assertFalse(element.hasShaping());
+    assertEquals(0,
+                 element.getShapingWindow());
+    element.setShaping(Event.Shaping.NONE.name());
+    assertFalse(element.hasShaping());
+    element.setShaping(Event.Shaping.THROTTLE.name());
+    element.setShapingWindow("50");
+    assertTrue(element.hasShaping());
+    assertEquals(Event.Shaping.THROTTLE.name(),
+                 element.getShaping());
+    assertEquals(50,
+                 element.getShapingWindow());
+  }
+
+  @Test
+  public void testDeferred() {
+    assertFalse(element.isDeferred());
+    assertEquals(Event.Lane.NORMAL.name(),
+                 element.getLane());
+    element.setDeferred(Boolean.TRUE.toString());
+    element.setLane(Event.Lane.INPUT.name());
+    assertTrue(element.isDeferred());
+    assertEquals(Event.Lane.INPUT.name(),
+                 element.getLane());
+  }
+
 }
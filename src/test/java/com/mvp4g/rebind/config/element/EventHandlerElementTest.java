@@ -18,6 +18,7 @@ package com.mvp4g.rebind.config.element;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -62,4 +63,22 @@ public class EventHandlerElementTest
     assertTrue(element.isAsync());
   }
 
+  @Test
+  public void testEager() {
+    EventHandlerElement element = new EventHandlerElement();
+    assertFalse(element.isEager());
+    element.setEager("true");
+    assertTrue(element.isEager());
+  }
+
+  @Test
+  public void testPoolSize() {
+    EventHandlerElement element = new EventHandlerElement();
+    assertEquals("0",
+                 element.getPoolSize());
+    assertFalse(element.isPooled());
+    element.setPoolSize("5");
+    assertTrue(element.isPooled());
+  }
+
 }
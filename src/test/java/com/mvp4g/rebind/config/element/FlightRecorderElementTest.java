@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.rebind.config.element;
+
+import org.junit.Test;
+
+import com.mvp4g.client.event.EventFlightRecorder;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlightRecorderElementTest
+  extends AbstractMvp4gElementTest<FlightRecorderElement> {
+
+  protected static final String[] properties = { "capacity" };
+
+  @Test
+  public void testDefaultCapacity() {
+    assertEquals(Integer.toString(EventFlightRecorder.DEFAULT_CAPACITY),
+                 element.getCapacity());
+  }
+
+  @Override
+  protected FlightRecorderElement newElement() {
+    return new FlightRecorderElement();
+  }
+
+  @Override
+  protected String getTag() {
+    return "flightRecorder";
+  }
+
+  @Override
+  protected String getUniqueIdentifierName() {
+    return FlightRecorderElement.class.getName();
+  }
+
+  @Override
+  protected String[] getProperties() {
+    return properties;
+  }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2009 - 2017 - Pierre-Laurent Coirer, Frank Hossfeld
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.mvp4g.rebind.config.element;
+
+public class TracingElementTest
+  extends AbstractMvp4gElementTest<TracingElement> {
+
+  protected static final String[] properties = {};
+
+  @Override
+  protected TracingElement newElement() {
+    return new TracingElement();
+  }
+
+  @Override
+  protected String getTag() {
+    return "tracing";
+  }
+
+  @Override
+  protected String getUniqueIdentifierName() {
+    return TracingElement.class.getName();
+  }
+
+  @Override
+  protected String[] getProperties() {
+    return properties;
+  }
+
+}
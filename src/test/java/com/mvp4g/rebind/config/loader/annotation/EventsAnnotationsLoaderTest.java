@@ -25,6 +25,7 @@ import com.mvp4g.client.annotation.Filters;
 import com.mvp4g.client.annotation.module.ChildModules;
 import com.mvp4g.client.event.BaseEventBus;
 import com.mvp4g.client.event.BaseEventBusWithLookUp;
+import com.mvp4g.client.event.DefaultEventBusMetrics;
 import com.mvp4g.client.event.DefaultMvp4gLogger;
 import com.mvp4g.client.history.DefaultHistoryProxy;
 import com.mvp4g.rebind.config.Mvp4gConfiguration;
@@ -724,14 +725,24 @@ public class EventsAnnotationsLoaderTest {
         assertTrue(child.isAutoDisplay());
         assertEquals("event1",
                      child.getEventToDisplayView());
+        assertEquals("ON_IDLE",
+                     child.getPrefetch());
       } else if (Modules.ModuleWithParent01.class.getCanonicalName()
                                                  .equals(child.getClassName())) {
         assertFalse(child.isAsync());
         assertFalse(child.isAutoDisplay());
+        assertEquals("NONE",
+                     child.getPrefetch());
       } else {
         fail("Unknown child module");
       }
     }
+    assertEquals("1",
+                 configuration.getLoadChildConfig()
+                              .getMaxLoaded());
+    assertEquals("60000",
+                 configuration.getLoadChildConfig()
+                              .getIdleTimeout());
 
     Set<EventElement> events = configuration.getEvents();
     assertEquals(4,
@@ -1214,6 +1225,76 @@ public class EventsAnnotationsLoaderTest {
 
   }
 
+  @Test
+  public void testMetrics()
+    throws Mvp4gAnnotationException {
+    List<JClassType> annotedClasses = new ArrayList<JClassType>();
+    annotedClasses.add(oracle.addClass(PresenterWithName.class));
+    new PresenterAnnotationsLoader().load(annotedClasses,
+                                          configuration);
+
+    annotedClasses.clear();
+    annotedClasses.add(oracle.addClass(Events.EventBusWithMetrics.class));
+    loader.load(annotedClasses,
+                configuration);
+    assertEquals(DefaultEventBusMetrics.class.getCanonicalName(),
+                 configuration.getMetrics()
+                              .getMetrics());
+
+  }
+
+  @Test
+  public void testFlightRecorder()
+    throws Mvp4gAnnotationException {
+    List<JClassType> annotedClasses = new ArrayList<JClassType>();
+    annotedClasses.add(oracle.addClass(PresenterWithName.class));
+    new PresenterAnnotationsLoader().load(annotedClasses,
+                                          configuration);
+
+    annotedClasses.clear();
+    annotedClasses.add(oracle.addClass(Events.EventBusWithFlightRecorder.class));
+    loader.load(annotedClasses,
+                configuration);
+    assertEquals("64",
+                 configuration.getFlightRecorder()
+                              .getCapacity());
+
+  }
+
+  @Test
+  public void testTracing()
+    throws Mvp4gAnnotationException {
+    List<JClassType> annotedClasses = new ArrayList<JClassType>();
+    annotedClasses.add(oracle.addClass(PresenterWithName.class));
+    new PresenterAnnotationsLoader().load(annotedClasses,
+                                          configuration);
+
+    annotedClasses.clear();
+    annotedClasses.add(oracle.addClass(Events.EventBusWithTracing.class));
+    assertNull(configuration.getTracing());
+    loader.load(annotedClasses,
+                configuration);
+    assertNotNull(configuration.getTracing());
+
+  }
+
+  @Test
+  public void testProfiling()
+    throws Mvp4gAnnotationException {
+    List<JClassType> annotedClasses = new ArrayList<JClassType>();
+    annotedClasses.add(oracle.addClass(PresenterWithName.class));
+    new PresenterAnnotationsLoader().load(annotedClasses,
+                                          configuration);
+
+    annotedClasses.clear();
+    annotedClasses.add(oracle.addClass(Events.EventBusWithProfiling.class));
+    assertNull(configuration.getProfiling());
+    loader.load(annotedClasses,
+                configuration);
+    assertNotNull(configuration.getProfiling());
+
+  }
+
   @Test
   public void testCustomLogger()
     throws Mvp4gAnnotationException {
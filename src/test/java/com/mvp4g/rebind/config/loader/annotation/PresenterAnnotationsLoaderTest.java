@@ -24,6 +24,7 @@ import org.junit.Test;
 
 import com.google.gwt.core.ext.typeinfo.JClassType;
 import com.mvp4g.client.annotation.Presenter;
+import com.mvp4g.client.event.Recyclable;
 import com.mvp4g.rebind.config.element.PresenterElement;
 import com.mvp4g.rebind.config.element.ViewElement;
 import com.mvp4g.rebind.exception.loader.Mvp4gAnnotationException;
@@ -34,6 +35,7 @@ import com.mvp4g.rebind.test_tools.annotation.presenters.PresenterWithName;
 import com.mvp4g.rebind.test_tools.annotation.presenters.SimplePresenter01;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class PresenterAnnotationsLoaderTest
   extends AbstractHandlerAnnotationsLoaderTest<Presenter, PresenterElement, PresenterAnnotationsLoader> {
@@ -78,6 +80,66 @@ public class PresenterAnnotationsLoaderTest
 
   }
 
+  @Test
+  public void testPooled()
+    throws Mvp4gAnnotationException {
+    List<JClassType> annotedClasses = new ArrayList<JClassType>();
+    annotedClasses.add(oracle.addClass(Presenters.PooledPresenter.class));
+    loader.load(annotedClasses,
+                configuration);
+    PresenterElement presenter = configuration.getPresenters()
+                                              .iterator()
+                                              .next();
+    assertTrue(presenter.isPooled());
+    assertEquals("2",
+                 presenter.getPoolSize());
+  }
+
+  @Test
+  public void testEager()
+    throws Mvp4gAnnotationException {
+    List<JClassType> annotedClasses = new ArrayList<JClassType>();
+    annotedClasses.add(oracle.addClass(Presenters.EagerPresenter.class));
+    annotedClasses.add(oracle.addClass(Presenters.MultiplePresenter.class));
+    loader.load(annotedClasses,
+                configuration);
+    for (PresenterElement presenter : configuration.getPresenters()) {
+      assertEquals(Presenters.EagerPresenter.class.getCanonicalName()
+                                                  .equals(presenter.getClassName()),
+                   presenter.isEager());
+    }
+  }
+
+  @Test(expected = Mvp4gAnnotationException.class)
+  public void testPooledNotRecyclable()
+    throws Mvp4gAnnotationException {
+    List<JClassType> annotedClasses = new ArrayList<JClassType>();
+    annotedClasses.add(oracle.addClass(Presenters.PooledPresenterNotRecyclable.class));
+    try {
+      loader.load(annotedClasses,
+                  configuration);
+    } catch (Mvp4gAnnotationException e) {
+      assertTrue(e.getMessage()
+                  .contains("A pooled handler must implement " + Recyclable.class.getCanonicalName()));
+      throw e;
+    }
+  }
+
+  @Test(expected = Mvp4gAnnotationException.class)
+  public void testPooledNotMultiple()
+    throws Mvp4gAnnotationException {
+    List<JClassType> annotedClasses = new ArrayList<JClassType>();
+    annotedClasses.add(oracle.addClass(Presenters.PooledPresenterNotMultiple.class));
+    try {
+      loader.load(annotedClasses,
+                  configuration);
+    } catch (Mvp4gAnnotationException e) {
+      assertTrue(e.getMessage()
+                  .contains("Only a multiple handler can be pooled"));
+      throw e;
+    }
+  }
+
   @Override
   protected Class<?> getClassNotPublic() {
     return Presenters.PresenterNotPublic.class;
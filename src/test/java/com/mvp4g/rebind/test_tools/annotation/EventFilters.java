@@ -16,6 +16,7 @@
 
 package com.mvp4g.rebind.test_tools.annotation;
 
+import com.mvp4g.client.annotation.FilterEvents;
 import com.mvp4g.client.event.EventBus;
 import com.mvp4g.client.event.EventBusWithLookup;
 import com.mvp4g.client.event.EventFilter;
@@ -55,4 +56,16 @@ public class EventFilters {
 
   }
 
+  @FilterEvents({ "event1", "event2" })
+  public static class EventFilter4
+    implements EventFilter<EventBus> {
+
+    public boolean filterEvent(String eventType,
+                               Object[] params,
+                               EventBus eventBus) {
+      return false;
+    }
+
+  }
+
 }
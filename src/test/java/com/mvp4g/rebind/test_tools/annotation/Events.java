@@ -21,11 +21,15 @@ import com.mvp4g.client.annotation.Debug;
 import com.mvp4g.client.annotation.Debug.LogLevel;
 import com.mvp4g.client.annotation.Event;
 import com.mvp4g.client.annotation.Filters;
+import com.mvp4g.client.annotation.FlightRecorder;
 import com.mvp4g.client.annotation.Forward;
 import com.mvp4g.client.annotation.InitHistory;
+import com.mvp4g.client.annotation.Metrics;
 import com.mvp4g.client.annotation.NotFoundHistory;
 import com.mvp4g.client.annotation.PlaceService;
+import com.mvp4g.client.annotation.Profiling;
 import com.mvp4g.client.annotation.Start;
+import com.mvp4g.client.annotation.Tracing;
 import com.mvp4g.client.annotation.module.AfterLoadChildModule;
 import com.mvp4g.client.annotation.module.BeforeLoadChildModule;
 import com.mvp4g.client.annotation.module.ChildModule;
@@ -166,10 +170,13 @@ public class Events {
 
   }
 
-  @ChildModules({ @ChildModule(moduleClass = Modules.Module01.class),
-                  @ChildModule(moduleClass = Modules.ModuleWithParent01.class,
-                               async = false,
-                               autoDisplay = false) })
+  @ChildModules(value = { @ChildModule(moduleClass = Modules.Module01.class,
+                                       prefetch = ChildModule.Prefetch.ON_IDLE),
+                          @ChildModule(moduleClass = Modules.ModuleWithParent01.class,
+                                       async = false,
+                                       autoDisplay = false) },
+                maxLoaded = 1,
+                idleTimeout = 60000)
   @com.mvp4g.client.annotation.Events(startPresenter = PresenterWithName.class)
   public static interface EventBusWithChildren
     extends EventBus {
@@ -371,6 +378,34 @@ public class Events {
 
   }
 
+  @com.mvp4g.client.annotation.Events(startPresenter = PresenterWithName.class)
+  @Metrics
+  public static interface EventBusWithMetrics
+    extends EventBus {
+
+  }
+
+  @com.mvp4g.client.annotation.Events(startPresenter = PresenterWithName.class)
+  @FlightRecorder(capacity = 64)
+  public static interface EventBusWithFlightRecorder
+    extends EventBus {
+
+  }
+
+  @com.mvp4g.client.annotation.Events(startPresenter = PresenterWithName.class)
+  @Tracing
+  public static interface EventBusWithTracing
+    extends EventBus {
+
+  }
+
+  @com.mvp4g.client.annotation.Events(startPresenter = PresenterWithName.class)
+  @Profiling
+  public static interface EventBusWithProfiling
+    extends EventBus {
+
+  }
+
   @com.mvp4g.client.annotation.Events(startPresenter = PresenterWithName.class)
   @Debug(logger = TestLogger.class,
          logLevel = LogLevel.DETAILED)
@@ -390,6 +425,33 @@ public class Events {
     public void event2();
   }
 
+  @com.mvp4g.client.annotation.Events(startPresenter = PresenterWithName.class,
+                                      module = Modules.ModuleWithParent01.class)
+  @ChildModules({ @ChildModule(moduleClass = Modules.ModuleWithParent02.class),
+                  @ChildModule(moduleClass = Modules.ModuleWithParentNoName.class) })
+  public static interface EventBusWithHistoryChild
+    extends EventBus {
+
+    @Event(historyConverterName = "converter")
+    public void event1(String obj);
+
+    @Event(historyConverterName = "converter",
+           name = "historyName")
+    public void event2();
+
+    @Event
+    public void event3();
+  }
+
+  @com.mvp4g.client.annotation.Events(startPresenter = PresenterWithName.class,
+                                      module = Modules.ModuleWithParent02.class)
+  public static interface EventBusWithHistoryGrandChild
+    extends EventBus {
+
+    @Event(historyConverterName = "converter")
+    public void event4();
+  }
+
   @com.mvp4g.client.annotation.Events(startPresenter = PresenterWithName.class)
   @PlaceService(CustomPlaceService.class)
   public static interface EventBusWithHistoryConfig
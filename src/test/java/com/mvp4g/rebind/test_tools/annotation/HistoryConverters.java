@@ -18,6 +18,7 @@ package com.mvp4g.rebind.test_tools.annotation;
 
 import com.mvp4g.client.annotation.History;
 import com.mvp4g.client.annotation.InjectService;
+import com.mvp4g.client.annotation.PureToken;
 import com.mvp4g.client.event.EventBusWithLookup;
 import com.mvp4g.client.history.HistoryConverter;
 import com.mvp4g.rebind.test_tools.annotation.history_converters.BaseHistoryConverter;
@@ -119,4 +120,31 @@ public class HistoryConverters {
 
   }
 
+  @History
+  public static class HistoryConverterWithPureMethod
+    extends BaseHistoryConverter {
+
+    @PureToken
+    public String onPureEvent(String param) {
+      return param;
+    }
+
+    public String onNotPureEvent(String param) {
+      return param;
+    }
+
+  }
+
+  @PureToken
+  @History(type = History.HistoryConverterType.SIMPLE)
+  public static class PureHistoryConverter
+    extends BaseHistoryConverter {
+
+    public String convertToToken(String eventName,
+                                 String param) {
+      return param;
+    }
+
+  }
+
 }
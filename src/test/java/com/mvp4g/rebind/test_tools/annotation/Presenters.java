@@ -20,6 +20,7 @@ import com.mvp4g.client.SingleSplitter;
 import com.mvp4g.client.annotation.InjectService;
 import com.mvp4g.client.annotation.Presenter;
 import com.mvp4g.client.event.EventBus;
+import com.mvp4g.client.event.Recyclable;
 import com.mvp4g.client.presenter.BasePresenter;
 import com.mvp4g.rebind.test_tools.annotation.services.SimpleService;
 import com.mvp4g.rebind.test_tools.annotation.services.SimpleServiceAsync;
@@ -33,6 +34,59 @@ public class Presenters {
     extends BasePresenter<Object, EventBus> {
   }
 
+  @Presenter(view = Object.class,
+             eager = true)
+  public static class EagerPresenter
+    extends BasePresenter<Object, EventBus> {
+  }
+
+  @Presenter(view = Object.class,
+             multiple = true,
+             poolSize = 2)
+  public static class PooledPresenter
+    extends BasePresenter<Object, EventBus>
+    implements Recyclable {
+
+    private int bindCount    = 0;
+    private int recycleCount = 0;
+
+    @Override
+    public void bind() {
+      bindCount++;
+    }
+
+    public void recycle() {
+      recycleCount++;
+    }
+
+    public int getBindCount() {
+      return bindCount;
+    }
+
+    public int getRecycleCount() {
+      return recycleCount;
+    }
+
+  }
+
+  @Presenter(view = Object.class,
+             multiple = true,
+             poolSize = 2)
+  public static class PooledPresenterNotRecyclable
+    extends BasePresenter<Object, EventBus> {
+  }
+
+  @Presenter(view = Object.class,
+             poolSize = 2)
+  public static class PooledPresenterNotMultiple
+    extends BasePresenter<Object, EventBus>
+    implements Recyclable {
+
+    public void recycle() {
+    }
+
+  }
+
   @Presenter(view = Object.class,
              async = SingleSplitter.class)
   public static class AsyncPresenter